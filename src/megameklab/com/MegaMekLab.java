@@ -16,9 +16,7 @@
 
 package megameklab.com;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Locale;
@@ -30,6 +28,7 @@ import megamek.common.logging.LogConfig;
 import megamek.common.logging.LogLevel;
 import megamek.common.logging.MMLogger;
 import megameklab.com.ui.Mek.MainUI;
+import megameklab.com.util.AsyncLogStream;
 
 public class MegaMekLab {
     public static final String VERSION = "0.43.7-git";
@@ -43,6 +42,7 @@ public class MegaMekLab {
         System.setProperty("com.apple.mrj.application.apple.menu.about.name","MegaMekLab");
 
         String logFileName = "./logs/megameklablog.txt";
+        String outputFileName = "./logs/megameklaboutput.txt";
         Locale.setDefault(Locale.US);
 
         //Taharqa: I am not sure why this is here, so I am commenting it
@@ -68,7 +68,7 @@ public class MegaMekLab {
             }
         }
 
-        setupLogging(logs, logFileName);
+        setupLogging(logs, logFileName, outputFileName);
         
         if (vehicle) {
             Runtime runtime = Runtime.getRuntime();
@@ -155,7 +155,8 @@ public class MegaMekLab {
     }
 
     private static void setupLogging(final boolean logs,
-                                     final String logFileName) {
+                                     final String logFileName,
+                                     final String outputFileName) {
         if (logs) {
             try {
                 File logPath = new File("./logs/");
@@ -163,12 +164,10 @@ public class MegaMekLab {
                     logPath.mkdir();
                 }
                 MegaMek.resetLogFile(logFileName);
-                PrintStream ps =
-                        new PrintStream(
-                                new BufferedOutputStream(
-                                        new FileOutputStream(logFileName,
-                                                             true),
-                                        64));
+                // Console output has its own file because the log file is rotated by log4j
+                // (mmconf/log4j.xml). It is written on a background thread so that printing from
+                // the event dispatch thread never waits on the disk.
+                PrintStream ps = new PrintStream(new AsyncLogStream(new File(outputFileName)), false);
                 System.setOut(ps);
                 System.setErr(ps);
             } catch (Exception ex) {
@@ -0,0 +1,59 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.printing;
+
+import java.awt.Graphics;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+import java.awt.print.PrinterException;
+
+/**
+ * A page in a book that repeats an earlier page, used when a roster has several copies of the
+ * same unit. The page is printed by the sheet that printed the original, which for
+ * {@link PrintRecordSheet} draws the diagram it has already filled in rather than building it
+ * again.
+ */
+public class DuplicatePage implements Printable {
+
+    private final Printable original;
+    private final int originalPage;
+
+    /**
+     * @param original     The sheet that prints the original page
+     * @param originalPage The index of the original page in the book
+     */
+    public DuplicatePage(Printable original, int originalPage) {
+        this.original = original;
+        this.originalPage = originalPage;
+    }
+
+    @Override
+    public int print(Graphics graphics, PageFormat pageFormat, int pageIndex) throws PrinterException {
+        return original.print(graphics, pageFormat, originalPage);
+    }
+
+    /**
+     * @return The sheet that prints the original page
+     */
+    public Printable getOriginal() {
+        return original;
+    }
+
+    /**
+     * @return The index of the original page in the book
+     */
+    public int getOriginalPage() {
+        return originalPage;
+    }
+}
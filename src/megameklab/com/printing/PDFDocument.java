@@ -0,0 +1,508 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.printing;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.imageio.ImageIO;
+
+import com.kitfox.svg.MissingGlyph;
+import com.kitfox.svg.util.FontSystem;
+
+/**
+ * Writes a PDF file one page at a time. Everything that can appear on more than one page is
+ * written once and shared by all pages through a single resource dictionary: the fonts, images,
+ * form XObjects for repeated drawings such as the template background and pips, and graphics
+ * states for transparency.
+ *
+ * Text is drawn with Type 3 fonts built from the outlines of the same AWT fonts that
+ * svgSalamander uses, so the glyphs and their spacing match the printed sheet. Each font only
+ * contains the characters used in the document, and is written when the document is closed.
+ */
+final class PDFDocument implements Closeable {
+
+    private static final String VERSION = "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n"; //$NON-NLS-1$
+    /** Type 3 fonts are limited to single byte character codes */
+    private static final int MAX_GLYPHS_PER_FONT = 256;
+    /** Glyph outlines are stored in thousandths of a user unit */
+    private static final double GLYPH_SCALE = 1000.0;
+
+    private final OutputStream out;
+    private long position = 0;
+    private final List<Long> offsets = new ArrayList<>();
+
+    private final int pagesObject;
+    private final int resourcesObject;
+    private final List<Integer> pages = new ArrayList<>();
+
+    private final Map<String, Type3Font> fonts = new LinkedHashMap<>();
+    private final Map<String, FontSystem> systemFonts = new HashMap<>();
+    private final Map<String, String> images = new HashMap<>();
+    private final Map<String, String> forms = new HashMap<>();
+    private final Map<String, Integer> pageContents = new HashMap<>();
+    private final Map<String, String> graphicsStates = new LinkedHashMap<>();
+    private final Map<String, Integer> xObjects = new LinkedHashMap<>();
+
+    PDFDocument(File file) throws IOException {
+        out = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+        write(VERSION);
+        pagesObject = reserve();
+        resourcesObject = reserve();
+    }
+
+    /**
+     * Adds a page. Pages with the same content share a single content stream.
+     *
+     * @param width   The width of the page in points
+     * @param height  The height of the page in points
+     * @param content The drawing operators for the page
+     */
+    void addPage(double width, double height, String content) throws IOException {
+        final byte[] data = content.getBytes(StandardCharsets.ISO_8859_1);
+        final String key = digest(data);
+        Integer contentObject = pageContents.get(key);
+        if (null == contentObject) {
+            contentObject = writeStream(reserve(), "", data); //$NON-NLS-1$
+            pageContents.put(key, contentObject);
+        }
+        final int page = reserve();
+        StringBuilder dict = new StringBuilder("<< /Type /Page /Parent ").append(pagesObject) //$NON-NLS-1$
+                .append(" 0 R /MediaBox [0 0 "); //$NON-NLS-1$
+        SVGFormat.append(dict, width).append(' ');
+        SVGFormat.append(dict, height).append("] /Resources ").append(resourcesObject) //$NON-NLS-1$
+                .append(" 0 R /Contents ").append(contentObject).append(" 0 R >>"); //$NON-NLS-1$ //$NON-NLS-2$
+        writeObject(page, dict.toString());
+        pages.add(page);
+    }
+
+    /**
+     * @return The number of pages added so far
+     */
+    int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Writes drawing operators as a form XObject, unless the same operators have already been
+     * written.
+     *
+     * @return The resource name of the form
+     */
+    String getForm(String content) throws IOException {
+        final byte[] data = content.getBytes(StandardCharsets.ISO_8859_1);
+        final String key = digest(data);
+        String name = forms.get(key);
+        if (null == name) {
+            name = "X" + xObjects.size(); //$NON-NLS-1$
+            final int obj = writeStream(reserve(), "/Type /XObject /Subtype /Form " //$NON-NLS-1$
+                    + "/BBox [-100000 -100000 100000 100000] /Resources " + resourcesObject + " 0 R", //$NON-NLS-1$ //$NON-NLS-2$
+                    data);
+            xObjects.put(name, obj);
+            forms.put(key, name);
+        }
+        return name;
+    }
+
+    /**
+     * Writes an image as an image XObject, unless the same image has already been written. JPEG
+     * files are copied into the document as they are; other formats are decoded and compressed.
+     *
+     * @param data The contents of an image file
+     * @return     The resource name of the image, or null if it cannot be read
+     */
+    String getImage(byte[] data) throws IOException {
+        final String key = digest(data);
+        if (images.containsKey(key)) {
+            return images.get(key);
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+        String name = null;
+        if (null != image) {
+            name = "X" + xObjects.size(); //$NON-NLS-1$
+            xObjects.put(name, writeImage(image, data));
+        }
+        images.put(key, name);
+        return name;
+    }
+
+    private int writeImage(BufferedImage image, byte[] data) throws IOException {
+        final int w = image.getWidth();
+        final int h = image.getHeight();
+        final Raster raster = image.getRaster();
+        final ColorModel cm = image.getColorModel();
+        // A palette image has one band but its entries may be in color
+        final boolean gray = (cm.getColorSpace().getType() == ColorSpace.TYPE_GRAY)
+                && !(cm instanceof IndexColorModel);
+        final String header = "/Type /XObject /Subtype /Image /Width " + w + " /Height " + h //$NON-NLS-1$ //$NON-NLS-2$
+                + " /BitsPerComponent 8 /ColorSpace " + (gray ? "/DeviceGray" : "/DeviceRGB"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        final boolean jpeg = (data.length > 2) && ((data[0] & 0xff) == 0xff) && ((data[1] & 0xff) == 0xd8);
+        if (jpeg && !cm.hasAlpha()
+                && ((raster.getNumBands() == 3) || gray)) {
+            final int obj = reserve();
+            beginObject(obj);
+            write("<< " + header + " /Filter /DCTDecode /Length " + data.length + " >>\nstream\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            write(data);
+            write("\nendstream\n"); //$NON-NLS-1$
+            endObject();
+            return obj;
+        }
+        final boolean alpha = cm.hasAlpha();
+        byte[] color = new byte[w * h * (gray ? 1 : 3)];
+        byte[] mask = alpha ? new byte[w * h] : null;
+        int c = 0;
+        int m = 0;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                final int argb = image.getRGB(x, y);
+                if (gray) {
+                    color[c++] = (byte) (argb & 0xff);
+                } else {
+                    color[c++] = (byte) (argb >> 16);
+                    color[c++] = (byte) (argb >> 8);
+                    color[c++] = (byte) argb;
+                }
+                if (alpha) {
+                    mask[m++] = (byte) (argb >>> 24);
+                }
+            }
+        }
+        String smask = ""; //$NON-NLS-1$
+        if (alpha) {
+            smask = " /SMask " + writeStream(reserve(), "/Type /XObject /Subtype /Image /Width " + w //$NON-NLS-1$ //$NON-NLS-2$
+                    + " /Height " + h + " /BitsPerComponent 8 /ColorSpace /DeviceGray", mask) + " 0 R"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        return writeStream(reserve(), header + smask, color);
+    }
+
+    /**
+     * Gets the resource name of a graphics state with the given fill and stroke opacity.
+     */
+    String getGraphicsState(double fillOpacity, double strokeOpacity) {
+        StringBuilder key = new StringBuilder("<< /ca "); //$NON-NLS-1$
+        SVGFormat.append(key, fillOpacity).append(" /CA "); //$NON-NLS-1$
+        SVGFormat.append(key, strokeOpacity).append(" >>"); //$NON-NLS-1$
+        return graphicsStates.computeIfAbsent(key.toString(), k -> "G" + graphicsStates.size()); //$NON-NLS-1$
+    }
+
+    /**
+     * Gets the font that svgSalamander uses for a text style. The arguments are the same as for
+     * {@link FontSystem#FontSystem(String, int, int, int)}.
+     */
+    FontSystem getSystemFont(String family, int style, int weight, int size) {
+        final String key = family + "|" + style + "|" + weight + "|" + size; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        return systemFonts.computeIfAbsent(key, k -> new FontSystem(family, style, weight, size));
+    }
+
+    /**
+     * Finds the character code for a glyph in a font for the given text style, adding it to the
+     * font subset if it is not there yet.
+     *
+     * @param fontKey Identifies the text style; glyphs from different keys are never mixed
+     * @param ch      The character, which identifies the glyph within the style
+     * @param glyph   The glyph
+     * @return        The font resource name and the character code
+     */
+    GlyphCode getGlyphCode(String fontKey, String ch, MissingGlyph glyph) {
+        for (int i = 0;; i++) {
+            final String key = (i == 0) ? fontKey : fontKey + "#" + i; //$NON-NLS-1$
+            Type3Font font = fonts.get(key);
+            if (null == font) {
+                font = new Type3Font("F" + fonts.size(), reserve()); //$NON-NLS-1$
+                fonts.put(key, font);
+            }
+            Integer code = font.codes.get(ch);
+            if ((null == code) && (font.glyphs.size() < MAX_GLYPHS_PER_FONT)) {
+                code = font.glyphs.size();
+                font.codes.put(ch, code);
+                font.glyphs.add(glyph);
+                font.chars.add(ch);
+            }
+            if (null != code) {
+                return new GlyphCode(font.name, code);
+            }
+        }
+    }
+
+    /**
+     * Writes the fonts, the shared resources, the page tree, and the cross reference table.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            StringBuilder fontDict = new StringBuilder();
+            for (Type3Font font : fonts.values()) {
+                writeFont(font);
+                fontDict.append('/').append(font.name).append(' ').append(font.object).append(" 0 R "); //$NON-NLS-1$
+            }
+            StringBuilder resources = new StringBuilder("<< /ProcSet [/PDF /Text /ImageB /ImageC]"); //$NON-NLS-1$
+            if (fontDict.length() > 0) {
+                resources.append(" /Font << ").append(fontDict).append(">>"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            if (!xObjects.isEmpty()) {
+                resources.append(" /XObject << "); //$NON-NLS-1$
+                for (Map.Entry<String, Integer> e : xObjects.entrySet()) {
+                    resources.append('/').append(e.getKey()).append(' ').append(e.getValue()).append(" 0 R "); //$NON-NLS-1$
+                }
+                resources.append(">>"); //$NON-NLS-1$
+            }
+            if (!graphicsStates.isEmpty()) {
+                resources.append(" /ExtGState << "); //$NON-NLS-1$
+                for (Map.Entry<String, String> e : graphicsStates.entrySet()) {
+                    resources.append('/').append(e.getValue()).append(' ').append(e.getKey()).append(' ');
+                }
+                resources.append(">>"); //$NON-NLS-1$
+            }
+            writeObject(resourcesObject, resources.append(" >>").toString()); //$NON-NLS-1$
+
+            StringBuilder kids = new StringBuilder();
+            for (Integer page : pages) {
+                kids.append(page).append(" 0 R "); //$NON-NLS-1$
+            }
+            writeObject(pagesObject, "<< /Type /Pages /Kids [" + kids + "] /Count " + pages.size() + " >>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            final int catalog = reserve();
+            writeObject(catalog, "<< /Type /Catalog /Pages " + pagesObject + " 0 R >>"); //$NON-NLS-1$ //$NON-NLS-2$
+            final int info = reserve();
+            writeObject(info, "<< /Producer (MegaMekLab) >>"); //$NON-NLS-1$
+
+            final long xref = position;
+            StringBuilder sb = new StringBuilder("xref\n0 ").append(offsets.size() + 1) //$NON-NLS-1$
+                    .append("\n0000000000 65535 f \n"); //$NON-NLS-1$
+            for (Long offset : offsets) {
+                sb.append(String.format("%010d 00000 n \n", offset)); //$NON-NLS-1$
+            }
+            sb.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root ").append(catalog) //$NON-NLS-1$ //$NON-NLS-2$
+                    .append(" 0 R /Info ").append(info).append(" 0 R >>\nstartxref\n").append(xref) //$NON-NLS-1$ //$NON-NLS-2$
+                    .append("\n%%EOF\n"); //$NON-NLS-1$
+            write(sb.toString());
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeFont(Type3Font font) throws IOException {
+        final Rectangle2D bbox = new Rectangle2D.Double();
+        StringBuilder procs = new StringBuilder();
+        StringBuilder widths = new StringBuilder();
+        StringBuilder differences = new StringBuilder();
+        StringBuilder toUnicode = new StringBuilder();
+        for (int code = 0; code < font.glyphs.size(); code++) {
+            final MissingGlyph glyph = font.glyphs.get(code);
+            final long width = Math.round(glyph.getHorizAdvX() * GLYPH_SCALE);
+            StringBuilder proc = new StringBuilder();
+            final Shape path = glyph.getPath();
+            final Rectangle2D bounds = (null == path) ? null : path.getBounds2D();
+            if ((null == bounds) || bounds.isEmpty()) {
+                proc.append(width).append(" 0 0 0 0 0 d1\n"); //$NON-NLS-1$
+            } else {
+                final long llx = (long) Math.floor(bounds.getMinX() * GLYPH_SCALE);
+                final long lly = (long) Math.floor(-bounds.getMaxY() * GLYPH_SCALE);
+                final long urx = (long) Math.ceil(bounds.getMaxX() * GLYPH_SCALE);
+                final long ury = (long) Math.ceil(-bounds.getMinY() * GLYPH_SCALE);
+                proc.append(width).append(" 0 ").append(llx).append(' ').append(lly).append(' ') //$NON-NLS-1$
+                        .append(urx).append(' ').append(ury).append(" d1\n"); //$NON-NLS-1$
+                appendGlyphPath(proc, path);
+                bbox.add(new Rectangle2D.Double(llx, lly, urx - llx, ury - lly));
+            }
+            final int obj = writeStream(reserve(), "", proc.toString().getBytes(StandardCharsets.ISO_8859_1)); //$NON-NLS-1$
+            procs.append("/g").append(code).append(' ').append(obj).append(" 0 R "); //$NON-NLS-1$ //$NON-NLS-2$
+            widths.append(width).append(' ');
+            differences.append("/g").append(code); //$NON-NLS-1$
+            toUnicode.append(String.format("<%02X> <", code)); //$NON-NLS-1$
+            // UTF-16BE, so a character outside the BMP is written as its surrogate pair
+            for (char c : font.chars.get(code).toCharArray()) {
+                toUnicode.append(String.format("%04X", (int) c)); //$NON-NLS-1$
+            }
+            toUnicode.append(">\n"); //$NON-NLS-1$
+        }
+        final int cmap = writeStream(reserve(), "", ("/CIDInit /ProcSet findresource begin\n" //$NON-NLS-1$ //$NON-NLS-2$
+                + "12 dict begin\nbegincmap\n/CMapName /MML-UCS def\n/CMapType 2 def\n" //$NON-NLS-1$
+                + "1 begincodespacerange\n<00> <FF>\nendcodespacerange\n" //$NON-NLS-1$
+                + font.glyphs.size() + " beginbfchar\n" + toUnicode + "endbfchar\n" //$NON-NLS-1$ //$NON-NLS-2$
+                + "endcmap\nCMapName currentdict /CMap defineresource pop\nend\nend\n") //$NON-NLS-1$
+                .getBytes(StandardCharsets.ISO_8859_1));
+        writeObject(font.object, "<< /Type /Font /Subtype /Type3 /FontBBox [" //$NON-NLS-1$
+                + (long) bbox.getMinX() + " " + (long) bbox.getMinY() + " " //$NON-NLS-1$ //$NON-NLS-2$
+                + (long) bbox.getMaxX() + " " + (long) bbox.getMaxY() + "]" //$NON-NLS-1$ //$NON-NLS-2$
+                + " /FontMatrix [0.001 0 0 0.001 0 0] /CharProcs << " + procs + ">>" //$NON-NLS-1$ //$NON-NLS-2$
+                + " /Encoding << /Type /Encoding /Differences [0 " + differences + "] >>" //$NON-NLS-1$ //$NON-NLS-2$
+                + " /FirstChar 0 /LastChar " + (font.glyphs.size() - 1) + " /Widths [" + widths + "]" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                + " /Resources << >> /ToUnicode " + cmap + " 0 R >>"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Appends a glyph outline in glyph space, which has the y axis pointing up and is scaled by
+     * {@link #GLYPH_SCALE}, so the coordinates can be written as integers.
+     */
+    private static void appendGlyphPath(StringBuilder sb, Shape path) {
+        final double[] c = new double[6];
+        double lastX = 0;
+        double lastY = 0;
+        PathIterator iter = path.getPathIterator(null);
+        for (; !iter.isDone(); iter.next()) {
+            switch (iter.currentSegment(c)) {
+                case PathIterator.SEG_MOVETO:
+                    appendGlyphPoints(sb, c, 1).append("m\n"); //$NON-NLS-1$
+                    lastX = c[0];
+                    lastY = c[1];
+                    break;
+                case PathIterator.SEG_LINETO:
+                    appendGlyphPoints(sb, c, 1).append("l\n"); //$NON-NLS-1$
+                    lastX = c[0];
+                    lastY = c[1];
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    final double[] cubic = {
+                            lastX + 2.0 / 3.0 * (c[0] - lastX), lastY + 2.0 / 3.0 * (c[1] - lastY),
+                            c[2] + 2.0 / 3.0 * (c[0] - c[2]), c[3] + 2.0 / 3.0 * (c[1] - c[3]),
+                            c[2], c[3] };
+                    appendGlyphPoints(sb, cubic, 3).append("c\n"); //$NON-NLS-1$
+                    lastX = c[2];
+                    lastY = c[3];
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    appendGlyphPoints(sb, c, 3).append("c\n"); //$NON-NLS-1$
+                    lastX = c[4];
+                    lastY = c[5];
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    sb.append("h\n"); //$NON-NLS-1$
+                    break;
+            }
+        }
+        sb.append((iter.getWindingRule() == PathIterator.WIND_EVEN_ODD) ? "f*\n" : "f\n"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static StringBuilder appendGlyphPoints(StringBuilder sb, double[] c, int points) {
+        for (int i = 0; i < points; i++) {
+            sb.append(Math.round(c[i * 2] * GLYPH_SCALE)).append(' ')
+                    .append(Math.round(-c[i * 2 + 1] * GLYPH_SCALE)).append(' ');
+        }
+        return sb;
+    }
+
+    private int reserve() {
+        offsets.add(-1L);
+        return offsets.size();
+    }
+
+    private void beginObject(int obj) throws IOException {
+        offsets.set(obj - 1, position);
+        write(obj + " 0 obj\n"); //$NON-NLS-1$
+    }
+
+    private void endObject() throws IOException {
+        write("endobj\n"); //$NON-NLS-1$
+    }
+
+    private void writeObject(int obj, String content) throws IOException {
+        beginObject(obj);
+        write(content);
+        write("\n"); //$NON-NLS-1$
+        endObject();
+    }
+
+    /**
+     * Writes a stream object compressed with the Flate filter.
+     *
+     * @param dict Entries for the stream dictionary other than the length and filter
+     * @return     The object number
+     */
+    private int writeStream(int obj, String dict, byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 3 + 64);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed,
+                new Deflater(Deflater.BEST_COMPRESSION))) {
+            deflater.write(data);
+        }
+        beginObject(obj);
+        write("<< " + dict + (dict.isEmpty() ? "" : " ") + "/Filter /FlateDecode /Length " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                + compressed.size() + " >>\nstream\n"); //$NON-NLS-1$
+        write(compressed.toByteArray());
+        write("\nendstream\n"); //$NON-NLS-1$
+        endObject();
+        return obj;
+    }
+
+    private void write(String s) throws IOException {
+        write(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void write(byte[] data) throws IOException {
+        out.write(data);
+        position += data.length;
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            StringBuilder sb = new StringBuilder(40);
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(data)) { //$NON-NLS-1$
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-1.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * The font resource and character code for a glyph.
+     */
+    static final class GlyphCode {
+        final String font;
+        final int code;
+
+        private GlyphCode(String font, int code) {
+            this.font = font;
+            this.code = code;
+        }
+    }
+
+    private static final class Type3Font {
+        private final String name;
+        private final int object;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<MissingGlyph> glyphs = new ArrayList<>();
+        private final List<String> chars = new ArrayList<>();
+
+        private Type3Font(String name, int object) {
+            this.name = name;
+            this.object = object;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.printing;
+
+import java.awt.Component;
+import java.awt.print.Book;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+import java.awt.print.PrinterException;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import com.kitfox.svg.SVGDiagram;
+import com.kitfox.svg.SVGException;
+
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Writes a book of record sheets to a PDF file as a background task, then reports the result on
+ * the event dispatch thread. The pages are written directly from the record sheet diagrams rather
+ * than through the print system, so only sheets drawn from SVG templates
+ * ({@link PrintRecordSheet}) can be exported; other pages are left out and counted in the result.
+ */
+public class PDFExportTask extends SwingWorker<int[], Void> {
+
+    private final Component parent;
+    private final Book book;
+    private final File target;
+
+    public PDFExportTask(Component parent, Book book, File target) {
+        this.parent = parent;
+        this.book = book;
+        this.target = target;
+    }
+
+    @Override
+    protected int[] doInBackground() throws Exception {
+        return write(book, target);
+    }
+
+    /**
+     * Writes the pages of a book to a PDF file. A {@link DuplicatePage} reuses the content of the
+     * page it repeats.
+     *
+     * @param book   The record sheets
+     * @param target The file to write
+     * @return       The number of pages written and the number of pages that could not be
+     *               exported
+     */
+    public static int[] write(Book book, File target) throws IOException, PrinterException, SVGException {
+        int skipped = 0;
+        // Page content by the index of the page in the book
+        Map<Integer, String> contents = new HashMap<>();
+        try (PDFDocument document = new PDFDocument(target)) {
+            PDFPageRenderer renderer = new PDFPageRenderer(document);
+            for (int i = 0; i < book.getNumberOfPages(); i++) {
+                Printable printable = book.getPrintable(i);
+                int page = i;
+                if (printable instanceof DuplicatePage) {
+                    page = ((DuplicatePage) printable).getOriginalPage();
+                    printable = ((DuplicatePage) printable).getOriginal();
+                }
+                final PageFormat pageFormat = book.getPageFormat(i);
+                String content = contents.get(page);
+                if ((null == content) && (printable instanceof PrintRecordSheet)) {
+                    final PrintRecordSheet sheet = (PrintRecordSheet) printable;
+                    final SVGDiagram diagram = sheet.createDocument(null, pageFormat, page);
+                    if (null != diagram) {
+                        content = renderer.renderPage(sheet, diagram, pageFormat);
+                        contents.put(page, content);
+                    }
+                }
+                if (null == content) {
+                    skipped++;
+                } else {
+                    document.addPage(pageFormat.getWidth(), pageFormat.getHeight(), content);
+                }
+            }
+            return new int[] { document.getPageCount(), skipped };
+        }
+    }
+
+    @Override
+    protected void done() {
+        final String METHOD_NAME = "done()"; //$NON-NLS-1$
+        try {
+            final int[] pages = get();
+            String message = pages[0] + " pages written to " + target.getPath();
+            if (pages[1] > 0) {
+                message += "\n" + pages[1] + " pages were left out. Only 'Mech record sheets can be exported to PDF.";
+            }
+            JOptionPane.showMessageDialog(parent, message);
+        } catch (InterruptedException | ExecutionException ex) {
+            Throwable cause = (null != ex.getCause()) ? ex.getCause() : ex;
+            MegaMekLab.getLogger().log(PDFExportTask.class, METHOD_NAME, LogLevel.ERROR,
+                    "Could not write " + target.getPath());
+            MegaMekLab.getLogger().log(PDFExportTask.class, METHOD_NAME, cause);
+            JOptionPane.showMessageDialog(parent, "Could not write " + target.getPath()
+                    + "\n" + cause.getMessage(), "Export Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
@@ -0,0 +1,692 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.printing;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.PathIterator;
+import java.awt.print.PageFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import com.kitfox.svg.ClipPath;
+import com.kitfox.svg.Group;
+import com.kitfox.svg.ImageSVG;
+import com.kitfox.svg.Marker;
+import com.kitfox.svg.MissingGlyph;
+import com.kitfox.svg.SVGDiagram;
+import com.kitfox.svg.SVGElement;
+import com.kitfox.svg.SVGException;
+import com.kitfox.svg.SVGRoot;
+import com.kitfox.svg.ShapeElement;
+import com.kitfox.svg.Symbol;
+import com.kitfox.svg.Text;
+import com.kitfox.svg.Tspan;
+import com.kitfox.svg.Use;
+import com.kitfox.svg.util.FontSystem;
+import com.kitfox.svg.xml.StyleAttribute;
+
+/**
+ * Converts a filled in record sheet diagram to PDF drawing operators, walking the SVG tree the
+ * way svgSalamander does when it draws the diagram, so the page looks the same as the printed
+ * sheet.
+ *
+ * Groups with a lot of content and everything referenced by a <code>use</code> element, such as
+ * the pips, are written as form XObjects. Identical forms are only written once per document, so
+ * the template background and pips are shared by every page that has them.
+ */
+final class PDFPageRenderer {
+
+    /** Groups with at least this many bytes of content are written as shared forms. */
+    private static final int FORM_SIZE = 2048;
+
+    private final PDFDocument document;
+    private PrintRecordSheet sheet;
+    private SVGDiagram diagram;
+
+    PDFPageRenderer(PDFDocument document) {
+        this.document = document;
+    }
+
+    /**
+     * Converts the diagram for a page. Resources used by the page are added to the document.
+     *
+     * @param sheet      The record sheet that filled in the diagram
+     * @param diagram    The diagram for the page
+     * @param pageFormat The page size and imageable area
+     * @return           The drawing operators for the page
+     */
+    String renderPage(PrintRecordSheet sheet, SVGDiagram diagram, PageFormat pageFormat)
+            throws SVGException, IOException {
+        this.sheet = sheet;
+        this.diagram = diagram;
+        StringBuilder sb = new StringBuilder(64 * 1024);
+        // PDF has the origin at the bottom of the page with the y axis pointing up.
+        sb.append("1 0 0 -1 0 "); //$NON-NLS-1$
+        SVGFormat.append(sb, pageFormat.getHeight()).append(" cm\n"); //$NON-NLS-1$
+        transform(sb, AffineTransform.getTranslateInstance(pageFormat.getImageableX(),
+                pageFormat.getImageableY()));
+        transform(sb, getViewTransform(diagram.getRoot()));
+        renderChildren(diagram.getRoot(), sb);
+        return sb.toString();
+    }
+
+    /**
+     * Maps the viewBox of the root element to the device viewport, as
+     * {@link SVGRoot#renderToViewport(java.awt.Graphics2D)} does.
+     */
+    private AffineTransform getViewTransform(SVGRoot root) throws SVGException {
+        final Rectangle device = diagram.getDeviceViewport();
+        double x = getFloatPres(root, "x", 0); //$NON-NLS-1$
+        double y = getFloatPres(root, "y", 0); //$NON-NLS-1$
+        double width = getFloatPres(root, "width", device.width); //$NON-NLS-1$
+        double height = getFloatPres(root, "height", device.height); //$NON-NLS-1$
+        AffineTransform xform = AffineTransform.getTranslateInstance(x, y);
+        StyleAttribute attr = new StyleAttribute("viewBox"); //$NON-NLS-1$
+        if (root.getPres(attr)) {
+            float[] viewBox = attr.getFloatList();
+            if ((viewBox.length == 4) && (viewBox[2] > 0) && (viewBox[3] > 0)) {
+                xform.scale(width / viewBox[2], height / viewBox[3]);
+                xform.translate(-viewBox[0], -viewBox[1]);
+            }
+        }
+        return xform;
+    }
+
+    private void renderChildren(SVGElement parent, StringBuilder sb) throws SVGException, IOException {
+        for (int i = 0; i < parent.getNumChildren(); i++) {
+            renderElement(parent.getChild(i), sb);
+        }
+    }
+
+    private void renderElement(SVGElement element, StringBuilder sb) throws SVGException, IOException {
+        // Symbols and markers are only drawn where they are referenced.
+        if ((element instanceof Symbol) || (element instanceof Marker)) {
+            return;
+        } else if (element instanceof Group) {
+            renderGroup((Group) element, sb);
+        } else if (element instanceof Use) {
+            renderUse((Use) element, sb);
+        } else if (element instanceof Text) {
+            renderText((Text) element, sb);
+        } else if (element instanceof ShapeElement) {
+            renderShape((ShapeElement) element, sb);
+        } else if (element instanceof ImageSVG) {
+            renderImage((ImageSVG) element, sb);
+        }
+        // Everything else, such as defs, clip paths, and metadata, is not drawn directly.
+    }
+
+    private void renderGroup(Group group, StringBuilder sb) throws SVGException, IOException {
+        if (isDisplayNone(group)) {
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        renderChildren(group, content);
+        if (content.length() == 0) {
+            return;
+        }
+        sb.append("q\n"); //$NON-NLS-1$
+        transform(sb, group.getXForm());
+        clip(group, sb);
+        if (content.length() >= FORM_SIZE) {
+            sb.append('/').append(document.getForm(content.toString())).append(" Do\n"); //$NON-NLS-1$
+        } else {
+            sb.append(content);
+        }
+        sb.append("Q\n"); //$NON-NLS-1$
+    }
+
+    private void renderUse(Use use, StringBuilder sb) throws SVGException, IOException {
+        if (!isVisible(use)) {
+            return;
+        }
+        StyleAttribute attr = new StyleAttribute("xlink:href"); //$NON-NLS-1$
+        if (!use.getPres(attr)) {
+            return;
+        }
+        final URI uri = attr.getURIValue(use.getXMLBase());
+        final SVGElement ref = (null == uri) ? null : diagram.getUniverse().getElement(uri);
+        if (null == ref) {
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        if (ref instanceof Symbol) {
+            renderChildren(ref, content);
+        } else {
+            renderElement(ref, content);
+        }
+        if (content.length() == 0) {
+            return;
+        }
+        sb.append("q\n"); //$NON-NLS-1$
+        transform(sb, use.getXForm());
+        clip(use, sb);
+        transform(sb, AffineTransform.getTranslateInstance(getFloatPres(use, "x", 0), //$NON-NLS-1$
+                getFloatPres(use, "y", 0))); //$NON-NLS-1$
+        sb.append('/').append(document.getForm(content.toString())).append(" Do\nQ\n"); //$NON-NLS-1$
+    }
+
+    private void renderShape(ShapeElement element, StringBuilder sb) throws SVGException {
+        if (!isVisible(element)) {
+            return;
+        }
+        Shape shape = element.getShape();
+        if ((null == shape) || shape.getPathIterator(null).isDone()) {
+            return;
+        }
+        // The shape includes the transform of the element, which is applied separately so that
+        // the stroke width is scaled by it as well.
+        final AffineTransform xform = element.getXForm();
+        if ((null != xform) && !xform.isIdentity()) {
+            try {
+                shape = xform.createInverse().createTransformedShape(shape);
+            } catch (NoninvertibleTransformException ex) {
+                return;
+            }
+        }
+        final Color fill = getColor(element, "fill", Color.BLACK); //$NON-NLS-1$
+        final Color stroke = getColor(element, "stroke", null); //$NON-NLS-1$
+        if ((null == fill) && (null == stroke)) {
+            return;
+        }
+        sb.append("q\n"); //$NON-NLS-1$
+        transform(sb, xform);
+        clip(element, sb);
+        setPaint(element, fill, stroke, sb);
+        final boolean evenOdd = appendPath(sb, shape);
+        if ((null != fill) && (null != stroke)) {
+            sb.append(evenOdd ? "B*\n" : "B\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        } else if (null != fill) {
+            sb.append(evenOdd ? "f*\n" : "f\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        } else {
+            sb.append("S\n"); //$NON-NLS-1$
+        }
+        sb.append("Q\n"); //$NON-NLS-1$
+    }
+
+    private void renderImage(ImageSVG image, StringBuilder sb) throws SVGException, IOException {
+        if (!isVisible(image) || (image.getWidth() <= 0) || (image.getHeight() <= 0)) {
+            return;
+        }
+        final byte[] data = getImageData(image);
+        final String name = (null == data) ? null : document.getImage(data);
+        if (null == name) {
+            return;
+        }
+        sb.append("q\n"); //$NON-NLS-1$
+        transform(sb, image.getXForm());
+        clip(image, sb);
+        // Image space has the first row at the top, which is y = 1.
+        transform(sb, new AffineTransform(image.getWidth(), 0, 0, -image.getHeight(),
+                image.getX(), image.getY() + image.getHeight()));
+        sb.append('/').append(name).append(" Do\nQ\n"); //$NON-NLS-1$
+    }
+
+    /**
+     * Reads the image file for an image element. Fluff images added by the record sheet are read
+     * from their original file, and images in the template from their data URLs.
+     */
+    private byte[] getImageData(ImageSVG image) throws SVGException, IOException {
+        final File file = sheet.getEmbeddedImageFile(image);
+        if (null != file) {
+            return Files.readAllBytes(file.toPath());
+        }
+        StyleAttribute attr = new StyleAttribute("xlink:href"); //$NON-NLS-1$
+        if (!image.getPres(attr)) {
+            return null;
+        }
+        final String href = attr.getStringValue().trim();
+        if (href.startsWith("data:")) { //$NON-NLS-1$
+            final int comma = href.indexOf(',');
+            if ((comma < 0) || !href.substring(0, comma).endsWith(";base64")) { //$NON-NLS-1$
+                return null;
+            }
+            try {
+                return Base64.getMimeDecoder().decode(href.substring(comma + 1));
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+        final URL url = attr.getURLValue(image.getXMLBase());
+        if (null == url) {
+            return null;
+        }
+        try (InputStream is = url.openStream()) {
+            return readAll(is);
+        }
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) > 0) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Draws text with the glyphs placed where svgSalamander places them in
+     * {@link Text#rebuild()}. Glyphs are drawn as text with subset fonts where possible; rotated
+     * glyphs and stroked text are drawn as outlines.
+     */
+    private void renderText(Text text, StringBuilder sb) throws SVGException {
+        if (!isVisible(text)) {
+            return;
+        }
+        final Color fill = getColor(text, "fill", Color.BLACK); //$NON-NLS-1$
+        final Color stroke = getColor(text, "stroke", null); //$NON-NLS-1$
+        if ((null == fill) && (null == stroke)) {
+            return;
+        }
+        List<PlacedGlyph> glyphs = new ArrayList<>();
+        GeneralPath outline = new GeneralPath();
+        final TextFont textFont = getTextFont(text);
+        double cursorX = getFloatPres(text, "x", 0); //$NON-NLS-1$
+        double cursorY = getFloatPres(text, "y", 0); //$NON-NLS-1$
+        boolean rotated = false;
+        for (Object content : text.getContent()) {
+            if (content instanceof String) {
+                final String s = ((String) content).trim();
+                // One glyph per code point, so a supplementary character is not split in two
+                for (int i = 0, next; i < s.length(); i = next) {
+                    next = s.offsetByCodePoints(i, 1);
+                    final String ch = s.substring(i, next);
+                    PlacedGlyph g = new PlacedGlyph(textFont, ch, cursorX, cursorY, 0);
+                    g.appendTo(outline);
+                    glyphs.add(g);
+                    cursorX += g.glyph.getHorizAdvX();
+                }
+            } else if (content instanceof Tspan) {
+                final Tspan tspan = (Tspan) content;
+                final TextFont spanFont = getTextFont(tspan);
+                final float letterSpacing = getFloatStyle(tspan, "letter-spacing", 0); //$NON-NLS-1$
+                final float[] x = getFloatListPres(tspan, "x"); //$NON-NLS-1$
+                final float[] y = getFloatListPres(tspan, "y"); //$NON-NLS-1$
+                final float[] dx = getFloatListPres(tspan, "dx"); //$NON-NLS-1$
+                final float[] dy = getFloatListPres(tspan, "dy"); //$NON-NLS-1$
+                final float[] rotate = getFloatListPres(tspan, "rotate"); //$NON-NLS-1$
+                final String s = tspan.getText().trim();
+                for (int i = 0, next; i < s.length(); i = next) {
+                    next = s.offsetByCodePoints(i, 1);
+                    if ((null != x) && (i < x.length)) {
+                        cursorX = x[i];
+                    } else if ((null != dx) && (i < dx.length)) {
+                        cursorX += dx[i];
+                    }
+                    if ((null != y) && (i < y.length)) {
+                        cursorY = y[i];
+                    } else if ((null != dy) && (i < dy.length)) {
+                        cursorY += dy[i];
+                    }
+                    final double angle = ((null != rotate) && (i < rotate.length)) ? rotate[i] : 0;
+                    rotated |= angle != 0;
+                    PlacedGlyph g = new PlacedGlyph(spanFont, s.substring(i, next), cursorX, cursorY, angle);
+                    g.appendTo(outline);
+                    glyphs.add(g);
+                    cursorX += g.glyph.getHorizAdvX() + letterSpacing;
+                }
+            }
+        }
+        if (glyphs.isEmpty()) {
+            return;
+        }
+
+        double shift = 0;
+        StyleAttribute attr = new StyleAttribute("text-anchor"); //$NON-NLS-1$
+        if (text.getStyle(attr)) {
+            // svgSalamander uses the integer bounds of the outline.
+            final double width = outline.getBounds().getWidth();
+            if ("middle".equals(attr.getStringValue())) { //$NON-NLS-1$
+                shift = -width / 2;
+            } else if ("end".equals(attr.getStringValue())) { //$NON-NLS-1$
+                shift = -width;
+            }
+        }
+
+        sb.append("q\n"); //$NON-NLS-1$
+        transform(sb, text.getXForm());
+        clip(text, sb);
+        setPaint(text, fill, stroke, sb);
+        if ((null != stroke) || rotated) {
+            outline.transform(AffineTransform.getTranslateInstance(shift, 0));
+            final boolean evenOdd = appendPath(sb, outline);
+            if ((null != fill) && (null != stroke)) {
+                sb.append(evenOdd ? "B*\n" : "B\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            } else if (null != fill) {
+                sb.append(evenOdd ? "f*\n" : "f\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            } else {
+                sb.append("S\n"); //$NON-NLS-1$
+            }
+        } else {
+            appendGlyphs(sb, glyphs, shift);
+        }
+        sb.append("Q\n"); //$NON-NLS-1$
+    }
+
+    /**
+     * Writes a text object for the glyphs. A glyph that starts where the previous one ended in
+     * the same font continues the current string; otherwise a new text matrix is set, which
+     * also flips the y axis back so the glyphs are upright.
+     */
+    private void appendGlyphs(StringBuilder sb, List<PlacedGlyph> glyphs, double shift) {
+        sb.append("BT\n"); //$NON-NLS-1$
+        String currentFont = null;
+        boolean inString = false;
+        double nextX = Double.NaN;
+        double nextY = Double.NaN;
+        for (PlacedGlyph g : glyphs) {
+            final PDFDocument.GlyphCode code = document.getGlyphCode(g.font.key, g.ch, g.glyph);
+            final double x = g.x + shift;
+            final boolean sameFont = code.font.equals(currentFont);
+            if (!sameFont || (Math.abs(x - nextX) > 0.0005) || (Math.abs(g.y - nextY) > 0.0005)) {
+                if (inString) {
+                    sb.append("> Tj\n"); //$NON-NLS-1$
+                    inString = false;
+                }
+                if (!sameFont) {
+                    sb.append('/').append(code.font).append(" 1 Tf\n"); //$NON-NLS-1$
+                    currentFont = code.font;
+                }
+                sb.append("1 0 0 -1 "); //$NON-NLS-1$
+                SVGFormat.append(sb, x).append(' ');
+                SVGFormat.append(sb, g.y).append(" Tm\n"); //$NON-NLS-1$
+            }
+            if (!inString) {
+                sb.append('<');
+                inString = true;
+            }
+            sb.append(Character.forDigit(code.code >> 4, 16)).append(Character.forDigit(code.code & 0xf, 16));
+            nextX = x + g.glyph.getHorizAdvX();
+            nextY = g.y;
+        }
+        if (inString) {
+            sb.append("> Tj\n"); //$NON-NLS-1$
+        }
+        sb.append("ET\n"); //$NON-NLS-1$
+    }
+
+    /**
+     * Reads the font attributes of a text or tspan element with the defaults used by
+     * svgSalamander.
+     */
+    private TextFont getTextFont(SVGElement element) throws SVGException {
+        StyleAttribute attr = new StyleAttribute("font-family"); //$NON-NLS-1$
+        final String family = element.getStyle(attr) ? attr.getStringValue() : "Sans Serif"; //$NON-NLS-1$
+        final int size = (int) getFloatStyle(element, "font-size", 12); //$NON-NLS-1$
+        int style = Text.TXST_NORMAL;
+        if (element.getStyle(attr.setName("font-style"))) { //$NON-NLS-1$
+            if ("italic".equals(attr.getStringValue())) { //$NON-NLS-1$
+                style = Text.TXST_ITALIC;
+            } else if ("oblique".equals(attr.getStringValue())) { //$NON-NLS-1$
+                style = Text.TXST_OBLIQUE;
+            }
+        }
+        int weight = Text.TXWE_NORMAL;
+        if (element.getStyle(attr.setName("font-weight")) //$NON-NLS-1$
+                && "bold".equals(attr.getStringValue())) { //$NON-NLS-1$
+            weight = Text.TXWE_BOLD;
+        }
+        return new TextFont(family, style, weight, size);
+    }
+
+    private class TextFont {
+        private final String key;
+        private final FontSystem font;
+
+        private TextFont(String family, int style, int weight, int size) {
+            key = family + "|" + style + "|" + weight + "|" + size; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            font = document.getSystemFont(family, style, weight, size);
+        }
+    }
+
+    private static class PlacedGlyph {
+        private final TextFont font;
+        private final String ch;
+        private final MissingGlyph glyph;
+        private final double x;
+        private final double y;
+        private final double rotate;
+
+        private PlacedGlyph(TextFont font, String ch, double x, double y, double rotate) {
+            this.font = font;
+            this.ch = ch;
+            this.glyph = font.font.getGlyph(ch);
+            this.x = x;
+            this.y = y;
+            this.rotate = rotate;
+        }
+
+        private void appendTo(GeneralPath outline) {
+            final Shape path = glyph.getPath();
+            if (null != path) {
+                AffineTransform xform = AffineTransform.getTranslateInstance(x, y);
+                if (rotate != 0) {
+                    xform.rotate(rotate);
+                }
+                outline.append(xform.createTransformedShape(path), false);
+            }
+        }
+    }
+
+    /**
+     * Sets the colors, opacity, and stroke style for an element.
+     */
+    private void setPaint(SVGElement element, Color fill, Color stroke, StringBuilder sb)
+            throws SVGException {
+        final float opacity = getRatioStyle(element, "opacity"); //$NON-NLS-1$
+        final float fillOpacity = (null == fill) ? 1 : opacity * getRatioStyle(element, "fill-opacity"); //$NON-NLS-1$
+        final float strokeOpacity = (null == stroke) ? 1 : opacity * getRatioStyle(element, "stroke-opacity"); //$NON-NLS-1$
+        if ((fillOpacity < 1) || (strokeOpacity < 1)) {
+            sb.append('/').append(document.getGraphicsState(fillOpacity, strokeOpacity)).append(" gs\n"); //$NON-NLS-1$
+        }
+        if (null != fill) {
+            appendColor(sb, fill).append("rg\n"); //$NON-NLS-1$
+        }
+        if (null != stroke) {
+            appendColor(sb, stroke).append("RG\n"); //$NON-NLS-1$
+            SVGFormat.append(sb, getFloatStyle(element, "stroke-width", 1)).append(" w\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            StyleAttribute attr = new StyleAttribute("stroke-linecap"); //$NON-NLS-1$
+            if (element.getStyle(attr)) {
+                if ("round".equals(attr.getStringValue())) { //$NON-NLS-1$
+                    sb.append("1 J\n"); //$NON-NLS-1$
+                } else if ("square".equals(attr.getStringValue())) { //$NON-NLS-1$
+                    sb.append("2 J\n"); //$NON-NLS-1$
+                }
+            }
+            if (element.getStyle(attr.setName("stroke-linejoin"))) { //$NON-NLS-1$
+                if ("round".equals(attr.getStringValue())) { //$NON-NLS-1$
+                    sb.append("1 j\n"); //$NON-NLS-1$
+                } else if ("bevel".equals(attr.getStringValue())) { //$NON-NLS-1$
+                    sb.append("2 j\n"); //$NON-NLS-1$
+                }
+            }
+            SVGFormat.append(sb, getFloatStyle(element, "stroke-miterlimit", 4)).append(" M\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            if (element.getStyle(attr.setName("stroke-dasharray")) //$NON-NLS-1$
+                    && !"none".equals(attr.getStringValue())) { //$NON-NLS-1$
+                final float[] dashes = attr.getFloatList();
+                if ((null != dashes) && (dashes.length > 0)) {
+                    sb.append('[');
+                    for (float dash : dashes) {
+                        SVGFormat.append(sb, dash).append(' ');
+                    }
+                    sb.append("] "); //$NON-NLS-1$
+                    SVGFormat.append(sb, getFloatStyle(element, "stroke-dashoffset", 0)).append(" d\n"); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a fill or stroke color. Paint servers such as gradients are not used by the record
+     * sheets and are treated as no paint.
+     */
+    private static Color getColor(SVGElement element, String name, Color defaultColor) throws SVGException {
+        StyleAttribute attr = new StyleAttribute(name);
+        if (!element.getStyle(attr)) {
+            return defaultColor;
+        }
+        final String value = attr.getStringValue();
+        if ((null == value) || "none".equals(value) || value.startsWith("url(")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return null;
+        }
+        if ("currentColor".equals(value)) { //$NON-NLS-1$
+            return element.getStyle(attr.setName("color")) ? attr.getColorValue() : Color.BLACK; //$NON-NLS-1$
+        }
+        return attr.getColorValue();
+    }
+
+    private static StringBuilder appendColor(StringBuilder sb, Color color) {
+        SVGFormat.append(sb, color.getRed() / 255.0).append(' ');
+        SVGFormat.append(sb, color.getGreen() / 255.0).append(' ');
+        return SVGFormat.append(sb, color.getBlue() / 255.0).append(' ');
+    }
+
+    /**
+     * Sets the clip path of an element, if it has one.
+     */
+    private void clip(SVGElement element, StringBuilder sb) throws SVGException {
+        StyleAttribute attr = new StyleAttribute("clip-path"); //$NON-NLS-1$
+        if (!element.getStyle(attr, false)) {
+            return;
+        }
+        final URI uri = attr.getURIValue(element.getXMLBase());
+        final SVGElement ref = (null == uri) ? null : diagram.getUniverse().getElement(uri);
+        if ((ref instanceof ClipPath)
+                && (((ClipPath) ref).getClipPathUnits() == ClipPath.CP_USER_SPACE_ON_USE)) {
+            final Shape shape = ((ClipPath) ref).getClipPathShape();
+            if ((null == shape) || shape.getPathIterator(null).isDone()) {
+                // An empty clip path hides the element.
+                sb.append("0 0 0 0 re W n\n"); //$NON-NLS-1$
+            } else {
+                sb.append(appendPath(sb, shape) ? "W* n\n" : "W n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+    }
+
+    private static boolean isVisible(SVGElement element) throws SVGException {
+        StyleAttribute attr = new StyleAttribute("visibility"); //$NON-NLS-1$
+        if (element.getStyle(attr) && !"visible".equals(attr.getStringValue())) { //$NON-NLS-1$
+            return false;
+        }
+        return !isDisplayNone(element);
+    }
+
+    private static boolean isDisplayNone(SVGElement element) throws SVGException {
+        StyleAttribute attr = new StyleAttribute("display"); //$NON-NLS-1$
+        return element.getStyle(attr) && "none".equals(attr.getStringValue()); //$NON-NLS-1$
+    }
+
+    private static float getFloatStyle(SVGElement element, String name, float defaultValue)
+            throws SVGException {
+        StyleAttribute attr = new StyleAttribute(name);
+        return element.getStyle(attr) ? attr.getFloatValueWithUnits() : defaultValue;
+    }
+
+    private static float getRatioStyle(SVGElement element, String name) throws SVGException {
+        StyleAttribute attr = new StyleAttribute(name);
+        return element.getStyle(attr) ? attr.getRatioValue() : 1;
+    }
+
+    private static float getFloatPres(SVGElement element, String name, float defaultValue)
+            throws SVGException {
+        StyleAttribute attr = new StyleAttribute(name);
+        return element.getPres(attr) ? attr.getFloatValueWithUnits() : defaultValue;
+    }
+
+    private static float[] getFloatListPres(SVGElement element, String name) throws SVGException {
+        StyleAttribute attr = new StyleAttribute(name);
+        return element.getPres(attr) ? attr.getFloatList() : null;
+    }
+
+    /**
+     * Appends a transformation matrix, unless it is the identity.
+     */
+    private static void transform(StringBuilder sb, AffineTransform xform) {
+        if ((null == xform) || xform.isIdentity()) {
+            return;
+        }
+        SVGFormat.append(sb, xform.getScaleX()).append(' ');
+        SVGFormat.append(sb, xform.getShearY()).append(' ');
+        SVGFormat.append(sb, xform.getShearX()).append(' ');
+        SVGFormat.append(sb, xform.getScaleY()).append(' ');
+        SVGFormat.append(sb, xform.getTranslateX()).append(' ');
+        SVGFormat.append(sb, xform.getTranslateY()).append(" cm\n"); //$NON-NLS-1$
+    }
+
+    /**
+     * Appends the path construction operators for a shape.
+     *
+     * @return Whether the shape uses the even-odd fill rule
+     */
+    private static boolean appendPath(StringBuilder sb, Shape shape) {
+        final double[] c = new double[6];
+        double lastX = 0;
+        double lastY = 0;
+        PathIterator iter = shape.getPathIterator(null);
+        for (; !iter.isDone(); iter.next()) {
+            switch (iter.currentSegment(c)) {
+                case PathIterator.SEG_MOVETO:
+                    appendPoints(sb, c, 1).append("m\n"); //$NON-NLS-1$
+                    lastX = c[0];
+                    lastY = c[1];
+                    break;
+                case PathIterator.SEG_LINETO:
+                    appendPoints(sb, c, 1).append("l\n"); //$NON-NLS-1$
+                    lastX = c[0];
+                    lastY = c[1];
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    final double[] cubic = {
+                            lastX + 2.0 / 3.0 * (c[0] - lastX), lastY + 2.0 / 3.0 * (c[1] - lastY),
+                            c[2] + 2.0 / 3.0 * (c[0] - c[2]), c[3] + 2.0 / 3.0 * (c[1] - c[3]),
+                            c[2], c[3] };
+                    appendPoints(sb, cubic, 3).append("c\n"); //$NON-NLS-1$
+                    lastX = c[2];
+                    lastY = c[3];
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    appendPoints(sb, c, 3).append("c\n"); //$NON-NLS-1$
+                    lastX = c[4];
+                    lastY = c[5];
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    sb.append("h\n"); //$NON-NLS-1$
+                    break;
+            }
+        }
+        return iter.getWindingRule() == PathIterator.WIND_EVEN_ODD;
+    }
+
+    private static StringBuilder appendPoints(StringBuilder sb, double[] c, int points) {
+        for (int i = 0; i < points * 2; i++) {
+            SVGFormat.append(sb, c[i]).append(' ');
+        }
+        return sb;
+    }
+}
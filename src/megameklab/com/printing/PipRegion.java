@@ -0,0 +1,441 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.printing;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.kitfox.svg.Rect;
+import com.kitfox.svg.SVGElement;
+import com.kitfox.svg.SVGException;
+
+/**
+ * The geometry of a region of a record sheet that armor or structure pips are placed in. The
+ * region is described by the rows of pips that fit in it at full size. To fit more pips than
+ * that the rows are repeatedly scaled down by 10% until there is room; each of these scale steps
+ * is computed once, up to enough room for {@link #PRECOMPUTED_PIPS}, so that placing pips only
+ * has to choose a step. Larger counts are computed when they are requested.
+ *
+ * Regions are immutable, so they can be shared between record sheets and written to the sidecar
+ * files read by {@link PipRegionCache}.
+ *
+ * @author Neoancient
+ */
+public final class PipRegion {
+
+    /**
+     * The default height of a row of pips, which is the spacing used if a scale step has no rows
+     */
+    public static final double DEFAULT_ROW_HEIGHT = 6.15152;
+
+    /**
+     * The scale steps that are computed in advance give room for at least this many pips.
+     */
+    public static final int PRECOMPUTED_PIPS = 200;
+
+    /**
+     * Limits the steps computed in advance for a region too small to ever hold
+     * {@link #PRECOMPUTED_PIPS}.
+     */
+    private static final int MAX_PRECOMPUTED_STEPS = 40;
+
+    private final List<Rectangle2D> source;
+    private final List<Rectangle2D> regions;
+    private final double aspect;
+    private final double centerLine;
+    private final List<Step> steps;
+
+    /**
+     * Computes the region from the rows that describe it.
+     *
+     * @param source The bounds of each row, in document order
+     */
+    public PipRegion(List<Rectangle2D> source) {
+        this(source, null);
+    }
+
+    /**
+     * Restores a region from a sidecar file, or computes the steps if they are null.
+     */
+    PipRegion(List<Rectangle2D> source, List<Step> precomputed) {
+        this.source = Collections.unmodifiableList(new ArrayList<>(source));
+        double left = Double.MAX_VALUE;
+        double top = Double.MAX_VALUE;
+        double right = 0;
+        double bottom = 0;
+        for (Rectangle2D bbox : source) {
+            if (bbox.getX() < left) {
+                left = bbox.getX();
+            }
+            if (bbox.getY() < top) {
+                top = bbox.getY();
+            }
+            if (bbox.getX() + bbox.getWidth() > right) {
+                right = bbox.getX() + bbox.getWidth();
+            }
+            if (bbox.getY() + bbox.getHeight() > bottom) {
+                bottom = bbox.getY() + bbox.getHeight();
+            }
+        }
+        Rectangle2D bounds = new Rectangle2D.Double(left, top, right - left, bottom - top);
+        aspect = bounds.getWidth() / bounds.getHeight();
+        centerLine = source.get(0).getX() + source.get(0).getWidth() / 2.0;
+
+        List<Rectangle2D> sorted = new ArrayList<>(source);
+        Collections.sort(sorted, (r1, r2) -> (int) r1.getY() - (int) r2.getY());
+        regions = Collections.unmodifiableList(sorted);
+
+        List<Step> list = new ArrayList<>();
+        if (null != precomputed) {
+            list.addAll(precomputed);
+        } else {
+            Step step = null;
+            do {
+                step = nextStep(step);
+                list.add(step);
+            } while ((step.totalPips < PRECOMPUTED_PIPS) && (list.size() < MAX_PRECOMPUTED_STEPS));
+        }
+        steps = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return The bounds of the <rect> children of the group, in document order
+     */
+    public static List<Rectangle2D> collectRows(SVGElement group) throws SVGException {
+        List<Rectangle2D> rows = new ArrayList<>();
+        for (int i = 0; i < group.getNumChildren(); i++) {
+            final SVGElement r = group.getChild(i);
+            if (r instanceof Rect) {
+                rows.add(((Rect) r).getBoundingBox());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Fills a shape with rows of pips. Each row overlaps the one above it so that the pips in
+     * alternate rows can be staggered, and is as wide as the shape at both its top and bottom
+     * edges.
+     *
+     * @param shape  The outline of the region
+     * @param height The height of each row
+     * @param at     A transform to apply to the outline, or null
+     * @return       The bounds of each row, from top to bottom
+     */
+    public static List<Rectangle2D> rowsForShape(Shape shape, double height, AffineTransform at) {
+        Rectangle2D bbox = shape.getBounds2D();
+        List<Rectangle2D> rows = new ArrayList<>();
+        double curY = bbox.getY() + 0.5; // add a bit of a margin
+        do {
+            List<Double> top = findIntersections(curY, shape.getPathIterator(at));
+            List<Double> bottom = findIntersections(curY + height, shape.getPathIterator(at));
+            if ((top.size() > 1) && (bottom.size() > 1)) {
+                Collections.sort(top);
+                Collections.sort(bottom);
+                double x1 = Math.max(top.get(0), bottom.get(0)) + 0.5;
+                double x2 = Math.min(top.get(top.size() - 1) - 1.0,
+                        bottom.get(bottom.size() - 1));
+                rows.add(new Rectangle2D.Double(x1, curY, x2 - x1, height));
+            }
+            curY += height * 0.866;
+        } while (curY + height + 0.5 < bbox.getY() + bbox.getHeight());
+        return rows;
+    }
+
+    /**
+     * @return The x coordinates at which the path crosses the horizontal line at curY
+     */
+    public static List<Double> findIntersections(double curY, PathIterator iter) {
+        double[] coords = new double[6];
+        double[] curPos = new double[2];
+        double[] start = new double[6];
+        double dy = 0;
+        List<Double> intersections = new ArrayList<>();
+        iter.currentSegment(start);
+        while (!iter.isDone()) {
+            int type = iter.currentSegment(coords);
+            double x = 0;
+            double y = 0;
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                    dy = curY - coords[1];
+                    curPos[0] = coords[0];
+                    curPos[1] = coords[1];
+                    iter.next();
+                    continue;
+                case PathIterator.SEG_LINETO:
+                    x = coords[0];
+                    y = coords[1];
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    x = coords[2];
+                    y = coords[3];
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    x = coords[4];
+                    y = coords[5];
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    x = start[0];
+                    y = start[1];
+                    break;
+            }
+            double dy1 = curY - y;
+            if ((curPos[1] != y) && (dy * dy1 <= 0)) {
+                intersections.add(getLineX(curY, curPos[0], curPos[1], x, y));
+            }
+            curPos[0] = x;
+            curPos[1] = y;
+            dy = dy1;
+            iter.next();
+        }
+        return intersections;
+    }
+
+    /**
+     * Given a y coordinate, find the corresponding x coordinate  on the given line. This does not
+     * check whether the point is actually within the bounds of the segment or whether the segment
+     * has a slope of zero.
+     *
+     * @return    The x coordinate of the point.
+     */
+    private static double getLineX(double y, double x1, double y1, double x2, double y2) {
+        return x1 + (y - y1)/(y2 - y1) * (x2 - x1);
+    }
+
+    /**
+     * @return The rows the region was computed from, in document order
+     */
+    public List<Rectangle2D> getSource() {
+        return source;
+    }
+
+    /**
+     * @return The aspect ratio of the region (w/h)
+     */
+    public double getAspect() {
+        return aspect;
+    }
+
+    /**
+     * @return The x coordinate of the middle of the first row, which pips are centered on
+     */
+    public double getCenterLine() {
+        return centerLine;
+    }
+
+    /**
+     * @return The scale steps that were computed in advance, largest first
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return The first scale step with room for the number of pips
+     */
+    public Step getStep(int pipCount) {
+        for (Step step : steps) {
+            if (step.totalPips >= pipCount) {
+                return step;
+            }
+        }
+        Step step = steps.get(steps.size() - 1);
+        while (step.totalPips < pipCount) {
+            step = nextStep(step);
+        }
+        return step;
+    }
+
+    /**
+     * Computes the rows for the scale step that follows the previous one, or the first one at
+     * full scale.
+     */
+    private Step nextStep(Step prev) {
+        final double scale = (null == prev) ? 1.0 : prev.scale * 0.9;
+        int maxWidth = (null == prev) ? 0 : prev.maxWidth;
+        double spacing = (null == prev) ? DEFAULT_ROW_HEIGHT : prev.spacing;
+
+        final List<Rectangle2D> rows = rescaleRows(regions, scale);
+        // Maximum number of pips that can be displayed on each row
+        final int[] rowLength = new int[rows.size()];
+        final int[][] halfPipCount = new int[rows.size()][];
+        int totalPips = 0;
+        double prevRowBottom = 0;
+        int centerPip = 0;
+        spacing = rows.stream().mapToDouble(Rectangle2D::getHeight).min().orElse(spacing);
+        for (int i = 0; i < rows.size(); i++) {
+            final Rectangle2D rect = rows.get(i);
+            int halfPipsLeft = (int) ((centerLine - rect.getX()) / (spacing / 2));
+            int halfPipsRight = (int) ((rect.getX() + rect.getWidth() - centerLine) / (spacing / 2));
+            if ((i > 0) && (rect.getY() < prevRowBottom)) {
+                centerPip = (1 - centerPip);
+                if (halfPipsLeft %2 != centerPip) {
+                    halfPipsLeft--;
+                }
+                if (halfPipsRight %2 != centerPip) {
+                    halfPipsRight--;
+                }
+                rowLength[i] = (halfPipsLeft + halfPipsRight) / 2;
+            } else {
+                rowLength[i] = (halfPipsLeft + halfPipsRight) / 2;
+                centerPip = rowLength[i] % 2;
+            }
+            if (rowLength[i] > maxWidth) {
+                maxWidth = rowLength[i];
+            }
+            halfPipCount[i] = new int[] { halfPipsLeft, halfPipsRight };
+            totalPips += rowLength[i];
+            prevRowBottom = rect.getY() + spacing;
+        }
+        return new Step(scale, rows, rowLength, halfPipCount, maxWidth, spacing, totalPips);
+    }
+
+    /**
+     * Creates a new set pip row regions sized according to the scaling factor.
+     *
+     * @param list  The rectangular regions describing pip rows in the SVG diagram.
+     * @param scale The scaling factor
+     * @return      A list of rectangular regions scaled according to the provided factor.
+     */
+    private static List<Rectangle2D> rescaleRows(List<Rectangle2D> rows, double scale) {
+        if (rows.isEmpty() || (rows.size() == Math.floor(rows.size() * scale))) {
+            return rows;
+        }
+        List<Rectangle2D> retVal = new ArrayList<>();
+        // We need to account for the possibility of gaps between some rows, so we split the
+        // list into sublists of contiguous regions.
+        List<List<Rectangle2D>> groups = new ArrayList<>();
+        List<Rectangle2D> group = new ArrayList<>();
+        for (int r = 0; r < rows.size(); r++) {
+            final Rectangle2D rect = rows.get(r);
+            group.add(rows.get(r));
+            if ((r + 1 < rows.size()) && rows.get(r + 1).getY() > rect.getY() + rect.getHeight()) {
+                groups.add(group);
+                group = new ArrayList<>();
+            }
+        }
+        if (group.size() > 0) {
+            groups.add(group);
+        }
+
+        for (List<Rectangle2D> list : groups) {
+            Rectangle2D rect = list.get(0);
+            Rectangle2D rect2 = null;
+            double yPos = rect.getY();
+            double height = list.get(list.size() - 1).getY() + list.get(list.size() - 1).getHeight();
+            double dy = scale * height / list.size();
+            double rowHeight = dy / 0.866;
+
+            int r = 0;
+            while ((r < list.size()) && (yPos + rowHeight <= height)) {
+                rect = list.get(r);
+                if (r + 1 < list.size()) {
+                    rect2 = list.get(r + 1);
+                } else {
+                    rect2 = null;
+                }
+
+                if ((rect2 == null) || (rect2.getY() > yPos)) {
+                    retVal.add(new Rectangle2D.Double(rect.getX(), yPos,
+                            rect.getWidth(), rowHeight));
+                } else {
+                    double left = Math.max(rect.getX(), rect2.getX());
+                    double right = Math.min(rect.getX() + rect.getWidth(), rect2.getX() + rect2.getWidth());
+                    retVal.add(new Rectangle2D.Double(left, yPos, right - left, rowHeight));
+                }
+
+                yPos += dy;
+                if (yPos > rect.getY() + rect.getHeight()) {
+                    r++;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The rows of pips at one scale.
+     */
+    public static final class Step {
+        private final double scale;
+        private final List<Rectangle2D> rows;
+        private final int[] rowLength;
+        private final int[][] halfPipCount;
+        private final int maxWidth;
+        private final double spacing;
+        private final int totalPips;
+
+        Step(double scale, List<Rectangle2D> rows, int[] rowLength, int[][] halfPipCount,
+                int maxWidth, double spacing, int totalPips) {
+            this.scale = scale;
+            this.rows = Collections.unmodifiableList(rows);
+            this.rowLength = rowLength;
+            this.halfPipCount = halfPipCount;
+            this.maxWidth = maxWidth;
+            this.spacing = spacing;
+            this.totalPips = totalPips;
+        }
+
+        public double getScale() {
+            return scale;
+        }
+
+        public List<Rectangle2D> getRows() {
+            return rows;
+        }
+
+        /**
+         * @return The maximum number of pips that can be displayed on the row
+         */
+        public int getRowLength(int row) {
+            return rowLength[row];
+        }
+
+        /**
+         * @return The number of half pips that fit in the row on the left (0) or right (1) of
+         *         the center line
+         */
+        public int getHalfPipCount(int row, int side) {
+            return halfPipCount[row][side];
+        }
+
+        /**
+         * @return The number of pips in the longest row of this or any larger step
+         */
+        public int getMaxWidth() {
+            return maxWidth;
+        }
+
+        /**
+         * @return The distance between pips, which is the height of the shortest row
+         */
+        public double getSpacing() {
+            return spacing;
+        }
+
+        /**
+         * @return The number of pips that fit in all the rows
+         */
+        public int getTotalPips() {
+            return totalPips;
+        }
+    }
+}
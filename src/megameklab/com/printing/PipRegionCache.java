@@ -0,0 +1,330 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.printing;
+
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import com.kitfox.svg.Path;
+import com.kitfox.svg.SVGDiagram;
+import com.kitfox.svg.SVGElement;
+import com.kitfox.svg.SVGException;
+import com.kitfox.svg.SVGUniverse;
+
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Supplies the {@link PipRegion} for each pip group of a record sheet template. The regions of
+ * all the templates are generated ahead of time by running {@link megameklab.com.util.PipLayoutHelper}
+ * with <code>-batch</code> (the <code>pips</code> target of the ant build), which writes a sidecar
+ * file next to each template with the same name and the extension {@link #SIDECAR_EXTENSION}. The
+ * sidecars are committed with the templates. Each records a checksum of the template it was
+ * generated from, and is ignored if the template has changed since, so they should be
+ * regenerated along with any change to a template.
+ *
+ * A region that is not in a valid sidecar is computed from the template the first time it is
+ * needed and kept for the rest of the session, so printing still works without the sidecars,
+ * just more slowly.
+ *
+ * A pip group is a <g> element whose id contains "Pips" or starts with "shieldD". Its
+ * region is described by its <rect> children, or if it has none by the outline of its first
+ * <path> child.
+ */
+public final class PipRegionCache {
+
+    public static final String SIDECAR_EXTENSION = ".pips"; //$NON-NLS-1$
+
+    private static final String TEMPLATE = "template"; //$NON-NLS-1$
+    private static final String REGION = "region"; //$NON-NLS-1$
+    private static final String SOURCE = "source"; //$NON-NLS-1$
+    private static final String STEP = "step"; //$NON-NLS-1$
+    private static final String ROW = "row"; //$NON-NLS-1$
+    private static final String END = "end"; //$NON-NLS-1$
+
+    /** Regions read from the sidecar files, by template path and group id */
+    private static final Map<String, Map<String, PipRegion>> sidecars = new ConcurrentHashMap<>();
+    /** Regions computed during this session because they were not in a sidecar */
+    private static final Map<String, PipRegion> computed = new ConcurrentHashMap<>();
+
+    private PipRegionCache() {
+    }
+
+    /**
+     * @param template The template file the group was loaded from
+     * @param group    The pip group
+     * @return         The region, or null if the group does not describe one
+     */
+    public static PipRegion get(File template, SVGElement group) throws SVGException {
+        final String id = group.getId();
+        final PipRegion region = sidecars.computeIfAbsent(template.getPath(),
+                k -> readSidecar(template)).get(id);
+        if (null != region) {
+            return region;
+        }
+        final String key = template.getPath() + "#" + id; //$NON-NLS-1$
+        PipRegion retVal = computed.get(key);
+        if (null == retVal) {
+            retVal = createRegion(group);
+            if (null != retVal) {
+                computed.put(key, retVal);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return Whether the element id is one used for a group of pips
+     */
+    public static boolean isPipGroup(String id) {
+        return (null != id) && (id.contains("Pips") || id.startsWith("shieldD")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * @return The region described by the group, or null if it has no rows
+     */
+    public static PipRegion createRegion(SVGElement group) throws SVGException {
+        List<Rectangle2D> rows = PipRegion.collectRows(group);
+        if (rows.isEmpty()) {
+            for (int i = 0; i < group.getNumChildren(); i++) {
+                if (group.getChild(i) instanceof Path) {
+                    rows = PipRegion.rowsForShape(((Path) group.getChild(i)).getShape(),
+                            PipRegion.DEFAULT_ROW_HEIGHT, null);
+                    break;
+                }
+            }
+        }
+        return rows.isEmpty() ? null : new PipRegion(rows);
+    }
+
+    /**
+     * @return The sidecar file for the template
+     */
+    public static File getSidecarFile(File template) {
+        final String name = template.getName();
+        final int dot = name.lastIndexOf('.');
+        return new File(template.getParentFile(),
+                ((dot > 0) ? name.substring(0, dot) : name) + SIDECAR_EXTENSION);
+    }
+
+    /**
+     * Computes the regions of every pip group in the template.
+     *
+     * @return The regions by group id, in document order
+     */
+    public static Map<String, PipRegion> generate(File template) throws IOException, SVGException {
+        // Each template gets its own universe so that several can be loaded at once.
+        SVGUniverse universe = new SVGUniverse();
+        SVGDiagram diagram;
+        try (InputStream fileStream = new FileInputStream(template)) {
+            URI uri = universe.loadSVG(fileStream, template.toString());
+            diagram = universe.getDiagram(uri);
+        }
+        if (null == diagram) {
+            throw new IOException("Could not parse " + template); //$NON-NLS-1$
+        }
+        Map<String, PipRegion> regions = new LinkedHashMap<>();
+        addRegions(diagram.getRoot(), regions);
+        return regions;
+    }
+
+    private static void addRegions(SVGElement element, Map<String, PipRegion> regions)
+            throws SVGException {
+        if (isPipGroup(element.getId())) {
+            final PipRegion region = createRegion(element);
+            if (null != region) {
+                regions.put(element.getId(), region);
+            }
+        }
+        for (int i = 0; i < element.getNumChildren(); i++) {
+            addRegions(element.getChild(i), regions);
+        }
+    }
+
+    /**
+     * Generates the regions of the template and writes them to its sidecar file. A template
+     * without any pip groups does not get a sidecar.
+     *
+     * @return The number of regions written
+     */
+    public static int writeSidecar(File template) throws IOException, SVGException {
+        final long checksum = checksum(template);
+        final Map<String, PipRegion> regions = generate(template);
+        if (regions.isEmpty()) {
+            Files.deleteIfExists(getSidecarFile(template).toPath());
+            return 0;
+        }
+        try (BufferedWriter w = Files.newBufferedWriter(getSidecarFile(template).toPath(),
+                StandardCharsets.UTF_8)) {
+            w.write("# Pip regions for " + template.getName() //$NON-NLS-1$
+                    + ", generated by PipLayoutHelper -batch. Do not edit.\n"); //$NON-NLS-1$
+            w.write(TEMPLATE + " " + Long.toHexString(checksum) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            for (Map.Entry<String, PipRegion> e : regions.entrySet()) {
+                final PipRegion region = e.getValue();
+                w.write(REGION + " " + e.getKey() + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+                for (Rectangle2D rect : region.getSource()) {
+                    w.write(SOURCE + " " + format(rect) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                for (PipRegion.Step step : region.getSteps()) {
+                    w.write(STEP + " " + step.getScale() + " " + step.getMaxWidth() //$NON-NLS-1$ //$NON-NLS-2$
+                            + " " + step.getSpacing() + " " + step.getTotalPips() + "\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    for (int r = 0; r < step.getRows().size(); r++) {
+                        w.write(ROW + " " + format(step.getRows().get(r)) //$NON-NLS-1$
+                                + " " + step.getRowLength(r) //$NON-NLS-1$
+                                + " " + step.getHalfPipCount(r, 0) //$NON-NLS-1$
+                                + " " + step.getHalfPipCount(r, 1) + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+                    }
+                }
+                w.write(END + "\n"); //$NON-NLS-1$
+            }
+        }
+        return regions.size();
+    }
+
+    private static String format(Rectangle2D rect) {
+        // Double.toString gives the shortest text that parses back to the same value.
+        return rect.getX() + " " + rect.getY() + " " + rect.getWidth() + " " + rect.getHeight(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    /**
+     * Reads the sidecar file of the template, if there is one that matches the template.
+     *
+     * @return The regions by group id; empty if there is no usable sidecar
+     */
+    private static Map<String, PipRegion> readSidecar(File template) {
+        final String METHOD_NAME = "readSidecar(File)"; //$NON-NLS-1$
+        final File file = getSidecarFile(template);
+        if (!file.exists()) {
+            return Collections.emptyMap();
+        }
+        Map<String, PipRegion> regions = new ConcurrentHashMap<>();
+        try (BufferedReader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String id = null;
+            List<Rectangle2D> source = new ArrayList<>();
+            List<PipRegion.Step> steps = new ArrayList<>();
+            StepData step = null;
+            boolean verified = false;
+            String line;
+            while (null != (line = r.readLine())) {
+                if (line.isEmpty() || line.startsWith("#")) { //$NON-NLS-1$
+                    continue;
+                }
+                final String[] fields = line.split(" "); //$NON-NLS-1$
+                switch (fields[0]) {
+                    case TEMPLATE:
+                        if (Long.parseLong(fields[1], 16) != checksum(template)) {
+                            MegaMekLab.getLogger().log(PipRegionCache.class, METHOD_NAME,
+                                    LogLevel.WARNING, file + " is out of date and will be ignored;" //$NON-NLS-1$
+                                            + " run PipLayoutHelper -batch to regenerate it."); //$NON-NLS-1$
+                            return Collections.emptyMap();
+                        }
+                        verified = true;
+                        break;
+                    case REGION:
+                        if (!verified) {
+                            throw new IOException("No template checksum"); //$NON-NLS-1$
+                        }
+                        id = fields[1];
+                        source.clear();
+                        steps.clear();
+                        step = null;
+                        break;
+                    case SOURCE:
+                        source.add(parseRect(fields));
+                        break;
+                    case STEP:
+                        if (null != step) {
+                            steps.add(step.toStep());
+                        }
+                        step = new StepData(Double.parseDouble(fields[1]), Integer.parseInt(fields[2]),
+                                Double.parseDouble(fields[3]), Integer.parseInt(fields[4]));
+                        break;
+                    case ROW:
+                        step.rows.add(parseRect(fields));
+                        step.rowLength.add(Integer.parseInt(fields[5]));
+                        step.halfPipCount.add(new int[] {
+                                Integer.parseInt(fields[6]), Integer.parseInt(fields[7]) });
+                        break;
+                    case END:
+                        if (null != step) {
+                            steps.add(step.toStep());
+                        }
+                        regions.put(id, new PipRegion(source, steps));
+                        step = null;
+                        break;
+                    default:
+                        throw new IOException("Unexpected line: " + line); //$NON-NLS-1$
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            MegaMekLab.getLogger().log(PipRegionCache.class, METHOD_NAME, LogLevel.WARNING,
+                    "Could not read " + file + ": " + ex); //$NON-NLS-1$ //$NON-NLS-2$
+            return Collections.emptyMap();
+        }
+        return regions;
+    }
+
+    private static Rectangle2D parseRect(String[] fields) {
+        return new Rectangle2D.Double(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]),
+                Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+    }
+
+    private static long checksum(File template) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(template.toPath()));
+        return crc.getValue();
+    }
+
+    /**
+     * A scale step being read from a sidecar
+     */
+    private static class StepData {
+        private final double scale;
+        private final int maxWidth;
+        private final double spacing;
+        private final int totalPips;
+        private final List<Rectangle2D> rows = new ArrayList<>();
+        private final List<Integer> rowLength = new ArrayList<>();
+        private final List<int[]> halfPipCount = new ArrayList<>();
+
+        private StepData(double scale, int maxWidth, double spacing, int totalPips) {
+            this.scale = scale;
+            this.maxWidth = maxWidth;
+            this.spacing = spacing;
+            this.totalPips = totalPips;
+        }
+
+        private PipRegion.Step toStep() {
+            return new PipRegion.Step(scale, rows,
+                    rowLength.stream().mapToInt(Integer::intValue).toArray(),
+                    halfPipCount.toArray(new int[halfPipCount.size()][]),
+                    maxWidth, spacing, totalPips);
+        }
+    }
+}
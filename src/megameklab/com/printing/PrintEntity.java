@@ -38,6 +38,7 @@ import megamek.common.UnitRoleHandler;
 import megamek.common.options.IOption;
 import megamek.common.options.IOptionGroup;
 import megamek.common.options.PilotOptions;
+import megameklab.com.util.ValuationCache;
 
 /**
  * Base class for printing Entity record sheets
@@ -97,7 +98,7 @@ public abstract class PrintEntity extends PrintRecordSheet {
         setTextField("rulesLevel", formatRulesLevel());
         setTextField("era", formatEra(getEntity().getYear()));
         setTextField("cost", formatCost());
-        setTextField("bv", Integer.toString(getEntity().calculateBattleValue()));
+        setTextField("bv", Integer.toString(ValuationCache.getBattleValue(getEntity())));
         UnitRole role = UnitRoleHandler.getRoleFor(getEntity());
         if (role == UnitRole.UNDETERMINED) {
             hideElement("lblRole", true);
@@ -342,7 +343,7 @@ public abstract class PrintEntity extends PrintRecordSheet {
     
     protected String formatCost() {
         NumberFormat nf = NumberFormat.getNumberInstance(Locale.getDefault());
-        return nf.format(getEntity().getCost(true)) + " C-bills";
+        return nf.format(ValuationCache.getCost(getEntity(), true)) + " C-bills";
     }
     
 }
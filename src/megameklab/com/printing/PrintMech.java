@@ -463,8 +463,7 @@ public class PrintMech extends PrintEntity {
                 fill = "#3f3f3f";
                 addTextElement(canvas, critX, currY, formatCritName(crit), fontSize, "start", style, fill);
             } else if (crit.isArmored()) {
-                SVGElement pip = createPip(critX, currY - fontSize * 0.8, fontSize * 0.4, 0.7);
-                canvas.loaderAddChild(null, pip);
+                addPip(canvas, critX, currY - fontSize * 0.8, fontSize * 0.4, 0.7);
                 canvas.updateTime(0);
                 addTextElement(canvas, critX + fontSize, currY, formatCritName(crit), fontSize, "start", style, fill);
             } else if ((crit.getType() == CriticalSlot.TYPE_EQUIPMENT)
@@ -484,11 +483,10 @@ public class PrintMech extends PrintEntity {
                         x -= spacing * 5.5;
                         y = y2;
                     }
-                    SVGElement pip = createPip(x, y, radius, 0.5);
-                    canvas.loaderAddChild(null, pip);
-                    canvas.updateTime(0);
+                    addPip(canvas, x, y, radius, 0.5);
                     x += spacing;
                 }
+                canvas.updateTime(0);
             } else {
                 addTextElement(canvas, critX, currY, formatCritName(crit), fontSize, "start", style, fill);
             }
@@ -587,10 +585,9 @@ public class PrintMech extends PrintEntity {
         for (int i = 0; i < hsCount; i++) {
             int row = i % rows;
             int col = i / rows;
-            SVGElement pip = this.createPip(viewX + size * col, viewY + size * row, radius, strokeWidth);
-            canvas.loaderAddChild(null, pip);
-            canvas.updateTime(0);
+            addPip(canvas, viewX + size * col, viewY + size * row, radius, strokeWidth);
         }
+        canvas.updateTime(0);
     }
     
     @Override
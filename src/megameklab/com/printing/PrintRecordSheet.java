@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -41,13 +42,14 @@ import java.util.TreeMap;
 
 import javax.imageio.ImageIO;
 
+import com.kitfox.svg.Defs;
 import com.kitfox.svg.ImageSVG;
 import com.kitfox.svg.Path;
-import com.kitfox.svg.Rect;
 import com.kitfox.svg.SVGDiagram;
 import com.kitfox.svg.SVGElement;
 import com.kitfox.svg.SVGException;
 import com.kitfox.svg.Text;
+import com.kitfox.svg.Use;
 import com.kitfox.svg.animation.AnimationElement;
 
 import megamek.common.EquipmentType;
@@ -79,7 +81,14 @@ public abstract class PrintRecordSheet implements Printable {
     }
 
     private SVGDiagram diagram;
+    // The page the diagram was filled in for, or -1 if it is not complete
+    private int documentPage = -1;
     private final int firstPage;
+    // Pip definitions added to the current diagram, by size and type
+    private final Map<String, String> pipGlyphs = new HashMap<>();
+    private Defs pipDefs;
+    // Source files of the images added with embedImage, so they can be copied to PDF as they are
+    private final Map<SVGElement, File> embeddedImages = new HashMap<>();
     
     protected PrintRecordSheet(int firstPage) {
         this.firstPage = firstPage;
@@ -94,27 +103,71 @@ public abstract class PrintRecordSheet implements Printable {
         
         Graphics2D g2d = (Graphics2D) graphics;
         if (null != g2d) {
-            diagram = ImageHelper.loadSVGImage(new File("data/images/recordsheets/" + getSVGFileName()));
-            if (null == diagram) {
-                MegaMekLab.getLogger().log(PrintRecordSheet.class, METHOD_NAME,
-                        LogLevel.ERROR,
-                        "Failed to open Mech SVG file! Path: data/images/recordsheets/" + getSVGFileName());
-            } else {
-                diagram.setDeviceViewport(
-                        new Rectangle(0, 0, (int) pageFormat.getImageableWidth(), (int) pageFormat.getImageableHeight()));
-
-                try {
-                    printImage(g2d, pageFormat, pageIndex - firstPage);
-                    diagram.render(g2d);
-                } catch (SVGException e) {
-                    MegaMekLab.getLogger().log(PrintRecordSheet.class, METHOD_NAME, e);
-                    // TODO: report to user
+            try {
+                SVGDiagram document = createDocument(g2d, pageFormat, pageIndex);
+                if (null != document) {
+                    document.render(g2d);
                 }
+            } catch (SVGException e) {
+                MegaMekLab.getLogger().log(PrintRecordSheet.class, METHOD_NAME, e);
+                // TODO: report to user
             }
         }
         return Printable.PAGE_EXISTS;
     }
 
+    /**
+     * Loads the template and fills it in for one page, without drawing it. This is the part of
+     * {@link #print(Graphics, PageFormat, int) print} that does not depend on the output, so the
+     * diagram can also be written to other formats.
+     *
+     * The diagram is kept, and a later call for the same page and imageable size returns it
+     * without building it again. The print system usually asks for each page more than once,
+     * and a {@link DuplicatePage} asks for the page it repeats.
+     *
+     * @param g2d        The graphics object passed to {@link #printImage(Graphics2D, PageFormat, int)
+     *                   printImage}, or null if the page is not being printed
+     * @param pageFormat The page format
+     * @param pageIndex  The index of the page in the book
+     * @return           The filled in diagram, or null if the template could not be loaded
+     *
+     * @throws PrinterException
+     * @throws SVGException
+     */
+    SVGDiagram createDocument(Graphics2D g2d, PageFormat pageFormat, int pageIndex)
+            throws PrinterException, SVGException {
+        final Rectangle viewport = new Rectangle(0, 0, (int) pageFormat.getImageableWidth(),
+                (int) pageFormat.getImageableHeight());
+        if ((null != diagram) && (documentPage == pageIndex) && viewport.equals(diagram.getDeviceViewport())) {
+            return diagram;
+        }
+        documentPage = -1;
+        diagram = ImageHelper.loadSVGImage(getTemplateFile());
+        pipGlyphs.clear();
+        pipDefs = null;
+        embeddedImages.clear();
+        if (null == diagram) {
+            MegaMekLab.getLogger().log(PrintRecordSheet.class, "createDocument(Graphics2D,PageFormat,int)",
+                    LogLevel.ERROR,
+                    "Failed to open Mech SVG file! Path: data/images/recordsheets/" + getSVGFileName());
+            return null;
+        }
+        diagram.setDeviceViewport(viewport);
+        printImage(g2d, pageFormat, pageIndex - firstPage);
+        documentPage = pageIndex;
+        return diagram;
+    }
+
+    /**
+     * @param image An image element added with {@link #embedImage(File, SVGElement, Rectangle2D, boolean)
+     *              embedImage}
+     * @return      The file the image was read from, or null if the element was not added by
+     *              embedImage
+     */
+    File getEmbeddedImageFile(SVGElement image) {
+        return embeddedImages.get(image);
+    }
+
     /**
      * @return The number of pages required to print this record sheet
      */
@@ -137,6 +190,13 @@ public abstract class PrintRecordSheet implements Printable {
 
     protected abstract String getSVGFileName();
     
+    /**
+     * @return The record sheet template file
+     */
+    protected File getTemplateFile() {
+        return new File("data/images/recordsheets/" + getSVGFileName());
+    }
+    
     /**
      * @return The title to use for the record sheet
      */
@@ -214,10 +274,10 @@ public abstract class PrintRecordSheet implements Printable {
         Text newText = new Text();
         newText.appendText(text);
         
-        newText.addAttribute("x", AnimationElement.AT_XML, x + "");
-        newText.addAttribute("y", AnimationElement.AT_XML, y + "");
+        newText.addAttribute("x", AnimationElement.AT_XML, SVGFormat.format(x));
+        newText.addAttribute("y", AnimationElement.AT_XML, SVGFormat.format(y));
         newText.addAttribute("font-family", AnimationElement.AT_XML, "Eurostile");
-        newText.addAttribute("font-size", AnimationElement.AT_XML, fontSize + "px");
+        newText.addAttribute("font-size", AnimationElement.AT_XML, SVGFormat.format(fontSize) + "px");
         newText.addAttribute("font-weight", AnimationElement.AT_XML, weight);
         newText.addAttribute("text-anchor", AnimationElement.AT_CSS, anchor);
         newText.addAttribute("fill", AnimationElement.AT_XML, fill);
@@ -306,9 +366,6 @@ public abstract class PrintRecordSheet implements Printable {
     
     // Ratio of distance from end point to control point to the radius.
     private final static double CONST_C = 0.55191502449;
-    // Format String for writing a curve to a path definition attribute
-    private final static String FMT_CURVE = " c %f %f,%f %f,%f %f";
-    private final static String FMT_LINE = " l %f %f";
     
     protected Path createPip(double x, double y, double radius, double strokeWidth) throws SVGException {
         return createPip(x, y, radius, strokeWidth, PipType.CIRCLE);
@@ -327,30 +384,99 @@ public abstract class PrintRecordSheet implements Printable {
         Path path = new Path();
         path.addAttribute("fill", AnimationElement.AT_CSS, "none");
         path.addAttribute("stroke", AnimationElement.AT_CSS, "black");
-        path.addAttribute("stroke-width", AnimationElement.AT_CSS, Double.toString(strokeWidth));
+        path.addAttribute("stroke-width", AnimationElement.AT_CSS, SVGFormat.format(strokeWidth));
         
         // Move to start of pip, at (1, 0)
-        StringBuilder d = new StringBuilder("M").append(x + radius * 2).append(",").append(y + radius);
+        StringBuilder d = new StringBuilder(160).append('M');
+        SVGFormat.append(d, x + radius * 2).append(',');
+        SVGFormat.append(d, y + radius);
         if (type == PipType.DIAMOND) {
-            d.append(String.format(FMT_LINE, -radius, -radius));
-            d.append(String.format(FMT_LINE, -radius, radius));
-            d.append(String.format(FMT_LINE, radius, radius));
-            d.append(String.format(FMT_LINE, radius, -radius));
+            appendLine(d, -radius, -radius);
+            appendLine(d, -radius, radius);
+            appendLine(d, radius, radius);
+            appendLine(d, radius, -radius);
         } else {
             // c is the length of each control line
             double c = CONST_C * radius;
             
             // Draw arcs anticlockwise. The coordinates are relative to the beginning of the arc.
-            d.append(String.format(FMT_CURVE, 0.0, -c, c - radius, -radius, -radius, -radius));
-            d.append(String.format(FMT_CURVE, -c, 0.0, -radius, radius - c, -radius, radius));
-            d.append(String.format(FMT_CURVE, 0.0, c, radius - c, radius, radius, radius));
-            d.append(String.format(FMT_CURVE, c, 0.0, radius, c - radius, radius, -radius));
+            appendCurve(d, 0.0, -c, c - radius, -radius, -radius, -radius);
+            appendCurve(d, -c, 0.0, -radius, radius - c, -radius, radius);
+            appendCurve(d, 0.0, c, radius - c, radius, radius, radius);
+            appendCurve(d, c, 0.0, radius, c - radius, radius, -radius);
         }
         path.addAttribute("d", AnimationElement.AT_XML, d.toString());
         path.updateTime(0);
         return path;
     }
     
+    private static void appendLine(StringBuilder d, double dx, double dy) {
+        d.append(" l ");
+        SVGFormat.append(d, dx).append(' ');
+        SVGFormat.append(d, dy);
+    }
+    
+    private static void appendCurve(StringBuilder d, double dx1, double dy1, double dx2, double dy2,
+            double dx, double dy) {
+        d.append(" c ");
+        SVGFormat.append(d, dx1).append(' ');
+        SVGFormat.append(d, dy1).append(',');
+        SVGFormat.append(d, dx2).append(' ');
+        SVGFormat.append(d, dy2).append(',');
+        SVGFormat.append(d, dx).append(' ');
+        SVGFormat.append(d, dy);
+    }
+    
+    /**
+     * Adds a pip to the parent element. The outline of the pip is defined once for each size
+     * and type in a <defs> element of the sheet, and each pip is a <use> reference to it,
+     * which is much cheaper to build than a new path for every pip.
+     * 
+     * @param parent      The element to add the pip to
+     * @param x           Position of left of bounding rectangle.
+     * @param y           Position of top of bounding rectangle.
+     * @param radius      Radius of the pip
+     * @param strokeWidth The stroke-width of the outline
+     * @param type        The shape of the pip
+     * @throws SVGException
+     */
+    protected void addPip(SVGElement parent, double x, double y, double radius, double strokeWidth,
+            PipType type) throws SVGException {
+        Use use = new Use();
+        use.addAttribute("xlink:href", AnimationElement.AT_XML, "#" + getPipGlyph(radius, strokeWidth, type));
+        use.addAttribute("x", AnimationElement.AT_XML, SVGFormat.format(x));
+        use.addAttribute("y", AnimationElement.AT_XML, SVGFormat.format(y));
+        parent.loaderAddChild(null, use);
+        use.updateTime(0);
+    }
+    
+    protected void addPip(SVGElement parent, double x, double y, double radius, double strokeWidth)
+            throws SVGException {
+        addPip(parent, x, y, radius, strokeWidth, PipType.CIRCLE);
+    }
+    
+    /**
+     * @return The id of the pip definition for the size and type, which is added to the sheet's
+     *         <defs> the first time it is needed
+     */
+    private String getPipGlyph(double radius, double strokeWidth, PipType type) throws SVGException {
+        final String key = type + ":" + SVGFormat.format(radius) + ":" + SVGFormat.format(strokeWidth);
+        String id = pipGlyphs.get(key);
+        if (null == id) {
+            if (null == pipDefs) {
+                pipDefs = new Defs();
+                diagram.getRoot().loaderAddChild(null, pipDefs);
+            }
+            id = "pipGlyph" + pipGlyphs.size();
+            Path glyph = createPip(0, 0, radius, strokeWidth, type);
+            glyph.addAttribute("id", AnimationElement.AT_XML, id);
+            pipDefs.loaderAddChild(null, glyph);
+            diagram.setElement(id, glyph);
+            pipGlyphs.put(key, id);
+        }
+        return id;
+    }
+    
     protected void addPips(SVGElement group, int pipCount, boolean symmetric) throws SVGException {
         addPips(group, pipCount, symmetric, PipType.CIRCLE, DEFAULT_PIP_SIZE);
     }
@@ -372,7 +498,7 @@ public abstract class PrintRecordSheet implements Printable {
      * Adds pips to the SVG diagram. The rows are defined in the SVG diagram with a series of <rect>
      * elements, each of which determines the bounds of a row of pips. The spacing between pips is
      * determined by the height of the first row. If rows overlap the pips are offset by half in the next
-     * row. 
+     * row. The row geometry of each region is computed once and kept by {@link PipRegionCache}.
      * 
      * @param group           A <g> element that has <rect> children that describe pip rows
      * @param pipCount        The number of pips to place in the region
@@ -391,87 +517,28 @@ public abstract class PrintRecordSheet implements Printable {
         }
         
         final String METHOD_NAME = "addArmorPips(SVGElement,int)";
-        double spacing = 6.15152;
-        double left = Double.MAX_VALUE;
-        double top = Double.MAX_VALUE;
-        double right = 0;
-        double bottom = 0;
-        
-        List<Rectangle2D> regions = new ArrayList<>();
-        for (int i = 0; i < group.getNumChildren(); i++) {
-            final SVGElement r = group.getChild(i);
-            if (r instanceof Rect) {
-                Rectangle2D bbox = ((Rect) r).getBoundingBox();
-                if (bbox.getX() < left) {
-                    left = bbox.getX();
-                }
-                if (bbox.getY() < top) {
-                    top = bbox.getY();
-                }
-                if (bbox.getX() + bbox.getWidth() > right) {
-                    right = bbox.getX() + bbox.getWidth();
-                }
-                if (bbox.getY() + bbox.getHeight() > bottom) {
-                    bottom = bbox.getY() + bbox.getHeight();
-                }
-                regions.add(bbox);
-            }
-        }
-        if (regions.isEmpty()) {
+        final PipRegion region = PipRegionCache.get(getTemplateFile(), group);
+        if (null == region) {
             MegaMekLab.getLogger().log(getClass(), METHOD_NAME, LogLevel.WARNING,
                     "No pip rows defined for region " + group.getId());
             return;
         }
         
-        Rectangle2D bounds = new Rectangle2D.Double(left, top, right - left, bottom - top);
-        double aspect = bounds.getWidth() / bounds.getHeight();
-        double centerLine = regions.get(0).getX() + regions.get(0).getWidth() / 2.0;
-        
-        int maxWidth = 0;
+        double aspect = region.getAspect();
+        double centerLine = region.getCenterLine();
         
-        Collections.sort(regions, (r1, r2) -> (int) r1.getY() - (int) r2.getY());
+        // The region's rows are rescaled in steps until they can hold all the pips.
+        final PipRegion.Step step = region.getStep(pipCount);
+        final List<Rectangle2D> rows = step.getRows();
+        final double spacing = step.getSpacing();
+        final int maxWidth = step.getMaxWidth();
         // Maximum number of pips that can be displayed on each row
-        int[] rowLength = null;
-        int[][] halfPipCount = null;
-        int totalPips = 0;
-        double scale = 1.0;
-        List<Rectangle2D> rows = null;
-        while (totalPips < pipCount) {
-            totalPips = 0;
-            rows = rescaleRows(regions, scale);
-            rowLength = new int[rows.size()];
-            halfPipCount = new int[rows.size()][];
-            
-            double prevRowBottom = 0;
-            int centerPip = 0;
-            spacing = rows.stream().mapToDouble(Rectangle2D::getHeight).min().orElse(spacing);
-            for (int i = 0; i < rows.size(); i++) {
-                final Rectangle2D rect = rows.get(i);
-                int halfPipsLeft = (int) ((centerLine - rect.getX()) / (spacing / 2));
-                int halfPipsRight = (int) ((rect.getX() + rect.getWidth() - centerLine) / (spacing / 2));
-                if ((i > 0) && (rect.getY() < prevRowBottom)) {
-                    centerPip = (1 - centerPip);
-                    if (halfPipsLeft %2 != centerPip) {
-                        halfPipsLeft--;
-                    }
-                    if (halfPipsRight %2 != centerPip) {
-                        halfPipsRight--;
-                    }
-                    rowLength[i] = (halfPipsLeft + halfPipsRight) / 2;
-                } else {
-                    rowLength[i] = (halfPipsLeft + halfPipsRight) / 2;
-                    centerPip = rowLength[i] % 2;
-                }
-                if (rowLength[i] > maxWidth) {
-                    maxWidth = rowLength[i];
-                }
-                halfPipCount[i] = new int[] { halfPipsLeft, halfPipsRight };
-                totalPips += rowLength[i];
-                prevRowBottom = rect.getY() + spacing;
-            }
-            
-            scale *= 0.9;
-        };
+        final int[] rowLength = new int[rows.size()];
+        final int[][] halfPipCount = new int[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            rowLength[i] = step.getRowLength(i);
+            halfPipCount[i] = new int[] { step.getHalfPipCount(i, 0), step.getHalfPipCount(i, 1) };
+        }
         
         int nRows = adjustedRows(pipCount, rows.size(), maxWidth, aspect);
         
@@ -640,7 +707,6 @@ public abstract class PrintRecordSheet implements Printable {
         for (r = 0; r < pipsByRow.length; r++) {
             if (pipsByRow[r] > 0) {
                 double radius = rows.get(r).getHeight() * size;
-                SVGElement pip = null;
                 // Symmetric and this row is centered
                 if (symmetric && (halfPipCount[r][0] == halfPipCount[r][1])) {
                     double leftX = centerLine - hSpacing;
@@ -649,8 +715,7 @@ public abstract class PrintRecordSheet implements Printable {
                         leftX -= radius;
                         rightX += hSpacing - radius;
                         if (pipsByRow[r] % 2 == 1) {
-                            pip = createPip(leftX + hSpacing, rows.get(r).getY(), radius, strokeWidth, pipType);
-                            group.loaderAddChild(null, pip);
+                            addPip(group, leftX + hSpacing, rows.get(r).getY(), radius, strokeWidth, pipType);
                             pipsByRow[r]--;
                         }
                     } else {
@@ -658,10 +723,8 @@ public abstract class PrintRecordSheet implements Printable {
                         rightX += hSpacing / 2 - radius;
                     }
                     while (pipsByRow[r] > 0) {
-                        pip = createPip(leftX, rows.get(r).getY(), radius, strokeWidth, pipType);
-                        group.loaderAddChild(null, pip);
-                        pip = createPip(rightX, rows.get(r).getY(), radius, strokeWidth, pipType);
-                        group.loaderAddChild(null, pip);
+                        addPip(group, leftX, rows.get(r).getY(), radius, strokeWidth, pipType);
+                        addPip(group, rightX, rows.get(r).getY(), radius, strokeWidth, pipType);
                         leftX -= hSpacing;
                         rightX += hSpacing;
                         pipsByRow[r] -= 2;
@@ -677,8 +740,7 @@ public abstract class PrintRecordSheet implements Printable {
                         x += ((rowLength[r] - pipsByRow[r]) / 2) * hSpacing;
                     }
                     while (pipsByRow[r] > 0) {
-                        pip = createPip(x, rows.get(r).getY(), radius, strokeWidth, pipType);
-                        group.loaderAddChild(null, pip);
+                        addPip(group, x, rows.get(r).getY(), radius, strokeWidth, pipType);
                         pipsByRow[r]--;
                         x += hSpacing;
                     }
@@ -688,70 +750,6 @@ public abstract class PrintRecordSheet implements Printable {
         group.updateTime(0);
     }
     
-    /**
-     * Creates a new set pip row regions sized according to the scaling factor.
-     * 
-     * @param list  The rectangular regions describing pip rows in the SVG diagram.
-     * @param scale The scaling factor
-     * @return      A list of rectangular regions scaled according to the provided factor.
-     */
-    private List<Rectangle2D> rescaleRows(List<Rectangle2D> rows, double scale) {
-        if (rows.isEmpty() || (rows.size() == Math.floor(rows.size() * scale))) {
-            return rows;
-        }
-        List<Rectangle2D> retVal = new ArrayList<>();
-        // We need to account for the possibility of gaps between some rows, so we split the
-        // list into sublists of contiguous regions.
-        List<List<Rectangle2D>> groups = new ArrayList<>();
-        List<Rectangle2D> group = new ArrayList<>();
-        for (int r = 0; r < rows.size(); r++) {
-            final Rectangle2D rect = rows.get(r);
-            group.add(rows.get(r));
-            if ((r + 1 < rows.size()) && rows.get(r + 1).getY() > rect.getY() + rect.getHeight()) {
-                groups.add(group);
-                group = new ArrayList<>();
-            }
-        }
-        if (group.size() > 0) {
-            groups.add(group);
-        }
-        
-        for (List<Rectangle2D> list : groups) {
-            Rectangle2D rect = list.get(0);
-            Rectangle2D rect2 = null;
-            double yPos = rect.getY();
-            double height = list.get(list.size() - 1).getY() + list.get(list.size() - 1).getHeight();
-            double dy = scale * height / list.size();
-            double rowHeight = dy / 0.866;
-            
-            int r = 0;
-            while ((r < list.size()) && (yPos + rowHeight <= height)) {
-                rect = list.get(r);
-                if (r + 1 < list.size()) {
-                    rect2 = list.get(r + 1);
-                } else {
-                    rect2 = null;
-                }
-                
-                if ((rect2 == null) || (rect2.getY() > yPos)) {
-                    retVal.add(new Rectangle2D.Double(rect.getX(), yPos,
-                            rect.getWidth(), rowHeight));
-                } else {
-                    double left = Math.max(rect.getX(), rect2.getX());
-                    double right = Math.min(rect.getX() + rect.getWidth(), rect2.getX() + rect2.getWidth());
-                    retVal.add(new Rectangle2D.Double(left, yPos, right - left, rowHeight));
-                }
-                
-                yPos += dy;
-                if (yPos > rect.getY() + rect.getHeight()) {
-                    r++;
-                }
-            }
-        }
-        
-        return retVal;
-    }
-    
     /**
      * Calculate how many rows to use to give the pip pattern the approximate aspect ratio of the region
      * 
@@ -1122,8 +1120,9 @@ public abstract class PrintRecordSheet implements Printable {
             img.addAttribute("width", AnimationElement.AT_XML, Double.toString(width));
             img.addAttribute("height", AnimationElement.AT_XML, Double.toString(height));
             img.addAttribute("xlink:href", AnimationElement.AT_XML,
-                    "data:" + mimeType + ";base64," + Base64.getEncoder().encode(bytes.toByteArray()));
+                    "data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(bytes.toByteArray()));
             canvas.loaderAddChild(null, img);
+            embeddedImages.put(img, imageFile);
             canvas.updateTime(0);
         } catch (FileNotFoundException e) {
             // TODO Auto-generated catch block
@@ -0,0 +1,58 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.printing;
+
+/**
+ * Writes numbers for SVG attributes with three decimal places and no trailing zeros, which is
+ * finer than a printer can resolve. This is done with integer arithmetic rather than
+ * {@link String#format(String, Object...)}, which parses its pattern and creates a formatter on
+ * every call.
+ */
+final class SVGFormat {
+
+    private static final int SCALE = 1000;
+
+    private SVGFormat() {
+    }
+
+    /**
+     * Appends the number to the builder.
+     *
+     * @return The builder
+     */
+    static StringBuilder append(StringBuilder sb, double value) {
+        long scaled = Math.round(value * SCALE);
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        sb.append(scaled / SCALE);
+        int frac = (int) (scaled % SCALE);
+        if (frac != 0) {
+            sb.append('.');
+            for (int digit = SCALE / 10; frac > 0; digit /= 10) {
+                sb.append((char) ('0' + frac / digit));
+                frac %= digit;
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * @return The number as an attribute value
+     */
+    static String format(double value) {
+        return append(new StringBuilder(12), value).toString();
+    }
+}
@@ -38,6 +38,7 @@ import megameklab.com.ui.Aero.tabs.BuildTab;
 import megameklab.com.ui.Aero.tabs.EquipmentTab;
 import megameklab.com.ui.Aero.tabs.PreviewTab;
 import megameklab.com.ui.Aero.tabs.StructureTab;
+import megameklab.com.ui.view.WeaponAnalysisView;
 import megameklab.com.util.MenuBarCreator;
 
 public class MainUI extends MegaMekLabMainUI {
@@ -54,6 +55,7 @@ public class MainUI extends MegaMekLabMainUI {
     private StructureTab structureTab;
     private EquipmentTab equipmentTab;
     private PreviewTab previewTab;
+    private WeaponAnalysisView analysisView;
     private BuildTab buildTab;
     private StatusBar statusbar;
     JPanel masterPanel = new JPanel();
@@ -92,6 +94,7 @@ public class MainUI extends MegaMekLabMainUI {
         structureTab = new StructureTab(this);
 
         previewTab = new PreviewTab(this);
+        analysisView = new WeaponAnalysisView(this);
 
         statusbar = new StatusBar(this);
         equipmentTab = new EquipmentTab(this);
@@ -104,6 +107,7 @@ public class MainUI extends MegaMekLabMainUI {
         configPane.addTab("Structure/Armor", structureTab);
         configPane.addTab("Equipment", equipmentTab);
         configPane.addTab("Assign Criticals", buildTab);
+        configPane.addTab("Analysis", analysisView);
         configPane.addTab("Preview", previewTab);
 
         masterPanel.add(configPane, BorderLayout.CENTER);
@@ -168,11 +172,13 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshAll() {
+        markChanged();
         statusbar.refresh();
         structureTab.refresh();
         equipmentTab.refresh();
         buildTab.refresh();
         previewTab.refresh();
+        analysisView.refresh();
     }
 
     @Override
@@ -181,6 +187,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshBuild() {
+        markChanged();
         buildTab.refresh();
     }
 
@@ -192,6 +199,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshPreview() {
+        markChanged();
         previewTab.refresh();
 
     }
@@ -206,7 +214,9 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshStatus() {
+        markChanged();
         statusbar.refresh();
+        analysisView.refresh();
     }
 
     @Override
@@ -28,16 +28,14 @@ import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 
-import megamek.common.AmmoType;
+import megamek.common.Aero;
 import megamek.common.Entity;
-import megamek.common.Mounted;
-import megamek.common.WeaponType;
-import megamek.common.verifier.EntityVerifier;
-import megamek.common.verifier.TestAero;
 import megameklab.com.ui.MegaMekLabMainUI;
 import megameklab.com.util.ITab;
 import megameklab.com.util.ImageHelper;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.UnitMetrics;
+import megameklab.com.util.UnitMetricsEngine;
 import megameklab.com.util.UnitUtil;
 
 public class StatusBar extends ITab {
@@ -53,9 +51,6 @@ public class StatusBar extends ITab {
     private JLabel tons = new JLabel();
     private JLabel heatSink = new JLabel();
     private JLabel cost = new JLabel();
-    private EntityVerifier entityVerifier = EntityVerifier.getInstance(new File(
-            "data/mechfiles/UnitVerifierOptions.xml"));
-    private TestAero testAero = null;
     private DecimalFormat formatter;
     private JFrame parentFrame;
 
@@ -66,7 +61,6 @@ public class StatusBar extends ITab {
         parentFrame = parent;
 
         formatter = new DecimalFormat();
-        testAero = new TestAero(getAero(), entityVerifier.aeroOption, null);
         btnValidate.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 UnitUtil.showValidation(getAero(), getParentFrame());
@@ -103,19 +97,20 @@ public class StatusBar extends ITab {
     }
 
     public void refresh() {
+        final Aero unit = getAero();
+        UnitMetricsEngine.getInstance().request(unit, metrics -> {
+            // Ignore the result if the unit was replaced while it was being computed
+            if (getAero() == unit) {
+                showMetrics(metrics);
+            }
+        });
+    }
 
-        int heat = getAero().getHeatCapacity();
-        double tonnage = getAero().getWeight();
-        double currentTonnage;
-        int bv = getAero().calculateBattleValue();
-        long currentCost = (long) Math.round(getAero().getCost(false));
-
-        testAero = new TestAero(getAero(), entityVerifier.aeroOption, null);
-
-        currentTonnage = testAero.calculateWeight();
-        currentTonnage += UnitUtil.getUnallocatedAmmoTonnage(getAero());
-
-        double totalHeat = calculateTotalHeat();
+    private void showMetrics(UnitMetrics metrics) {
+        int heat = metrics.getHeatDissipated();
+        double tonnage = metrics.getMaxTonnage();
+        double currentTonnage = metrics.getCurrentTonnage();
+        double totalHeat = metrics.getHeatGenerated();
 
         heatSink.setText("Heat: " + totalHeat + "/" + heat);
         heatSink.setToolTipText("Total Heat Generated/Total Heat Dissipated");
@@ -134,51 +129,12 @@ public class StatusBar extends ITab {
             tons.setForeground(Color.black);
         }
 
-        bvLabel.setText("BV: " + bv);
+        bvLabel.setText("BV: " + metrics.getBV());
         bvLabel.setToolTipText("BV 2.0");
 
-        cost.setText("Cost: " + formatter.format(currentCost) + " C-bills");
-    }
-
-    public double calculateTotalHeat() {
-        double heat = 0;
+        cost.setText("Cost: " + formatter.format(metrics.getCost()) + " C-bills");
 
-        for (Mounted mounted : getAero().getWeaponList()) {
-            WeaponType wtype = (WeaponType) mounted.getType();
-            double weaponHeat = wtype.getHeat();
-
-            // only count non-damaged equipment
-            if (mounted.isMissing() || mounted.isHit() || mounted.isDestroyed()
-                    || mounted.isBreached()) {
-                continue;
-            }
-
-            // one shot weapons count 1/4
-            if ((wtype.getAmmoType() == AmmoType.T_ROCKET_LAUNCHER)
-                    || wtype.hasFlag(WeaponType.F_ONESHOT)) {
-                weaponHeat *= 0.25;
-            }
-
-            // double heat for ultras
-            if ((wtype.getAmmoType() == AmmoType.T_AC_ULTRA)
-                    || (wtype.getAmmoType() == AmmoType.T_AC_ULTRA_THB)) {
-                weaponHeat *= 2;
-            }
-
-            // Six times heat for RAC
-            if (wtype.getAmmoType() == AmmoType.T_AC_ROTARY) {
-                weaponHeat *= 6;
-            }
-
-            // half heat for streaks
-            if ((wtype.getAmmoType() == AmmoType.T_SRM_STREAK)
-                    || (wtype.getAmmoType() == AmmoType.T_MRM_STREAK)
-                    || (wtype.getAmmoType() == AmmoType.T_LRM_STREAK)) {
-                weaponHeat *= 0.5;
-            }
-            heat += weaponHeat;
-        }
-        return heat;
+        btnValidate.setToolTipText(metrics.isValid() ? "Validation Passed" : "The unit has validation errors");
     }
 
     private void getFluffImage() {
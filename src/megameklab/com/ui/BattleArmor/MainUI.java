@@ -127,6 +127,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshAll() {
+        markChanged();
 
         statusbar.refresh();
         structureTab.refresh();
@@ -143,6 +144,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshBuild() {
+        markChanged();
         buildTab.refresh();
     }
 
@@ -168,6 +170,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshStatus() {
+        markChanged();
         statusbar.refresh();
     }
 
@@ -182,6 +185,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshPreview() {
+        markChanged();
         structureTab.refreshPreview();
     }
     
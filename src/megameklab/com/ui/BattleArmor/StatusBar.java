@@ -30,12 +30,12 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import megamek.common.BattleArmor;
-import megamek.common.verifier.EntityVerifier;
-import megamek.common.verifier.TestBattleArmor;
 import megameklab.com.ui.MegaMekLabMainUI;
 import megameklab.com.util.ITab;
 import megameklab.com.util.ImageHelper;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.UnitMetrics;
+import megameklab.com.util.UnitMetricsEngine;
 import megameklab.com.util.UnitUtil;
 
 public class StatusBar extends ITab {
@@ -57,10 +57,6 @@ public class StatusBar extends ITab {
     private JLabel tons = new JLabel();
     private JLabel cost = new JLabel();
     
-    private EntityVerifier entityVerifier = EntityVerifier.getInstance(new File(
-            "data/mechfiles/UnitVerifierOptions.xml"));
-    
-    private TestBattleArmor testBA = null;
     private DecimalFormat formatter;
     private JFrame parentFrame;
 
@@ -118,8 +114,7 @@ public class StatusBar extends ITab {
     }
 
     public JPanel bvPanel() {
-        int bv = getBattleArmor().calculateBattleValue();
-        bvLabel.setText("BV: " + bv);
+        // The value is filled in with the other computed values by refresh()
         bvPanel.add(bvLabel);
 
         return bvPanel;
@@ -135,15 +130,22 @@ public class StatusBar extends ITab {
 
         int walk = getBattleArmor().getOriginalWalkMP();
         int jump = getBattleArmor().getOriginalJumpMP();
-        double maxKilos = getBattleArmor().getTrooperWeight();
-        double currentKilos;
-        int bv = getBattleArmor().calculateBattleValue();
-        long currentCost = (long) Math.round(getBattleArmor().getCost(false));
 
-        testBA = new TestBattleArmor(getBattleArmor(), entityVerifier.baOption,
-                null);
-        currentKilos = testBA.calculateWeight(BattleArmor.LOC_SQUAD);
-        currentKilos += UnitUtil.getUnallocatedAmmoTonnage(getBattleArmor());
+        move.setText("Movement: " + walk + "/" + jump);
+        move.setToolTipText("Walk/Jump MP");
+
+        final BattleArmor ba = getBattleArmor();
+        UnitMetricsEngine.getInstance().request(ba, metrics -> {
+            // Ignore the result if the unit was replaced while it was being computed
+            if (getBattleArmor() == ba) {
+                showMetrics(metrics);
+            }
+        });
+    }
+
+    private void showMetrics(UnitMetrics metrics) {
+        double maxKilos = metrics.getMaxTonnage();
+        double currentKilos = metrics.getCurrentTonnage();
 
         tons.setText("Suit Weight: " + String.format("%1$.3f",currentKilos) + 
                 "/" + maxKilos);
@@ -155,13 +157,12 @@ public class StatusBar extends ITab {
             tons.setForeground(Color.black);
         }
 
-        bvLabel.setText("BV: " + bv);
+        bvLabel.setText("BV: " + metrics.getBV());
         bvLabel.setToolTipText("BV 2.0");
 
-        move.setText("Movement: " + walk + "/" + jump);
-        move.setToolTipText("Walk/Jump MP");
+        cost.setText("Squad Cost: " + formatter.format(metrics.getCost()) + " C-bills");
 
-        cost.setText("Squad Cost: " + formatter.format(currentCost) + " C-bills");
+        btnValidate.setToolTipText(metrics.isValid() ? "Validation Passed" : "The unit has validation errors");
     }
     
     private void getFluffImage() {
@@ -30,7 +30,6 @@ import java.awt.event.MouseEvent;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Enumeration;
 import java.util.List;
 
 import javax.swing.AbstractAction;
@@ -66,9 +65,11 @@ import megamek.common.WeaponType;
 import megamek.common.weapons.artillery.ArtilleryWeapon;
 import megameklab.com.ui.EntitySource;
 import megameklab.com.util.CriticalTableModel;
+import megameklab.com.util.EquipmentCatalog;
 import megameklab.com.util.EquipmentTableModel;
 import megameklab.com.util.ITab;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.TechLegalityTable;
 import megameklab.com.util.UnitUtil;
 import megameklab.com.util.XTableColumnModel;
 
@@ -205,14 +206,7 @@ public class EquipmentTab extends ITab implements ActionListener {
         masterEquipmentTable.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT).put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "add");
         masterEquipmentTable.getActionMap().put("add", new EnterAction());
 
-        Enumeration<EquipmentType> miscTypes = EquipmentType.getAllTypes();
-        ArrayList<EquipmentType> allTypes = new ArrayList<EquipmentType>();
-        while (miscTypes.hasMoreElements()) {
-            EquipmentType eq = miscTypes.nextElement();
-            allTypes.add(eq);
-        }
-
-        masterEquipmentList.setData(allTypes);
+        masterEquipmentList.setData(EquipmentCatalog.getInstance().getAll());
 
         loadEquipmentTable();
 
@@ -545,6 +539,9 @@ public class EquipmentTab extends ITab implements ActionListener {
     private void filterEquipment() {
         RowFilter<EquipmentTableModel, Integer> equipmentTypeFilter = null;
         final int nType = choiceType.getSelectedIndex();
+        // Only filtered by tech level if there is a tech manager to filter with
+        final TechLegalityTable legality = (null == eSource.getTechManager()) ? null
+                : TechLegalityTable.get(eSource.getTechManager());
         equipmentTypeFilter = new RowFilter<EquipmentTableModel,Integer>() {
             @Override
             public boolean include(Entry<? extends EquipmentTableModel,
@@ -600,8 +597,7 @@ public class EquipmentTab extends ITab implements ActionListener {
                             && (wtype != null) && (wtype instanceof ArtilleryWeapon))
                         || (((nType == T_AMMO) && (atype != null)) && UnitUtil.canUseAmmo(ba, atype))
                         || ((nType == T_AP) && UnitUtil.isBattleArmorAPWeapon(etype))) {
-                    if (eSource.getTechManager() != null
-                            && !eSource.getTechManager().isLegal(etype)) {
+                    if ((null != legality) && !legality.isLegal(etype)) {
                         return false;
                     }
                     if (txtFilter.getText().length() > 0) {
@@ -40,6 +40,7 @@ import megameklab.com.ui.Aero.tabs.PreviewTab;
 import megameklab.com.ui.Dropship.tabs.DropshipBuildTab;
 import megameklab.com.ui.Dropship.tabs.DropshipStructureTab;
 import megameklab.com.ui.Dropship.tabs.TransportTab;
+import megameklab.com.ui.view.WeaponAnalysisView;
 import megameklab.com.util.MenuBarCreator;
 
 /**
@@ -60,6 +61,7 @@ public class MainUI extends MegaMekLabMainUI {
     private DropshipStructureTab structureTab;
     private EquipmentTab equipmentTab;
     private PreviewTab previewTab;
+    private WeaponAnalysisView analysisView;
     private DropshipBuildTab buildTab;
     private TransportTab transportTab;
     private StatusBar statusbar;
@@ -175,6 +177,7 @@ public class MainUI extends MegaMekLabMainUI {
         structureTab = new DropshipStructureTab(this);
 
         previewTab = new PreviewTab(this);
+        analysisView = new WeaponAnalysisView(this);
 
         statusbar = new StatusBar(this);
         equipmentTab = new EquipmentTab(this);
@@ -190,6 +193,7 @@ public class MainUI extends MegaMekLabMainUI {
         configPane.addTab("Equipment", equipmentTab);
         configPane.addTab("Assign Criticals", buildTab);
         configPane.addTab("Transport Bays", transportTab);
+        configPane.addTab("Analysis", analysisView);
         configPane.addTab("Preview", previewTab);
 
         masterPanel.add(configPane, BorderLayout.CENTER);
@@ -201,11 +205,13 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshAll() {
+        markChanged();
         statusbar.refresh();
         structureTab.refresh();
         equipmentTab.refresh();
         buildTab.refresh();
         previewTab.refresh();
+        analysisView.refresh();
     }
 
     @Override
@@ -214,6 +220,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshBuild() {
+        markChanged();
         buildTab.refresh();
     }
 
@@ -230,7 +237,9 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshStatus() {
+        markChanged();
         statusbar.refresh();
+        analysisView.refresh();
     }
 
     @Override
@@ -244,6 +253,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshPreview() {
+        markChanged();
         previewTab.refresh();
     }
 
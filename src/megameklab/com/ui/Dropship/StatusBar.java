@@ -25,16 +25,14 @@ import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 
-import megamek.common.AmmoType;
 import megamek.common.Entity;
-import megamek.common.Mounted;
-import megamek.common.WeaponType;
-import megamek.common.verifier.EntityVerifier;
-import megamek.common.verifier.TestSmallCraft;
+import megamek.common.SmallCraft;
 import megameklab.com.ui.MegaMekLabMainUI;
 import megameklab.com.util.ITab;
 import megameklab.com.util.ImageHelper;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.UnitMetrics;
+import megameklab.com.util.UnitMetricsEngine;
 import megameklab.com.util.UnitUtil;
 
 /**
@@ -55,9 +53,6 @@ public class StatusBar extends ITab {
     private JLabel tons = new JLabel();
     private JLabel heatSink = new JLabel();
     private JLabel cost = new JLabel();
-    private EntityVerifier entityVerifier = EntityVerifier.getInstance(new File(
-            "data/mechfiles/UnitVerifierOptions.xml"));
-    private TestSmallCraft testSmallCraft = null;
     private DecimalFormat formatter;
     private JFrame parentFrame;
 
@@ -68,7 +63,6 @@ public class StatusBar extends ITab {
         parentFrame = parent;
 
         formatter = new DecimalFormat();
-        testSmallCraft = new TestSmallCraft(getSmallCraft(), entityVerifier.aeroOption, null);
         btnValidate.addActionListener(e -> UnitUtil.showValidation(getSmallCraft(), getParentFrame()));
         btnFluffImage.addActionListener(e -> getFluffImage());
         //btnFluffImage.setEnabled(false);
@@ -97,19 +91,20 @@ public class StatusBar extends ITab {
     }
 
     public void refresh() {
+        final SmallCraft unit = getSmallCraft();
+        UnitMetricsEngine.getInstance().request(unit, metrics -> {
+            // Ignore the result if the unit was replaced while it was being computed
+            if (getSmallCraft() == unit) {
+                showMetrics(metrics);
+            }
+        });
+    }
 
-        int heat = getSmallCraft().getHeatCapacity();
-        double tonnage = getSmallCraft().getWeight();
-        double currentTonnage;
-        int bv = getSmallCraft().calculateBattleValue();
-        long currentCost = (long) Math.round(getSmallCraft().getCost(false));
-
-        testSmallCraft = new TestSmallCraft(getSmallCraft(), entityVerifier.aeroOption, null);
-
-        currentTonnage = testSmallCraft.calculateWeight();
-        currentTonnage += UnitUtil.getUnallocatedAmmoTonnage(getSmallCraft());
-
-        double totalHeat = calculateTotalHeat();
+    private void showMetrics(UnitMetrics metrics) {
+        int heat = metrics.getHeatDissipated();
+        double tonnage = metrics.getMaxTonnage();
+        double currentTonnage = metrics.getCurrentTonnage();
+        double totalHeat = metrics.getHeatGenerated();
 
         heatSink.setText("Heat: " + totalHeat + "/" + heat);
         heatSink.setToolTipText("Total Heat Generated/Total Heat Dissipated");
@@ -128,51 +123,12 @@ public class StatusBar extends ITab {
             tons.setForeground(Color.black);
         }
 
-        bvLabel.setText("BV: " + bv);
+        bvLabel.setText("BV: " + metrics.getBV());
         bvLabel.setToolTipText("BV 2.0");
 
-        cost.setText("Cost: " + formatter.format(currentCost) + " C-bills");
-    }
-
-    public double calculateTotalHeat() {
-        double heat = 0;
-
-        for (Mounted mounted : getSmallCraft().getWeaponList()) {
-            WeaponType wtype = (WeaponType) mounted.getType();
-            double weaponHeat = wtype.getHeat();
-
-            // only count non-damaged equipment
-            if (mounted.isMissing() || mounted.isHit() || mounted.isDestroyed()
-                    || mounted.isBreached()) {
-                continue;
-            }
-
-            // one shot weapons count 1/4
-            if ((wtype.getAmmoType() == AmmoType.T_ROCKET_LAUNCHER)
-                    || wtype.hasFlag(WeaponType.F_ONESHOT)) {
-                weaponHeat *= 0.25;
-            }
-
-            // double heat for ultras
-            if ((wtype.getAmmoType() == AmmoType.T_AC_ULTRA)
-                    || (wtype.getAmmoType() == AmmoType.T_AC_ULTRA_THB)) {
-                weaponHeat *= 2;
-            }
+        cost.setText("Cost: " + formatter.format(metrics.getCost()) + " C-bills");
 
-            // Six times heat for RAC
-            if (wtype.getAmmoType() == AmmoType.T_AC_ROTARY) {
-                weaponHeat *= 6;
-            }
-
-            // half heat for streaks
-            if ((wtype.getAmmoType() == AmmoType.T_SRM_STREAK)
-                    || (wtype.getAmmoType() == AmmoType.T_MRM_STREAK)
-                    || (wtype.getAmmoType() == AmmoType.T_LRM_STREAK)) {
-                weaponHeat *= 0.5;
-            }
-            heat += weaponHeat;
-        }
-        return heat;
+        btnValidate.setToolTipText(metrics.isValid() ? "Validation Passed" : "The unit has validation errors");
     }
 
     private void getFluffImage() {
@@ -24,9 +24,11 @@ import java.awt.datatransfer.Transferable;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.stream.Collectors;
 
@@ -40,6 +42,7 @@ import javax.swing.JSpinner;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
 import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
 import javax.swing.TransferHandler;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -50,6 +53,7 @@ import javax.swing.table.TableColumn;
 
 import megamek.common.Bay;
 import megamek.common.Entity;
+import megamek.common.ITechManager;
 import megamek.common.InfantryBay;
 import megamek.common.util.EncodeControl;
 import megamek.common.verifier.TestAero;
@@ -83,6 +87,16 @@ public class TransportTab extends IView implements ActionListener {
     private final JButton btnAddToCargo = new JButton();
     
     private RefreshListener refresh = null;
+    // Coalesces the refreshes from spinner edits so holding down an arrow does not recompute
+    // the unit's weight on every step.
+    private final Timer editRefreshTimer = new Timer(200, e -> {
+        checkButtons();
+        if (null != refresh) {
+            refresh.refreshStructure();
+            refresh.refreshStatus();
+            refresh.refreshPreview();
+        }
+    });
     
     public TransportTab(EntitySource eSource) {
         super(eSource);
@@ -90,6 +104,7 @@ public class TransportTab extends IView implements ActionListener {
     }
     
     private void initUI() {
+        editRefreshTimer.setRepeats(false);
         ResourceBundle resourceMap = ResourceBundle.getBundle("megameklab.resources.Tabs", new EncodeControl()); //$NON-NLS-1$
         
         setLayout(new GridBagLayout());
@@ -247,20 +262,21 @@ public class TransportTab extends IView implements ActionListener {
     /**
      * Removing bays can cause undesirable gaps in bay numbers, and it would be nice to let the
      * user order the bays. Since bay numbers are immutable we have to instantiate a new bay to
-     * alter it.
+     * alter it. Only the rows of bays that were renumbered are updated in the table.
      */
     private void rebuildBays() {
         int bayNum = 1;
         List<Bay> newBayList = new ArrayList<>();
-        for (Iterator<Bay> iter = modelInstalled.getBays(); iter.hasNext(); ) {
-            final Bay bay = iter.next();
+        for (int row = 0; row < modelInstalled.getRowCount(); row++) {
+            final Bay bay = modelInstalled.getBay(row);
             if (bay.getBayNumber() == bayNum) {
                 newBayList.add(bay);
             } else {
-                TestAero.TransportBay bayType = TestAero.TransportBay.getBayType(bay);
+                TestAero.TransportBay bayType = modelInstalled.getBayType(row);
                 Bay newBay = bayType.newBay(bay.getCapacity(), bayNum);
                 newBay.setDoors(bay.getDoors());
                 newBayList.add(newBay);
+                modelInstalled.setBay(row, newBay);
             }
             bayNum++;
         }
@@ -271,7 +287,6 @@ public class TransportTab extends IView implements ActionListener {
         }
         getAero().removeAllTransporters();
         newBayList.forEach(b -> getAero().addTransporter(b));
-        modelInstalled.refreshBays();
     }
     
     public void actionPerformed(ActionEvent ev) {
@@ -288,16 +303,16 @@ public class TransportTab extends IView implements ActionListener {
                     newBay.setDoors(1);
                 }
                 addBay(newBay);
-                modelInstalled.refreshBays();
+                modelInstalled.addBay(newBay, bayType);
                 rebuildBays();
                 refresh();
             }
         } else if (ev.getSource() == btnRemoveBay) {
             int selected = tblInstalled.getSelectedRow();
             if (selected >= 0) {
-                Bay bay = modelInstalled.getBay(tblInstalled.convertRowIndexToModel(selected));
-                removeBay(bay);
-                modelInstalled.refreshBays();
+                int row = tblInstalled.convertRowIndexToModel(selected);
+                removeBay(modelInstalled.getBay(row));
+                modelInstalled.removeRow(row);
                 rebuildBays();
                 refresh();
             }
@@ -307,9 +322,11 @@ public class TransportTab extends IView implements ActionListener {
                 int selected = tblInstalled.getSelectedRow();
                 Bay bay = null;
                 int bayNum = 1;
+                int row = -1;
                 if ((selected >= 0)
                         && (modelInstalled.getBayType(tblInstalled.convertRowIndexToModel(selected)) == TestAero.TransportBay.CARGO)) {
-                    bay = modelInstalled.getBay(tblInstalled.convertRowIndexToModel(selected));
+                    row = tblInstalled.convertRowIndexToModel(selected);
+                    bay = modelInstalled.getBay(row);
                     size += bay.getCapacity();
                     bayNum = bay.getBayNumber();
                     removeBay(bay);
@@ -320,6 +337,11 @@ public class TransportTab extends IView implements ActionListener {
                 }
                 bay = TestAero.TransportBay.CARGO.newBay(size, bayNum);
                 addBay(bay);
+                if (row >= 0) {
+                    modelInstalled.setBay(row, bay);
+                } else {
+                    modelInstalled.addBay(bay, TestAero.TransportBay.CARGO);
+                }
                 refresh();
             }
         }
@@ -342,9 +364,12 @@ public class TransportTab extends IView implements ActionListener {
         private final List<Bay> bayList = new ArrayList<>();
         private final List<TestAero.TransportBay> bayTypeList = new ArrayList<>();
         
+        /**
+         * Reloads the bays from the unit. Changes made through this tab update the affected rows
+         * directly, so this only fires a table event if the unit's bays are not the ones already
+         * shown, such as when a different unit is loaded.
+         */
         public void refreshBays() {
-            bayList.clear();
-            bayTypeList.clear();
             // Find all the bays and sort them by bay number.
             // Entity.getTransportBays() iterates through all transports and builds a collection of
             // Bays so we're going to save ourselves a second list instantiation and iteration by
@@ -353,22 +378,65 @@ public class TransportTab extends IView implements ActionListener {
                     .filter(t -> (t instanceof Bay) && !((Bay) t).isQuarters())
                     .map(t -> (Bay) t).collect(Collectors.toList());
             Collections.sort(bays, (b1, b2) -> b1.getBayNumber() - b2.getBayNumber());
+            List<Bay> newBayList = new ArrayList<>();
+            List<TestAero.TransportBay> newBayTypeList = new ArrayList<>();
             for (Bay bay : bays) {
                 TestAero.TransportBay bayType = TestAero.TransportBay.getBayType(bay);
                 if (null != bayType) {
-                    bayList.add(bay);
-                    bayTypeList.add(bayType);
+                    newBayList.add(bay);
+                    newBayTypeList.add(bayType);
+                }
+            }
+            if (!sameBays(newBayList)) {
+                bayList.clear();
+                bayList.addAll(newBayList);
+                bayTypeList.clear();
+                bayTypeList.addAll(newBayTypeList);
+                fireTableDataChanged();
+            }
+        }
+        
+        private boolean sameBays(List<Bay> bays) {
+            if (bays.size() != bayList.size()) {
+                return false;
+            }
+            for (int i = 0; i < bays.size(); i++) {
+                if (bays.get(i) != bayList.get(i)) {
+                    return false;
                 }
             }
-            fireTableDataChanged();
+            return true;
         }
         
         public Bay getBay(int row) {
             return bayList.get(row);
         }
         
-        public Iterator<Bay> getBays() {
-            return bayList.iterator();
+        /**
+         * Replaces the bay shown in a row, such as when a bay is renumbered or resized.
+         */
+        public void setBay(int row, Bay bay) {
+            bayList.set(row, bay);
+            fireTableRowsUpdated(row, row);
+        }
+        
+        /**
+         * Adds a row for a new bay in order of bay number.
+         */
+        public void addBay(Bay bay, TestAero.TransportBay bayType) {
+            int row = 0;
+            while ((row < bayList.size()) && (bayList.get(row).getBayNumber() < bay.getBayNumber())) {
+                row++;
+            }
+            bayList.add(row, bay);
+            bayTypeList.add(row, bayType);
+            fireTableRowsInserted(row, row);
+        }
+        
+        public void removeRow(int row) {
+            bayList.remove(row);
+            bayTypeList.remove(row);
+            fireTableRowsDeleted(row, row);
         }
         
         public TestAero.TransportBay getBayType(int row) {
@@ -442,6 +510,7 @@ public class TransportTab extends IView implements ActionListener {
             }
             bayList.add(to, bay);
             bayTypeList.add(to, bayType);
+            fireTableRowsUpdated(Math.min(from, to), Math.max(from, to));
             rebuildBays();
             refresh();
         }
@@ -461,15 +530,35 @@ public class TransportTab extends IView implements ActionListener {
         private static final int NUM_COLS      = 3;
         
         private List<TestAero.TransportBay> bayList = new ArrayList<>();
+        // The legal bay types for each combination of tech settings that has been used
+        private final Map<List<Object>, List<TestAero.TransportBay>> legalBays = new HashMap<>();
         
+        /**
+         * Updates the list of bays that are legal with the current tech settings. The table is
+         * only updated if the list has changed.
+         */
         public void refreshBays() {
-            bayList.clear();
-            for (TestAero.TransportBay bay : TestAero.TransportBay.values()) {
-                if (eSource.getTechManager().isLegal(bay.getTechAdvancement())) {
-                    bayList.add(bay);
+            final ITechManager techManager = eSource.getTechManager();
+            List<TestAero.TransportBay> legal = legalBays.computeIfAbsent(techContext(techManager), k -> {
+                List<TestAero.TransportBay> list = new ArrayList<>();
+                for (TestAero.TransportBay bay : TestAero.TransportBay.values()) {
+                    if (techManager.isLegal(bay.getTechAdvancement())) {
+                        list.add(bay);
+                    }
                 }
+                return list;
+            });
+            if (!legal.equals(bayList)) {
+                bayList = legal;
+                fireTableDataChanged();
             }
-            fireTableDataChanged();
+        }
+        
+        private List<Object> techContext(ITechManager techManager) {
+            return Arrays.asList(techManager.getTechIntroYear(), techManager.getGameYear(),
+                    techManager.getTechFaction(), techManager.useClanTechBase(), techManager.useMixedTech(),
+                    techManager.getTechLevel(), techManager.unofficialNoYear(),
+                    techManager.useVariableTechLevel(), techManager.showExtinct());
         }
 
         public TransportBay getBayType(int row) {
@@ -560,12 +649,7 @@ public class TransportTab extends IView implements ActionListener {
                 modelInstalled.bayList.get(row).setDoors((Integer)getCellEditorValue());
             }
             modelInstalled.fireTableRowsUpdated(row, row);
-            checkButtons();
-            if (null != refresh) {
-                refresh.refreshStructure();
-                refresh.refreshStatus();
-                refresh.refreshPreview();
-            }
+            editRefreshTimer.restart();
         }
 
         @Override
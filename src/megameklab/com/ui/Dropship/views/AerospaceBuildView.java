@@ -48,6 +48,7 @@ import megameklab.com.util.CriticalTableModel;
 import megameklab.com.util.IView;
 import megameklab.com.util.RefreshListener;
 import megameklab.com.util.StringUtils;
+import megameklab.com.util.UnitUtil;
 
 /**
  * Shows unallocated equipment and presents menus options for adding equipment to bays.
@@ -276,6 +277,33 @@ public class AerospaceBuildView extends IView implements MouseListener {
                }
            }
            
+           if (getAero().usesWeaponBays() && (equipmentTable.getRowCount() > 0)) {
+               final List<Mounted> all = new ArrayList<>();
+               for (int row = 0; row < equipmentTable.getRowCount(); row++) {
+                   Mounted m = (Mounted) equipmentTable.getModel().getValueAt(row, CriticalTableModel.EQUIPMENT);
+                   if ((m.getType() instanceof WeaponType) || (m.getType() instanceof AmmoType)
+                           || UnitUtil.isWeaponEnhancement(m.getType())) {
+                       all.add(m);
+                   }
+               }
+               JMenu menu = new JMenu("Add All Weapons and Ammo To");
+               for (BayWeaponCriticalTree l : arcViews) {
+                   if (getAero().hasETypeFlag(Entity.ETYPE_SMALL_CRAFT)
+                           && !getAero().isSpheroid() && !l.validForAerodyne()) {
+                       continue;
+                   }
+                   item = new JMenuItem(l.getLocationName());
+                   item.addActionListener(ev -> l.addToLocation(all));
+                   menu.add(item);
+               }
+               if (!all.isEmpty() && (menu.getItemCount() > 0)) {
+                   if (popup.getComponentCount() > 0) {
+                       popup.addSeparator();
+                   }
+                   popup.add(menu);
+               }
+           }
+           
            popup.show(this, e.getX(), e.getY());
        }
    }
@@ -29,6 +29,7 @@ import megamek.common.util.EncodeControl;
 import megamek.common.verifier.TestSmallCraft;
 import megameklab.com.ui.EntitySource;
 import megameklab.com.ui.util.BayWeaponCriticalTree;
+import megameklab.com.ui.util.WeaponBayIndex;
 import megameklab.com.util.IView;
 import megameklab.com.util.RefreshListener;
 
@@ -196,8 +197,9 @@ public class DropshipCriticalView extends IView {
         }
 
         double[] extra = TestSmallCraft.extraSlotCost(getSmallCraft());
+        WeaponBayIndex index = new WeaponBayIndex(getSmallCraft());
         for (int arc = 0; arc < extra.length; arc++) {
-            arcTrees[arc].rebuild();
+            arcTrees[arc].rebuild(index);
             arcTrees[arc].repaint();
             lblSlotCount[arc].setText(String.valueOf(arcTrees[arc].getSlotCount()));
             lblExtraTonnage[arc].setText(String.valueOf(extra[arc]));
@@ -118,6 +118,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshAll() {
+        markChanged();
         statusbar.refresh();
         structureTab.refresh();
         previewTab.refresh();
@@ -130,6 +131,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshBuild() {
+        markChanged();
 
     }
 
@@ -145,6 +147,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshStatus() {
+        markChanged();
         statusbar.refresh();
     }
 
@@ -161,6 +164,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshPreview() {
+        markChanged();
         previewTab.refresh();
     }
 
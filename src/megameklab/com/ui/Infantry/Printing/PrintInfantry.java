@@ -39,6 +39,7 @@ import megamek.common.WeaponType;
 import megamek.common.weapons.artillery.ArtilleryWeapon;
 import megamek.common.weapons.infantry.InfantryWeapon;
 import megameklab.com.util.ImageHelper;
+import megameklab.com.util.ValuationCache;
 
 /**
  * @author Neoancient
@@ -292,7 +293,7 @@ public class PrintInfantry implements Printable {
         		}
         		
         		tspan = (Tspan)diagram.getElement(ID_BV);
-        		tspan.setText(Integer.toString(infantry.calculateBattleValue()));
+        		tspan.setText(Integer.toString(ValuationCache.getBattleValue(infantry)));
         		((Text)tspan.getParent()).rebuild();
         		tspan = (Tspan)diagram.getElement(ID_TRANSPORT_WT);
         		tspan.setText(String.format("%.1f tons", infantry.getWeight()));
@@ -27,10 +27,13 @@ import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 
+import megamek.common.Infantry;
 import megameklab.com.ui.MegaMekLabMainUI;
 import megameklab.com.util.ITab;
 import megameklab.com.util.ImageHelper;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.UnitMetrics;
+import megameklab.com.util.UnitMetricsEngine;
 import megameklab.com.util.UnitUtil;
 
 public class StatusBar extends ITab {
@@ -95,25 +98,26 @@ public class StatusBar extends ITab {
     }
 
     public void refresh() {
-
         DecimalFormat roundFormat = new DecimalFormat("#.##");
-        double currentTonnage;
-        int bv = getInfantry().calculateBattleValue();
-        long currentCost = (long) Math.round(getInfantry().getCost(false));
-
-        currentTonnage = getInfantry().getWeight();
 
         move.setText("Movement: " + getInfantry().getWalkMP() + "/" + getInfantry().getJumpMP());
-
         damage.setText("Damage/Trooper: " + roundFormat.format(getInfantry().getDamagePerTrooper()));
 
-        tons.setText("Tons: " + currentTonnage);
+        final Infantry infantry = getInfantry();
+        UnitMetricsEngine.getInstance().request(infantry, metrics -> {
+            // Ignore the result if the unit was replaced while it was being computed
+            if (getInfantry() == infantry) {
+                showMetrics(metrics);
+            }
+        });
+    }
 
-        bvLabel.setText("BV: " + bv);
+    private void showMetrics(UnitMetrics metrics) {
+        tons.setText("Tons: " + metrics.getCurrentTonnage());
+        bvLabel.setText("BV: " + metrics.getBV());
         bvLabel.setToolTipText("BV 2.0");
-
-        cost.setText("Cost: " + formatter.format(currentCost) + " C-bills");
-
+        cost.setText("Cost: " + formatter.format(metrics.getCost()) + " C-bills");
+        btnValidate.setToolTipText(metrics.isValid() ? "Validation Passed" : "The unit has validation errors");
     }
 
     private void getFluffImage() {
@@ -29,8 +29,14 @@ import megamek.common.Entity;
 import megamek.common.EquipmentType;
 import megamek.common.MechSummaryCache;
 import megameklab.com.MegaMekLab;
+import megameklab.com.ui.util.FactionCatalog;
+import megameklab.com.util.AutosaveManager;
 import megameklab.com.util.CConfig;
+import megameklab.com.util.EquipmentCatalog;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.UndoHistory;
+import megameklab.com.util.UnitRevision;
+import megameklab.com.util.UnitSearchIndex;
 import megameklab.com.util.UnitUtil;
 
 public abstract class MegaMekLabMainUI extends JFrame implements
@@ -42,11 +48,16 @@ public abstract class MegaMekLabMainUI extends JFrame implements
     private static final long serialVersionUID = 3971760390511127766L;
 
     private Entity entity = null;
+    private final AutosaveManager autosaveManager;
+    private final UndoHistory undoHistory = new UndoHistory(this);
 
     public MegaMekLabMainUI() {
 
         EquipmentType.initializeTypes();
+        EquipmentCatalog.getInstance();
         MechSummaryCache.getInstance();
+        UnitSearchIndex.preload();
+        FactionCatalog.preload();
         UnitUtil.loadFonts();
         new CConfig();
         System.out.println("Starting MegaMekLab version: " + MegaMekLab.VERSION);
@@ -92,6 +103,15 @@ public abstract class MegaMekLabMainUI extends JFrame implements
         setPreferredSize(maxSize);
         setExtendedState(CConfig.getIntParam("WINDOWSTATE"));
         setLocation(CConfig.getIntParam("WINDOWLEFT"), CConfig.getIntParam("WINDOWTOP"));
+
+        autosaveManager = new AutosaveManager(this);
+        autosaveManager.start();
+    }
+
+    @Override
+    public void dispose() {
+        autosaveManager.stop();
+        super.dispose();
     }
 
     public abstract void reloadTabs();
@@ -116,6 +136,21 @@ public abstract class MegaMekLabMainUI extends JFrame implements
 
     public void setEntity(Entity en) {
         entity = en;
+        undoHistory.reset();
+    }
+
+    public UndoHistory getUndoHistory() {
+        return undoHistory;
+    }
+
+    /**
+     * Records that the unit has been changed by one of the editors. Called by the refresh
+     * methods, so that the change reaches the undo history and anything that caches values
+     * computed from the unit.
+     */
+    protected void markChanged() {
+        UnitRevision.markChanged(entity);
+        undoHistory.markChanged();
     }
 
     public Entity getEntity() {
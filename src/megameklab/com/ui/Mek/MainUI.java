@@ -42,6 +42,7 @@ import megameklab.com.ui.Mek.tabs.BuildTab;
 import megameklab.com.ui.Mek.tabs.EquipmentTab;
 import megameklab.com.ui.Mek.tabs.PreviewTab;
 import megameklab.com.ui.Mek.tabs.StructureTab;
+import megameklab.com.ui.view.WeaponAnalysisView;
 import megameklab.com.util.MenuBarCreator;
 import megameklab.com.util.UnitUtil;
 
@@ -57,6 +58,7 @@ public class MainUI extends MegaMekLabMainUI {
     private StructureTab structureTab;
     private EquipmentTab equipmentTab;
     private PreviewTab previewTab;
+    private WeaponAnalysisView analysisView;
     private BuildTab buildTab;
     private StatusBar statusbar;
     JPanel masterPanel = new JPanel();
@@ -96,6 +98,7 @@ public class MainUI extends MegaMekLabMainUI {
         structureTab = new StructureTab(this);
 
         previewTab = new PreviewTab(this);
+        analysisView = new WeaponAnalysisView(this);
 
         statusbar = new StatusBar(this);
         equipmentTab = new EquipmentTab(this);
@@ -110,6 +113,7 @@ public class MainUI extends MegaMekLabMainUI {
         configPane.addTab("Equipment", equipmentTab);
         //ConfigPane.addTab("Weapons", weaponTab);
         configPane.addTab("Assign Criticals", buildTab);
+        configPane.addTab("Analysis", analysisView);
         configPane.addTab("Preview", previewTab);
 
         //masterPanel.add(header);
@@ -210,11 +214,13 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshAll() {
+        markChanged();
         statusbar.refresh();
         structureTab.refresh();
         equipmentTab.refresh();
         buildTab.refresh();
         previewTab.refresh();
+        analysisView.refresh();
     }
 
     @Override
@@ -223,6 +229,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshBuild() {
+        markChanged();
         buildTab.refresh();
     }
 
@@ -234,6 +241,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshPreview() {
+        markChanged();
         previewTab.refresh();
 
     }
@@ -257,7 +265,9 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshStatus() {
+        markChanged();
         statusbar.refresh();
+        analysisView.refresh();
     }
 
     @Override
@@ -28,19 +28,13 @@ import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 
-import megamek.common.AmmoType;
-import megamek.common.Engine;
 import megamek.common.Mech;
-import megamek.common.Mounted;
-import megamek.common.QuadMech;
-import megamek.common.TripodMech;
-import megamek.common.WeaponType;
-import megamek.common.verifier.EntityVerifier;
-import megamek.common.verifier.TestMech;
 import megameklab.com.ui.MegaMekLabMainUI;
 import megameklab.com.util.ITab;
 import megameklab.com.util.ImageHelper;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.UnitMetrics;
+import megameklab.com.util.UnitMetricsEngine;
 import megameklab.com.util.UnitUtil;
 
 public class StatusBar extends ITab {
@@ -57,8 +51,6 @@ public class StatusBar extends ITab {
     private JLabel tons = new JLabel();
     private JLabel heatSink = new JLabel();
     private JLabel cost = new JLabel();
-    private EntityVerifier entityVerifier = EntityVerifier.getInstance(new File("data/mechfiles/UnitVerifierOptions.xml"));
-    private TestMech testEntity = null;
     private DecimalFormat formatter;
     private JFrame parentFrame;
 
@@ -69,7 +61,6 @@ public class StatusBar extends ITab {
         parentFrame = parent;
 
         formatter = new DecimalFormat();
-        testEntity = new TestMech(getMech(), entityVerifier.mechOption, null);
         btnValidate.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 UnitUtil.showValidation(getMech(), getParentFrame());
@@ -108,28 +99,22 @@ public class StatusBar extends ITab {
     }
 
     public void refresh() {
+        final Mech mech = getMech();
+        UnitMetricsEngine.getInstance().request(mech, metrics -> {
+            // Ignore the result if the unit was replaced while it was being computed
+            if (getMech() == mech) {
+                showMetrics(metrics);
+            }
+        });
+    }
 
-        int heat = getMech().getHeatCapacity();
-        double tonnage = getMech().getWeight();
-        double currentTonnage;
-        int bv = getMech().calculateBattleValue();
-        int maxCrits;
-        if (getMech() instanceof TripodMech) {
-            maxCrits = 84;
-        } else if (getMech() instanceof QuadMech) {
-            maxCrits = 66;
-        } else {
-            maxCrits = 78;
-        }
-        int currentCrits = UnitUtil.countUsedCriticals(getMech());
-        long currentCost = (long) Math.round(getMech().getCost(false));
-
-        testEntity = new TestMech(getMech(), entityVerifier.mechOption, null);
-
-        currentTonnage = testEntity.calculateWeight();
-        currentTonnage += UnitUtil.getUnallocatedAmmoTonnage(getMech());
-
-        double totalHeat = calculateTotalHeat();
+    private void showMetrics(UnitMetrics metrics) {
+        int heat = metrics.getHeatDissipated();
+        double tonnage = metrics.getMaxTonnage();
+        double currentTonnage = metrics.getCurrentTonnage();
+        int maxCrits = metrics.getMaxSlots();
+        int currentCrits = metrics.getUsedSlots();
+        double totalHeat = metrics.getHeatGenerated();
 
         heatSink.setText("Heat: " + totalHeat + "/" + heat);
         heatSink.setToolTipText("Total Heat Generated/Total Heat Dissipated");
@@ -147,10 +132,10 @@ public class StatusBar extends ITab {
             tons.setForeground(Color.black);
         }
 
-        bvLabel.setText("BV: " + bv);
+        bvLabel.setText("BV: " + metrics.getBV());
         bvLabel.setToolTipText("BV 2.0");
 
-        cost.setText("Cost: " + formatter.format(currentCost) + " C-bills");
+        cost.setText("Cost: " + formatter.format(metrics.getCost()) + " C-bills");
 
         crits.setText("Criticals: " +  currentCrits + "/" + maxCrits);
         if(currentCrits > maxCrits) {
@@ -159,65 +144,7 @@ public class StatusBar extends ITab {
             crits.setForeground(Color.BLACK);
         }
 
-    }
-
-    public double calculateTotalHeat() {
-        double heat = 0;
-
-        if (getMech().getOriginalJumpMP() > 0) {
-            if (getMech().getJumpType() == Mech.JUMP_IMPROVED) {
-                heat += Math.max(3, Math.ceil(getMech().getOriginalJumpMP() / 2.0f));
-            } else if (getMech().getJumpType() != Mech.JUMP_BOOSTER) {
-                heat += Math.max(3, getMech().getOriginalJumpMP());
-            }
-            if (getMech().getEngine().getEngineType() == Engine.XXL_ENGINE) {
-                heat *= 2;
-            }
-        } else if (getMech().getEngine().getEngineType() == Engine.XXL_ENGINE) {
-            heat += 6;
-        } else {
-            heat += 2;
-        }
-
-        if (getMech().hasNullSig()) {
-            heat += 10;
-        }
-
-        if (getMech().hasChameleonShield()) {
-            heat += 6;
-        }
-
-        for (Mounted mounted : getMech().getWeaponList()) {
-            WeaponType wtype = (WeaponType) mounted.getType();
-            double weaponHeat = wtype.getHeat();
-
-            // only count non-damaged equipment
-            if (mounted.isMissing() || mounted.isHit() || mounted.isDestroyed() || mounted.isBreached()) {
-                continue;
-            }
-
-            // one shot weapons count 1/4
-            if ((wtype.getAmmoType() == AmmoType.T_ROCKET_LAUNCHER) || wtype.hasFlag(WeaponType.F_ONESHOT)) {
-                weaponHeat *= 0.25;
-            }
-
-            // double heat for ultras
-            if ((wtype.getAmmoType() == AmmoType.T_AC_ULTRA) || (wtype.getAmmoType() == AmmoType.T_AC_ULTRA_THB)) {
-                weaponHeat *= 2;
-            }
-
-            // Six times heat for RAC
-            if (wtype.getAmmoType() == AmmoType.T_AC_ROTARY) {
-                weaponHeat *= 6;
-            }
-
-            // half heat for streaks
-            if ((wtype.getAmmoType() == AmmoType.T_SRM_STREAK) || (wtype.getAmmoType() == AmmoType.T_MRM_STREAK) || (wtype.getAmmoType() == AmmoType.T_LRM_STREAK)) {
-                weaponHeat *= 0.5;
-            }
-            heat += weaponHeat;
-        }
-        return heat;
+        btnValidate.setToolTipText(metrics.isValid() ? "Validation Passed" : "The unit has validation errors");
     }
 
     private void getFluffImage() {
@@ -115,6 +115,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshAll() {
+        markChanged();
         structureTab.refresh();
         equipmentTab.refresh();
         buildTab.refresh();
@@ -131,6 +132,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshBuild() {
+        markChanged();
         buildTab.refresh();
     }
 
@@ -156,6 +158,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshStatus() {
+        markChanged();
         statusbar.refresh();
     }
 
@@ -230,6 +233,7 @@ public class MainUI extends MegaMekLabMainUI {
 
     @Override
     public void refreshPreview() {
+        markChanged();
         previewTab.refresh();
     }
 
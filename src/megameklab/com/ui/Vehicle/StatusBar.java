@@ -30,13 +30,12 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import megamek.common.Tank;
-import megamek.common.verifier.EntityVerifier;
-import megamek.common.verifier.TestSupportVehicle;
-import megamek.common.verifier.TestTank;
 import megameklab.com.ui.MegaMekLabMainUI;
 import megameklab.com.util.ITab;
 import megameklab.com.util.ImageHelper;
 import megameklab.com.util.RefreshListener;
+import megameklab.com.util.UnitMetrics;
+import megameklab.com.util.UnitMetricsEngine;
 import megameklab.com.util.UnitUtil;
 
 public class StatusBar extends ITab {
@@ -54,9 +53,6 @@ public class StatusBar extends ITab {
     private JLabel tons = new JLabel();
     private JLabel slots = new JLabel();
     private JLabel cost = new JLabel();
-    private EntityVerifier entityVerifier = EntityVerifier.getInstance(new File(
-            "data/mechfiles/UnitVerifierOptions.xml"));
-    private TestTank testEntity = null;
     private DecimalFormat formatter;
     private JFrame parentFrame;
 
@@ -67,13 +63,6 @@ public class StatusBar extends ITab {
         parentFrame = parent;
 
         formatter = new DecimalFormat();
-        if (parent.getEntity().isSupportVehicle()) {
-            testEntity = new TestSupportVehicle((Tank) parent.getEntity(),
-                    entityVerifier.tankOption, null);
-        } else {
-            testEntity = new TestTank((Tank) parent.getEntity(), entityVerifier.tankOption,
-                    null);
-        }
         btnValidate.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 UnitUtil.showValidation(getTank(), getParentFrame());
@@ -122,20 +111,11 @@ public class StatusBar extends ITab {
     }
 
     public JLabel bvLabel() {
-        int bv = getTank().calculateBattleValue();
-        bvLabel.setText("BV: " + bv);
-
+        // Filled in with the other computed values by refresh()
         return bvLabel;
     }
 
     public JLabel tonnageLabel() {
-        double tonnage = getTank().getWeight();
-        double currentTonnage;
-
-        currentTonnage = testEntity.calculateWeight();
-        currentTonnage += UnitUtil.getUnallocatedAmmoTonnage(getTank());
-
-        tons.setText("Tonnage: " + currentTonnage + "/" + tonnage);
         return tons;
     }
 
@@ -152,22 +132,22 @@ public class StatusBar extends ITab {
         int walk = getTank().getOriginalWalkMP();
         int run = getTank().getRunMP(true, true, false);
         int jump = getTank().getOriginalJumpMP();
-        double tonnage = getTank().getWeight();
-        double currentTonnage;
-        int bv = getTank().calculateBattleValue();
 
-        if (getTank().isSupportVehicle()) {
-            testEntity = new TestSupportVehicle(getTank(),
-                    entityVerifier.tankOption, null);
-        } else {
-            testEntity = new TestTank((Tank) getTank(), entityVerifier.tankOption,
-                    null);
-        }
+        move.setText("Movement: " + walk + "/" + run + "/" + jump);
+        move.setToolTipText("Walk/Run/Jump MP");
 
-        currentTonnage = testEntity.calculateWeight();
+        final Tank tank = getTank();
+        UnitMetricsEngine.getInstance().request(tank, metrics -> {
+            // Ignore the result if the unit was replaced while it was being computed
+            if (getTank() == tank) {
+                showMetrics(metrics);
+            }
+        });
+    }
 
-        currentTonnage += UnitUtil.getUnallocatedAmmoTonnage(getTank());
-        long currentCost = (long) Math.round(getTank().getCost(false));
+    private void showMetrics(UnitMetrics metrics) {
+        double tonnage = metrics.getMaxTonnage();
+        double currentTonnage = metrics.getCurrentTonnage();
 
         tons.setText("Tonnage: " + currentTonnage + "/" + tonnage);
         tons.setToolTipText("Current Tonnage/Max Tonnage");
@@ -176,23 +156,20 @@ public class StatusBar extends ITab {
         } else {
             tons.setForeground(Color.black);
         }
-        Tank tank = getTank();
-        int currentSlots = tank.getTotalSlots() - tank.getFreeSlots();
-        slots.setText("Slots: "+currentSlots+"/"+tank.getTotalSlots());
-        if (currentSlots > tank.getTotalSlots()) {
+        int currentSlots = metrics.getUsedSlots();
+        slots.setText("Slots: "+currentSlots+"/"+metrics.getMaxSlots());
+        if (currentSlots > metrics.getMaxSlots()) {
             slots.setForeground(Color.red);
         } else {
             slots.setForeground(Color.black);
         }
 
-        bvLabel.setText("BV: " + bv);
+        bvLabel.setText("BV: " + metrics.getBV());
         bvLabel.setToolTipText("BV 2.0");
 
-        cost.setText("Cost: " + formatter.format(currentCost) + " C-bills");
-
-        move.setText("Movement: " + walk + "/" + run + "/" + jump);
-        move.setToolTipText("Walk/Run/Jump MP");
+        cost.setText("Cost: " + formatter.format(metrics.getCost()) + " C-bills");
 
+        btnValidate.setToolTipText(metrics.isValid() ? "Validation Passed" : "The unit has validation errors");
     }
 
     private void getFluffImage() {
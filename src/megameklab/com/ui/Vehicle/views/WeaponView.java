@@ -28,7 +28,6 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Vector;
 
@@ -53,6 +52,7 @@ import megamek.common.WeaponType;
 import megamek.common.weapons.artillery.ArtilleryWeapon;
 import megameklab.com.ui.EntitySource;
 import megameklab.com.util.CriticalTableModel;
+import megameklab.com.util.EquipmentCatalog;
 import megameklab.com.util.IView;
 import megameklab.com.util.RefreshListener;
 import megameklab.com.util.SpringLayoutHelper;
@@ -287,9 +287,7 @@ public class WeaponView extends IView implements ActionListener, MouseListener,
 
         this.add(mainPanel);
 
-        Enumeration<EquipmentType> weaponTypes = EquipmentType.getAllTypes();
-        while (weaponTypes.hasMoreElements()) {
-            EquipmentType eq = weaponTypes.nextElement();
+        for (EquipmentType eq : EquipmentCatalog.getInstance().getAll()) {
 
             if (!UnitUtil.isUnitWeapon(eq, getTank())) {
                 continue;
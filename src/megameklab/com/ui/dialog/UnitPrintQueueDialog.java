@@ -16,13 +16,17 @@
 
 package megameklab.com.ui.dialog;
 
+import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
@@ -32,16 +36,17 @@ import javax.swing.JDialog;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JList;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
-import megamek.client.ui.swing.UnitLoadingDialog;
-import megamek.client.ui.swing.UnitSelectorDialog;
 import megamek.common.Entity;
-import megamek.common.MechFileParser;
+import megameklab.com.util.UnitImportTask;
 import megameklab.com.util.UnitPrintManager;
 
 /*
@@ -61,7 +66,10 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
     private JButton bPrint = new JButton("Print");
     private JButton bSelectFile = new JButton("Select From File");
     private JButton bSelectCache = new JButton("Select From Cache");
+    private JButton bSelectMul = new JButton("Select From MUL");
+    private JButton bStopImport = new JButton("Stop Loading");
     private JButton bRemove = new JButton("Remove");
+    private JProgressBar importProgress = new JProgressBar(0, 100);
     private JCheckBox chSinglePrint = new JCheckBox("Print Single");
     private JFrame clientgui;
 
@@ -69,6 +77,8 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
 
     private Vector<Entity> units = new Vector<Entity>();
 
+    private UnitImportTask importTask = null;
+
     public UnitPrintQueueDialog(JFrame frame) {
 
         super(frame, "Unit Print Queue", true);
@@ -90,6 +100,8 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
         buttonPanel.add(chSinglePrint);
         buttonPanel.add(bSelectCache);
         buttonPanel.add(bSelectFile);
+        buttonPanel.add(bSelectMul);
+        buttonPanel.add(bStopImport);
         buttonPanel.add(bRemove);
         buttonPanel.add(bPrint);
         buttonPanel.add(bCancel);
@@ -108,25 +120,34 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
          * bPrint.setPreferredSize(newSize);
          */
         bSelectFile.setMaximumSize(newSize);
+        bSelectMul.setMaximumSize(newSize);
+        bStopImport.setMaximumSize(newSize);
         bRemove.setMaximumSize(newSize);
         bCancel.setMaximumSize(newSize);
         bPrint.setMaximumSize(newSize);
 
         masterPanel.setLayout(new BoxLayout(masterPanel, BoxLayout.X_AXIS));
 
-        setSize(295, 280);
+        setSize(295, 340);
         setResizable(false);
         setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
 
         masterPanel.add(listScrollPane);
         masterPanel.add(buttonPanel);
-        this.add(masterPanel);
+        this.add(masterPanel, BorderLayout.CENTER);
+
+        importProgress.setStringPainted(true);
+        importProgress.setVisible(false);
+        bStopImport.setEnabled(false);
+        this.add(importProgress, BorderLayout.SOUTH);
 
         // add all the listeners
         bCancel.addActionListener(this);
         bPrint.addActionListener(this);
         bSelectCache.addActionListener(this);
         bSelectFile.addActionListener(this);
+        bSelectMul.addActionListener(this);
+        bStopImport.addActionListener(this);
         bRemove.addActionListener(this);
 
         bCancel.setMnemonic('c');
@@ -145,6 +166,9 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
 
     public void actionPerformed(ActionEvent ae) {
         if (ae.getSource() == bCancel) {
+            if (null != importTask) {
+                importTask.cancel(true);
+            }
             dispose();
         }
 
@@ -154,12 +178,7 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
         }
 
         if (ae.getSource().equals(bSelectCache)) {
-            UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(clientgui);
-            unitLoadingDialog.setVisible(true);
-            UnitSelectorDialog viewer = new UnitSelectorDialog(clientgui, unitLoadingDialog, true);
-
-            viewer.setVisible(false);
-            Entity entity = viewer.getChosenEntity();
+            Entity entity = UnitSearchDialog.chooseEntity(clientgui);
 
             if (entity != null) {
                 units.add(entity);
@@ -184,15 +203,23 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
                 return;
             }
 
-            for (File entityFile : f.getSelectedFiles()) {
-                try {
-                    Entity tempEntity = new MechFileParser(entityFile).getEntity();
-                    units.add(tempEntity);
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
+            startImport(Arrays.asList(f.getSelectedFiles()));
+        } else if (ae.getSource().equals(bSelectMul)) {
+            JFileChooser f = new JFileChooser(System.getProperty("user.dir"));
+            f.setLocation(clientgui.getLocation().x + 150, clientgui.getLocation().y + 100);
+            f.setDialogTitle("Print From MUL");
+            f.setMultiSelectionEnabled(true);
+            f.setFileFilter(new FileNameExtensionFilter("Mul Files", "mul"));
+
+            int returnVal = f.showOpenDialog(clientgui);
+            if ((returnVal != JFileChooser.APPROVE_OPTION) || (f.getSelectedFile() == null)) {
+                return;
+            }
+            startImport(Arrays.asList(f.getSelectedFiles()));
+        } else if (ae.getSource().equals(bStopImport)) {
+            if (null != importTask) {
+                importTask.cancel(true);
             }
-            refresh();
         } else if (ae.getSource().equals(bRemove)) {
             if (unitList.getSelectedIndices().length > 0) {
                 for (int pos = unitList.getSelectedIndices().length - 1; pos >= 0; pos--) {
@@ -204,6 +231,58 @@ public class UnitPrintQueueDialog extends JDialog implements ActionListener, Key
         }
     }
 
+    /**
+     * Loads the files in the background, adding each unit to the queue as it is parsed.
+     */
+    private void startImport(List<File> files) {
+        if ((null != importTask) && !importTask.isDone()) {
+            return;
+        }
+        setImporting(true);
+        importProgress.setValue(0);
+        importTask = new UnitImportTask(files, loaded -> {
+            units.addAll(loaded);
+            refresh();
+        });
+        importTask.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) { //$NON-NLS-1$
+                importProgress.setValue((Integer) evt.getNewValue());
+            } else if ("state".equals(evt.getPropertyName()) //$NON-NLS-1$
+                    && (SwingWorker.StateValue.DONE == evt.getNewValue())) {
+                importFinished();
+            }
+        });
+        importTask.execute();
+    }
+
+    private void importFinished() {
+        setImporting(false);
+        try {
+            List<String> errors = importTask.get();
+            if (!errors.isEmpty()) {
+                StringBuilder sb = new StringBuilder("The following files could not be loaded:");
+                for (String error : errors) {
+                    sb.append("\n").append(error);
+                }
+                JOptionPane.showMessageDialog(this, sb.toString(), "Load Errors",
+                        JOptionPane.WARNING_MESSAGE);
+            }
+        } catch (CancellationException ex) {
+            // Stopped by the user; keep whatever was already loaded.
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Load Errors",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void setImporting(boolean importing) {
+        importProgress.setVisible(importing);
+        bStopImport.setEnabled(importing);
+        bSelectFile.setEnabled(!importing);
+        bSelectMul.setEnabled(!importing);
+        bPrint.setEnabled(!importing);
+    }
+
     public void keyReleased(java.awt.event.KeyEvent ke) {
         // no action on release
     }
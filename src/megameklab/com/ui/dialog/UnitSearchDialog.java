@@ -0,0 +1,340 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.ui.dialog;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+
+import megamek.common.Entity;
+import megamek.common.MechFileParser;
+import megamek.common.MechSummary;
+import megameklab.com.MegaMekLab;
+import megameklab.com.ui.util.IntRangeTextField;
+import megameklab.com.util.UnitSearchIndex;
+
+/**
+ * Selects a unit from the unit cache using {@link UnitSearchIndex}. A single dialog is kept
+ * for each frame and reused for every selection, so the table and filters are not rebuilt
+ * each time. The dialog can be opened before the cache has finished loading; the results are
+ * filled in when the index becomes available.
+ */
+public class UnitSearchDialog extends JDialog {
+
+    private static final long serialVersionUID = -3012837596034528815L;
+
+    private static final String ANY_TECH_LEVEL = "Any";
+
+    private static UnitSearchDialog instance = null;
+
+    private final JTextField txtName = new JTextField(20);
+    private final IntRangeTextField txtMinTons = new IntRangeTextField(4);
+    private final IntRangeTextField txtMaxTons = new IntRangeTextField(4);
+    private final IntRangeTextField txtMinBV = new IntRangeTextField(5);
+    private final IntRangeTextField txtMaxBV = new IntRangeTextField(5);
+    private final IntRangeTextField txtMinYear = new IntRangeTextField(4);
+    private final IntRangeTextField txtMaxYear = new IntRangeTextField(4);
+    private final JComboBox<String> cbTechLevel = new JComboBox<>();
+    private final JLabel lblStatus = new JLabel();
+    private final ResultsModel model = new ResultsModel();
+    private final JTable tblResults = new JTable(model);
+
+    private UnitSearchIndex index = null;
+    private MechSummary chosen = null;
+
+    /**
+     * @return The dialog for the given frame, created if necessary
+     */
+    public static UnitSearchDialog getInstance(Frame owner) {
+        if ((null == instance) || (instance.getOwner() != owner)) {
+            if (null != instance) {
+                instance.dispose();
+            }
+            instance = new UnitSearchDialog(owner);
+        }
+        return instance;
+    }
+
+    /**
+     * Convenience method to show the dialog and load the chosen unit.
+     *
+     * @return The chosen unit, or <code>null</code> if the dialog was cancelled
+     */
+    public static Entity chooseEntity(Frame owner) {
+        UnitSearchDialog dialog = getInstance(owner);
+        dialog.showDialog();
+        return dialog.getChosenEntity();
+    }
+
+    private UnitSearchDialog(Frame owner) {
+        super(owner, "Select Unit", true);
+        setDefaultCloseOperation(HIDE_ON_CLOSE);
+
+        JPanel panFilter = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(2, 4, 2, 4);
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        panFilter.add(new JLabel("Chassis/Model:"), gbc);
+        gbc.gridx = 1;
+        gbc.gridwidth = 3;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        panFilter.add(txtName, gbc);
+        gbc.gridwidth = 1;
+        gbc.fill = GridBagConstraints.NONE;
+        addRange(panFilter, gbc, 1, "Tonnage:", txtMinTons, txtMaxTons);
+        addRange(panFilter, gbc, 2, "BV:", txtMinBV, txtMaxBV);
+        addRange(panFilter, gbc, 3, "Year:", txtMinYear, txtMaxYear);
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        panFilter.add(new JLabel("Tech Level:"), gbc);
+        gbc.gridx = 1;
+        gbc.gridwidth = 3;
+        panFilter.add(cbTechLevel, gbc);
+        cbTechLevel.addItem(ANY_TECH_LEVEL);
+        cbTechLevel.addActionListener(e -> filter());
+
+        DocumentListener docListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filter();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filter();
+            }
+        };
+        for (JTextField field : new JTextField[] { txtName, txtMinTons, txtMaxTons, txtMinBV,
+                txtMaxBV, txtMinYear, txtMaxYear }) {
+            field.getDocument().addDocumentListener(docListener);
+        }
+
+        tblResults.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        tblResults.setAutoCreateRowSorter(true);
+        tblResults.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    select();
+                }
+            }
+        });
+
+        JButton btnSelect = new JButton("Select");
+        btnSelect.addActionListener(e -> select());
+        JButton btnCancel = new JButton("Cancel");
+        btnCancel.addActionListener(e -> setVisible(false));
+        getRootPane().setDefaultButton(btnSelect);
+        JPanel panButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        panButtons.add(lblStatus);
+        panButtons.add(btnSelect);
+        panButtons.add(btnCancel);
+
+        getContentPane().setLayout(new BorderLayout());
+        add(panFilter, BorderLayout.NORTH);
+        add(new JScrollPane(tblResults), BorderLayout.CENTER);
+        add(panButtons, BorderLayout.SOUTH);
+        setSize(700, 550);
+        setLocationRelativeTo(owner);
+
+        lblStatus.setText("Loading units...");
+        UnitSearchIndex.whenReady(this::setIndex);
+    }
+
+    private void addRange(JPanel panel, GridBagConstraints gbc, int row, String label,
+            IntRangeTextField min, IntRangeTextField max) {
+        gbc.gridy = row;
+        gbc.gridx = 0;
+        panel.add(new JLabel(label), gbc);
+        gbc.gridx = 1;
+        panel.add(min, gbc);
+        gbc.gridx = 2;
+        panel.add(new JLabel("to"), gbc);
+        gbc.gridx = 3;
+        panel.add(max, gbc);
+    }
+
+    private void setIndex(UnitSearchIndex index) {
+        this.index = index;
+        DefaultComboBoxModel<String> levels = new DefaultComboBoxModel<>();
+        levels.addElement(ANY_TECH_LEVEL);
+        for (String level : index.getTechLevels()) {
+            levels.addElement(level);
+        }
+        cbTechLevel.setModel(levels);
+        filter();
+    }
+
+    /**
+     * Shows the dialog and blocks until a unit is chosen or the dialog is cancelled.
+     */
+    public void showDialog() {
+        chosen = null;
+        txtName.requestFocusInWindow();
+        txtName.selectAll();
+        setVisible(true);
+    }
+
+    private void filter() {
+        if (null == index) {
+            return;
+        }
+        String level = (String) cbTechLevel.getSelectedItem();
+        long start = System.nanoTime();
+        List<MechSummary> results = index.search(txtName.getText(),
+                bound(txtMinTons, 0), bound(txtMaxTons, Integer.MAX_VALUE),
+                bound(txtMinBV, 0), bound(txtMaxBV, Integer.MAX_VALUE),
+                bound(txtMinYear, 0), bound(txtMaxYear, Integer.MAX_VALUE),
+                ANY_TECH_LEVEL.equals(level) ? null : level);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        model.setResults(results);
+        lblStatus.setText(String.format("%d of %d units (%d ms)", results.size(), index.size(), elapsed));
+    }
+
+    private static int bound(IntRangeTextField field, int defaultVal) {
+        return field.getText().trim().isEmpty() ? defaultVal : field.getIntVal();
+    }
+
+    private void select() {
+        int row = tblResults.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+        chosen = model.getUnit(tblResults.convertRowIndexToModel(row));
+        setVisible(false);
+    }
+
+    /**
+     * @return The summary of the unit chosen the last time the dialog was shown, or
+     *         <code>null</code> if it was cancelled
+     */
+    public MechSummary getChosenMechSummary() {
+        return chosen;
+    }
+
+    /**
+     * Parses the unit chosen the last time the dialog was shown.
+     *
+     * @return The unit, or <code>null</code> if none was chosen or it could not be loaded
+     */
+    public Entity getChosenEntity() {
+        if (null == chosen) {
+            return null;
+        }
+        try {
+            return new MechFileParser(chosen.getSourceFile(), chosen.getEntryName()).getEntity();
+        } catch (Exception ex) {
+            MegaMekLab.getLogger().log(UnitSearchDialog.class, "getChosenEntity()", ex); //$NON-NLS-1$
+            JOptionPane.showMessageDialog(getOwner(), "Could not load " + chosen.getName()
+                    + "\n" + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static class ResultsModel extends AbstractTableModel {
+
+        private static final long serialVersionUID = 6127938153719843025L;
+
+        private static final String[] COLUMNS = { "Chassis", "Model", "Tons", "BV", "Year", "Tech Level" };
+
+        private List<MechSummary> results = new ArrayList<>();
+
+        void setResults(List<MechSummary> results) {
+            this.results = results;
+            fireTableDataChanged();
+        }
+
+        MechSummary getUnit(int row) {
+            return results.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return results.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            switch (column) {
+                case 2:
+                    return Double.class;
+                case 3:
+                case 4:
+                    return Integer.class;
+                default:
+                    return String.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            MechSummary ms = results.get(row);
+            switch (column) {
+                case 0:
+                    return ms.getChassis();
+                case 1:
+                    return ms.getModel();
+                case 2:
+                    return (double) ms.getTons();
+                case 3:
+                    return ms.getBV();
+                case 4:
+                    return ms.getYear();
+                case 5:
+                    return ms.getType();
+                default:
+                    return "";
+            }
+        }
+    }
+}
@@ -23,12 +23,9 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.StringJoiner;
 import java.util.Vector;
 
@@ -38,6 +35,8 @@ import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 import javax.swing.JTree;
 import javax.swing.ToolTipManager;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.DefaultTreeModel;
@@ -62,9 +61,10 @@ import megamek.common.weapons.bayweapons.PPCBayWeapon;
 import megamek.common.weapons.ppc.PPCWeapon;
 import megameklab.com.MegaMekLab;
 import megameklab.com.ui.EntitySource;
-import megameklab.com.util.CConfig;
+import megameklab.com.util.ColorTheme;
 import megameklab.com.util.RefreshListener;
 import megameklab.com.util.UnitUtil;
+import megameklab.com.util.WeaponBayPacker;
 
 /**
  * Variant of DropTargetCriticalList for aerospace units that groups weapons into bays. Also
@@ -92,6 +92,8 @@ public class BayWeaponCriticalTree extends JTree {
     private final EntitySource eSource;
     private final DefaultTreeModel model;
     private RefreshListener refresh;
+    // What the tree showed when last rebuilt, or null if it has been changed since
+    private List<Object> contents = null;
     
     public BayWeaponCriticalTree(int location, EntitySource eSource, RefreshListener refresh) {
         this(location, eSource, refresh, FORWARD);
@@ -104,10 +106,31 @@ public class BayWeaponCriticalTree extends JTree {
         this.refresh = refresh;
         
         setMinimumSize(new Dimension(110,15));
-        TreeNode root = initRoot();
+        TreeNode root = initRoot(new WeaponBayIndex(eSource.getEntity()));
         setRootVisible(root.getChildCount() == 0);
         model = new DefaultTreeModel(root);
         setModel(model);
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                contents = null;
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                contents = null;
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                contents = null;
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                contents = null;
+            }
+        });
         setCellRenderer(renderer);
         addMouseListener(mouseListener);
         getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
@@ -123,6 +146,9 @@ public class BayWeaponCriticalTree extends JTree {
      * @param facing Either FORWARD, AFT, or BOTH
      */
     public void setFacing(int facing) {
+        if (this.facing != facing) {
+            contents = null;
+        }
         this.facing = facing;
     }
     
@@ -131,9 +157,24 @@ public class BayWeaponCriticalTree extends JTree {
     }
     
     public void rebuild() {
-        TreeNode root = initRoot();
+        rebuild(new WeaponBayIndex(eSource.getEntity()));
+    }
+    
+    /**
+     * Rebuilds the tree from an index of the unit's equipment, which can be shared by all the
+     * arcs. The tree is left alone if nothing it shows has changed since it was last built.
+     * 
+     * @param index An index of the unit's current equipment
+     */
+    public void rebuild(WeaponBayIndex index) {
+        List<Object> newContents = describe(index);
+        if (newContents.equals(contents)) {
+            return;
+        }
+        TreeNode root = initRoot(index);
         model.setRoot(root);
         setRootVisible(root.getChildCount() == 0);
+        contents = newContents;
     }
     
     /**
@@ -154,20 +195,20 @@ public class BayWeaponCriticalTree extends JTree {
         return count;
     }
     
+    private boolean matchesFacing(Mounted mounted) {
+        return (facing == BOTH) || (mounted.isRearMounted() == (facing == AFT));
+    }
+    
     /**
-     * Runs through all equipment mounted on the vessel and adds nodes for the ones that match this
-     * tree's location and facing.
+     * Adds nodes for the bays and equipment in the index that match this tree's location and facing.
      * 
-     * @return A new root node
+     * @param index An index of the unit's equipment
+     * @return      A new root node
      */
-    private TreeNode initRoot() {
+    private TreeNode initRoot(WeaponBayIndex index) {
         MutableTreeNode root = new DefaultMutableTreeNode();
-        Set<Integer> eqSet = new HashSet<>();
-        for (Mounted bay : eSource.getEntity().getWeaponBayList()) {
-            if ((bay.getLocation() == location)
-                    && ((facing == BOTH)
-                            || (bay.isRearMounted() == (facing == AFT)))) {
-                eqSet.add(eSource.getEntity().getEquipmentNum(bay));
+        for (Mounted bay : index.getBays(location)) {
+            if (matchesFacing(bay)) {
                 EquipmentNode bayNode = new BayNode(bay);
                 root.insert(bayNode, root.getChildCount());
                 bayNode.setParent(root);
@@ -176,25 +217,17 @@ public class BayWeaponCriticalTree extends JTree {
                     EquipmentNode node = new EquipmentNode(weapon);
                     bayNode.insert(node, bayNode.getChildCount());
                     node.setParent(bayNode);
-                    eqSet.add(wNum);
                 }
                 for (Integer aNum : bay.getBayAmmo()) {
                     final Mounted ammo = eSource.getEntity().getEquipment(aNum);
                     EquipmentNode node = new EquipmentNode(ammo);
                     bayNode.insert(node, bayNode.getChildCount());
                     node.setParent(bayNode);
-                    eqSet.add(aNum);
                 }
             }
         }
-        for (int eqIndex = 0; eqIndex < eSource.getEntity().getEquipment().size(); eqIndex++) {
-            final Mounted eq = eSource.getEntity().getEquipment(eqIndex);
-            if ((eq.getLinked() != null) && (eq.getLinked().getType() instanceof WeaponType)) {
-                continue;
-            }
-            if (!eqSet.contains(eqIndex) && (eq.getLocation() == location)
-                    && ((facing == BOTH)
-                            || (eq.isRearMounted() == (facing == AFT)))) {
+        for (Mounted eq : index.getUnbayedEquipment(location)) {
+            if (matchesFacing(eq)) {
                 EquipmentNode node = new EquipmentNode(eq);
                 root.insert(node, root.getChildCount());
                 node.setParent(root);
@@ -203,6 +236,45 @@ public class BayWeaponCriticalTree extends JTree {
         return root;
     }
     
+    /**
+     * Lists the equipment the tree would show along with the values that appear in the node
+     * names, so that a rebuild can be skipped if none of them have changed.
+     */
+    private List<Object> describe(WeaponBayIndex index) {
+        final Entity entity = eSource.getEntity();
+        List<Object> list = new ArrayList<>();
+        list.add(entity);
+        for (Mounted bay : index.getBays(location)) {
+            if (matchesFacing(bay)) {
+                list.add(bay);
+                list.add(bay.isRearMounted());
+                list.add(bay.getBayWeapons().size());
+                for (Integer wNum : bay.getBayWeapons()) {
+                    describe(list, entity.getEquipment(wNum));
+                }
+                list.add(bay.getBayAmmo().size());
+                for (Integer aNum : bay.getBayAmmo()) {
+                    describe(list, entity.getEquipment(aNum));
+                }
+            }
+        }
+        for (Mounted eq : index.getUnbayedEquipment(location)) {
+            if (matchesFacing(eq)) {
+                describe(list, eq);
+            }
+        }
+        return list;
+    }
+    
+    private void describe(List<Object> list, Mounted mounted) {
+        list.add(mounted);
+        if (null != mounted) {
+            list.add(mounted.getLinkedBy());
+            list.add(mounted.getBaseShotsLeft());
+            list.add(mounted.isRearMounted());
+        }
+    }
+    
     /**
      * Removes the bay node and all subnodes.
      * Removes all equipment in this bay by assigning it to LOC_NONE and deletes the bay itself.
@@ -539,22 +611,10 @@ public class BayWeaponCriticalTree extends JTree {
         }
         
         public Color getBackgroundColor() {
-            if (getMounted().getType() instanceof WeaponType) {
-                return CConfig.getBackgroundColor(CConfig.CONFIG_WEAPONS);
-            } else if (getMounted().getType() instanceof AmmoType) {
-                return CConfig.getBackgroundColor(CConfig.CONFIG_AMMO);
-            } else {
-                return CConfig.getBackgroundColor(CConfig.CONFIG_EQUIPMENT);
-            }
+            return ColorTheme.getInstance().getBackground(ColorTheme.Category.of(getMounted().getType()));
         }
         public Color getForegroundColor() {
-            if (getMounted().getType() instanceof WeaponType) {
-                return CConfig.getForegroundColor(CConfig.CONFIG_WEAPONS);
-            } else if (getMounted().getType() instanceof AmmoType) {
-                return CConfig.getForegroundColor(CConfig.CONFIG_AMMO);
-            } else {
-                return CConfig.getForegroundColor(CConfig.CONFIG_EQUIPMENT);
-            }
+            return ColorTheme.getInstance().getForeground(ColorTheme.Category.of(getMounted().getType()));
         }
         
         @Override
@@ -608,12 +668,12 @@ public class BayWeaponCriticalTree extends JTree {
 
         @Override
         public Color getBackgroundColor() {
-            return CConfig.getBackgroundColor(CConfig.CONFIG_WEAPONS);
+            return ColorTheme.getInstance().getBackground(ColorTheme.Category.WEAPONS);
         }
 
         @Override
         public Color getForegroundColor() {
-            return CConfig.getForegroundColor(CConfig.CONFIG_WEAPONS);
+            return ColorTheme.getInstance().getForeground(ColorTheme.Category.WEAPONS);
         }
         
         @Override
@@ -1066,38 +1126,26 @@ public class BayWeaponCriticalTree extends JTree {
     }
     
     /**
-     * Adds multiple equipment mounts to this location. Weapons and ammo will go into the first available
-     * bay. Ammo that does not have a legal bay will be skipped.
+     * Adds multiple equipment mounts to this location. Weapons are packed into as few bays as
+     * possible, and ammo and weapon enhancements go into the first bay that can use them. Ammo and
+     * enhancements that do not have a legal bay will be skipped. The unit is updated all at once
+     * with a single refresh.
      * 
-     * @param eq
+     * @param eqList The equipment to add
      */
     public void addToLocation(List<Mounted> eqList) {
-        // We want to check for weapons first since they might make a new bay that creates a legal space
-        // for non-weapon equipment that might not have a place otherwise.
-        Collections.sort(eqList, (m1, m2) -> {
-            return ((m1.getType() instanceof WeaponType)? 0 : 1)
-                    - ((m2.getType() instanceof WeaponType)? 0 : 1);
-        });
-        LIST:for (Mounted eq : eqList) {
-            if (eSource.getEntity().usesWeaponBays() && ((eq.getType() instanceof WeaponType)
-                    || (eq.getType() instanceof AmmoType)
-                    || (UnitUtil.isWeaponEnhancement(eq.getType())))) {
-                for (Enumeration<?> e = ((MutableTreeNode)model.getRoot()).children(); e.hasMoreElements(); ) {
-                    final Mounted bay = ((EquipmentNode)e.nextElement()).getMounted();
-                    if ((bay.getType() instanceof BayWeapon)
-                            && (canTakeEquipment(bay, eq))) {
-                        addToBay(bay, eq);
-                        continue LIST;
-                    }
-                }
-                if (eq.getType() instanceof WeaponType) {
-                    addToNewBay(((WeaponType)eq.getType()).getBayType(), eq);
-                }
-                // Skip any ammo that can't go into a bay here
-            } else {
-                addToLocation(eq);
-            }
+        List<Mounted> skipped = new WeaponBayPacker(eSource.getEntity(), location, facing == AFT, facing == BOTH)
+                .pack(eqList);
+        if (!skipped.isEmpty()) {
+            MegaMekLab.getLogger().log(BayWeaponCriticalTree.class, "addToLocation(List<Mounted>)", //$NON-NLS-1$
+                    LogLevel.DEBUG, skipped.size() + " items have no legal bay in " + getLocationName()); //$NON-NLS-1$
         }
+        UnitUtil.compactCriticals(eSource.getEntity());
+        refresh.refreshEquipment();
+        refresh.refreshBuild();
+        refresh.refreshPreview();
+        refresh.refreshStatus();
+        refresh.refreshSummary();
     }
     
     /**
@@ -1198,79 +1246,7 @@ public class BayWeaponCriticalTree extends JTree {
      * @return
      */
     private boolean canTakeEquipment(Mounted bay, Mounted eq) {
-        if (eq.getType() instanceof WeaponType) {
-            if (((WeaponType)eq.getType()).getBayType() != bay.getType()) {
-                return false;
-            }
-            // find current av
-            double av = 0;
-            for (Integer wNum : bay.getBayWeapons()) {
-                final Mounted w = eSource.getEntity().getEquipment(wNum);
-                // Plasma weapons add the average heat to the damage to compute bay AV limit.
-                // That's 1d6 for rifle and 2d6 for canon.
-                if (w.getType().hasFlag(WeaponType.F_PLASMA)) {
-                    if (((WeaponType)w.getType()).getDamage() == WeaponType.DAMAGE_VARIABLE) {
-                        av += 7;
-                    } else {
-                        av += 13.5;
-                    }
-                } else {
-                    av += ((WeaponType) w.getType()).getShortAV();
-                }
-                // Capacitors in bays are always considered charged.
-                if ((w.getLinkedBy() != null)
-                        && (w.getLinkedBy().getType().hasFlag(MiscType.F_PPC_CAPACITOR))) {
-                    av += 5;
-                }
-            }
-            if (((WeaponType)eq.getType()).isCapital()) {
-                return av + ((WeaponType)eq.getType()).getShortAV() <= 70;
-            } else {
-                return av + ((WeaponType)eq.getType()).getShortAV() <= 700;
-            }
-        } else if (eq.getType() instanceof AmmoType) {
-            for (int eqNum : bay.getBayWeapons()) {
-                final WeaponType weapon = (WeaponType)eSource.getEntity().getEquipment(eqNum).getType();
-                if ((weapon.getAmmoType() == ((AmmoType)eq.getType()).getAmmoType())
-                        && (weapon.getRackSize() == ((AmmoType)eq.getType()).getRackSize())) {
-                    return true;
-                }
-            }
-        } else if ((eq.getType() instanceof MiscType)
-                && ((eq.getType().hasFlag(MiscType.F_ARTEMIS)
-                        || eq.getType().hasFlag(MiscType.F_ARTEMIS_V))
-                        || eq.getType().hasFlag(MiscType.F_ARTEMIS_PROTO))) {
-            for (int eqNum : bay.getBayWeapons()) {
-                final Mounted weapon = eSource.getEntity().getEquipment(eqNum);
-                final WeaponType wtype = (WeaponType) weapon.getType();
-                if ((weapon.getLinkedBy() == null)
-                    && ((wtype.getAmmoType() == AmmoType.T_LRM)
-                            || (wtype.getAmmoType() == AmmoType.T_SRM)
-                            || (wtype.getAmmoType() == AmmoType.T_MML)
-                        || (wtype.getAmmoType() == AmmoType.T_NLRM))) {
-                    return true;
-                }
-            }
-        } else if ((eq.getType() instanceof MiscType)
-                && eq.getType().hasFlag(MiscType.F_APOLLO)) {
-            for (int eqNum : bay.getBayWeapons()) {
-                final Mounted weapon = eSource.getEntity().getEquipment(eqNum);
-                final WeaponType wtype = (WeaponType) weapon.getType();
-                if ((weapon.getLinkedBy() == null)
-                    && (wtype.getAmmoType() == AmmoType.T_MRM)) {
-                    return true;
-                }
-            }
-        } else if ((eq.getType() instanceof MiscType)
-                && eq.getType().hasFlag(MiscType.F_PPC_CAPACITOR)
-                && (bay.getType() instanceof PPCBayWeapon)) {
-            for (int eqNum : bay.getBayWeapons()) {
-                if (eSource.getEntity().getEquipment(eqNum).getLinkedBy() == null) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return WeaponBayPacker.canTakeEquipment(eSource.getEntity(), bay, eq);
     }
 
     /**
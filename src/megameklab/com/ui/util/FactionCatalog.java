@@ -0,0 +1,230 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.ui.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+import megamek.client.ratgenerator.FactionRecord;
+import megamek.client.ratgenerator.RATGenerator;
+import megamek.common.ITechnology;
+import megameklab.com.MegaMekLab;
+
+/**
+ * The factions available for the faction selector, taken from the RATGenerator data. The
+ * factions active in each year are worked out once in the background when the RATGenerator
+ * notifies its listeners that it has finished loading. Consecutive years with the same factions and names share a single list,
+ * so the catalog is a short sorted array of the years where the list changes for each tech
+ * base, and finding the factions for a year is a binary search.
+ *
+ * Use {@link #whenReady(Consumer)} to obtain the catalog without blocking the event dispatch
+ * thread.
+ */
+public class FactionCatalog {
+
+    /** Years outside this range are worked out when requested rather than precomputed */
+    static final int MIN_YEAR = 1950;
+    static final int MAX_YEAR = 3250;
+
+    private static final int IS = 0;
+    private static final int CLAN = 1;
+
+    private static FactionCatalog instance = null;
+    private static boolean loading = false;
+    private static boolean building = false;
+    private static final List<Consumer<FactionCatalog>> waiting = new ArrayList<>();
+
+    private final FactionRecord[] records;
+    private final YearIndex[] indices = new YearIndex[2];
+
+    /**
+     * Passes the catalog to the callback on the event dispatch thread, building it first if
+     * necessary. If the catalog is ready the callback is invoked immediately.
+     */
+    public static synchronized void whenReady(Consumer<FactionCatalog> callback) {
+        if (null != instance) {
+            callback.accept(instance);
+            return;
+        }
+        waiting.add(callback);
+        if (!loading) {
+            loading = true;
+            build();
+        }
+    }
+
+    /**
+     * Starts loading the RATGenerator data and building the catalog if not already done.
+     */
+    public static void preload() {
+        whenReady(catalog -> {});
+    }
+
+    private static void build() {
+        final RATGenerator rg = RATGenerator.getInstance();
+        rg.registerListener(e -> ratGenInitialized(rg));
+        // The data may have finished loading before the listener was registered
+        if (rg.isInitialized()) {
+            ratGenInitialized(rg);
+        }
+    }
+
+    /**
+     * Called once the RATGenerator data is loaded, possibly more than once and from the
+     * RATGenerator's loading thread.
+     */
+    private static void ratGenInitialized(RATGenerator rg) {
+        synchronized (FactionCatalog.class) {
+            if (building || !rg.isInitialized()) {
+                return;
+            }
+            building = true;
+        }
+        new SwingWorker<FactionCatalog, Void>() {
+            @Override
+            protected FactionCatalog doInBackground() throws Exception {
+                return new FactionCatalog(rg);
+            }
+
+            @Override
+            protected void done() {
+                List<Consumer<FactionCatalog>> callbacks;
+                synchronized (FactionCatalog.class) {
+                    try {
+                        instance = get();
+                    } catch (Exception ex) {
+                        MegaMekLab.getLogger().log(FactionCatalog.class, "build()", ex); //$NON-NLS-1$
+                        instance = new FactionCatalog(null);
+                    }
+                    loading = false;
+                    callbacks = new ArrayList<>(waiting);
+                    waiting.clear();
+                }
+                for (Consumer<FactionCatalog> c : callbacks) {
+                    c.accept(instance);
+                }
+            }
+        }.execute();
+    }
+
+    private FactionCatalog(RATGenerator rg) {
+        records = new FactionRecord[ITechnology.MM_FACTION_CODES.length];
+        if (null != rg) {
+            for (int i = 0; i < records.length; i++) {
+                // TA will generate a null value because the RAT Generator doesn't distinguish between TH and TA.
+                records[i] = rg.getFaction(ITechnology.MM_FACTION_CODES[i]);
+            }
+        }
+        for (int base = IS; base <= CLAN; base++) {
+            List<Integer> starts = new ArrayList<>();
+            List<List<Faction>> segments = new ArrayList<>();
+            List<Faction> prev = null;
+            for (int year = MIN_YEAR; year <= MAX_YEAR; year++) {
+                List<Faction> factions = compute(year, base == CLAN);
+                if (!factions.equals(prev)) {
+                    starts.add(year);
+                    segments.add(factions);
+                    prev = factions;
+                }
+            }
+            indices[base] = new YearIndex(starts.stream().mapToInt(Integer::intValue).toArray(), segments);
+        }
+    }
+
+    /**
+     * @param year The unit's introduction year
+     * @param clan Whether to list Clan factions rather than Inner Sphere factions
+     * @return     The factions active in that year with their names at that time, sorted by name
+     */
+    public List<Faction> getActiveFactions(int year, boolean clan) {
+        if ((year < MIN_YEAR) || (year > MAX_YEAR)) {
+            return compute(year, clan);
+        }
+        return indices[clan ? CLAN : IS].get(year);
+    }
+
+    private List<Faction> compute(int year, boolean clan) {
+        List<Faction> list = new ArrayList<>();
+        for (int i = 0; i < records.length; i++) {
+            final FactionRecord fRec = records[i];
+            if ((null != fRec) && (fRec.isClan() == clan) && (fRec.isActiveInYear(year))) {
+                list.add(new Faction(i, fRec.getName(year)));
+            }
+        }
+        list.sort((f1, f2) -> f1.getName().compareTo(f2.getName()));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * The faction lists for one tech base, each starting at the year where the list changes.
+     */
+    private static class YearIndex {
+        private final int[] startYears;
+        private final List<List<Faction>> segments;
+
+        YearIndex(int[] startYears, List<List<Faction>> segments) {
+            this.startYears = startYears;
+            this.segments = segments;
+        }
+
+        List<Faction> get(int year) {
+            int index = Arrays.binarySearch(startYears, year);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return segments.get(index);
+        }
+    }
+
+    /**
+     * An ITechnology faction constant paired with the faction's name in a given year.
+     */
+    public static class Faction {
+        private final int code;
+        private final String name;
+
+        Faction(int code, String name) {
+            this.code = code;
+            this.name = name;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Faction)) {
+                return false;
+            }
+            Faction other = (Faction) o;
+            return (code == other.code) && Objects.equals(name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(code, name);
+        }
+    }
+}
@@ -3,21 +3,19 @@
  */
 package megameklab.com.ui.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-import megamek.client.ratgenerator.FactionRecord;
-import megamek.client.ratgenerator.RATGenerator;
-import megamek.common.ITechnology;
-
 /**
  * Combo box that uses the RATGenerator faction data to provide a list of factions appropriate
  * to a unit's intro year and with the era-appropriate name. The underlying data type is the
  * ITechnology faction constant.
  * 
+ * The faction data is loaded in the background by {@link FactionCatalog}. Until it is ready
+ * the only choice is "Any", and a faction selected in the meantime is remembered and applied
+ * when the list is filled in, which happens on the first {@link #refresh(int, boolean)} after
+ * the catalog is ready.
+ * 
  * @author Neoancient
  *
  */
@@ -30,31 +28,83 @@ public class FactionComboBox extends CustomComboBox<Integer> {
     
     private Map<Integer,String> displayNames = new HashMap<>();
     
+    private FactionCatalog catalog = null;
+    private Integer pendingSelection = null;
+    private boolean refreshed = false;
+    // Whether the list has been filled in from the catalog
+    private boolean filled = false;
+    private int year;
+    private boolean clan;
+    // Suppresses action events while the list is filled in after the catalog loads
+    private boolean loading = false;
+    
     public FactionComboBox() {
         super();
-        setRenderer(new Renderer<Integer>(i -> displayNames.get(i)));
-        while (!RATGenerator.getInstance().isInitialized()) {
+        setRenderer(new Renderer<Integer>(i -> displayNames.getOrDefault(i, "Loading...")));
+        displayNames.put(-1, "Any");
+        addItem(-1);
+        FactionCatalog.whenReady(this::catalogLoaded);
+    }
+    
+    private void catalogLoaded(FactionCatalog catalog) {
+        this.catalog = catalog;
+        if (refreshed) {
+            loading = true;
             try {
-                Thread.sleep(50);
-            } catch (InterruptedException e) {
+                refresh(year, clan);
+            } finally {
+                loading = false;
             }
         }
     }
     
     public void refresh(int year, boolean clan) {
-        displayNames.clear();
-        for (int i = 0; i < ITechnology.MM_FACTION_CODES.length; i++) {
-            final FactionRecord fRec = RATGenerator.getInstance().getFaction(ITechnology.MM_FACTION_CODES[i]);
-            // TA will generate a null value because the RAT Generator doesn't distinguish between TH and TA.
-            if ((null != fRec) && (fRec.isClan() == clan) && (fRec.isActiveInYear(year))) {
-                displayNames.put(i, fRec.getName(year));
-            }
+        this.year = year;
+        this.clan = clan;
+        refreshed = true;
+        if (null == catalog) {
+            return;
         }
-        List<Integer> sorted = new ArrayList<>(displayNames.keySet());
-        Collections.sort(sorted, (i1, i2) -> displayNames.get(i1).compareTo(displayNames.get(i2)));
+        displayNames.clear();
         removeAllItems();
         addItem(-1);
         displayNames.put(-1, "Any");
-        sorted.forEach(this::addItem);
+        for (FactionCatalog.Faction f : catalog.getActiveFactions(year, clan)) {
+            displayNames.put(f.getCode(), f.getName());
+            addItem(f.getCode());
+        }
+        if (!filled) {
+            filled = true;
+            if (null != pendingSelection) {
+                setSelectedItem(pendingSelection);
+                pendingSelection = null;
+                if (getSelectedIndex() < 0) {
+                    setSelectedIndex(0);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void setSelectedItem(Object item) {
+        if (!filled && (item instanceof Integer)) {
+            pendingSelection = (Integer) item;
+        }
+        super.setSelectedItem(item);
+    }
+    
+    @Override
+    public Object getSelectedItem() {
+        if (!filled && (null != pendingSelection)) {
+            return pendingSelection;
+        }
+        return super.getSelectedItem();
+    }
+    
+    @Override
+    protected void fireActionEvent() {
+        if (!loading) {
+            super.fireActionEvent();
+        }
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.ui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import megamek.common.Entity;
+import megamek.common.Mounted;
+import megamek.common.WeaponType;
+
+/**
+ * Groups the weapon bays and the equipment that is not in a bay by location, in a single pass
+ * over the unit's equipment. Building the allocation trees for every firing arc from one index
+ * avoids having each arc scan the full equipment list and look up equipment numbers with a
+ * linear search. The index is a snapshot; create a new one after the unit's equipment changes.
+ */
+public class WeaponBayIndex {
+
+    private final Map<Integer, List<Mounted>> bays = new HashMap<>();
+    private final Map<Integer, List<Mounted>> unbayed = new HashMap<>();
+
+    public WeaponBayIndex(Entity entity) {
+        final List<Mounted> equipment = entity.getEquipment();
+        final boolean[] inBay = new boolean[equipment.size()];
+        final Set<Mounted> bayMounts = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Mounted bay : entity.getWeaponBayList()) {
+            bayMounts.add(bay);
+            bays.computeIfAbsent(bay.getLocation(), k -> new ArrayList<>()).add(bay);
+            for (Integer wNum : bay.getBayWeapons()) {
+                mark(inBay, wNum);
+            }
+            for (Integer aNum : bay.getBayAmmo()) {
+                mark(inBay, aNum);
+            }
+        }
+        for (int eqIndex = 0; eqIndex < equipment.size(); eqIndex++) {
+            final Mounted eq = equipment.get(eqIndex);
+            if (inBay[eqIndex] || bayMounts.contains(eq)
+                    || ((eq.getLinked() != null) && (eq.getLinked().getType() instanceof WeaponType))) {
+                continue;
+            }
+            unbayed.computeIfAbsent(eq.getLocation(), k -> new ArrayList<>()).add(eq);
+        }
+    }
+
+    private static void mark(boolean[] inBay, Integer eqNum) {
+        if ((null != eqNum) && (eqNum >= 0) && (eqNum < inBay.length)) {
+            inBay[eqNum] = true;
+        }
+    }
+
+    /**
+     * @param location The location index
+     * @return         The weapon bays in the location, in the order of the unit's bay list
+     */
+    public List<Mounted> getBays(int location) {
+        return bays.getOrDefault(location, Collections.emptyList());
+    }
+
+    /**
+     * @param location The location index
+     * @return         The equipment in the location that is not a bay, is not in a bay, and is
+     *                 not linked to a weapon, in the order of the unit's equipment list
+     */
+    public List<Mounted> getUnbayedEquipment(int location) {
+        return unbayed.getOrDefault(location, Collections.emptyList());
+    }
+}
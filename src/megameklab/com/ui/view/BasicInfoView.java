@@ -39,6 +39,7 @@ import megameklab.com.ui.util.FactionComboBox;
 import megameklab.com.ui.util.IntRangeTextField;
 import megameklab.com.ui.view.listeners.BuildListener;
 import megameklab.com.util.CConfig;
+import megameklab.com.util.TechLegalityTable;
 
 /**
  * Basic information common to all unit types: name, year, tech level.
@@ -218,6 +219,7 @@ public class BasicInfoView extends BuildView implements ITechManager, ActionList
         }
         
         refreshFaction();
+        TechLegalityTable.prepare(this);
     }
     
     public void setAsCustomization() {
@@ -423,6 +425,7 @@ public class BasicInfoView extends BuildView implements ITechManager, ActionList
             } catch (NumberFormatException ex) {
             } finally {
                 setYear(prevYear);
+                TechLegalityTable.prepare(this);
             }
         } else if (e.getSource() == txtYear) {
             listeners.forEach(l -> l.updateTechLevel());
@@ -441,6 +444,7 @@ public class BasicInfoView extends BuildView implements ITechManager, ActionList
     
     @Override
     public void actionPerformed(ActionEvent e) {
+        TechLegalityTable.prepare(this);
         if (e.getSource() == cbFaction) {
             listeners.forEach(l -> l.updateTechLevel());
         } else if (e.getSource() == cbTechBase) {
@@ -466,5 +470,13 @@ public class BasicInfoView extends BuildView implements ITechManager, ActionList
     public boolean showExtinct() {
         return CConfig.getBooleanParam(CConfig.TECH_EXTINCT);
     }
+
+    /**
+     * Looks up the legality in the precomputed table for the current settings.
+     */
+    @Override
+    public boolean isLegal(ITechnology tech) {
+        return TechLegalityTable.get(this).isLegal(tech);
+    }
     
 }
@@ -0,0 +1,168 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.ui.view;
+
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.GridLayout;
+import java.awt.Insets;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.text.DecimalFormat;
+import java.util.ResourceBundle;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+
+import megamek.common.Entity;
+import megamek.common.util.EncodeControl;
+import megameklab.com.ui.EntitySource;
+import megameklab.com.util.UnitRevision;
+import megameklab.com.util.WeaponAnalytics;
+
+/**
+ * Shows the heat profile, expected damage by range, and ammunition endurance of the unit's
+ * weapons. The figures are only recomputed when the unit's revision has changed since they
+ * were last shown, and not at all while the panel is hidden.
+ */
+public class WeaponAnalysisView extends BuildView {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 2816459083185476107L;
+
+    private static final DecimalFormat FORMAT = new DecimalFormat("0.#"); //$NON-NLS-1$
+
+    private final EntitySource eSource;
+    private final ResourceBundle resourceMap;
+
+    private final JLabel lblMovementHeat = new JLabel("", JLabel.CENTER); //$NON-NLS-1$
+    private final JLabel lblWeaponHeat = new JLabel("", JLabel.CENTER); //$NON-NLS-1$
+    private final JLabel lblTotalHeat = new JLabel("", JLabel.CENTER); //$NON-NLS-1$
+    private final JLabel lblDissipation = new JLabel("", JLabel.CENTER); //$NON-NLS-1$
+    private final JPanel panDamage = new JPanel();
+    private final JPanel panAmmo = new JPanel();
+
+    private Entity shownEntity = null;
+    private long shownRevision = -1;
+
+    public WeaponAnalysisView(EntitySource eSource) {
+        this.eSource = eSource;
+        resourceMap = ResourceBundle.getBundle("megameklab.resources.Views", new EncodeControl()); //$NON-NLS-1$
+        initUI();
+    }
+
+    private void initUI() {
+        setLayout(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+
+        JPanel panHeat = new JPanel(new GridLayout(0, 2));
+        panHeat.setBorder(BorderFactory.createTitledBorder(
+                resourceMap.getString("WeaponAnalysisView.panHeat.title"))); //$NON-NLS-1$
+        panHeat.add(createLabel(resourceMap.getString("WeaponAnalysisView.lblMovementHeat.text"), labelSize)); //$NON-NLS-1$
+        lblMovementHeat.setToolTipText(resourceMap.getString("WeaponAnalysisView.lblMovementHeat.tooltip")); //$NON-NLS-1$
+        panHeat.add(lblMovementHeat);
+        panHeat.add(createLabel(resourceMap.getString("WeaponAnalysisView.lblWeaponHeat.text"), labelSize)); //$NON-NLS-1$
+        lblWeaponHeat.setToolTipText(resourceMap.getString("WeaponAnalysisView.lblWeaponHeat.tooltip")); //$NON-NLS-1$
+        panHeat.add(lblWeaponHeat);
+        panHeat.add(createLabel(resourceMap.getString("WeaponAnalysisView.lblTotalHeat.text"), labelSize)); //$NON-NLS-1$
+        panHeat.add(lblTotalHeat);
+        panHeat.add(createLabel(resourceMap.getString("WeaponAnalysisView.lblDissipation.text"), labelSize)); //$NON-NLS-1$
+        panHeat.add(lblDissipation);
+
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.anchor = GridBagConstraints.NORTHWEST;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.insets = new Insets(10, 10, 10, 10);
+        add(panHeat, gbc);
+
+        panDamage.setBorder(BorderFactory.createTitledBorder(
+                resourceMap.getString("WeaponAnalysisView.panDamage.title"))); //$NON-NLS-1$
+        panDamage.setToolTipText(resourceMap.getString("WeaponAnalysisView.panDamage.tooltip")); //$NON-NLS-1$
+        gbc.gridy = 1;
+        add(panDamage, gbc);
+
+        panAmmo.setBorder(BorderFactory.createTitledBorder(
+                resourceMap.getString("WeaponAnalysisView.panAmmo.title"))); //$NON-NLS-1$
+        gbc.gridx = 1;
+        gbc.gridy = 0;
+        gbc.gridheight = 2;
+        gbc.weightx = 1.0;
+        gbc.weighty = 1.0;
+        add(panAmmo, gbc);
+
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                refresh();
+            }
+        });
+    }
+
+    /**
+     * Updates the figures if the unit has changed since they were last shown. This is cheap
+     * enough to call whenever the unit may have changed.
+     */
+    public void refresh() {
+        final Entity entity = eSource.getEntity();
+        if (!isShowing() || (null == entity)) {
+            return;
+        }
+        final long revision = UnitRevision.get(entity);
+        if ((entity == shownEntity) && (revision == shownRevision)) {
+            return;
+        }
+        shownEntity = entity;
+        shownRevision = revision;
+        showAnalytics(WeaponAnalytics.compute(entity));
+    }
+
+    private void showAnalytics(WeaponAnalytics analytics) {
+        lblMovementHeat.setText(FORMAT.format(analytics.getMovementHeat()));
+        lblWeaponHeat.setText(FORMAT.format(analytics.getWeaponHeat()));
+        lblTotalHeat.setText(FORMAT.format(analytics.getTotalHeat()));
+        lblDissipation.setText(String.valueOf(analytics.getDissipation()));
+
+        panDamage.removeAll();
+        panDamage.setLayout(new GridLayout(0, 3, 10, 0));
+        panDamage.add(new JLabel(resourceMap.getString(analytics.isAero()
+                ? "WeaponAnalysisView.lblBracket.text" : "WeaponAnalysisView.lblRange.text"))); //$NON-NLS-1$ //$NON-NLS-2$
+        panDamage.add(new JLabel(resourceMap.getString("WeaponAnalysisView.lblAlpha.text"), JLabel.CENTER)); //$NON-NLS-1$
+        panDamage.add(new JLabel(resourceMap.getString("WeaponAnalysisView.lblHeatNeutral.text"), JLabel.CENTER)); //$NON-NLS-1$
+        for (int band = 0; band < analytics.getBandCount(); band++) {
+            panDamage.add(new JLabel(analytics.getBandName(band)));
+            panDamage.add(new JLabel(FORMAT.format(analytics.getAlphaDamage(band)), JLabel.CENTER));
+            panDamage.add(new JLabel(FORMAT.format(analytics.getHeatNeutralDamage(band)), JLabel.CENTER));
+        }
+
+        panAmmo.removeAll();
+        panAmmo.setLayout(new GridLayout(0, 4, 10, 0));
+        panAmmo.add(new JLabel(resourceMap.getString("WeaponAnalysisView.lblWeapon.text"))); //$NON-NLS-1$
+        panAmmo.add(new JLabel(resourceMap.getString("WeaponAnalysisView.lblCount.text"), JLabel.CENTER)); //$NON-NLS-1$
+        panAmmo.add(new JLabel(resourceMap.getString("WeaponAnalysisView.lblShots.text"), JLabel.CENTER)); //$NON-NLS-1$
+        panAmmo.add(new JLabel(resourceMap.getString("WeaponAnalysisView.lblTurns.text"), JLabel.CENTER)); //$NON-NLS-1$
+        for (WeaponAnalytics.AmmoEndurance ammo : analytics.getAmmoEndurance()) {
+            panAmmo.add(new JLabel(ammo.getName()));
+            panAmmo.add(new JLabel(String.valueOf(ammo.getWeapons()), JLabel.CENTER));
+            panAmmo.add(new JLabel(String.valueOf(ammo.getShots()), JLabel.CENTER));
+            panAmmo.add(new JLabel(FORMAT.format(ammo.getTurns()), JLabel.CENTER));
+        }
+
+        revalidate();
+        repaint();
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * An output stream for the log file that never blocks the thread writing to it. Writes are
+ * copied into a fixed-size ring buffer and written to the file by a background thread, which
+ * wakes up every {@link #FLUSH_INTERVAL} milliseconds or as soon as the buffer is half full.
+ * If the buffer does not have room for a write, the write is dropped rather than waiting; the
+ * number of bytes dropped is counted and noted in the log when there is room again.
+ *
+ * The file is rotated when it reaches a maximum size or age: the current file is renamed with
+ * the suffix .1, any earlier rotations are shifted up by one, and the oldest is deleted. The age
+ * of a file that already exists is taken from its creation time, or its modification time where
+ * the file system does not record one. If the file cannot be renamed, for instance because
+ * another program has it open, it is kept and rotation is tried again after it has grown by the
+ * maximum size or the maximum age has passed again. The file must not be one that is rotated by
+ * anything else, such as a log4j appender.
+ *
+ * Closing the stream, which is done by a shutdown hook, writes whatever is left in the buffer.
+ */
+public class AsyncLogStream extends OutputStream {
+
+    /** The size of the ring buffer in bytes */
+    public static final int DEFAULT_CAPACITY = 256 * 1024;
+    /** The size at which the log file is rotated */
+    public static final long DEFAULT_MAX_FILE_SIZE = 10L * 1024 * 1024;
+    /** The age at which the log file is rotated, in milliseconds */
+    public static final long DEFAULT_MAX_FILE_AGE = 24L * 60 * 60 * 1000;
+    /** The number of rotated files that are kept */
+    public static final int DEFAULT_KEEP = 5;
+    /** The longest time output waits in the buffer, in milliseconds */
+    public static final long FLUSH_INTERVAL = 250;
+
+    private final File file;
+    private final long maxFileSize;
+    private final long maxFileAge;
+    private final int keep;
+    /** Where to report problems with the log file itself */
+    private final PrintStream fallback;
+
+    private final Object lock = new Object();
+    private final byte[] buffer;
+    private int head = 0;
+    private int size = 0;
+    private long dropped = 0;
+    private long totalDropped = 0;
+    private boolean closed = false;
+
+    private final Thread flusher;
+    private FileOutputStream out = null;
+    private long fileSize;
+    private long rotateAtSize;
+    private long rotateAtTime;
+
+    /**
+     * Creates a stream with the default buffer size and rotation policy.
+     */
+    public AsyncLogStream(File file) {
+        this(file, DEFAULT_CAPACITY, DEFAULT_MAX_FILE_SIZE, DEFAULT_MAX_FILE_AGE, DEFAULT_KEEP);
+    }
+
+    /**
+     * @param file        The log file, which is appended to if it exists
+     * @param capacity    The size of the ring buffer in bytes
+     * @param maxFileSize The size at which the file is rotated
+     * @param maxFileAge  The time in milliseconds after which the file is rotated
+     * @param keep        The number of rotated files to keep
+     */
+    public AsyncLogStream(File file, int capacity, long maxFileSize, long maxFileAge, int keep) {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxFileAge = maxFileAge;
+        this.keep = keep;
+        fallback = System.err;
+        buffer = new byte[capacity];
+        flusher = new Thread(this::run, "Log writer"); //$NON-NLS-1$
+        flusher.setDaemon(true);
+        flusher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "Log shutdown")); //$NON-NLS-1$
+    }
+
+    @Override
+    public void write(int b) {
+        synchronized (lock) {
+            if (closed || (size == buffer.length)) {
+                dropped++;
+                return;
+            }
+            buffer[(head + size) % buffer.length] = (byte) b;
+            size++;
+            signalIfHalfFull();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        synchronized (lock) {
+            // A write that does not fit is dropped whole rather than cut off part way.
+            if (closed || (len > buffer.length - size)) {
+                dropped += len;
+                return;
+            }
+            int tail = (head + size) % buffer.length;
+            final int first = Math.min(len, buffer.length - tail);
+            System.arraycopy(b, off, buffer, tail, first);
+            System.arraycopy(b, off + first, buffer, 0, len - first);
+            size += len;
+            signalIfHalfFull();
+        }
+    }
+
+    private void signalIfHalfFull() {
+        if (size >= buffer.length / 2) {
+            lock.notify();
+        }
+    }
+
+    /**
+     * Wakes the background thread to write the buffer without waiting for it.
+     */
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            if (size > 0) {
+                lock.notify();
+            }
+        }
+    }
+
+    /**
+     * Writes everything in the buffer to the file and stops the background thread. Anything
+     * written after this is dropped.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notify();
+        }
+        try {
+            flusher.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of bytes that have been dropped because the buffer was full
+     */
+    public long getDroppedBytes() {
+        synchronized (lock) {
+            return totalDropped + dropped;
+        }
+    }
+
+    private void run() {
+        byte[] chunk = new byte[buffer.length];
+        while (true) {
+            int len;
+            long lost;
+            boolean done;
+            synchronized (lock) {
+                if (!closed && (size < buffer.length / 2)) {
+                    try {
+                        lock.wait(FLUSH_INTERVAL);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                len = size;
+                final int first = Math.min(len, buffer.length - head);
+                System.arraycopy(buffer, head, chunk, 0, first);
+                System.arraycopy(buffer, 0, chunk, first, len - first);
+                head = (head + len) % buffer.length;
+                size = 0;
+                lost = dropped;
+                totalDropped += dropped;
+                dropped = 0;
+                done = closed;
+            }
+            if (lost > 0) {
+                writeToFile(String.format("%n[%d bytes of log output dropped]%n", lost) //$NON-NLS-1$
+                        .getBytes(StandardCharsets.UTF_8), -1);
+            }
+            writeToFile(chunk, len);
+            if (done) {
+                closeFile();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes to the log file, rotating it first if it is due.
+     *
+     * @param len The number of bytes to write, or -1 for all of them
+     */
+    private void writeToFile(byte[] data, int len) {
+        if (len < 0) {
+            len = data.length;
+        }
+        if (len == 0) {
+            return;
+        }
+        try {
+            if ((null != out) && (fileSize > 0) && ((fileSize >= rotateAtSize)
+                    || (System.currentTimeMillis() >= rotateAtTime))) {
+                closeFile();
+                final boolean rotated = rotate();
+                openFile();
+                if (!rotated) {
+                    fallback.println("Unable to rotate log file " + file); //$NON-NLS-1$
+                }
+                // A new file may be given the creation time of the one it replaces, so the age
+                // is counted from now. After a failed rotation this also keeps it from being
+                // retried on every write.
+                rotateAtSize = fileSize + maxFileSize;
+                rotateAtTime = System.currentTimeMillis() + maxFileAge;
+            }
+            if (null == out) {
+                openFile();
+            }
+            out.write(data, 0, len);
+            fileSize += len;
+        } catch (IOException ex) {
+            fallback.println("Unable to write log file " + file + ": " + ex); //$NON-NLS-1$ //$NON-NLS-2$
+            closeFile();
+        }
+    }
+
+    private void openFile() throws IOException {
+        long created = System.currentTimeMillis();
+        if (file.exists()) {
+            created = Files.readAttributes(file.toPath(), BasicFileAttributes.class).creationTime().toMillis();
+        }
+        out = new FileOutputStream(file, true);
+        fileSize = file.length();
+        rotateAtSize = maxFileSize;
+        rotateAtTime = created + maxFileAge;
+    }
+
+    private void closeFile() {
+        if (null != out) {
+            try {
+                out.close();
+            } catch (IOException ex) {
+                fallback.println("Unable to close log file " + file + ": " + ex); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * @return Whether the current file was moved out of the way
+     */
+    private boolean rotate() {
+        new File(file.getPath() + "." + keep).delete(); //$NON-NLS-1$
+        for (int i = keep - 1; i > 0; i--) {
+            new File(file.getPath() + "." + i).renameTo(new File(file.getPath() + "." + (i + 1))); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (keep > 0) {
+            return file.renameTo(new File(file.getPath() + ".1")); //$NON-NLS-1$
+        }
+        return file.delete();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import megamek.common.Entity;
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+import megameklab.com.ui.EntitySource;
+
+/**
+ * Periodically writes a snapshot of the unit being edited to {@link #AUTOSAVE_DIR}. The timer
+ * fires on the event dispatch thread, where the unit is encoded in memory so the snapshot cannot
+ * see a half-finished edit; the file is written by a background task. Nothing is encoded if the
+ * {@link UnitRevision} of the unit has not changed since the last snapshot, a snapshot identical
+ * to the most recent one for the same unit is discarded, and only the newest
+ * {@link CConfig#AUTOSAVE_HISTORY} snapshots per unit are kept.
+ */
+public class AutosaveManager {
+
+    public static final String AUTOSAVE_DIR = CConfig.CONFIG_DIR + "/autosave";
+
+    private static final String TIMESTAMP_FORMAT = "yyyyMMdd-HHmmss";
+
+    private final EntitySource eSource;
+    private final Timer timer;
+    private SwingWorker<Void, Void> pending = null;
+    private Entity lastSaved = null;
+    private long lastSavedRevision = -1;
+
+    public AutosaveManager(EntitySource eSource) {
+        this.eSource = eSource;
+        timer = new Timer(0, e -> autosave());
+        timer.setRepeats(true);
+    }
+
+    /**
+     * Starts the timer using the interval from the configuration. Does nothing if autosave is
+     * disabled.
+     */
+    public void start() {
+        int minutes = CConfig.getIntParam(CConfig.AUTOSAVE_INTERVAL);
+        if (minutes <= 0) {
+            timer.stop();
+            return;
+        }
+        int delay = minutes * 60000;
+        timer.setInitialDelay(delay);
+        timer.setDelay(delay);
+        timer.restart();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    private void autosave() {
+        final Entity entity = eSource.getEntity();
+        if ((null == entity) || ((null != pending) && !pending.isDone())) {
+            return;
+        }
+        final long revision = UnitRevision.get(entity);
+        if ((entity == lastSaved) && (revision == lastSavedRevision)) {
+            return;
+        }
+        final String baseName = getBaseName(entity);
+        final String ext = UnitFileWriter.getExtension(entity);
+        final String contents;
+        try {
+            contents = UnitFileWriter.encodeToString(entity);
+        } catch (IOException ex) {
+            MegaMekLab.getLogger().log(AutosaveManager.class, "autosave()", //$NON-NLS-1$
+                    LogLevel.WARNING, "Autosave of " + baseName + " skipped: " + ex.getMessage());
+            return;
+        }
+        final int history = Math.max(1, CConfig.getIntParam(CConfig.AUTOSAVE_HISTORY));
+        pending = new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                writeSnapshot(contents, baseName, ext, history);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    lastSaved = entity;
+                    lastSavedRevision = revision;
+                } catch (Exception ex) {
+                    MegaMekLab.getLogger().log(AutosaveManager.class, "autosave()", //$NON-NLS-1$
+                            LogLevel.WARNING, "Autosave of " + baseName + " skipped: " + ex.getMessage());
+                }
+            }
+        };
+        pending.execute();
+    }
+
+    private static void writeSnapshot(String contents, String baseName, String ext, int history)
+            throws IOException {
+        File dir = new File(AUTOSAVE_DIR);
+        File target = new File(dir, baseName + "-"
+                + new SimpleDateFormat(TIMESTAMP_FORMAT).format(new Date()) + ext);
+        UnitFileWriter.write(contents, target);
+
+        File[] snapshots = listSnapshots(dir, baseName, ext);
+        // The newest is the one we just wrote; drop it if nothing changed since the previous one.
+        if ((snapshots.length > 1)
+                && Arrays.equals(Files.readAllBytes(snapshots[0].toPath()),
+                        Files.readAllBytes(snapshots[1].toPath()))) {
+            Files.deleteIfExists(snapshots[0].toPath());
+            snapshots = Arrays.copyOfRange(snapshots, 1, snapshots.length);
+        }
+        for (int i = history; i < snapshots.length; i++) {
+            Files.deleteIfExists(snapshots[i].toPath());
+        }
+    }
+
+    /**
+     * @return All snapshots of the named unit, newest first
+     */
+    private static File[] listSnapshots(File dir, String baseName, String ext) {
+        final int nameLength = baseName.length() + TIMESTAMP_FORMAT.length() + ext.length() + 1;
+        File[] files = dir.listFiles((d, name) -> name.startsWith(baseName + "-")
+                && name.endsWith(ext) && (name.length() == nameLength));
+        if (null == files) {
+            return new File[0];
+        }
+        Arrays.sort(files, Comparator.comparing(File::getName).reversed());
+        return files;
+    }
+
+    /**
+     * @return A version of the unit name that can safely be used as part of a file name
+     */
+    private static String getBaseName(Entity entity) {
+        return (entity.getChassis() + " " + entity.getModel()).trim().replaceAll("[^\\w\\- ]", "_");
+    }
+}
@@ -69,6 +69,11 @@ public class CConfig {
     
     public static final String CONFIG_SAVE_LOC = "Save-Location-Default";
 
+    public static final String AUTOSAVE_INTERVAL = "autosaveInterval";
+    public static final String AUTOSAVE_HISTORY = "autosaveHistory";
+    public static final String ENTITY_CACHE_SIZE = "entityCacheSize";
+    public static final String IMAGE_CACHE_SIZE = "imageCacheSize";
+
     private static Properties config;// config. player values.
 
     // CONSTRUCTOR
@@ -105,6 +110,13 @@ public class CConfig {
         defaults.setProperty(CONFIG_SAVE_LOC,
                 new File(System.getProperty("user.dir").toString()
                         + "/data/mechfiles/").getAbsolutePath());
+        // Autosave interval in minutes (0 to disable) and number of snapshots kept per unit
+        defaults.setProperty(AUTOSAVE_INTERVAL, "5");
+        defaults.setProperty(AUTOSAVE_HISTORY, "10");
+        // Maximum number of parsed unit files kept in the entity cache (0 to disable)
+        defaults.setProperty(ENTITY_CACHE_SIZE, "50");
+        // Maximum decoded size of the cached record sheet and fluff images in MB (0 to disable)
+        defaults.setProperty(IMAGE_CACHE_SIZE, "64");
 
         return defaults;
     }
@@ -0,0 +1,108 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.awt.Color;
+import java.awt.Component;
+
+import megamek.common.AmmoType;
+import megamek.common.EquipmentType;
+import megamek.common.WeaponType;
+
+/**
+ * The configured foreground and background colors for each category of critical slot,
+ * resolved from {@link CConfig} once and shared by the cell renderers. Reading the colors
+ * from the configuration parses the property on every call, which is too much work to do
+ * for every cell that is painted.
+ *
+ * A theme is immutable. Call {@link #reload()} after the color settings are changed to
+ * replace the shared instance.
+ */
+public final class ColorTheme {
+
+    public enum Category {
+        WEAPONS (CConfig.CONFIG_WEAPONS),
+        AMMO (CConfig.CONFIG_AMMO),
+        EQUIPMENT (CConfig.CONFIG_EQUIPMENT),
+        SYSTEMS (CConfig.CONFIG_SYSTEMS),
+        EMPTY (CConfig.CONFIG_EMPTY);
+
+        private final String configName;
+
+        Category(String configName) {
+            this.configName = configName;
+        }
+
+        /**
+         * @return The category used to display the given type of equipment
+         */
+        public static Category of(EquipmentType type) {
+            if (type instanceof WeaponType) {
+                return WEAPONS;
+            } else if (type instanceof AmmoType) {
+                return AMMO;
+            }
+            return EQUIPMENT;
+        }
+    }
+
+    private static volatile ColorTheme instance = null;
+
+    private final Color[] foreground = new Color[Category.values().length];
+    private final Color[] background = new Color[Category.values().length];
+
+    private ColorTheme() {
+        for (Category c : Category.values()) {
+            foreground[c.ordinal()] = CConfig.getForegroundColor(c.configName);
+            background[c.ordinal()] = CConfig.getBackgroundColor(c.configName);
+        }
+    }
+
+    /**
+     * @return The current theme, resolved from the configuration on first use
+     */
+    public static ColorTheme getInstance() {
+        ColorTheme theme = instance;
+        if (null == theme) {
+            theme = reload();
+        }
+        return theme;
+    }
+
+    /**
+     * Resolves the colors from the configuration again and makes the result the current theme.
+     *
+     * @return The new theme
+     */
+    public static synchronized ColorTheme reload() {
+        instance = new ColorTheme();
+        return instance;
+    }
+
+    public Color getForeground(Category category) {
+        return foreground[category.ordinal()];
+    }
+
+    public Color getBackground(Category category) {
+        return background[category.ordinal()];
+    }
+
+    /**
+     * Sets the foreground and background of a rendering component to the colors for the category.
+     */
+    public void apply(Component comp, Category category) {
+        comp.setForeground(foreground[category.ordinal()]);
+        comp.setBackground(background[category.ordinal()]);
+    }
+}
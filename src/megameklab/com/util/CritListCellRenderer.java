@@ -32,7 +32,6 @@ import megamek.common.CriticalSlot;
 import megamek.common.Entity;
 import megamek.common.MiscType;
 import megamek.common.Mounted;
-import megamek.common.WeaponType;
 
 public class CritListCellRenderer extends DefaultListCellRenderer {
 
@@ -78,8 +77,7 @@ public class CritListCellRenderer extends DefaultListCellRenderer {
 
             if (cs.getType() == CriticalSlot.TYPE_SYSTEM) {
                 if (useColor) {
-                    label.setBackground(CConfig.getBackgroundColor(CConfig.CONFIG_SYSTEMS));
-                    label.setForeground(CConfig.getForegroundColor(CConfig.CONFIG_SYSTEMS));
+                    ColorTheme.getInstance().apply(label, ColorTheme.Category.SYSTEMS);
                 }
                 if (cs.isArmored()) {
                     label.setText(label.getText() + " (A)");
@@ -89,17 +87,7 @@ public class CritListCellRenderer extends DefaultListCellRenderer {
                 Mounted mount = cs.getMount();
 
                 if (useColor) {
-
-                    if (mount.getType() instanceof WeaponType) {
-                        label.setBackground(CConfig.getBackgroundColor(CConfig.CONFIG_WEAPONS));
-                        label.setForeground(CConfig.getForegroundColor(CConfig.CONFIG_WEAPONS));
-                    } else if (mount.getType() instanceof AmmoType) {
-                        label.setBackground(CConfig.getBackgroundColor(CConfig.CONFIG_AMMO));
-                        label.setForeground(CConfig.getForegroundColor(CConfig.CONFIG_AMMO));
-                    } else {
-                        label.setBackground(CConfig.getBackgroundColor(CConfig.CONFIG_EQUIPMENT));
-                        label.setForeground(CConfig.getForegroundColor(CConfig.CONFIG_EQUIPMENT));
-                    }
+                    ColorTheme.getInstance().apply(label, ColorTheme.Category.of(mount.getType()));
                 }
                 String name = UnitUtil.getCritName(unit, mount.getType());
 
@@ -149,8 +137,7 @@ public class CritListCellRenderer extends DefaultListCellRenderer {
                 label.setToolTipText(toolTipText);
             }
         } else if (useColor) {
-            label.setBackground(CConfig.getBackgroundColor(CConfig.CONFIG_EMPTY));
-            label.setForeground(CConfig.getForegroundColor(CConfig.CONFIG_EMPTY));
+            ColorTheme.getInstance().apply(label, ColorTheme.Category.EMPTY);
         }
 
         int loc = getCritLocation();
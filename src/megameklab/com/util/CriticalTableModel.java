@@ -246,15 +246,7 @@ public class CriticalTableModel extends AbstractTableModel {
                 return c;
             }
 
-            String equipmentType = CConfig.CONFIG_EQUIPMENT;
-
-            if (mount.getType() instanceof WeaponType) {
-                equipmentType = CConfig.CONFIG_WEAPONS;
-            } else if (mount.getType() instanceof AmmoType) {
-                equipmentType = CConfig.CONFIG_AMMO;
-            }
-            c.setBackground(CConfig.getBackgroundColor(equipmentType));
-            c.setForeground(CConfig.getForegroundColor(equipmentType));
+            ColorTheme.getInstance().apply(c, ColorTheme.Category.of(mount.getType()));
             return c;
         }
     }
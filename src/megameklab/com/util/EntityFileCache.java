@@ -0,0 +1,193 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import megamek.MegaMek;
+import megamek.common.Entity;
+import megamek.common.MechFileParser;
+import megamek.common.loaders.EntityLoadingException;
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Keeps serialized copies of recently parsed unit files under {@link #CACHE_DIR} so that
+ * reopening a design does not need to parse the text file again. Entries are keyed by the
+ * canonical path of the unit file along with its size and modification time, so an entry
+ * is never used once the file has changed. Entries are also discarded when the version of
+ * MegaMek or MegaMekLab changes.
+ *
+ * The number of entries is capped by {@link CConfig#ENTITY_CACHE_SIZE}. The modification
+ * time of each entry is updated whenever it is used, and the least recently used entries are
+ * deleted when the cap is exceeded.
+ *
+ * The returned Entity is always a new instance, so callers are free to modify it.
+ */
+public class EntityFileCache {
+
+    public static final String CACHE_DIR = CConfig.CONFIG_DIR + "/entitycache";
+
+    private static final String CACHE_EXT = ".ser.gz";
+    private static final String VERSION_KEY = MegaMek.VERSION + "/" + MegaMekLab.VERSION;
+
+    private EntityFileCache() {
+    }
+
+    /**
+     * Loads a unit from a file, using the cached copy if it is still valid.
+     *
+     * @param unitFile A mtf, blk, or hmp file
+     * @return         The unit, never <code>null</code>
+     * @throws EntityLoadingException If the file cannot be parsed
+     */
+    public static Entity getEntity(File unitFile) throws EntityLoadingException {
+        File canonical;
+        try {
+            canonical = unitFile.getCanonicalFile();
+        } catch (IOException ex) {
+            return new MechFileParser(unitFile).getEntity();
+        }
+        if (getCacheSize() <= 0) {
+            return new MechFileParser(canonical).getEntity();
+        }
+        File cacheFile = getCacheFile(canonical);
+        Entity entity = read(cacheFile, canonical);
+        if (null == entity) {
+            entity = new MechFileParser(canonical).getEntity();
+            write(cacheFile, canonical, entity);
+            prune();
+        }
+        return entity;
+    }
+
+    /**
+     * Removes the cached copy of a unit file, if any.
+     */
+    public static void invalidate(File unitFile) {
+        try {
+            Files.deleteIfExists(getCacheFile(unitFile.getCanonicalFile()).toPath());
+        } catch (IOException ex) {
+            MegaMekLab.getLogger().log(EntityFileCache.class, "invalidate(File)", ex); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Removes all cached units.
+     */
+    public static void clear() {
+        for (File f : listEntries()) {
+            if (!f.delete()) {
+                f.deleteOnExit();
+            }
+        }
+    }
+
+    private static int getCacheSize() {
+        return CConfig.getIntParam(CConfig.ENTITY_CACHE_SIZE);
+    }
+
+    private static File getCacheFile(File canonical) {
+        String path = canonical.getPath();
+        return new File(CACHE_DIR, String.format("%08x%08x", path.hashCode(),
+                path.toLowerCase().hashCode()) + CACHE_EXT);
+    }
+
+    private static Entity read(File cacheFile, File unitFile) {
+        if (!cacheFile.exists()) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(
+                new BufferedInputStream(new FileInputStream(cacheFile))))) {
+            if (!VERSION_KEY.equals(in.readUTF())
+                    || !unitFile.getPath().equals(in.readUTF())
+                    || (in.readLong() != unitFile.length())
+                    || (in.readLong() != unitFile.lastModified())) {
+                in.close();
+                Files.deleteIfExists(cacheFile.toPath());
+                return null;
+            }
+            Entity entity = (Entity) in.readObject();
+            entity.restore();
+            cacheFile.setLastModified(System.currentTimeMillis());
+            return entity;
+        } catch (Exception ex) {
+            MegaMekLab.getLogger().log(EntityFileCache.class, "read(File,File)", LogLevel.WARNING, //$NON-NLS-1$
+                    "Discarding unreadable cache entry for " + unitFile + ": " + ex.getMessage());
+            cacheFile.delete();
+            return null;
+        }
+    }
+
+    private static void write(File cacheFile, File unitFile, Entity entity) {
+        File temp = null;
+        try {
+            File dir = cacheFile.getParentFile();
+            if (!dir.exists() && !dir.mkdirs()) {
+                return;
+            }
+            temp = File.createTempFile(cacheFile.getName() + ".", ".tmp", dir);
+            try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp))))) {
+                out.writeUTF(VERSION_KEY);
+                out.writeUTF(unitFile.getPath());
+                out.writeLong(unitFile.length());
+                out.writeLong(unitFile.lastModified());
+                out.writeObject(entity);
+            }
+            Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception ex) {
+            // Not fatal; the unit will just be parsed from the file next time.
+            MegaMekLab.getLogger().log(EntityFileCache.class, "write(File,File,Entity)", LogLevel.WARNING, //$NON-NLS-1$
+                    "Could not cache " + unitFile + ": " + ex.getMessage());
+        } finally {
+            if (null != temp) {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries in excess of the configured cap.
+     */
+    private static void prune() {
+        File[] entries = listEntries();
+        int max = getCacheSize();
+        if (entries.length <= max) {
+            return;
+        }
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified).reversed());
+        for (int i = max; i < entries.length; i++) {
+            entries[i].delete();
+        }
+    }
+
+    private static File[] listEntries() {
+        File[] files = new File(CACHE_DIR).listFiles((d, name) -> name.endsWith(CACHE_EXT));
+        return (null == files) ? new File[0] : files;
+    }
+}
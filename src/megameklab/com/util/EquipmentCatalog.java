@@ -0,0 +1,198 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import megamek.common.AmmoType;
+import megamek.common.EquipmentType;
+import megamek.common.MiscType;
+import megamek.common.WeaponType;
+import megamek.common.weapons.infantry.InfantryWeapon;
+
+/**
+ * All the equipment types, listed once for the whole program so that the equipment tabs and
+ * views of every unit editor can share the same lists instead of each building its own copy.
+ * The catalog is built the first time it is used, which must be after
+ * {@link EquipmentType#initializeTypes()}. Every list it returns is read-only.
+ *
+ * Each equipment type has a fixed position in {@link #getAll()}, which can be used to index
+ * arrays of per-type values. The types are also divided into weapons, ammo, and misc
+ * equipment, with ammo further divided by ammo type. Weapons of a given class and misc
+ * equipment with a given flag are collected the first time they are requested and kept.
+ */
+public final class EquipmentCatalog {
+
+    private static EquipmentCatalog instance = null;
+
+    private final List<EquipmentType> all;
+    private final Map<EquipmentType, Integer> index;
+    private final List<EquipmentType> weapons;
+    private final List<EquipmentType> ammo;
+    private final List<EquipmentType> misc;
+    private final List<EquipmentType> infantryWeapons;
+    private final List<List<EquipmentType>> ammoByType;
+
+    private final Map<Class<? extends WeaponType>, List<EquipmentType>> weaponsByClass =
+            new ConcurrentHashMap<>();
+    private final Map<BigInteger, List<EquipmentType>> miscByFlag = new ConcurrentHashMap<>();
+
+    /**
+     * @return The catalog, which is built on the first call
+     */
+    public static synchronized EquipmentCatalog getInstance() {
+        if (null == instance) {
+            instance = new EquipmentCatalog();
+        }
+        return instance;
+    }
+
+    private EquipmentCatalog() {
+        List<EquipmentType> allTypes = new ArrayList<>();
+        List<EquipmentType> weaponTypes = new ArrayList<>();
+        List<EquipmentType> ammoTypes = new ArrayList<>();
+        List<EquipmentType> miscTypes = new ArrayList<>();
+        List<EquipmentType> infantryTypes = new ArrayList<>();
+        Map<EquipmentType, Integer> positions = new IdentityHashMap<>();
+        int maxAmmoType = 0;
+        for (Enumeration<EquipmentType> e = EquipmentType.getAllTypes(); e.hasMoreElements();) {
+            final EquipmentType eq = e.nextElement();
+            positions.put(eq, allTypes.size());
+            allTypes.add(eq);
+            if (eq instanceof WeaponType) {
+                weaponTypes.add(eq);
+                if (eq instanceof InfantryWeapon) {
+                    infantryTypes.add(eq);
+                }
+            } else if (eq instanceof AmmoType) {
+                ammoTypes.add(eq);
+                maxAmmoType = Math.max(maxAmmoType, ((AmmoType) eq).getAmmoType());
+            } else if (eq instanceof MiscType) {
+                miscTypes.add(eq);
+            }
+        }
+
+        List<List<EquipmentType>> byType = new ArrayList<>(maxAmmoType + 1);
+        for (int i = 0; i <= maxAmmoType; i++) {
+            byType.add(new ArrayList<>());
+        }
+        for (EquipmentType eq : ammoTypes) {
+            final int ammoType = ((AmmoType) eq).getAmmoType();
+            if (ammoType >= 0) {
+                byType.get(ammoType).add(eq);
+            }
+        }
+        for (int i = 0; i <= maxAmmoType; i++) {
+            byType.set(i, Collections.unmodifiableList(byType.get(i)));
+        }
+
+        all = Collections.unmodifiableList(allTypes);
+        index = Collections.unmodifiableMap(positions);
+        weapons = Collections.unmodifiableList(weaponTypes);
+        ammo = Collections.unmodifiableList(ammoTypes);
+        misc = Collections.unmodifiableList(miscTypes);
+        infantryWeapons = Collections.unmodifiableList(infantryTypes);
+        ammoByType = Collections.unmodifiableList(byType);
+    }
+
+    /**
+     * @return Every equipment type, in a fixed order
+     */
+    public List<EquipmentType> getAll() {
+        return all;
+    }
+
+    /**
+     * @return The number of equipment types, which is the size of an array indexed by
+     *         {@link #indexOf(EquipmentType)}
+     */
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * @return The position of the equipment type in {@link #getAll()}, or -1 if it is not in
+     *         the catalog
+     */
+    public int indexOf(EquipmentType eq) {
+        final Integer i = index.get(eq);
+        return (null == i) ? -1 : i;
+    }
+
+    /**
+     * @return All weapon types, including infantry weapons
+     */
+    public List<EquipmentType> getWeapons() {
+        return weapons;
+    }
+
+    /**
+     * @return The weapon types that are instances of the class
+     */
+    public List<EquipmentType> getWeapons(Class<? extends WeaponType> weaponClass) {
+        return weaponsByClass.computeIfAbsent(weaponClass,
+                c -> Collections.unmodifiableList(weapons.stream().filter(c::isInstance)
+                        .collect(Collectors.toList())));
+    }
+
+    /**
+     * @return Personal weapons for conventional infantry
+     */
+    public List<EquipmentType> getInfantryWeapons() {
+        return infantryWeapons;
+    }
+
+    /**
+     * @return All ammo types
+     */
+    public List<EquipmentType> getAmmo() {
+        return ammo;
+    }
+
+    /**
+     * @param ammoType One of the AmmoType T_* constants
+     * @return         The ammo types with that ammo type
+     */
+    public List<EquipmentType> getAmmo(int ammoType) {
+        if ((ammoType < 0) || (ammoType >= ammoByType.size())) {
+            return Collections.emptyList();
+        }
+        return ammoByType.get(ammoType);
+    }
+
+    /**
+     * @return All equipment types that are neither weapons nor ammo
+     */
+    public List<EquipmentType> getMisc() {
+        return misc;
+    }
+
+    /**
+     * @param flag One of the MiscType F_* flags
+     * @return     The misc equipment types with the flag
+     */
+    public List<EquipmentType> getMisc(BigInteger flag) {
+        return miscByFlag.computeIfAbsent(flag,
+                f -> Collections.unmodifiableList(misc.stream().filter(eq -> eq.hasFlag(f))
+                        .collect(Collectors.toList())));
+    }
+}
@@ -19,6 +19,7 @@ package megameklab.com.util;
 import java.awt.Component;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JTable;
 import javax.swing.SwingConstants;
@@ -79,7 +80,7 @@ public class EquipmentTableModel extends AbstractTableModel {
     public final static int COL_REF = 20;
     public final static int N_COL = 21;
 
-    private ArrayList<EquipmentType> data = new ArrayList<EquipmentType>();
+    private List<EquipmentType> data = new ArrayList<EquipmentType>();
     private Entity entity = null;
 
     public EquipmentTableModel(Entity e) {
@@ -206,7 +207,7 @@ public class EquipmentTableModel extends AbstractTableModel {
     }
 
     // fill table with values
-    public void setData(ArrayList<EquipmentType> equip) {
+    public void setData(List<EquipmentType> equip) {
         data = equip;
         fireTableDataChanged();
     }
@@ -0,0 +1,166 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Finds fluff images by name without checking the disk for each name tried. The first lookup in
+ * a directory lists its files, and later lookups in that directory are answered from the list.
+ * Names are compared without regard to case.
+ *
+ * A directory is watched for files being added or removed, and its list is rebuilt on the next
+ * lookup after a change. If the directory cannot be watched, its modification time is checked
+ * on each lookup instead, which is still a single check rather than one for each name tried.
+ */
+public class FluffImageIndex {
+
+    private static final Map<File, Directory> directories = new HashMap<>();
+    private static WatchService watcher = null;
+    private static boolean watcherFailed = false;
+
+    private FluffImageIndex() {
+    }
+
+    /**
+     * Looks for a file in the index of its directory.
+     *
+     * @param file The file to look for
+     * @return     The file as it is named on disk, or null if there is no such file
+     */
+    public static File find(File file) {
+        file = file.getAbsoluteFile();
+        final File dir = file.getParentFile();
+        if (null == dir) {
+            return file.exists() ? file : null;
+        }
+        return getDirectory(dir).files.get(normalize(file.getName()));
+    }
+
+    /**
+     * Looks for a file by name in a directory.
+     *
+     * @return The file as it is named on disk, or null if there is no such file
+     */
+    public static File find(File dir, String name) {
+        return find(new File(dir, name));
+    }
+
+    /**
+     * Drops all directory lists so they are read again on the next lookup.
+     */
+    public static synchronized void clear() {
+        directories.clear();
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static synchronized Directory getDirectory(File dir) {
+        Directory index = directories.get(dir);
+        if ((null != index) && (index.watched || (index.modified == dir.lastModified()))) {
+            return index;
+        }
+        index = new Directory(dir, register(dir));
+        directories.put(dir, index);
+        return index;
+    }
+
+    /**
+     * Starts watching a directory for changes.
+     *
+     * @return Whether the directory is being watched
+     */
+    private static boolean register(File dir) {
+        if (!dir.isDirectory()) {
+            return false;
+        }
+        try {
+            if ((null == watcher) && !watcherFailed) {
+                watcher = FileSystems.getDefault().newWatchService();
+                Thread t = new Thread(FluffImageIndex::watch, "Fluff image watcher"); //$NON-NLS-1$
+                t.setDaemon(true);
+                t.start();
+            }
+            if (null == watcher) {
+                return false;
+            }
+            dir.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            return true;
+        } catch (IOException | UnsupportedOperationException ex) {
+            if (null == watcher) {
+                watcherFailed = true;
+            }
+            MegaMekLab.getLogger().log(FluffImageIndex.class, "register(File)", LogLevel.WARNING, //$NON-NLS-1$
+                    "Cannot watch " + dir + " for changes: " + ex.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+            return false;
+        }
+    }
+
+    private static void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | ClosedWatchServiceException ex) {
+                return;
+            }
+            // The events themselves are not needed; any change means the list is rebuilt.
+            key.pollEvents();
+            final File dir = ((Path) key.watchable()).toFile().getAbsoluteFile();
+            synchronized (FluffImageIndex.class) {
+                // Cancelled first so that the next lookup registers the directory again.
+                key.cancel();
+                directories.remove(dir);
+            }
+        }
+    }
+
+    private static class Directory {
+        private final Map<String, File> files;
+        private final long modified;
+        private final boolean watched;
+
+        private Directory(File dir, boolean watched) {
+            this.watched = watched;
+            modified = dir.lastModified();
+            // Only the names are read, so listing does not need to check each file.
+            String[] names = dir.list();
+            if ((null == names) || (names.length == 0)) {
+                files = Collections.emptyMap();
+            } else {
+                files = new HashMap<>();
+                for (String name : names) {
+                    files.put(normalize(name), new File(dir, name));
+                }
+            }
+        }
+    }
+}
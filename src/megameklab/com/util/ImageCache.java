@@ -0,0 +1,191 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.awt.Image;
+import java.awt.MediaTracker;
+import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * Keeps decoded record sheet and fluff images in memory so that printing a batch of units does
+ * not read and decode the same backgrounds for every sheet. Entries are keyed by the absolute
+ * path of the file and are only used while the file has the same modification time and size.
+ * The total decoded size of the images, counted as four bytes per pixel, is capped by
+ * {@link CConfig#IMAGE_CACHE_SIZE} in megabytes, and the least recently used images are dropped
+ * to stay within it.
+ *
+ * The cache also remembers which files were found not to exist, for the fluff image searches
+ * that try several names for each unit. A missing file is checked again once the directory it
+ * would be in has been modified, which is the case when a file is added to it.
+ *
+ * Images are decoded with {@link ImageIO}, or from the file's bytes by the toolkit, and never
+ * through the toolkit's own image cache, which keeps every image loaded by file name for the
+ * rest of the session. Dropping an entry here therefore frees the image.
+ *
+ * The images are shared, so callers must not change them.
+ */
+public class ImageCache {
+
+    private static final Map<String, Entry> images = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<String, Long> missing = new HashMap<>();
+    private static long totalBytes = 0;
+
+    private ImageCache() {
+    }
+
+    /**
+     * Loads an image, using the decoded copy from an earlier call if the file has not changed.
+     * An image that cannot be loaded is returned with a size of -1 and is not kept.
+     *
+     * @param path The path of an image file
+     * @return     The image
+     */
+    public static Image getImage(String path) {
+        final File file = new File(path).getAbsoluteFile();
+        final String key = file.getPath();
+        final long modified = file.lastModified();
+        final long length = file.length();
+        synchronized (ImageCache.class) {
+            Entry entry = images.get(key);
+            if (null != entry) {
+                if ((entry.modified == modified) && (entry.length == length)) {
+                    return entry.image;
+                }
+                remove(key);
+            }
+        }
+        Image image = null;
+        long bytes = 0;
+        try {
+            final BufferedImage decoded = ImageIO.read(file);
+            if (null != decoded) {
+                image = decoded;
+                bytes = 4L * decoded.getWidth() * decoded.getHeight();
+            }
+        } catch (IOException ex) {
+            // Tried again with the toolkit
+        }
+        if (null == image) {
+            // ImageIO cannot read everything the toolkit can, such as CMYK JPEGs.
+            byte[] data = new byte[0];
+            try {
+                data = Files.readAllBytes(file.toPath());
+            } catch (IOException ex) {
+                // Leaves an image that fails to load
+            }
+            ImageIcon icon = new ImageIcon(Toolkit.getDefaultToolkit().createImage(data));
+            image = icon.getImage();
+            if (icon.getImageLoadStatus() == MediaTracker.COMPLETE) {
+                bytes = 4L * Math.max(0, icon.getIconWidth()) * Math.max(0, icon.getIconHeight());
+            }
+        }
+        if ((bytes > 0) && (modified != 0)) {
+            put(key, new Entry(image, modified, length, bytes));
+        }
+        return image;
+    }
+
+    /**
+     * Checks whether a file exists, remembering the files that do not until their directory
+     * changes.
+     */
+    public static boolean exists(File file) {
+        file = file.getAbsoluteFile();
+        final String key = file.getPath();
+        final File dir = file.getParentFile();
+        final long dirModified = (null == dir) ? 0 : dir.lastModified();
+        synchronized (ImageCache.class) {
+            Long checked = missing.get(key);
+            if ((null != checked) && (checked == dirModified) && (dirModified != 0)) {
+                return false;
+            }
+        }
+        final boolean exists = file.exists();
+        synchronized (ImageCache.class) {
+            if (exists) {
+                missing.remove(key);
+            } else {
+                missing.put(key, dirModified);
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Drops all cached images and missing files.
+     */
+    public static synchronized void clear() {
+        images.clear();
+        missing.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * @return The decoded size of the images in the cache, in bytes
+     */
+    public static synchronized long getCachedBytes() {
+        return totalBytes;
+    }
+
+    private static long getMaxBytes() {
+        return CConfig.getIntParam(CConfig.IMAGE_CACHE_SIZE) * 1024L * 1024L;
+    }
+
+    private static synchronized void put(String key, Entry entry) {
+        final long max = getMaxBytes();
+        if (entry.bytes > max) {
+            return;
+        }
+        remove(key);
+        images.put(key, entry);
+        totalBytes += entry.bytes;
+        for (Iterator<Entry> iter = images.values().iterator();
+                (totalBytes > max) && iter.hasNext();) {
+            totalBytes -= iter.next().bytes;
+            iter.remove();
+        }
+    }
+
+    private static void remove(String key) {
+        Entry old = images.remove(key);
+        if (null != old) {
+            totalBytes -= old.bytes;
+        }
+    }
+
+    private static class Entry {
+        private final Image image;
+        private final long modified;
+        private final long length;
+        private final long bytes;
+
+        private Entry(Image image, long modified, long length, long bytes) {
+            this.image = image;
+            this.modified = modified;
+            this.length = length;
+            this.bytes = bytes;
+        }
+    }
+}
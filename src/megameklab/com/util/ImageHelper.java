@@ -37,8 +37,6 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Vector;
 
-import javax.swing.ImageIcon;
-
 import com.kitfox.svg.SVGDiagram;
 import com.kitfox.svg.SVGUniverse;
 
@@ -67,6 +65,8 @@ public class ImageHelper {
     public static String fluffPath = "./data/images/fluff/";
     public static String imagePath = "./data/images/";
 
+    private static final String[] FLUFF_EXTENSIONS = { ".png", ".jpg", ".jpeg", ".gif" };
+
     public static String imageMech = "mech";
     public static String imageAero = "aero";
     public static String imageBattleArmor = "BattleArmor";
@@ -83,84 +83,90 @@ public class ImageHelper {
     }
 
     public static Image getRecordSheet(Entity unit, boolean advanced) {
-
-        Image recordSheet = null;
-
+        final String name = getRecordSheetName(unit, advanced);
+        if (null == name) {
+            return null;
+        }
         String path = new File(recordSheetPath).getAbsolutePath()
                 + File.separatorChar;
+        return ImageCache.getImage(path + name);
+    }
+
+    public static String getRecordSheetName(Entity unit) {
+        return ImageHelper.getRecordSheetName(unit, false);
+    }
+
+    /**
+     * @return The name of the background image file in {@link #recordSheetPath} for the
+     *         unit's record sheet, or null if there is none
+     */
+    public static String getRecordSheetName(Entity unit, boolean advanced) {
+
+        String recordSheet = null;
         if (unit instanceof BipedMech) {
             if (advanced) {
-                recordSheet = new ImageIcon(path + "tobiped.png").getImage();
+                recordSheet = "tobiped.png";
             } else {
-                recordSheet = new ImageIcon(path + "twbiped.png").getImage();
+                recordSheet = "twbiped.png";
             }
         } else if (unit instanceof QuadMech) {
             if (advanced) {
-                recordSheet = new ImageIcon(path + "toquad.png").getImage();
+                recordSheet = "toquad.png";
             } else {
-                recordSheet = new ImageIcon(path + "twquad.png").getImage();
+                recordSheet = "twquad.png";
             }
         } else if (unit instanceof VTOL) {
-            recordSheet = new ImageIcon(path + "twvee-vtol.png").getImage();
+            recordSheet = "twvee-vtol.png";
         } else if ((unit instanceof LargeSupportTank)
                 || ((unit instanceof Tank) && ((Tank) unit).isSuperHeavy())) {
             if (unit.getOInternal(LargeSupportTank.LOC_TURRET) > 0) {
-                recordSheet = new ImageIcon(path
-                        + "twvee-lgsupground-turret.png").getImage();
+                recordSheet = "twvee-lgsupground-turret.png";
             } else {
-                recordSheet = new ImageIcon(path + "twvee-lgsupground.png")
-                        .getImage();
+                recordSheet = "twvee-lgsupground.png";
             }
         } else if (unit instanceof Tank) {
             if ((unit.getMovementMode() == EntityMovementMode.NAVAL)
                     || (unit.getMovementMode() == EntityMovementMode.SUBMARINE)
                     || (unit.getMovementMode() == EntityMovementMode.HYDROFOIL)) {
                 if (unit.getOInternal(((Tank) unit).getLocTurret()) > 0) {
-                    recordSheet = new ImageIcon(path + "twnaval-turret.png")
-                            .getImage();
+                    recordSheet = "twnaval-turret.png";
                 } else {
-                    recordSheet = new ImageIcon(path + "twnaval.png")
-                            .getImage();
+                    recordSheet = "twnaval.png";
                 }
             } else if (advanced) {
                 String imageName = "twvee-"
                         + unit.getMovementModeAsString().toLowerCase().trim()
                         + "-dualturret.png";
-                recordSheet = new ImageIcon(path + imageName).getImage();
+                recordSheet = imageName;
             } else {
                 String imageName = "twvee-"
                         + unit.getMovementModeAsString().toLowerCase().trim()
                         + ".png";
-                recordSheet = new ImageIcon(path + imageName).getImage();
+                recordSheet = imageName;
             }
         } else if (unit instanceof Aero) {
             if (unit instanceof Dropship) {
                 if (unit.getMovementMode() == EntityMovementMode.AERODYNE) {
-                    recordSheet = new ImageIcon(path + "twaerodyneds.png")
-                            .getImage();
+                    recordSheet = "twaerodyneds.png";
                 } else {
-                    recordSheet = new ImageIcon(path + "twspheroidds.png")
-                            .getImage();
+                    recordSheet = "twspheroidds.png";
                 }
             } else if (unit instanceof ConvFighter) {
-                recordSheet = new ImageIcon(path + "twconventionalfighter.png")
-                        .getImage();
+                recordSheet = "twconventionalfighter.png";
             } else if (unit instanceof SmallCraft) {
                 if (unit.getMovementMode() == EntityMovementMode.AERODYNE) {
-                    recordSheet = new ImageIcon(path + "twaero-smallcraft.png")
-                            .getImage();
+                    recordSheet = "twaero-smallcraft.png";
                 } else {
-                    recordSheet = new ImageIcon(path
-                            + "twspheroid-smallcraft.png").getImage();
+                    recordSheet = "twspheroid-smallcraft.png";
                 }
 
             } else {
-                recordSheet = new ImageIcon(path + "twaero.png").getImage();
+                recordSheet = "twaero.png";
             }
         } else if (unit instanceof BattleArmor) {
-            recordSheet = new ImageIcon(path + "twba.png").getImage();
+            recordSheet = "twba.png";
         } else if (unit instanceof Protomech) {
-            recordSheet = new ImageIcon(path + "twproto.png").getImage();
+            recordSheet = "twproto.png";
         }
 
         return recordSheet;
@@ -169,37 +175,35 @@ public class ImageHelper {
     public static Image getGyroPipImage() {
         String path = new File(recordSheetPath).getAbsolutePath()
                 + File.separatorChar;
-        Image image = new ImageIcon(path + "gyropip.png").getImage();
+        Image image = ImageCache.getImage(path + "gyropip.png");
         return image;
     }
 
     public static Image getUMImage() {
         String path = new File(recordSheetPath).getAbsolutePath()
                 + File.separatorChar;
-        Image image = new ImageIcon(path + "UM.png").getImage();
+        Image image = ImageCache.getImage(path + "UM.png");
         return image;
     }
 
     public static Image getShieldImage() {
         String path = new File(recordSheetPath).getAbsolutePath()
                 + File.separatorChar;
-        Image image = new ImageIcon(path + "twbiped-shields.png").getImage();
+        Image image = ImageCache.getImage(path + "twbiped-shields.png");
         return image;
     }
 
     public static Image getRightShieldImage() {
         String path = new File(recordSheetPath).getAbsolutePath()
                 + File.separatorChar;
-        Image image = new ImageIcon(path + "twbiped-shield-right.png")
-                .getImage();
+        Image image = ImageCache.getImage(path + "twbiped-shield-right.png");
         return image;
     }
 
     public static Image getLeftShieldImage() {
         String path = new File(recordSheetPath).getAbsolutePath()
                 + File.separatorChar;
-        Image image = new ImageIcon(path + "twbiped-shield-left.png")
-                .getImage();
+        Image image = ImageCache.getImage(path + "twbiped-shield-left.png");
         return image;
     }
     
@@ -218,33 +222,19 @@ public class ImageHelper {
         
         if (unit.getFluff().getMMLImagePath().length() > 0) {
             f = new File(path, unit.getFluff().getMMLImagePath());
-            if (f.exists()) {
+            if (ImageCache.exists(f)) {
                 return f;
             }
         }
 
-        path = new File(path, dir).getAbsolutePath();
-        f = new File(path, unit.getShortNameRaw() + ".png");
-        if (f.exists()) {
-            return f;
-        }
-        f = new File(path, unit.getShortNameRaw() + ".jpg");
-        if (f.exists()) {
-            return f;
-        }
-        f = new File(path, unit.getShortNameRaw() + ".jpeg");
-        if (f.exists()) {
-            return f;
-        }
-        f = new File(path, unit.getShortNameRaw() + ".gif");
-        if (f.exists()) {
-            return f;
-        }
-        f = new File(path, "hud.png");
-        if (f.exists()) {
-            return f;
+        File unitDir = new File(path, dir);
+        for (String ext : FLUFF_EXTENSIONS) {
+            f = FluffImageIndex.find(unitDir, unit.getShortNameRaw() + ext);
+            if (null != f) {
+                return f;
+            }
         }
-        return null;
+        return FluffImageIndex.find(unitDir, "hud.png");
     }
 
     public static Image getFluffImage(String image) {
@@ -258,14 +248,14 @@ public class ImageHelper {
         String path = new File(fluffPath).getAbsolutePath()
                 + File.separatorChar + image;
 
-        if (!(new File(path).exists())) {
+        if (!ImageCache.exists(new File(path))) {
 
             path = new File(image).getAbsolutePath();
-            if (!(new File(path).exists())) {
+            if (!ImageCache.exists(new File(path))) {
                 return null;
             }
         }
-        fluff = new ImageIcon(path).getImage();
+        fluff = ImageCache.getImage(path);
         return fluff;
     }
 
@@ -290,87 +280,37 @@ public class ImageHelper {
         }
 
         if (fluff == null) {
-            fluff = new ImageIcon(path + "hud.png").getImage();
+            fluff = ImageCache.getImage(path + "hud.png");
         }
         return fluff;
     }
 
     public static Image getFluffPNG(Entity unit, String path) {
-        Image fluff = null;
-
-        String fluffFile = path + unit.getChassis() + " " + unit.getModel()
-                + ".png";
-        if (new File(fluffFile.toLowerCase()).exists()) {
-            fluff = new ImageIcon(fluffFile).getImage();
-        }
-
-        if (fluff == null) {
-            fluffFile = path + unit.getModel() + ".png";
-            if (new File(fluffFile.toLowerCase()).exists()) {
-                fluff = new ImageIcon(fluffFile).getImage();
-            }
-        }
-
-        if (fluff == null) {
-            fluffFile = path + unit.getChassis() + ".png";
-            if (new File(fluffFile.toLowerCase()).exists()) {
-                fluff = new ImageIcon(fluffFile).getImage();
-            }
-        }
-
-        return fluff;
+        return ImageHelper.findFluffImage(unit, path, ".png");
     }
 
     public static Image getFluffJPG(Entity unit, String path) {
-        Image fluff = null;
-
-        String fluffFile = path + unit.getChassis() + " " + unit.getModel()
-                + ".jpg";
-        if (new File(fluffFile.toLowerCase()).exists()) {
-            fluff = new ImageIcon(fluffFile).getImage();
-        }
-
-        if (fluff == null) {
-            fluffFile = path + unit.getModel() + ".jpg";
-            if (new File(fluffFile.toLowerCase()).exists()) {
-                fluff = new ImageIcon(fluffFile).getImage();
-            }
-        }
-
-        if (fluff == null) {
-            fluffFile = path + unit.getChassis() + ".jpg";
-            if (new File(fluffFile.toLowerCase()).exists()) {
-                fluff = new ImageIcon(fluffFile).getImage();
-            }
-        }
-
-        return fluff;
+        return ImageHelper.findFluffImage(unit, path, ".jpg");
     }
 
     public static Image getFluffGIF(Entity unit, String path) {
-        Image fluff = null;
-
-        String fluffFile = path + unit.getChassis() + " " + unit.getModel()
-                + ".gif";
-        if (new File(fluffFile.toLowerCase()).exists()) {
-            fluff = new ImageIcon(fluffFile).getImage();
-        }
-
-        if (fluff == null) {
-            fluffFile = path + unit.getModel() + ".gif";
-            if (new File(fluffFile.toLowerCase()).exists()) {
-                fluff = new ImageIcon(fluffFile).getImage();
-            }
-        }
+        return ImageHelper.findFluffImage(unit, path, ".gif");
+    }
 
-        if (fluff == null) {
-            fluffFile = path + unit.getChassis() + ".gif";
-            if (new File(fluffFile.toLowerCase()).exists()) {
-                fluff = new ImageIcon(fluffFile).getImage();
+    /**
+     * Looks for a fluff image named for the unit's chassis and model, then the model, then the
+     * chassis.
+     */
+    private static Image findFluffImage(Entity unit, String path, String ext) {
+        String[] names = { unit.getChassis() + " " + unit.getModel(), unit.getModel(),
+                unit.getChassis() };
+        for (String name : names) {
+            File f = FluffImageIndex.find(new File(path + name + ext));
+            if (null != f) {
+                return ImageCache.getImage(f.getPath());
             }
         }
-
-        return fluff;
+        return null;
     }
 
     public static void printMechWeaponsNEquipment(Mech mech, Graphics2D g2d) {
@@ -1218,7 +1158,7 @@ public class ImageHelper {
         if (armorPip == null) {
             String path = new File(recordSheetPath).getAbsolutePath()
                     + File.separatorChar;
-            armorPip = new ImageIcon(path + "armordot.png").getImage();
+            armorPip = ImageCache.getImage(path + "armordot.png");
         }
         // armorPip.setAccelerationPriority(1);
         g2d.drawImage(armorPip, (int) width, (int) height, 6, 6, null);
@@ -1261,7 +1201,7 @@ public class ImageHelper {
     public static void drawDiamond(Graphics2D g2d, int xPos, int yPos) {
         String path = new File(recordSheetPath).getAbsolutePath()
                 + File.separatorChar;
-        Image img = new ImageIcon(path + "shielddiamond.png").getImage();
+        Image img = ImageCache.getImage(path + "shielddiamond.png");
         g2d.drawImage(img, xPos, yPos, 5, 5, null);
 
     }
@@ -25,8 +25,6 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 
-import javax.swing.ImageIcon;
-
 import megamek.common.AmmoType;
 import megamek.common.BattleArmor;
 import megamek.common.Entity;
@@ -60,12 +58,12 @@ public class ImageHelperBattleArmor {
 
     public static Image getBATrooper(int position) {
         String path = new File(ImageHelper.recordSheetPath).getAbsolutePath() + File.separatorChar;
-        return new ImageIcon(path + "twba-trooper" + position + ".png").getImage();
+        return ImageCache.getImage(path + "twba-trooper" + position + ".png");
     }
 
     public static Image getBACheckBox() {
         String path = new File(ImageHelper.recordSheetPath).getAbsolutePath() + File.separatorChar;
-        return new ImageIcon(path + "checkbox.png").getImage();
+        return ImageCache.getImage(path + "checkbox.png");
     }
 
     public static void printBAArmor(BattleArmor ba, Graphics2D g2d, float lineFeed, float offset) {
@@ -428,7 +426,7 @@ public class ImageHelperBattleArmor {
 
     public static Image getBASquad() {
         String path = new File(ImageHelper.recordSheetPath).getAbsolutePath() + File.separatorChar;
-        return new ImageIcon(path + "twba-squad.png").getImage();
+        return ImageCache.getImage(path + "twba-squad.png");
     }
 
     public static Font getBattleArmorWeaponsNEquipmentFont(Graphics2D g2d, boolean bold, float stringHeight, ArrayList<ArrayList<EquipmentInfo>> equipmentLocations, float pointSize) {
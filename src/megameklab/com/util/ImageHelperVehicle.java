@@ -27,8 +27,6 @@ import java.util.Collections;
 import java.util.Hashtable;
 import java.util.Vector;
 
-import javax.swing.ImageIcon;
-
 import megamek.common.AmmoType;
 import megamek.common.Bay;
 import megamek.common.Entity;
@@ -42,36 +40,41 @@ import megamek.common.VTOL;
 
 public class ImageHelperVehicle {
 
+    public static final String TURRET_LABEL_IMAGE = "twvee-turretlabel.png";
+
     public static Image getTableImage(Entity unit) {
-        Image table = null;
+        final String name = getTableImageName(unit);
+        if (null == name) {
+            return null;
+        }
         String path = new File(ImageHelper.recordSheetPath).getAbsolutePath() + File.separatorChar;
+        return ImageCache.getImage(path + name);
+    }
 
+    public static String getTableImageName(Entity unit) {
         if (unit instanceof VTOL) {
-            table = new ImageIcon(path + "twvee-vtoltables.png").getImage();
+            return "twvee-vtoltables.png";
         } else if (unit instanceof Tank) {
-            table = new ImageIcon(path + "twvee-groundtables.png").getImage();
+            return "twvee-groundtables.png";
         }
-        return table;
+        return null;
     }
 
     public static Image getTurretImage(Entity unit) {
-        Image table = null;
         String path = new File(ImageHelper.recordSheetPath).getAbsolutePath() + File.separatorChar;
+        return ImageCache.getImage(path + getTurretImageName(unit));
+    }
 
+    public static String getTurretImageName(Entity unit) {
         if ((unit instanceof Tank) && (unit.getMovementMode() == EntityMovementMode.WIGE)) {
-            table = new ImageIcon(path + "twvee-wige-turret.png").getImage();
-        } else {
-            table = new ImageIcon(path + "twvee-turret.png").getImage();
+            return "twvee-wige-turret.png";
         }
-        return table;
+        return "twvee-turret.png";
     }
 
     public static Image getTurretLabelImage() {
-        Image table = null;
         String path = new File(ImageHelper.recordSheetPath).getAbsolutePath() + File.separatorChar;
-
-        table = new ImageIcon(path + "twvee-turretlabel.png").getImage();
-        return table;
+        return ImageCache.getImage(path + TURRET_LABEL_IMAGE);
     }
 
     public static void drawLSVISPip(Graphics2D g2d, int width, int height) {
@@ -17,6 +17,7 @@
 package megameklab.com.util;
 
 import java.awt.Component;
+import java.awt.Dimension;
 import java.awt.FileDialog;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
@@ -27,8 +28,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.BoxLayout;
 import javax.swing.JDialog;
@@ -39,13 +40,16 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.KeyStroke;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import megamek.MegaMek;
-import megamek.client.ui.swing.UnitLoadingDialog;
-import megamek.client.ui.swing.UnitSelectorDialog;
 import megamek.common.Aero;
 import megamek.common.BattleArmor;
 import megamek.common.Entity;
@@ -54,7 +58,6 @@ import megamek.common.GunEmplacement;
 import megamek.common.Infantry;
 import megamek.common.Jumpship;
 import megamek.common.Mech;
-import megamek.common.MechFileParser;
 import megamek.common.MechTextView;
 import megamek.common.MechView;
 import megamek.common.SmallCraft;
@@ -62,6 +65,7 @@ import megamek.common.Tank;
 import megamek.common.loaders.BLKFile;
 import megameklab.com.MegaMekLab;
 import megameklab.com.ui.MegaMekLabMainUI;
+import megameklab.com.ui.dialog.UnitSearchDialog;
 
 public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
 
@@ -70,6 +74,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
      */
     private static final long serialVersionUID = -3998342610654551481L;
     private JMenu file = new JMenu("File");
+    private JMenu edit = new JMenu("Edit");
     private JMenu help = new JMenu("Help");
     private JMenu validate = new JMenu("Validate");
     private MegaMekLabMainUI parentFrame = null;
@@ -79,6 +84,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         parentFrame = parent;
 
         loadFileMenuOptions();
+        loadEditMenuOptions();
 
         JMenuItem item = new JMenuItem();
         item.setText("About");
@@ -121,11 +127,51 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         validate.add(loadUnitWeightBreakdownMenuOptions());
 
         this.add(file);
+        this.add(edit);
         this.add(validate);
         this.add(help);
 
     }
 
+    private void loadEditMenuOptions() {
+        edit.setMnemonic(KeyEvent.VK_E);
+
+        final JMenuItem undo = new JMenuItem("Undo");
+        undo.setMnemonic(KeyEvent.VK_U);
+        undo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z,
+                Toolkit.getDefaultToolkit().getMenuShortcutKeyMask()));
+        undo.addActionListener(e -> parentFrame.getUndoHistory().undo());
+        edit.add(undo);
+
+        final JMenuItem redo = new JMenuItem("Redo");
+        redo.setMnemonic(KeyEvent.VK_R);
+        redo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y,
+                Toolkit.getDefaultToolkit().getMenuShortcutKeyMask()));
+        redo.addActionListener(e -> parentFrame.getUndoHistory().redo());
+        edit.add(redo);
+
+        edit.addMenuListener(new MenuListener() {
+            @Override
+            public void menuSelected(MenuEvent e) {
+                undo.setEnabled(parentFrame.getUndoHistory().canUndo());
+                redo.setEnabled(parentFrame.getUndoHistory().canRedo());
+            }
+
+            @Override
+            public void menuDeselected(MenuEvent e) {
+                // Accelerators only fire for enabled items
+                undo.setEnabled(true);
+                redo.setEnabled(true);
+            }
+
+            @Override
+            public void menuCanceled(MenuEvent e) {
+                undo.setEnabled(true);
+                redo.setEnabled(true);
+            }
+        });
+    }
+
     private JMenu loadBVMenuOptions() {
         JMenu bv = new JMenu("BV Calculations");
         JMenuItem item = new JMenuItem();
@@ -517,6 +563,32 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         });
         exportMenu.add(item);
 
+        item = new JMenuItem("Record Sheet to PDF...");
+        item.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                jMenuExportEntityPDF_actionPerformed(e);
+            }
+        });
+        exportMenu.add(item);
+
+        exportMenu.addSeparator();
+
+        item = new JMenuItem("Batch to HTML...");
+        item.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                jMenuBatchExport_actionPerformed(ReadoutExportTask.Format.HTML);
+            }
+        });
+        exportMenu.add(item);
+
+        item = new JMenuItem("Batch to Text...");
+        item.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                jMenuBatchExport_actionPerformed(ReadoutExportTask.Format.TEXT);
+            }
+        });
+        exportMenu.add(item);
+
         file.add(exportMenu);
 
         item = new JMenuItem("Configuration");
@@ -528,6 +600,10 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         });
         file.add(item);
 
+        item = new JMenuItem("Clear Unit File Cache");
+        item.addActionListener(e -> EntityFileCache.clear());
+        file.add(item);
+
         int fileNumber = 1;
         if (CConfig.getParam(CConfig.CONFIG_SAVE_FILE_1).length() > 1) {
             file.addSeparator();
@@ -622,25 +698,16 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
     }
 
     private void jMenuGetUnitBVFromCache_actionPerformed() {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parentFrame);
-        unitLoadingDialog.setVisible(true);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parentFrame, unitLoadingDialog, true);
-
-        Entity tempEntity = viewer.getChosenEntity();
+        Entity tempEntity = UnitSearchDialog.chooseEntity(parentFrame);
         if(null == tempEntity) {
             return;
         }
-        tempEntity.calculateBattleValue(true, true);
-        UnitUtil.showBVCalculations(tempEntity.getBVText(), parentFrame);
+        UnitUtil.showBVCalculations(ValuationCache.getBVText(tempEntity), parentFrame);
 
     }
 
     private void jMenuGetUnitValidationFromCache_actionPerformed() {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parentFrame);
-        unitLoadingDialog.setVisible(true);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parentFrame, unitLoadingDialog, true);
-
-        Entity tempEntity = viewer.getChosenEntity();
+        Entity tempEntity = UnitSearchDialog.chooseEntity(parentFrame);
         if(null == tempEntity) {
             return;
         }
@@ -649,11 +716,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
     }
 
     private void jMenuGetUnitSpecsFromCache_actionPerformed() {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parentFrame);
-        unitLoadingDialog.setVisible(true);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parentFrame, unitLoadingDialog, true);
-
-        Entity tempEntity = viewer.getChosenEntity();
+        Entity tempEntity = UnitSearchDialog.chooseEntity(parentFrame);
         if(null == tempEntity) {
             return;
         }
@@ -662,11 +725,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
     }
 
     private void jMenuGetUnitBreakdownFromCache_actionPerformed() {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parentFrame);
-        unitLoadingDialog.setVisible(true);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parentFrame, unitLoadingDialog, true);
-
-        Entity tempEntity = viewer.getChosenEntity();
+        Entity tempEntity = UnitSearchDialog.chooseEntity(parentFrame);
         if(null == tempEntity) {
             return;
         }
@@ -675,11 +734,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
     }
     
     private void jMenuGetUnitWeightBreakdownFromCache_actionPerformed() {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parentFrame);
-        unitLoadingDialog.setVisible(true);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parentFrame, unitLoadingDialog, true);
-
-        Entity tempEntity = viewer.getChosenEntity();
+        Entity tempEntity = UnitSearchDialog.chooseEntity(parentFrame);
         if(null == tempEntity) {
             return;
         }
@@ -711,12 +766,11 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         unitFile = f.getSelectedFile();
 
         try {
-            tempEntity = new MechFileParser(unitFile).getEntity();
+            tempEntity = EntityFileCache.getEntity(unitFile);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(parentFrame, String.format("Warning:Invalid unit, it might load incorrectly!\n%1$s", ex.getMessage()));
         } finally {
-            tempEntity.calculateBattleValue(true, true);
-            UnitUtil.showBVCalculations(tempEntity.getBVText(), parentFrame);
+            UnitUtil.showBVCalculations(ValuationCache.getBVText(tempEntity), parentFrame);
         }
 
     }
@@ -745,7 +799,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         unitFile = f.getSelectedFile();
 
         try {
-            tempEntity = new MechFileParser(unitFile).getEntity();
+            tempEntity = EntityFileCache.getEntity(unitFile);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(parentFrame, String.format("Warning:Invalid unit, it might load incorrectly!\n%1$s", ex.getMessage()));
         } finally {
@@ -777,7 +831,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         unitFile = f.getSelectedFile();
 
         try {
-            tempEntity = new MechFileParser(unitFile).getEntity();
+            tempEntity = EntityFileCache.getEntity(unitFile);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(parentFrame, String.format("Warning:Invalid unit, it might load incorrectly!\n%1$s", ex.getMessage()));
         } finally {
@@ -809,7 +863,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         unitFile = f.getSelectedFile();
 
         try {
-            tempEntity = new MechFileParser(unitFile).getEntity();
+            tempEntity = EntityFileCache.getEntity(unitFile);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(parentFrame, String.format("Warning:Invalid unit, it might load incorrectly!\n%1$s", ex.getMessage()));
         } finally {
@@ -841,7 +895,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         unitFile = f.getSelectedFile();
 
         try {
-            tempEntity = new MechFileParser(unitFile).getEntity();
+            tempEntity = EntityFileCache.getEntity(unitFile);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(parentFrame, String.format("Warning:Invalid unit, it might load incorrectly!\n%1$s", ex.getMessage()));
         } finally {
@@ -873,7 +927,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         unitFile = f.getSelectedFile();
 
         try {
-            Entity tempEntity = new MechFileParser(unitFile).getEntity();
+            Entity tempEntity = EntityFileCache.getEntity(unitFile);
 
             if (UnitUtil.validateUnit(parentFrame.getEntity()).trim().length() > 0) {
                 JOptionPane.showMessageDialog(parentFrame, "Warning:Invalid unit, it might load incorrectly!");
@@ -911,8 +965,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
     // Show BV Calculations
 
     public void jMenuBVCalculations_actionPerformed() {
-        parentFrame.getEntity().calculateBattleValue(true, true);
-        UnitUtil.showBVCalculations(parentFrame.getEntity().getBVText(), parentFrame);
+        UnitUtil.showBVCalculations(ValuationCache.getBVText(parentFrame.getEntity()), parentFrame);
     }
 
     public void jMenuUnitCostBreakdown_actionPerformed() {
@@ -1146,24 +1199,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
                 return;
             }
         }
-        try {
-            if (parentFrame.getEntity() instanceof Mech) {
-                FileOutputStream out = new FileOutputStream(filePathName);
-                PrintStream p = new PrintStream(out);
-
-                p.println(((Mech) parentFrame.getEntity()).getMtf());
-                p.close();
-                out.close();
-            } else {
-                BLKFile.encode(filePathName, parentFrame.getEntity());
-            }
-            CConfig.updateSaveFiles(filePathName);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-
-        JOptionPane.showMessageDialog(parentFrame, parentFrame.getEntity().getChassis() + " " + parentFrame.getEntity().getModel() + " saved to " + filePathName);
-
+        new UnitSaveTask(parentFrame, parentFrame.getEntity(), new File(filePathName)).execute();
     }
 
     public void jMenuSaveAsEntity_actionPerformed(ActionEvent event) {
@@ -1191,24 +1227,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
             return;
         }
 
-        try {
-            if (parentFrame.getEntity() instanceof Mech) {
-                FileOutputStream out = new FileOutputStream(filePathName);
-                PrintStream p = new PrintStream(out);
-
-                p.println(((Mech) parentFrame.getEntity()).getMtf());
-                p.close();
-                out.close();
-            } else {
-                BLKFile.encode(filePathName, parentFrame.getEntity());
-            }
-            CConfig.updateSaveFiles(filePathName);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-
-        JOptionPane.showMessageDialog(parentFrame, parentFrame.getEntity().getChassis() + " " + parentFrame.getEntity().getModel() + " saved to " + filePathName);
-
+        new UnitSaveTask(parentFrame, parentFrame.getEntity(), new File(filePathName)).execute();
     }
 
     public void jMenuExportEntityHTML_actionPerformed(ActionEvent event) {
@@ -1237,11 +1256,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         }
 
         try {
-            FileOutputStream out = new FileOutputStream(filePathName);
-            PrintStream p = new PrintStream(out);
-            p.println(mview.getMechReadout());
-            p.close();
-            out.close();
+            ReadoutExportTask.write(new File(filePathName).toPath(), mview.getMechReadout());
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -1273,16 +1288,41 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         }
 
         try {
-            FileOutputStream out = new FileOutputStream(filePathName);
-            PrintStream p = new PrintStream(out);
-            p.println(mview.getMechReadout());
-            p.close();
-            out.close();
+            ReadoutExportTask.write(new File(filePathName).toPath(), mview.getMechReadout());
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Writes the record sheet of the current unit to a PDF file chosen by the user.
+     */
+    public void jMenuExportEntityPDF_actionPerformed(ActionEvent event) {
+        Entity entity = parentFrame.getEntity();
+        if (!(entity instanceof Mech)) {
+            JOptionPane.showMessageDialog(parentFrame, "Only 'Mech record sheets can be exported to PDF.");
+            return;
+        }
+
+        FileDialog fDialog = new FileDialog(parentFrame, "Save As", FileDialog.SAVE);
+
+        String filePathName = new File(System.getProperty("user.dir").toString()).getAbsolutePath();
+
+        fDialog.setDirectory(filePathName);
+        fDialog.setFile(entity.getChassis() + " " + entity.getModel() + ".pdf");
+        fDialog.setLocationRelativeTo(parentFrame);
+
+        fDialog.setVisible(true);
+
+        if (fDialog.getFile() != null) {
+            filePathName = fDialog.getDirectory() + fDialog.getFile();
+        } else {
+            return;
+        }
+
+        UnitPrintManager.exportUnitsToPDF(parentFrame, Collections.singletonList(entity), new File(filePathName));
+    }
+
     public void jMenuExportEntityClipboard_actionPerformed(ActionEvent event) {
         MechTextView mview = new MechTextView(parentFrame.getEntity(), false);
         Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
@@ -1290,14 +1330,73 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
         clipboard.setContents(stringSelection, this);
     }
 
-    private void loadUnit() {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parentFrame);
-        unitLoadingDialog.setVisible(true);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parentFrame, unitLoadingDialog, true);
+    /**
+     * Exports the readouts of all the units in a directory or MUL file chosen by the user.
+     */
+    public void jMenuBatchExport_actionPerformed(ReadoutExportTask.Format format) {
+        JFileChooser f = new JFileChooser(CConfig.getParam(CConfig.CONFIG_SAVE_LOC));
+        f.setDialogTitle("Export Units From");
+        f.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        f.setFileFilter(new FileNameExtensionFilter("Unit Directory or MUL", "mul"));
+        if ((f.showOpenDialog(parentFrame) != JFileChooser.APPROVE_OPTION)
+                || (f.getSelectedFile() == null)) {
+            return;
+        }
+        final File source = f.getSelectedFile();
+
+        f = new JFileChooser(source.isDirectory() ? source : source.getParentFile());
+        f.setDialogTitle("Export Readouts To");
+        f.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if ((f.showSaveDialog(parentFrame) != JFileChooser.APPROVE_OPTION)
+                || (f.getSelectedFile() == null)) {
+            return;
+        }
+        final File targetDir = f.getSelectedFile();
+
+        final ProgressMonitor monitor = new ProgressMonitor(parentFrame, "Exporting readouts",
+                null, 0, 100);
+        final ReadoutExportTask task = new ReadoutExportTask(source, targetDir, format);
+        task.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) { //$NON-NLS-1$
+                monitor.setProgress((Integer) evt.getNewValue());
+                if (monitor.isCanceled()) {
+                    task.cancel(true);
+                }
+            } else if ("state".equals(evt.getPropertyName()) //$NON-NLS-1$
+                    && (SwingWorker.StateValue.DONE == evt.getNewValue())) {
+                monitor.close();
+                batchExportFinished(task, targetDir);
+            }
+        });
+        task.execute();
+    }
 
+    private void batchExportFinished(ReadoutExportTask task, File targetDir) {
+        try {
+            ReadoutExportTask.Report report = task.get();
+            JTextArea text = new JTextArea(report.toString() + "\n\nIndex: "
+                    + new File(targetDir, ReadoutExportTask.INDEX_FILE).getPath());
+            text.setEditable(false);
+            JScrollPane scroll = new JScrollPane(text);
+            scroll.setPreferredSize(new Dimension(500, report.getFailures().isEmpty() ? 80 : 300));
+            JOptionPane.showMessageDialog(parentFrame, scroll, "Export Complete",
+                    report.getFailures().isEmpty() ? JOptionPane.INFORMATION_MESSAGE
+                            : JOptionPane.WARNING_MESSAGE);
+        } catch (CancellationException ex) {
+            // Stopped by the user; the files already written are kept and listed in the index.
+        } catch (Exception ex) {
+            Throwable cause = (null != ex.getCause()) ? ex.getCause() : ex;
+            MegaMekLab.getLogger().log(MenuBarCreator.class, "batchExportFinished(ReadoutExportTask, File)", //$NON-NLS-1$
+                    cause);
+            JOptionPane.showMessageDialog(parentFrame, cause.getMessage(), "Export Failed",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void loadUnit() {
+        UnitSearchDialog viewer = UnitSearchDialog.getInstance(parentFrame);
+        viewer.showDialog();
         Entity newUnit = viewer.getChosenEntity();
-        viewer.setVisible(false);
-        viewer.dispose();
 
         if (null == newUnit) {
             return;
@@ -1411,7 +1510,7 @@ public class MenuBarCreator extends JMenuBar implements ClipboardOwner {
 
     private void loadUnitFromFile(File unitFile) {
         try {
-            Entity tempEntity = new MechFileParser(unitFile).getEntity();
+            Entity tempEntity = EntityFileCache.getEntity(unitFile);
 
 
             if (null == tempEntity) {
@@ -22,11 +22,19 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Rectangle2D;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -44,9 +52,13 @@ import com.kitfox.svg.SVGDiagram;
 import com.kitfox.svg.SVGElement;
 import com.kitfox.svg.SVGUniverse;
 
+import megameklab.com.printing.PipRegion;
+import megameklab.com.printing.PipRegionCache;
+
 /**
  * Utility to generate svg code that defines rows for armor or structure pips that will fit in a region,
- * given the svg code for the path.
+ * given the svg code for the path. Run with <code>-batch</code> to generate the pip regions of
+ * all the record sheet templates for {@link PipRegionCache}.
  * 
  * @author Neoancient
  *
@@ -160,77 +172,19 @@ public class PipLayoutHelper {
             }
             final double HEIGHT = Double.parseDouble(txtHeight.getText());
             Rectangle2D bbox = shape.getBounds2D();
-            List<String> regions = new ArrayList<>();
-            double curY = bbox.getY() + 0.5; // add a bit of a margin
             AffineTransform at = null;
             if (txtAngle.getText().length() > 0) {
                 double angle = Double.parseDouble(txtAngle.getText()) * Math.PI / 180;
                 at = AffineTransform.getRotateInstance(- angle);
             }
-            do {
-                List<Double> top = findIntersections(curY, shape.getPathIterator(at));
-                List<Double> bottom = findIntersections(curY + HEIGHT, shape.getPathIterator(at));
-                if ((top.size() > 1) && (bottom.size() > 1)) {
-                    Collections.sort(top);
-                    Collections.sort(bottom);
-                    double x1 = Math.max(top.get(0), bottom.get(0)) + 0.5;
-                    double x2 = Math.min(top.get(top.size() - 1) - 1.0,
-                            bottom.get(bottom.size() - 1));
-                    regions.add(String.format("<rect x=\"%f\" y=\"%f\" width=\"%f\" height=\"%f\" />",
-                            x1 - bbox.getX(), bbox.getHeight() - (curY - bbox.getY() - 0.5), x2 - x1, HEIGHT));
-                }
-                curY += HEIGHT * 0.866;
-            } while (curY + HEIGHT + 0.5 < bbox.getY() + bbox.getHeight());
+            List<String> regions = PipRegion.rowsForShape(shape, HEIGHT, at).stream()
+                    .map(r -> String.format("<rect x=\"%f\" y=\"%f\" width=\"%f\" height=\"%f\" />",
+                            r.getX() - bbox.getX(), bbox.getHeight() - (r.getY() - bbox.getY() - 0.5),
+                            r.getWidth(), r.getHeight()))
+                    .collect(Collectors.toList());
             Collections.reverse(regions);
             txtGeneratedCode.setText(regions.stream().collect(Collectors.joining("\n")));
         }
-        
-        private List<Double> findIntersections(double curY, PathIterator iter) {
-            double[] coords = new double[6];
-            double[] curPos = new double[2];
-            double[] start = new double[6];
-            double dy = 0;
-            List<Double> intersections = new ArrayList<>();
-            iter.currentSegment(start);
-            while (!iter.isDone()) {
-                int type = iter.currentSegment(coords);
-                double x = 0;
-                double y = 0;
-                switch (type) {
-                    case PathIterator.SEG_MOVETO:
-                        dy = curY - coords[1];
-                        curPos[0] = coords[0];
-                        curPos[1] = coords[1];
-                        iter.next();
-                        continue;
-                    case PathIterator.SEG_LINETO:
-                        x = coords[0];
-                        y = coords[1];
-                        break;
-                    case PathIterator.SEG_CUBICTO:
-                        x = coords[2];
-                        y = coords[3];
-                        break;
-                    case PathIterator.SEG_QUADTO:
-                        x = coords[4];
-                        y = coords[5];
-                        break;
-                    case PathIterator.SEG_CLOSE:
-                        x = start[0];
-                        y = start[1];
-                        break;
-                }
-                double dy1 = curY - y;
-                if ((curPos[1] != y) && (dy * dy1 <= 0)) {
-                    intersections.add(getLineX(curY, curPos[0], curPos[1], x, y));
-                }
-                curPos[0] = x;
-                curPos[1] = y;
-                dy = dy1;
-                iter.next();
-            }
-            return intersections;
-        }
 
         @SuppressWarnings("unused")
         private void showShape(Shape shape) {
@@ -260,24 +214,75 @@ public class PipLayoutHelper {
             }
             System.out.println();
         }
-
-        /**
-         * Given a y coordinate, find the corresponding x coordinate  on the given line. This does not
-         * check whether the point is actually within the bounds of the segment or whether the segment
-         * has a slope of zero.
-         *
-         * @return    The x coordinate of the point.
-         */
-        private double getLineX(double y, double x1, double y1, double x2, double y2) {
-            return x1 + (y - y1)/(y2 - y1) * (x2 - x1);
+    }
+    
+    /**
+     * Writes the pip region sidecar file for every template in the directory and its
+     * subdirectories, processing the templates in parallel.
+     * 
+     * @param dir The template directory
+     * @return    The number of templates that could not be processed
+     */
+    public static int batch(File dir) throws IOException {
+        List<File> templates;
+        try (Stream<java.nio.file.Path> paths = Files.walk(dir.toPath())) {
+            templates = paths.map(p -> p.toFile())
+                    .filter(f -> f.isFile() && f.getName().toLowerCase().endsWith(".svg"))
+                    .sorted().collect(Collectors.toList());
+        }
+        final long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors()));
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (File template : templates) {
+            futures.add(executor.submit(() -> PipRegionCache.writeSidecar(template)));
+        }
+        int failed = 0;
+        int regions = 0;
+        try {
+            for (int i = 0; i < templates.size(); i++) {
+                try {
+                    int count = futures.get(i).get();
+                    if (count > 0) {
+                        System.out.println(templates.get(i) + ": " + count + " regions");
+                    }
+                    regions += count;
+                } catch (ExecutionException e) {
+                    System.err.println(templates.get(i) + ": " + e.getCause());
+                    failed++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failed += templates.size() - i;
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
         }
+        System.out.println(String.format("Wrote %d regions from %d templates in %.1f seconds",
+                regions, templates.size() - failed, (System.nanoTime() - start) / 1e9));
+        return failed;
     }
     
     /**
+     * With no arguments, opens the layout window. With <code>-batch [dir]</code>, writes the pip
+     * region sidecar files for the record sheet templates in dir, which defaults to
+     * data/images/recordsheets.
+     * 
      * @param args
      */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new MainFrame());
+        if ((args.length > 0) && args[0].equals("-batch")) {
+            try {
+                File dir = new File((args.length > 1) ? args[1] : "data/images/recordsheets");
+                System.exit((batch(dir) > 0) ? 1 : 0);
+            } catch (IOException e) {
+                System.err.println(e);
+                System.exit(1);
+            }
+        } else {
+            SwingUtilities.invokeLater(() -> new MainFrame());
+        }
     }
 
 }
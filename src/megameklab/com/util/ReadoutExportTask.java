@@ -0,0 +1,333 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.swing.SwingWorker;
+
+import megamek.common.Entity;
+import megamek.common.EntityListFile;
+import megamek.common.MechFileParser;
+import megamek.common.MechTextView;
+import megamek.common.MechView;
+
+/**
+ * Writes the technical readout of every unit in a directory or MUL file to a separate file, and
+ * a combined index page that links to them. Unit files are parsed and their readouts rendered
+ * concurrently on a pool with a thread for each processor. Progress is reported through the
+ * standard SwingWorker progress property as the percentage of units completed, and the task
+ * returns a {@link Report} with the throughput and a message for each unit that failed.
+ *
+ * Cancelling the task stops it after the units in progress. Files already written are kept, and
+ * the index is still written for them.
+ */
+public class ReadoutExportTask extends SwingWorker<ReadoutExportTask.Report, Void> {
+
+    public enum Format {
+        HTML("html"), //$NON-NLS-1$
+        TEXT("txt"); //$NON-NLS-1$
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public static final String INDEX_FILE = "index.html"; //$NON-NLS-1$
+
+    private static final String[] UNIT_EXTENSIONS = { ".mtf", ".blk", ".hmp" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+    private final File source;
+    private final File targetDir;
+    private final Format format;
+
+    private final Set<String> usedNames = new HashSet<>();
+
+    /**
+     * @param source    A directory, which is searched for unit files including subdirectories,
+     *                  or a MUL file
+     * @param targetDir The directory to write the readouts and index to
+     * @param format    The format of the readouts. The index is always html.
+     */
+    public ReadoutExportTask(File source, File targetDir, Format format) {
+        this.source = source;
+        this.targetDir = targetDir;
+        this.format = format;
+    }
+
+    @Override
+    protected Report doInBackground() throws Exception {
+        final long start = System.nanoTime();
+        Files.createDirectories(targetDir.toPath());
+        List<String> failures = new ArrayList<>();
+        List<Unit> units = new ArrayList<>();
+
+        if (source.isDirectory()) {
+            try (Stream<Path> paths = Files.walk(source.toPath())) {
+                paths.filter(p -> isUnitFile(p.toFile()))
+                        .forEach(p -> units.add(new Unit(p.toFile(), null)));
+            }
+        } else {
+            List<Entity> list = EntityListFile.loadFrom(source);
+            if (null != list) {
+                for (Entity en : list) {
+                    units.add(new Unit(source, en));
+                }
+            }
+        }
+
+        final int threads = Math.max(1, Math.min(units.size(),
+                Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Readout export"); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        });
+        List<Unit> exported = new ArrayList<>();
+        long bytes = 0;
+        try {
+            CompletionService<Unit> completion = new ExecutorCompletionService<>(executor);
+            Map<Future<Unit>, Unit> submitted = new HashMap<>();
+            for (Unit unit : units) {
+                submitted.put(completion.submit(() -> export(unit)), unit);
+            }
+            for (int done = 0; done < units.size(); done++) {
+                if (isCancelled()) {
+                    break;
+                }
+                final Future<Unit> future;
+                try {
+                    future = completion.take();
+                } catch (InterruptedException ex) {
+                    // Cancelled while waiting
+                    break;
+                }
+                try {
+                    Unit unit = future.get();
+                    exported.add(unit);
+                    bytes += unit.bytes;
+                } catch (ExecutionException ex) {
+                    Unit unit = submitted.get(future);
+                    Throwable cause = (null != ex.getCause()) ? ex.getCause() : ex;
+                    failures.add(unit.describe() + ": " + cause.getMessage()); //$NON-NLS-1$
+                }
+                setProgress((done + 1) * 100 / units.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // Clear the interrupt from cancelling the task so that it does not abort writing the index
+        Thread.interrupted();
+
+        exported.sort(Comparator.comparing(u -> u.name, String.CASE_INSENSITIVE_ORDER));
+        bytes += writeIndex(exported);
+        Collections.sort(failures);
+        return new Report(exported.size(), failures, bytes, System.nanoTime() - start);
+    }
+
+    private static boolean isUnitFile(File f) {
+        if (!f.isFile()) {
+            return false;
+        }
+        final String name = f.getName().toLowerCase(Locale.ROOT);
+        for (String ext : UNIT_EXTENSIONS) {
+            if (name.endsWith(ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Unit export(Unit unit) throws Exception {
+        if (null == unit.entity) {
+            // Parsed directly rather than through EntityFileCache, which would serialize every
+            // unit in the batch and push out the units the user has been working with.
+            unit.entity = new MechFileParser(unit.file).getEntity();
+            if (null == unit.entity) {
+                throw new IOException("The file does not contain a unit"); //$NON-NLS-1$
+            }
+        }
+        unit.name = unit.entity.getChassis() + " " + unit.entity.getModel(); //$NON-NLS-1$
+        final String readout = (format == Format.HTML)
+                ? new MechView(unit.entity, false).getMechReadout()
+                : new MechTextView(unit.entity, false).getMechReadout();
+        unit.fileName = reserveFileName(unit.name);
+        unit.bytes = write(new File(targetDir, unit.fileName).toPath(), readout);
+        // Only the name and file are needed for the index.
+        unit.entity = null;
+        return unit;
+    }
+
+    /**
+     * @return A file name for the unit that no other unit in this export has used
+     */
+    private synchronized String reserveFileName(String unitName) {
+        String base = unitName.trim().replaceAll("[^\\w\\-. ]", "_"); //$NON-NLS-1$ //$NON-NLS-2$
+        if (base.isEmpty()) {
+            base = "unit"; //$NON-NLS-1$
+        }
+        String name = base + "." + format.getExtension(); //$NON-NLS-1$
+        for (int i = 2; !usedNames.add(name.toLowerCase(Locale.ROOT)); i++) {
+            name = base + " (" + i + ")." + format.getExtension(); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return name;
+    }
+
+    private long writeIndex(List<Unit> exported) throws IOException {
+        final Path path = new File(targetDir, INDEX_FILE).toPath();
+        try (BufferedWriter w = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            w.write("<html><head><meta charset=\"UTF-8\"><title>Technical Readouts</title></head><body>\n"); //$NON-NLS-1$
+            w.write("<h1>Technical Readouts</h1>\n<ul>\n"); //$NON-NLS-1$
+            for (Unit unit : exported) {
+                w.write("<li><a href=\""); //$NON-NLS-1$
+                w.write(unit.fileName.replace(" ", "%20")); //$NON-NLS-1$ //$NON-NLS-2$
+                w.write("\">"); //$NON-NLS-1$
+                w.write(escape(unit.name));
+                w.write("</a></li>\n"); //$NON-NLS-1$
+            }
+            w.write("</ul>\n</body></html>\n"); //$NON-NLS-1$
+        }
+        return Files.size(path);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+    }
+
+    /**
+     * Writes a readout to a file as UTF-8 through a file channel, replacing any existing file.
+     *
+     * @return The number of bytes written
+     */
+    public static long write(Path path, String readout) throws IOException {
+        final ByteBuffer buffer = StandardCharsets.UTF_8.encode(readout);
+        final long size = buffer.remaining();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * A unit to export: the file it was read from and, for units in a MUL, the parsed unit.
+     */
+    private static class Unit {
+        private final File file;
+        private Entity entity;
+        private String name;
+        private String fileName;
+        private long bytes;
+
+        private Unit(File file, Entity entity) {
+            this.file = file;
+            this.entity = entity;
+        }
+
+        private String describe() {
+            if (null != entity) {
+                return file.getName() + " (" + entity.getChassis() + " " + entity.getModel() + ")"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            }
+            return file.getName();
+        }
+    }
+
+    /**
+     * The outcome of an export.
+     */
+    public static class Report {
+        private final int exported;
+        private final List<String> failures;
+        private final long bytes;
+        private final long nanos;
+
+        private Report(int exported, List<String> failures, long bytes, long nanos) {
+            this.exported = exported;
+            this.failures = Collections.unmodifiableList(failures);
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public int getExported() {
+            return exported;
+        }
+
+        /**
+         * @return A message for each unit that could not be exported
+         */
+        public List<String> getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return The total size of the files written, including the index
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        public double getUnitsPerSecond() {
+            return (nanos > 0) ? exported / getSeconds() : 0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Exported %d units (%,d KB) in %.1f seconds, %.1f units per second.", //$NON-NLS-1$
+                    exported, bytes / 1024, getSeconds(), getUnitsPerSecond()));
+            if (!failures.isEmpty()) {
+                sb.append("\n\n").append(failures.size()).append(" could not be exported:\n"); //$NON-NLS-1$
+                sb.append(failures.stream().collect(Collectors.joining("\n"))); //$NON-NLS-1$
+            }
+            return sb.toString();
+        }
+    }
+}
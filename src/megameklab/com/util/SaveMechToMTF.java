@@ -16,15 +16,11 @@
 
 package megameklab.com.util;
 
-import java.io.BufferedWriter;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
-import java.io.Writer;
 
 import megamek.common.Mech;
+import megameklab.com.MegaMekLab;
 
 public class SaveMechToMTF {
 
@@ -50,27 +46,10 @@ public class SaveMechToMTF {
     }
 
     public void save() {
-
-        Writer out;
         try {
-            out = new BufferedWriter(new OutputStreamWriter(
-                    new FileOutputStream("./data/mechfiles/" + fileName), "UTF-8"));
-            try {
-                out.write(mek.getMtf());
-            } catch (IOException e) {
-                e.printStackTrace();
-            } finally {
-                try {
-                    out.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-        } catch (UnsupportedEncodingException e) {
-            e.printStackTrace();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            UnitFileWriter.write(mek, new File("./data/mechfiles/" + fileName));
+        } catch (IOException e) {
+            MegaMekLab.getLogger().log(SaveMechToMTF.class, "save()", e); //$NON-NLS-1$
         }
-
     }
 }
\ No newline at end of file
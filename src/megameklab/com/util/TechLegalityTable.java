@@ -0,0 +1,232 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import megamek.common.EquipmentType;
+import megamek.common.ITechManager;
+import megamek.common.ITechnology;
+import megamek.common.SimpleTechLevel;
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Whether each equipment type is legal for one combination of the tech settings (year, faction,
+ * tech base, tech level, and the tech progression options in {@link CConfig}), held as a bit
+ * for each equipment type. Filtering the equipment tables and removing equipment after a change
+ * to the tech settings then tests a bit instead of evaluating the tech advancement rules for
+ * each type.
+ *
+ * Tables are built on a background thread the first time a combination of settings is used,
+ * and the most recent {@link #MAX_TABLES} are kept. Until the table is finished, queries are
+ * answered by evaluating the rules directly, so the results are the same either way. Anything
+ * other than an equipment type, such as the construction options, is always evaluated directly.
+ */
+public final class TechLegalityTable {
+
+    public static final int MAX_TABLES = 16;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Tech legality"); //$NON-NLS-1$
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Map<TechContext, TechLegalityTable> tables =
+            new LinkedHashMap<TechContext, TechLegalityTable>(MAX_TABLES, 0.75f, true) {
+        private static final long serialVersionUID = 4181296625337413940L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TechContext, TechLegalityTable> eldest) {
+            return size() > MAX_TABLES;
+        }
+    };
+
+    private final TechContext context;
+    private volatile BitSet legal = null;
+
+    private TechLegalityTable(TechContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @return The table for the tech manager's current settings. If the table has not been
+     *         built yet, it is started in the background.
+     */
+    public static TechLegalityTable get(ITechManager techManager) {
+        final TechContext context = new TechContext(techManager);
+        TechLegalityTable table;
+        synchronized (tables) {
+            table = tables.get(context);
+            if (null != table) {
+                return table;
+            }
+            table = new TechLegalityTable(context);
+            tables.put(context, table);
+        }
+        final TechLegalityTable toBuild = table;
+        executor.execute(() -> toBuild.build());
+        return table;
+    }
+
+    /**
+     * Starts building the table for the tech manager's current settings, so that it is ready
+     * by the time the equipment is filtered.
+     */
+    public static void prepare(ITechManager techManager) {
+        get(techManager);
+    }
+
+    /**
+     * Checks the legality of the technology using the settings the table was built for.
+     */
+    public boolean isLegal(ITechnology tech) {
+        final BitSet bits = legal;
+        if ((null != bits) && (tech instanceof EquipmentType)) {
+            final int index = EquipmentCatalog.getInstance().indexOf((EquipmentType) tech);
+            if (index >= 0) {
+                return bits.get(index);
+            }
+        }
+        return context.isLegal(tech);
+    }
+
+    /**
+     * @return Whether the table has been built. Before it is, queries are answered by
+     *         evaluating the rules.
+     */
+    public boolean isReady() {
+        return null != legal;
+    }
+
+    private void build() {
+        try {
+            final List<EquipmentType> types = EquipmentCatalog.getInstance().getAll();
+            BitSet bits = new BitSet(types.size());
+            for (int i = 0; i < types.size(); i++) {
+                if (context.isLegal(types.get(i))) {
+                    bits.set(i);
+                }
+            }
+            legal = bits;
+        } catch (RuntimeException ex) {
+            // Leave the table unbuilt so queries continue to evaluate the rules.
+            MegaMekLab.getLogger().log(TechLegalityTable.class, "build()", //$NON-NLS-1$
+                    LogLevel.WARNING, ex.toString());
+        }
+    }
+
+    /**
+     * A copy of the settings of a tech manager, which evaluates legality using the default
+     * rules in {@link ITechManager}.
+     */
+    private static class TechContext implements ITechManager {
+        private final int techIntroYear;
+        private final int gameYear;
+        private final int techFaction;
+        private final boolean clanTechBase;
+        private final boolean mixedTech;
+        private final SimpleTechLevel techLevel;
+        private final boolean unofficialNoYear;
+        private final boolean variableTechLevel;
+        private final boolean showExtinct;
+
+        private TechContext(ITechManager techManager) {
+            techIntroYear = techManager.getTechIntroYear();
+            gameYear = techManager.getGameYear();
+            techFaction = techManager.getTechFaction();
+            clanTechBase = techManager.useClanTechBase();
+            mixedTech = techManager.useMixedTech();
+            techLevel = techManager.getTechLevel();
+            unofficialNoYear = techManager.unofficialNoYear();
+            variableTechLevel = techManager.useVariableTechLevel();
+            showExtinct = techManager.showExtinct();
+        }
+
+        @Override
+        public int getTechIntroYear() {
+            return techIntroYear;
+        }
+
+        @Override
+        public int getGameYear() {
+            return gameYear;
+        }
+
+        @Override
+        public int getTechFaction() {
+            return techFaction;
+        }
+
+        @Override
+        public boolean useClanTechBase() {
+            return clanTechBase;
+        }
+
+        @Override
+        public boolean useMixedTech() {
+            return mixedTech;
+        }
+
+        @Override
+        public SimpleTechLevel getTechLevel() {
+            return techLevel;
+        }
+
+        @Override
+        public boolean unofficialNoYear() {
+            return unofficialNoYear;
+        }
+
+        @Override
+        public boolean useVariableTechLevel() {
+            return variableTechLevel;
+        }
+
+        @Override
+        public boolean showExtinct() {
+            return showExtinct;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TechContext)) {
+                return false;
+            }
+            final TechContext other = (TechContext) o;
+            return (techIntroYear == other.techIntroYear) && (gameYear == other.gameYear)
+                    && (techFaction == other.techFaction) && (clanTechBase == other.clanTechBase)
+                    && (mixedTech == other.mixedTech) && (techLevel == other.techLevel)
+                    && (unofficialNoYear == other.unofficialNoYear)
+                    && (variableTechLevel == other.variableTechLevel)
+                    && (showExtinct == other.showExtinct);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(techIntroYear, gameYear, techFaction, clanTechBase, mixedTech,
+                    techLevel, unofficialNoYear, variableTechLevel, showExtinct);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.Timer;
+
+import megamek.common.Entity;
+import megamek.common.EquipmentType;
+import megamek.common.LocationFullException;
+import megamek.common.MechFileParser;
+import megamek.common.Mounted;
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+import megameklab.com.ui.MegaMekLabMainUI;
+
+/**
+ * Undo/redo history for the unit being edited.
+ *
+ * The state of the unit is captured as the lines of its unit file (mtf or blk), which covers
+ * the equipment list, critical slots, armor, engine, and everything else that is saved. Unit
+ * files leave out equipment that has not been assigned a location yet, so a line for each
+ * unallocated mount is added after {@link #UNALLOCATED} and those mounts are added back at
+ * {@link Entity#LOC_NONE} when the state is restored.
+ *
+ * Only the current state is kept in full. Each step in the history stores just the block of
+ * lines that changed, and every line is drawn from a shared pool, so the many steps that repeat
+ * the same line reference a single string. A history of several hundred steps costs little more
+ * than the changed lines themselves.
+ *
+ * Editors call {@link #markChanged()} whenever they refresh after a change. Captures are
+ * debounced so that a burst of changes (such as typing a name) becomes a single step. The unit
+ * is only encoded if its {@link UnitRevision} has moved since the last capture, and a capture
+ * that does not differ from the previous state is ignored. Undoing parses the
+ * recorded state and swaps the new Entity into the main UI, which then refreshes the
+ * existing tabs in place.
+ */
+public class UndoHistory {
+
+    public static final int MAX_STEPS = 500;
+
+    private static final int CAPTURE_DELAY = 400;
+
+    /** Separates the unit file from the unallocated equipment in a recorded state */
+    private static final String UNALLOCATED = "#unallocated"; //$NON-NLS-1$
+
+    private final MegaMekLabMainUI owner;
+    private final Timer captureTimer;
+    private final Deque<Delta> undoStack = new ArrayDeque<>();
+    private final Deque<Delta> redoStack = new ArrayDeque<>();
+    private final Map<String, String> linePool = new HashMap<>();
+    private String[] current = null;
+    // The unit as encoded right after an undo or redo, which may differ trivially from current
+    private String[] restoredEncoding = null;
+    private boolean restoring = false;
+    // The unit and revision that current was encoded from
+    private Entity capturedEntity = null;
+    private long capturedRevision = -1;
+
+    public UndoHistory(MegaMekLabMainUI owner) {
+        this.owner = owner;
+        captureTimer = new Timer(CAPTURE_DELAY, e -> capture());
+        captureTimer.setRepeats(false);
+    }
+
+    /**
+     * Discards all history. Called when the unit is replaced by a new or loaded one; the
+     * state of the new unit is recorded on the next call to {@link #markChanged()}.
+     */
+    public void reset() {
+        if (restoring) {
+            return;
+        }
+        captureTimer.stop();
+        undoStack.clear();
+        redoStack.clear();
+        linePool.clear();
+        current = null;
+        restoredEncoding = null;
+        capturedEntity = null;
+        capturedRevision = -1;
+    }
+
+    /**
+     * Notifies the history that the unit may have been changed.
+     */
+    public void markChanged() {
+        if (restoring) {
+            return;
+        }
+        if (null == current) {
+            capture();
+        } else {
+            captureTimer.restart();
+        }
+    }
+
+    public boolean canUndo() {
+        return captureTimer.isRunning() || !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    public void undo() {
+        flush();
+        if (undoStack.isEmpty()) {
+            return;
+        }
+        Delta delta = undoStack.pop();
+        if (restore(delta.revert(current))) {
+            redoStack.push(delta);
+        } else {
+            undoStack.push(delta);
+        }
+    }
+
+    public void redo() {
+        flush();
+        if (redoStack.isEmpty()) {
+            return;
+        }
+        Delta delta = redoStack.pop();
+        if (restore(delta.apply(current))) {
+            undoStack.push(delta);
+        } else {
+            redoStack.push(delta);
+        }
+    }
+
+    /**
+     * Records any change that is still waiting on the debounce timer.
+     */
+    private void flush() {
+        if (captureTimer.isRunning()) {
+            captureTimer.stop();
+            capture();
+        }
+    }
+
+    private void capture() {
+        final Entity entity = owner.getEntity();
+        final long revision = UnitRevision.get(entity);
+        if ((null != current) && (entity == capturedEntity) && (revision == capturedRevision)) {
+            return;
+        }
+        String[] lines = encode(entity);
+        if (null == lines) {
+            return;
+        }
+        capturedEntity = entity;
+        capturedRevision = revision;
+        if (null == current) {
+            current = lines;
+            return;
+        }
+        if (Arrays.equals(lines, restoredEncoding)) {
+            return;
+        }
+        restoredEncoding = null;
+        Delta delta = Delta.between(current, lines);
+        if (null == delta) {
+            return;
+        }
+        current = lines;
+        redoStack.clear();
+        undoStack.push(delta);
+        while (undoStack.size() > MAX_STEPS) {
+            undoStack.removeLast();
+        }
+    }
+
+    /**
+     * Replaces the unit in the main UI with one parsed from the given state.
+     *
+     * @return Whether the state could be restored
+     */
+    private boolean restore(String[] lines) {
+        Entity entity = owner.getEntity();
+        int fileLines = Arrays.asList(lines).indexOf(UNALLOCATED);
+        if (fileLines < 0) {
+            fileLines = lines.length;
+        }
+        String text = String.join("\n", Arrays.copyOf(lines, fileLines)); //$NON-NLS-1$
+        Entity restored;
+        try {
+            restored = new MechFileParser(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                    "undo" + UnitFileWriter.getExtension(entity)).getEntity(); //$NON-NLS-1$
+            UnitUtil.updateLoadedUnit(restored);
+            addUnallocated(restored, Arrays.copyOfRange(lines, Math.min(fileLines + 1, lines.length),
+                    lines.length));
+        } catch (Exception ex) {
+            MegaMekLab.getLogger().log(UndoHistory.class, "restore(String[])", ex); //$NON-NLS-1$
+            return false;
+        }
+        restoring = true;
+        try {
+            owner.setEntity(restored);
+            owner.refreshAll();
+        } finally {
+            restoring = false;
+        }
+        captureTimer.stop();
+        current = lines;
+        // The parser may normalize something so that the restored unit does not encode to
+        // exactly the recorded lines. Remember how it does encode so that difference is not
+        // taken for a change by the user.
+        restoredEncoding = encode(restored);
+        capturedEntity = restored;
+        capturedRevision = UnitRevision.get(restored);
+        return true;
+    }
+
+    private String[] encode(Entity entity) {
+        if (null == entity) {
+            return null;
+        }
+        try {
+            List<String> list = new ArrayList<>(Arrays.asList(
+                    UnitFileWriter.encodeToString(entity).split("\r?\n", -1))); //$NON-NLS-1$
+            list.add(UNALLOCATED);
+            for (Mounted m : entity.getEquipment()) {
+                if (m.getLocation() == Entity.LOC_NONE) {
+                    list.add(m.getType().getInternalName() + "\t" + m.getBaseShotsLeft() //$NON-NLS-1$
+                            + "\t" + m.isOmniPodMounted()); //$NON-NLS-1$
+                }
+            }
+            String[] lines = list.toArray(new String[list.size()]);
+            for (int i = 0; i < lines.length; i++) {
+                String pooled = linePool.putIfAbsent(lines[i], lines[i]);
+                if (null != pooled) {
+                    lines[i] = pooled;
+                }
+            }
+            return lines;
+        } catch (IOException | RuntimeException ex) {
+            MegaMekLab.getLogger().log(UndoHistory.class, "encode(Entity)", LogLevel.WARNING, //$NON-NLS-1$
+                    "Could not record undo state: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Adds the unallocated mounts recorded in a state to the unit parsed from it. Any that the
+     * unit file did record, and so are already on the unit, are not added again.
+     *
+     * @param lines The lines following {@link #UNALLOCATED}
+     */
+    private static void addUnallocated(Entity entity, String[] lines) throws LocationFullException {
+        Map<String, Integer> present = new HashMap<>();
+        for (Mounted m : entity.getEquipment()) {
+            if (m.getLocation() == Entity.LOC_NONE) {
+                present.merge(m.getType().getInternalName(), 1, Integer::sum);
+            }
+        }
+        for (String line : lines) {
+            final String[] fields = line.split("\t"); //$NON-NLS-1$
+            if (present.getOrDefault(fields[0], 0) > 0) {
+                present.merge(fields[0], -1, Integer::sum);
+                continue;
+            }
+            final EquipmentType type = EquipmentType.get(fields[0]);
+            if (null == type) {
+                continue;
+            }
+            Mounted mount = new Mounted(entity, type);
+            if (fields.length > 2) {
+                mount.setShotsLeft(Integer.parseInt(fields[1]));
+                mount.setOmniPodMounted(Boolean.parseBoolean(fields[2]));
+            }
+            entity.addEquipment(mount, Entity.LOC_NONE, false);
+        }
+    }
+
+    /**
+     * A single contiguous block of replaced lines. The block is found by trimming the lines
+     * the two states have in common at the start and end.
+     */
+    private static class Delta {
+        private final int start;
+        private final String[] before;
+        private final String[] after;
+
+        private Delta(int start, String[] before, String[] after) {
+            this.start = start;
+            this.before = before;
+            this.after = after;
+        }
+
+        /**
+         * @return The change from one state to the next, or <code>null</code> if they are the same
+         */
+        static Delta between(String[] from, String[] to) {
+            int prefix = 0;
+            int max = Math.min(from.length, to.length);
+            while ((prefix < max) && from[prefix].equals(to[prefix])) {
+                prefix++;
+            }
+            if ((prefix == from.length) && (prefix == to.length)) {
+                return null;
+            }
+            int suffix = 0;
+            while ((suffix < max - prefix)
+                    && from[from.length - 1 - suffix].equals(to[to.length - 1 - suffix])) {
+                suffix++;
+            }
+            return new Delta(prefix, Arrays.copyOfRange(from, prefix, from.length - suffix),
+                    Arrays.copyOfRange(to, prefix, to.length - suffix));
+        }
+
+        String[] apply(String[] state) {
+            return replace(state, before.length, after);
+        }
+
+        String[] revert(String[] state) {
+            return replace(state, after.length, before);
+        }
+
+        private String[] replace(String[] state, int removed, String[] inserted) {
+            String[] result = new String[state.length - removed + inserted.length];
+            System.arraycopy(state, 0, result, 0, start);
+            System.arraycopy(inserted, 0, result, start, inserted.length);
+            System.arraycopy(state, start + removed, result, start + inserted.length,
+                    state.length - start - removed);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import megamek.common.Entity;
+import megamek.common.Mech;
+import megamek.common.loaders.BLKFile;
+import megamek.common.util.BuildingBlock;
+
+/**
+ * Writes unit files so that the target is never left partially written. The unit is encoded
+ * in memory and written to a temporary file in the destination directory, which is synced to
+ * disk and then renamed over the target. If the process dies mid-write the previous version of
+ * the file remains intact.
+ *
+ * Encoding reads the whole unit, so it must happen on the thread that edits the unit. Saves
+ * that run in the background call {@link #encodeToString(Entity)} on the event dispatch thread
+ * and pass the text to {@link #write(String, File)}.
+ */
+public class UnitFileWriter {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private UnitFileWriter() {
+    }
+
+    /**
+     * @param entity The unit
+     * @return       The file extension used for the unit, including the leading period
+     */
+    public static String getExtension(Entity entity) {
+        return (entity instanceof Mech) ? ".mtf" : ".blk";
+    }
+
+    /**
+     * Encodes the unit and atomically replaces the target file.
+     *
+     * @param entity The unit to save
+     * @param target The destination file
+     * @throws IOException If the unit cannot be encoded or the file cannot be written
+     */
+    public static void write(Entity entity, File target) throws IOException {
+        write(encodeToString(entity), target);
+    }
+
+    /**
+     * Atomically replaces the target file with previously encoded unit file contents.
+     *
+     * @param contents The text of the unit file, as returned by {@link #encodeToString(Entity)}
+     * @param target   The destination file
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(String contents, File target) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        if ((null != dir) && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory " + dir);
+        }
+        File temp = File.createTempFile(target.getName() + ".", TEMP_SUFFIX, dir);
+        try {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                out.write(contents);
+            }
+            sync(temp);
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            // Only still present if something went wrong before the rename
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Encodes the unit in the format appropriate to the unit type and returns the text of
+     * the file that would be written.
+     *
+     * @param entity The unit to encode
+     * @return       The contents of the unit file
+     * @throws IOException If the unit cannot be encoded
+     */
+    public static String encodeToString(Entity entity) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (entity instanceof Mech) {
+            sb.append(((Mech) entity).getMtf()).append(System.lineSeparator());
+        } else {
+            // Same lines BLKFile.encode would write, without going through a file
+            final BuildingBlock blk;
+            try {
+                blk = BLKFile.getBlock(entity);
+            } catch (Exception ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+            for (String line : blk.getAllDataAsString()) {
+                sb.append(line).append(System.lineSeparator());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Forces the contents of the file to the storage device.
+     */
+    private static void sync(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+}
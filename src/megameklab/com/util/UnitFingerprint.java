@@ -0,0 +1,166 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.List;
+
+import megamek.common.Crew;
+import megamek.common.Entity;
+import megamek.common.LAMPilot;
+import megamek.common.Mounted;
+import megamek.common.annotations.Nullable;
+import megamek.common.options.IOption;
+import megamek.common.options.IOptionGroup;
+import megamek.common.options.IOptions;
+
+/**
+ * Identifies the state of a unit for the caches of values computed from it. The fingerprint is
+ * a SHA-256 digest of the unit file that would be saved for the unit
+ * ({@link UnitFileWriter#encodeToString(Entity)}), so anything that is saved is covered without
+ * listing it here, together with what affects the values but is not necessarily saved: the
+ * crew skills, the manual battle value, the type and location of every mount (the file leaves
+ * out unallocated equipment), and the unit and weapon quirks. Two units with the same
+ * fingerprint can be taken to have the same values without comparing them in detail.
+ */
+public final class UnitFingerprint {
+
+    private final MessageDigest digest;
+
+    private UnitFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @param entity The unit
+     * @return       The fingerprint of the unit's current state, or <code>null</code> if the
+     *               unit cannot be encoded
+     */
+    public static @Nullable String of(Entity entity) {
+        UnitFingerprint fp = new UnitFingerprint();
+        return fp.addEntity(entity) ? fp.finish() : null;
+    }
+
+    /**
+     * Extends {@link #of(Entity)} with what is printed on the record sheet but does not affect
+     * the unit's values: the crew names and special abilities, and the fluff image.
+     *
+     * @param entity The unit
+     * @return       The fingerprint of the unit's record sheet, or <code>null</code> if the unit
+     *               cannot be encoded
+     */
+    public static @Nullable String ofRecordSheet(Entity entity) {
+        UnitFingerprint fp = new UnitFingerprint();
+        if (!fp.addEntity(entity)) {
+            return null;
+        }
+        fp.addCrew(entity.getCrew());
+        fp.add(entity.getFluff().getMMLImagePath());
+        return fp.finish();
+    }
+
+    private boolean addEntity(Entity entity) {
+        final String file;
+        try {
+            file = UnitFileWriter.encodeToString(entity);
+        } catch (IOException | RuntimeException ex) {
+            return false;
+        }
+        add(entity.getClass().getName());
+        add(file);
+        add(entity.getManualBV());
+        final Crew crew = entity.getCrew();
+        if (null != crew) {
+            for (int i = 0; i < crew.getSlotCount(); i++) {
+                add(crew.getGunnery(i));
+                add(crew.getPiloting(i));
+            }
+            if (crew instanceof LAMPilot) {
+                add(((LAMPilot) crew).getGunneryAero());
+                add(((LAMPilot) crew).getPilotingAero());
+            }
+        }
+        addOptions(entity.getQuirks(), false);
+        final List<Mounted> equipment = entity.getEquipment();
+        for (int i = 0; i < equipment.size(); i++) {
+            final Mounted mount = equipment.get(i);
+            add(i);
+            add(mount.getType().getInternalName());
+            add(mount.getLocation());
+            add(mount.isRearMounted() ? 1 : 0);
+            addOptions(mount.getQuirks(), false);
+        }
+        return true;
+    }
+
+    private void addCrew(Crew crew) {
+        if (null == crew) {
+            return;
+        }
+        add(crew.getSlotCount());
+        for (int i = 0; i < crew.getSlotCount(); i++) {
+            add(crew.getName(i));
+        }
+        addOptions(crew.getOptions(), true);
+    }
+
+    /**
+     * Adds the names of the options that are set, and optionally their values.
+     */
+    private void addOptions(@Nullable IOptions options, boolean withValues) {
+        if (null == options) {
+            return;
+        }
+        for (Enumeration<IOptionGroup> groups = options.getGroups(); groups.hasMoreElements();) {
+            for (Enumeration<IOption> opts = groups.nextElement().getOptions(); opts.hasMoreElements();) {
+                final IOption option = opts.nextElement();
+                if ((null != option) && option.booleanValue()) {
+                    add(option.getName());
+                    if (withValues) {
+                        add(String.valueOf(option.getValue()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void add(long value) {
+        add(Long.toString(value));
+    }
+
+    private void add(@Nullable String value) {
+        if (null != value) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // Separates the values so that adjacent ones cannot run together
+        digest.update((byte) ((null == value) ? 1 : 0));
+    }
+
+    private String finish() {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b & 0xff)); //$NON-NLS-1$
+        }
+        return sb.toString();
+    }
+}
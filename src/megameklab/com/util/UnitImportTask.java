@@ -0,0 +1,132 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+import megamek.common.Entity;
+import megamek.common.EntityListFile;
+
+/**
+ * Parses a set of unit files and MULs concurrently. Units are passed to the consumer on the
+ * event dispatch thread in batches as the files finish loading, so a large selection can be
+ * added to a list incrementally. Progress is reported through the standard SwingWorker
+ * progress property as the percentage of files completed. The task returns a message for
+ * each file that could not be loaded. Once the task is done, {@link #getUnits()} returns all
+ * the loaded units in the order of the files they came from.
+ *
+ * Cancelling the task interrupts any files still being parsed; units already delivered to
+ * the consumer are kept.
+ */
+public class UnitImportTask extends SwingWorker<List<String>, Entity> {
+
+    private final List<File> files;
+    private final Consumer<List<Entity>> consumer;
+    // The units loaded from each file, by the index of the file
+    private final List<List<Entity>> loadedByFile;
+
+    /**
+     * @param files    The files to load. Files with the extension mul are read as unit lists;
+     *                 all others are parsed as individual units.
+     * @param consumer Receives the loaded units on the event dispatch thread
+     */
+    public UnitImportTask(List<File> files, Consumer<List<Entity>> consumer) {
+        this.files = new ArrayList<>(files);
+        this.consumer = consumer;
+        loadedByFile = new ArrayList<>(Collections.nCopies(this.files.size(), Collections.emptyList()));
+    }
+
+    @Override
+    protected List<String> doInBackground() throws Exception {
+        List<String> errors = new ArrayList<>();
+        int threads = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Unit import"); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletionService<List<Entity>> completion = new ExecutorCompletionService<>(executor);
+            Map<Future<List<Entity>>, Integer> fileIndex = new HashMap<>();
+            for (int i = 0; i < files.size(); i++) {
+                final File f = files.get(i);
+                fileIndex.put(completion.submit(() -> load(f)), i);
+            }
+            for (int done = 0; done < files.size(); done++) {
+                if (isCancelled()) {
+                    break;
+                }
+                Future<List<Entity>> future = completion.take();
+                try {
+                    List<Entity> loaded = future.get();
+                    synchronized (loadedByFile) {
+                        loadedByFile.set(fileIndex.get(future), loaded);
+                    }
+                    publish(loaded.toArray(new Entity[loaded.size()]));
+                } catch (ExecutionException ex) {
+                    File f = files.get(fileIndex.get(future));
+                    Throwable cause = (null != ex.getCause()) ? ex.getCause() : ex;
+                    errors.add(f.getName() + ": " + cause.getMessage());
+                }
+                setProgress((done + 1) * 100 / files.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return errors;
+    }
+
+    /**
+     * @return The units loaded so far, in the order of the files they were loaded from rather
+     *         than the order in which the files finished loading
+     */
+    public List<Entity> getUnits() {
+        List<Entity> units = new ArrayList<>();
+        synchronized (loadedByFile) {
+            for (List<Entity> loaded : loadedByFile) {
+                units.addAll(loaded);
+            }
+        }
+        return units;
+    }
+
+    private static List<Entity> load(File f) throws Exception {
+        if (f.getName().toLowerCase().endsWith(".mul")) {
+            List<Entity> list = EntityListFile.loadFrom(f);
+            return (null == list) ? Collections.emptyList() : list;
+        }
+        return Collections.singletonList(EntityFileCache.getEntity(f));
+    }
+
+    @Override
+    protected void process(List<Entity> chunks) {
+        if (!isCancelled()) {
+            consumer.accept(chunks);
+        }
+    }
+}
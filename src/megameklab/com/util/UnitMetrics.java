@@ -0,0 +1,136 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+/**
+ * The values shown in an editor's status bar, computed together for one revision of a unit
+ * by {@link UnitMetricsEngine}. A snapshot is immutable, so it can be built on a background
+ * thread and handed to the event dispatch thread for display.
+ */
+public final class UnitMetrics {
+
+    /** The value of the slot and heat fields for unit types that do not track them */
+    public static final int NOT_APPLICABLE = -1;
+
+    private final long revision;
+    private final double currentTonnage;
+    private final double maxTonnage;
+    private final int usedSlots;
+    private final int maxSlots;
+    private final double heatGenerated;
+    private final int heatDissipated;
+    private final int bv;
+    private final long cost;
+    private final String validationReport;
+
+    UnitMetrics(long revision, double currentTonnage, double maxTonnage, int usedSlots, int maxSlots,
+            double heatGenerated, int heatDissipated, int bv, long cost, String validationReport) {
+        this.revision = revision;
+        this.currentTonnage = currentTonnage;
+        this.maxTonnage = maxTonnage;
+        this.usedSlots = usedSlots;
+        this.maxSlots = maxSlots;
+        this.heatGenerated = heatGenerated;
+        this.heatDissipated = heatDissipated;
+        this.bv = bv;
+        this.cost = cost;
+        this.validationReport = validationReport;
+    }
+
+    /**
+     * @return The revision of the unit the values were computed for
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return The weight of the unit's components including unallocated ammo. For battle armor
+     *         this is the weight of a single suit in kilograms.
+     */
+    public double getCurrentTonnage() {
+        return currentTonnage;
+    }
+
+    /**
+     * @return The unit's rated weight, or the suit weight for battle armor
+     */
+    public double getMaxTonnage() {
+        return maxTonnage;
+    }
+
+    public boolean isOverweight() {
+        return currentTonnage > maxTonnage;
+    }
+
+    /**
+     * @return The number of critical slots (Meks) or equipment slots (vehicles) in use,
+     *         including unallocated equipment, or {@link #NOT_APPLICABLE}
+     */
+    public int getUsedSlots() {
+        return usedSlots;
+    }
+
+    /**
+     * @return The total number of critical slots or equipment slots, or {@link #NOT_APPLICABLE}
+     */
+    public int getMaxSlots() {
+        return maxSlots;
+    }
+
+    public boolean hasSlots() {
+        return maxSlots != NOT_APPLICABLE;
+    }
+
+    /**
+     * @return The heat generated by firing all weapons, plus movement heat for Meks
+     */
+    public double getHeatGenerated() {
+        return heatGenerated;
+    }
+
+    /**
+     * @return The unit's heat dissipation, or {@link #NOT_APPLICABLE} for units that do not
+     *         track heat
+     */
+    public int getHeatDissipated() {
+        return heatDissipated;
+    }
+
+    public boolean hasHeat() {
+        return heatDissipated != NOT_APPLICABLE;
+    }
+
+    public int getBV() {
+        return bv;
+    }
+
+    /**
+     * @return The cost of the unit in C-bills, rounded to the nearest whole number
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    /**
+     * @return The problems found by the unit verifier, or an empty string if there are none
+     */
+    public String getValidationReport() {
+        return validationReport;
+    }
+
+    public boolean isValid() {
+        return validationReport.isEmpty();
+    }
+}
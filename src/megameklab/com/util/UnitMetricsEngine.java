@@ -0,0 +1,240 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import megamek.common.BattleArmor;
+import megamek.common.Entity;
+import megamek.common.Mech;
+import megamek.common.Mounted;
+import megamek.common.QuadMech;
+import megamek.common.Tank;
+import megamek.common.TripodMech;
+import megamek.common.WeaponType;
+import megamek.common.annotations.Nullable;
+import megamek.common.logging.LogLevel;
+import megamek.common.verifier.TestBattleArmor;
+import megamek.common.verifier.TestEntity;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Computes the {@link UnitMetrics} shown by the status bars of all the unit editors. The
+ * verifier, battle value, and cost calculations are slow enough to make the editor lag when
+ * they are repeated on every refresh, so they run on a single background thread and the
+ * result is passed back on the event dispatch thread. The background thread never reads the
+ * unit being edited: the unit is serialized on the event dispatch thread, as the
+ * {@link EntityFileCache} stores it, and the values are computed for a copy read back from
+ * those bytes. Unlike a copy parsed from the unit file this keeps unallocated equipment.
+ *
+ * Snapshots are identified by the unit's {@link UnitRevision}. The most recent snapshot is
+ * kept for each unit, and a request for the current revision is answered from it. Requests
+ * made while a computation is in progress are answered together when it finishes, and if the
+ * unit was changed in the meantime the computation is repeated for the new revision rather
+ * than delivering stale values.
+ *
+ * All methods must be called on the event dispatch thread.
+ */
+public class UnitMetricsEngine {
+
+    private static final UnitMetricsEngine instance = new UnitMetricsEngine();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Unit metrics"); //$NON-NLS-1$
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<Entity, UnitMetrics> latest = new WeakHashMap<>();
+    private final Map<Entity, List<Consumer<UnitMetrics>>> pending = new WeakHashMap<>();
+
+    public static UnitMetricsEngine getInstance() {
+        return instance;
+    }
+
+    private UnitMetricsEngine() {
+    }
+
+    /**
+     * @return The most recently computed snapshot for the unit, which may be of an earlier
+     *         revision, or <code>null</code> if none has been computed
+     */
+    public @Nullable UnitMetrics getLatest(Entity entity) {
+        return latest.get(entity);
+    }
+
+    /**
+     * Passes the snapshot for the current revision of the unit to the callback on the event
+     * dispatch thread. If it has already been computed the callback is invoked immediately.
+     */
+    public void request(Entity entity, Consumer<UnitMetrics> callback) {
+        final long revision = UnitRevision.get(entity);
+        final UnitMetrics metrics = latest.get(entity);
+        if ((null != metrics) && (metrics.getRevision() == revision)) {
+            callback.accept(metrics);
+            return;
+        }
+        List<Consumer<UnitMetrics>> waiting = pending.get(entity);
+        if (null != waiting) {
+            // Already being computed; the result is checked against the revision on delivery.
+            waiting.add(callback);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(callback);
+        pending.put(entity, waiting);
+        submit(entity, revision);
+    }
+
+    private void submit(Entity entity, long revision) {
+        final byte[] contents;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(entity);
+            }
+            contents = bytes.toByteArray();
+        } catch (IOException | RuntimeException ex) {
+            MegaMekLab.getLogger().log(UnitMetricsEngine.class, "submit(Entity, long)", //$NON-NLS-1$
+                    LogLevel.DEBUG, ex.toString());
+            // Computed on the event dispatch thread instead
+            SwingUtilities.invokeLater(() -> deliver(entity, revision, null));
+            return;
+        }
+        executor.execute(() -> {
+            UnitMetrics metrics = null;
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(contents))) {
+                Entity copy = (Entity) in.readObject();
+                copy.restore();
+                metrics = compute(copy, revision);
+            } catch (Exception ex) {
+                MegaMekLab.getLogger().log(UnitMetricsEngine.class, "submit(Entity, long)", //$NON-NLS-1$
+                        LogLevel.DEBUG, ex.toString());
+            }
+            final UnitMetrics result = metrics;
+            SwingUtilities.invokeLater(() -> deliver(entity, revision, result));
+        });
+    }
+
+    private void deliver(Entity entity, long revision, @Nullable UnitMetrics metrics) {
+        final long current = UnitRevision.get(entity);
+        if (revision != current) {
+            submit(entity, current);
+            return;
+        }
+        if (null == metrics) {
+            // The copy could not be built or evaluated. The unit cannot change while we are on
+            // the event dispatch thread, so use it directly.
+            metrics = compute(entity, revision);
+        }
+        latest.put(entity, metrics);
+        List<Consumer<UnitMetrics>> callbacks = pending.remove(entity);
+        if (null != callbacks) {
+            for (Consumer<UnitMetrics> c : callbacks) {
+                c.accept(metrics);
+            }
+        }
+    }
+
+    /**
+     * Computes the status bar values for a unit.
+     *
+     * @param entity   The unit
+     * @param revision The revision number to record in the snapshot
+     * @return         The snapshot
+     */
+    public static UnitMetrics compute(Entity entity, long revision) {
+        final TestEntity testEntity = UnitUtil.getEntityVerifier(entity);
+
+        double currentTonnage;
+        double maxTonnage;
+        if (entity.hasETypeFlag(Entity.ETYPE_BATTLEARMOR)) {
+            currentTonnage = ((TestBattleArmor) testEntity).calculateWeight(BattleArmor.LOC_SQUAD);
+            currentTonnage += UnitUtil.getUnallocatedAmmoTonnage(entity);
+            maxTonnage = ((BattleArmor) entity).getTrooperWeight();
+        } else if (entity.hasETypeFlag(Entity.ETYPE_INFANTRY) || (null == testEntity)) {
+            currentTonnage = entity.getWeight();
+            maxTonnage = entity.getWeight();
+        } else {
+            currentTonnage = testEntity.calculateWeight();
+            currentTonnage += UnitUtil.getUnallocatedAmmoTonnage(entity);
+            maxTonnage = entity.getWeight();
+        }
+
+        int usedSlots = UnitMetrics.NOT_APPLICABLE;
+        int maxSlots = UnitMetrics.NOT_APPLICABLE;
+        if (entity instanceof Mech) {
+            if (entity instanceof TripodMech) {
+                maxSlots = 84;
+            } else if (entity instanceof QuadMech) {
+                maxSlots = 66;
+            } else {
+                maxSlots = 78;
+            }
+            usedSlots = UnitUtil.countUsedCriticals((Mech) entity);
+        } else if (entity instanceof Tank) {
+            maxSlots = ((Tank) entity).getTotalSlots();
+            usedSlots = maxSlots - ((Tank) entity).getFreeSlots();
+        }
+
+        double heatGenerated = 0;
+        int heatDissipated = UnitMetrics.NOT_APPLICABLE;
+        if (entity instanceof Mech || entity.hasETypeFlag(Entity.ETYPE_AERO)) {
+            heatGenerated = calculateTotalHeat(entity);
+            heatDissipated = entity.getHeatCapacity();
+        }
+
+        final int bv = ValuationCache.getBattleValue(entity);
+        final long cost = Math.round(ValuationCache.getCost(entity, false));
+
+        StringBuffer sb = new StringBuffer();
+        if (null != testEntity) {
+            testEntity.correctEntity(sb, entity.getTechLevel());
+        }
+
+        return new UnitMetrics(revision, currentTonnage, maxTonnage, usedSlots, maxSlots,
+                heatGenerated, heatDissipated, bv, cost, sb.toString());
+    }
+
+    /**
+     * Computes the heat generated by firing all the unit's undamaged weapons. For Meks this
+     * includes the heat of jumping the full jump MP, or of running if the unit cannot jump.
+     */
+    public static double calculateTotalHeat(Entity entity) {
+        double heat = WeaponAnalytics.getMovementHeat(entity);
+
+        for (Mounted mounted : entity.getWeaponList()) {
+            // only count non-damaged equipment
+            if (mounted.isMissing() || mounted.isHit() || mounted.isDestroyed()
+                    || mounted.isBreached()) {
+                continue;
+            }
+            heat += WeaponProfile.of((WeaponType) mounted.getType()).getHeat();
+        }
+        return heat;
+    }
+}
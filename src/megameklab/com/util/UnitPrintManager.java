@@ -16,6 +16,7 @@
 
 package megameklab.com.util;
 
+import java.awt.Component;
 import java.awt.Frame;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -23,11 +24,17 @@ import java.awt.event.KeyEvent;
 import java.awt.print.Book;
 import java.awt.print.PageFormat;
 import java.awt.print.Paper;
+import java.awt.print.Printable;
 import java.awt.print.PrinterJob;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
+import java.util.function.Supplier;
 
 import javax.print.attribute.HashPrintRequestAttributeSet;
 import javax.print.attribute.standard.MediaPrintableArea;
@@ -38,27 +45,29 @@ import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
+import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
-import megamek.client.ui.swing.UnitLoadingDialog;
-import megamek.client.ui.swing.UnitSelectorDialog;
 import megamek.common.Aero;
 import megamek.common.BattleArmor;
 import megamek.common.ConvFighter;
 import megamek.common.Dropship;
 import megamek.common.Entity;
-import megamek.common.EntityListFile;
 import megamek.common.EntityMovementMode;
 import megamek.common.FixedWingSupport;
 import megamek.common.Infantry;
 import megamek.common.Jumpship;
 import megamek.common.LargeSupportTank;
 import megamek.common.Mech;
-import megamek.common.MechFileParser;
 import megamek.common.Protomech;
 import megamek.common.SmallCraft;
 import megamek.common.Tank;
 import megamek.common.VTOL;
+import megamek.common.annotations.Nullable;
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+import megameklab.com.printing.DuplicatePage;
+import megameklab.com.printing.PDFExportTask;
 import megameklab.com.printing.PrintMech;
 import megameklab.com.printing.PrintTask;
 import megameklab.com.ui.Aero.Printing.PrintAero;
@@ -77,6 +86,7 @@ import megameklab.com.ui.Vehicle.Printing.PrintNavalVehicle;
 import megameklab.com.ui.Vehicle.Printing.PrintVTOL;
 import megameklab.com.ui.Vehicle.Printing.PrintVehicle;
 import megameklab.com.ui.dialog.UnitPrintQueueDialog;
+import megameklab.com.ui.dialog.UnitSearchDialog;
 
 public class UnitPrintManager {
 
@@ -90,15 +100,7 @@ public class UnitPrintManager {
     }
 
     public static void selectUnitToPrint(JFrame parent) {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parent);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parent, unitLoadingDialog, true);
-
-        Entity entity = null;
-
-        entity = viewer.getChosenEntity();
-
-        viewer.setVisible(false);
-        viewer.dispose();
+        Entity entity = UnitSearchDialog.chooseEntity(parent);
         if(null != entity) {
             UnitPrintManager.printEntity(entity);
         }
@@ -120,26 +122,31 @@ public class UnitPrintManager {
             // I want a file, y'know!
             return;
         }
-        Vector<Entity> loadedUnits = new Vector<Entity>();
-        try {
-            loadedUnits = EntityListFile.loadFrom(f.getSelectedFile());
-            loadedUnits.trimToSize();
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return;
-        }
-
-        printAllUnits(loadedUnits, singlePrint);
+        // Read the MUL in the background and print once it has finished loading.
+        final Vector<Entity> loadedUnits = new Vector<Entity>();
+        final UnitImportTask task = new UnitImportTask(Collections.singletonList(f.getSelectedFile()),
+                loadedUnits::addAll);
+        task.addPropertyChangeListener(evt -> {
+            if ("state".equals(evt.getPropertyName()) //$NON-NLS-1$
+                    && (SwingWorker.StateValue.DONE == evt.getNewValue())) {
+                try {
+                    List<String> errors = task.get();
+                    if (!errors.isEmpty()) {
+                        JOptionPane.showMessageDialog(parent, errors.get(0), "Print From MUL",
+                                JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                } catch (Exception ex) {
+                    MegaMekLab.getLogger().log(UnitPrintManager.class, "printMuls(Frame,boolean)", ex); //$NON-NLS-1$
+                    return;
+                }
+                printAllUnits(loadedUnits, singlePrint);
+            }
+        });
+        task.execute();
     }
 
     public static boolean printAllUnits(Vector<Entity> loadedUnits, boolean singlePrint) {
-        Book book = new Book();
-        
-        List<Infantry> infList = new ArrayList<>();
-        List<BattleArmor> baList = new ArrayList<>();
-        List<Protomech> protoList = new ArrayList<>();
-        List<Entity> unprintable = new ArrayList<>();
-
         HashPrintRequestAttributeSet aset = new HashPrintRequestAttributeSet();
         aset.add(MediaSizeName.NA_LETTER);
         aset.add(new MediaPrintableArea(0, 0, 8.5f, 11, MediaPrintableArea.INCH));
@@ -156,44 +163,105 @@ public class UnitPrintManager {
 
         pageFormat.setPaper(p);
 
+        Book book = createBook(loadedUnits, singlePrint, pageFormat);
+
+        masterPrintJob.setPageable(book);
+        if (loadedUnits.size() > 1) {
+            masterPrintJob.setJobName(loadedUnits.get(0).getShortNameRaw() + " etc");
+        } else if (loadedUnits.size() > 0) {
+            masterPrintJob.setJobName(loadedUnits.get(0).getShortNameRaw());
+        }
+
+        PrintTask task = new PrintTask(masterPrintJob, aset);
+        task.execute();
+
+        return true;
+    }
+
+    /**
+     * Writes the record sheets for a list of units to a PDF file on letter paper, as a
+     * background task.
+     *
+     * @param parent The component for the message reporting the result
+     * @param units  The units to export
+     * @param target The file to write
+     */
+    public static void exportUnitsToPDF(Component parent, List<Entity> units, File target) {
+        PageFormat pageFormat = new PageFormat();
+        Paper p = pageFormat.getPaper();
+        p.setImageableArea(0, 0, p.getWidth(), p.getHeight());
+        pageFormat.setPaper(p);
+
+        new PDFExportTask(parent, createBook(units, false, pageFormat), target).execute();
+    }
+
+    /**
+     * Creates the record sheets for a list of units. Vehicles are printed two to a page, and
+     * infantry, battle armor and protomechs several to a page, unless each unit is to be printed
+     * separately.
+     *
+     * A sheet is only created once for units with the same content. Later copies are added as a
+     * {@link DuplicatePage} of the first, so a roster with many copies of a design builds and
+     * fills in each distinct sheet once.
+     *
+     * @param units       The units to print
+     * @param singlePrint Whether each unit gets its own record sheet
+     * @param pageFormat  The page format for all the pages
+     * @return The book of record sheets
+     */
+    public static Book createBook(List<Entity> units, boolean singlePrint, PageFormat pageFormat) {
+        Book book = new Book();
+        // The page of the first sheet for each distinct set of units, by getSheetKey
+        Map<String, Integer> sheets = new HashMap<>();
+
+        List<Infantry> infList = new ArrayList<>();
+        List<BattleArmor> baList = new ArrayList<>();
+        List<Protomech> protoList = new ArrayList<>();
+        List<Entity> unprintable = new ArrayList<>();
+
         Tank tank1 = null;
         Tank wige1 = null;
         Tank dualTurret1 = null;
-        for (Entity unit : loadedUnits) {
+        for (Entity unit : units) {
             if (unit instanceof Mech) {
-                UnitUtil.removeOneShotAmmo(unit);
-                UnitUtil.expandUnitMounts((Mech) unit);
-                book.append(new PrintMech((Mech) unit, book.getNumberOfPages()), pageFormat);
+                appendSheet(book, sheets, pageFormat, () -> {
+                    UnitUtil.removeOneShotAmmo(unit);
+                    UnitUtil.expandUnitMounts((Mech) unit);
+                    return new PrintMech((Mech) unit, book.getNumberOfPages());
+                }, unit);
             } else if ((unit instanceof LargeSupportTank) || ((unit instanceof Tank) && (unit.getMovementMode() != EntityMovementMode.VTOL) && ((Tank)unit).isSuperHeavy())) {
-                book.append(new PrintLargeSupportVehicle((Tank) unit), pageFormat);
+                appendSheet(book, sheets, pageFormat, () -> new PrintLargeSupportVehicle((Tank) unit), unit);
             } else if (unit instanceof VTOL) {
-                book.append(new PrintVTOL((VTOL) unit), pageFormat);
+                appendSheet(book, sheets, pageFormat, () -> new PrintVTOL((VTOL) unit), unit);
             } else if (unit.getMovementMode() == EntityMovementMode.WIGE) {
                 if (singlePrint) {
-                    book.append(new PrintVehicle((Tank) unit,  null), pageFormat);
+                    appendSheet(book, sheets, pageFormat, () -> new PrintVehicle((Tank) unit, null), unit, null);
                 } else if (null != wige1) {
-                    book.append(new PrintVehicle(wige1, (Tank) unit), pageFormat);
+                    final Tank first = wige1;
+                    appendSheet(book, sheets, pageFormat, () -> new PrintVehicle(first, (Tank) unit), first, unit);
                     wige1 = null;
                 } else {
                     wige1 = (Tank) unit;
                 }
             } else if ((unit instanceof Tank) && ((unit.getMovementMode() == EntityMovementMode.NAVAL) || (unit.getMovementMode() == EntityMovementMode.SUBMARINE) || (unit.getMovementMode() == EntityMovementMode.HYDROFOIL))) {
-                book.append(new PrintNavalVehicle((Tank) unit), pageFormat);
+                appendSheet(book, sheets, pageFormat, () -> new PrintNavalVehicle((Tank) unit), unit);
             } else if (unit instanceof Tank) {
                 if (!((Tank) unit).hasNoDualTurret()) {
                     if (singlePrint) {
-                        book.append(new PrintDualTurretVehicle((Tank) unit,  null), pageFormat);
+                        appendSheet(book, sheets, pageFormat, () -> new PrintDualTurretVehicle((Tank) unit, null), unit, null);
                     } else if (null != dualTurret1) {
-                        book.append(new PrintDualTurretVehicle(dualTurret1, (Tank) unit), pageFormat);
+                        final Tank first = dualTurret1;
+                        appendSheet(book, sheets, pageFormat, () -> new PrintDualTurretVehicle(first, (Tank) unit), first, unit);
                         dualTurret1 = null;
                     } else {
                         dualTurret1 = (Tank) unit;
                     }
                 } else {
                     if (singlePrint) {
-                        book.append(new PrintVehicle((Tank) unit,  null), pageFormat);
+                        appendSheet(book, sheets, pageFormat, () -> new PrintVehicle((Tank) unit, null), unit, null);
                     } else if (null != tank1) {
-                        book.append(new PrintVehicle(tank1, (Tank) unit), pageFormat);
+                        final Tank first = tank1;
+                        appendSheet(book, sheets, pageFormat, () -> new PrintVehicle(first, (Tank) unit), first, unit);
                         tank1 = null;
                     } else {
                         tank1 = (Tank) unit;
@@ -202,39 +270,42 @@ public class UnitPrintManager {
             } else if (unit instanceof Aero) {
                 if (unit instanceof Dropship) {
                     if (unit.getMovementMode() == EntityMovementMode.AERODYNE) {
-                        book.append(new PrintAerodyne((Dropship) unit), pageFormat);
+                        appendSheet(book, sheets, pageFormat, () -> new PrintAerodyne((Dropship) unit), unit);
                     } else {
-                        book.append(new PrintSpheroid((Dropship) unit), pageFormat);
+                        appendSheet(book, sheets, pageFormat, () -> new PrintSpheroid((Dropship) unit), unit);
                     }
                 } else if (unit instanceof FixedWingSupport) {
-                    book.append(new PrintFixedWingSupport((FixedWingSupport) unit), pageFormat);
+                    appendSheet(book, sheets, pageFormat, () -> new PrintFixedWingSupport((FixedWingSupport) unit), unit);
                 } else if (unit instanceof ConvFighter) {
-                    book.append(new PrintConventionalFighter((ConvFighter) unit), pageFormat);
+                    appendSheet(book, sheets, pageFormat, () -> new PrintConventionalFighter((ConvFighter) unit), unit);
                 } else if (unit instanceof SmallCraft) {
                     if (unit.getMovementMode() == EntityMovementMode.AERODYNE) {
-                        book.append(new PrintSmallCraftAerodyne((SmallCraft) unit), pageFormat);
+                        appendSheet(book, sheets, pageFormat, () -> new PrintSmallCraftAerodyne((SmallCraft) unit), unit);
                     } else {
-                        book.append(new PrintSmallCraftSpheroid((SmallCraft) unit), pageFormat);
+                        appendSheet(book, sheets, pageFormat, () -> new PrintSmallCraftSpheroid((SmallCraft) unit), unit);
                     }
                 } else if (!(unit instanceof Jumpship)) {
-                    book.append(new PrintAero((Aero) unit), pageFormat);
+                    appendSheet(book, sheets, pageFormat, () -> new PrintAero((Aero) unit), unit);
                 }
             } else if (unit instanceof BattleArmor) {
                 baList.add((BattleArmor) unit);
                 if (singlePrint || baList.size() > 4) {
-                    book.append(new PrintBattleArmor(baList),  pageFormat);
+                    final List<BattleArmor> list = baList;
+                    appendSheet(book, sheets, pageFormat, () -> new PrintBattleArmor(list), list.toArray(new Entity[0]));
                     baList = new ArrayList<>();
                 }
             } else if (unit instanceof Infantry) {
                 infList.add((Infantry) unit);
                 if (singlePrint || infList.size() > 3) {
-                    book.append(new PrintInfantry(infList),  pageFormat);
+                    final List<Infantry> list = infList;
+                    appendSheet(book, sheets, pageFormat, () -> new PrintInfantry(list), list.toArray(new Entity[0]));
                     infList = new ArrayList<>();
                 }
             } else if (unit instanceof Protomech) {
                 protoList.add((Protomech) unit);
                 if (singlePrint || protoList.size() > 4) {
-                    book.append(new PrintProtomech(protoList),  pageFormat);
+                    final List<Protomech> list = protoList;
+                    appendSheet(book, sheets, pageFormat, () -> new PrintProtomech(list), list.toArray(new Entity[0]));
                     protoList = new ArrayList<>();
                 }
             } else {
@@ -243,35 +314,81 @@ public class UnitPrintManager {
             }
         }
         if (null != wige1) {
-            book.append(new PrintVehicle(wige1, null), pageFormat);
+            final Tank first = wige1;
+            appendSheet(book, sheets, pageFormat, () -> new PrintVehicle(first, null), first, null);
         }
         if (null != tank1) {
-            book.append(new PrintVehicle(tank1, null), pageFormat);
+            final Tank first = tank1;
+            appendSheet(book, sheets, pageFormat, () -> new PrintVehicle(first, null), first, null);
         }
         if (null != dualTurret1) {
-            book.append(new PrintDualTurretVehicle(dualTurret1, null), pageFormat);
+            final Tank first = dualTurret1;
+            appendSheet(book, sheets, pageFormat, () -> new PrintDualTurretVehicle(first, null), first, null);
         }
         if (baList.size() > 0) {
-            book.append(new PrintBattleArmor(baList), pageFormat);
+            final List<BattleArmor> list = baList;
+            appendSheet(book, sheets, pageFormat, () -> new PrintBattleArmor(list), list.toArray(new Entity[0]));
         }
         if (infList.size() > 0) {
-            book.append(new PrintInfantry(infList), pageFormat);
+            final List<Infantry> list = infList;
+            appendSheet(book, sheets, pageFormat, () -> new PrintInfantry(list), list.toArray(new Entity[0]));
         }
         if (protoList.size() > 0) {
-            book.append(new PrintProtomech(protoList), pageFormat);
-        }
-        
-        masterPrintJob.setPageable(book);
-        if (loadedUnits.size() > 1) {
-            masterPrintJob.setJobName(loadedUnits.get(0).getShortNameRaw() + " etc");
-        } else if (loadedUnits.size() > 0) {
-            masterPrintJob.setJobName(loadedUnits.get(0).getShortNameRaw());
+            final List<Protomech> list = protoList;
+            appendSheet(book, sheets, pageFormat, () -> new PrintProtomech(list), list.toArray(new Entity[0]));
         }
+        return book;
+    }
 
-        PrintTask task = new PrintTask(masterPrintJob, aset);
-        task.execute();
+    /**
+     * Adds a single page record sheet to the book, or a copy of an earlier page if the book
+     * already has a sheet for units with the same content. The sheet is only created if it is
+     * needed. A sheet with a unit that cannot be fingerprinted is never shared.
+     *
+     * @param book       The book
+     * @param sheets     The first page for each set of units, by {@link #getSheetKey(PageFormat, Entity...)}
+     * @param pageFormat The page format
+     * @param sheet      Creates the record sheet
+     * @param units      The units printed on the sheet, in order, with null for an empty position
+     */
+    private static void appendSheet(Book book, Map<String, Integer> sheets, PageFormat pageFormat,
+            Supplier<Printable> sheet, Entity... units) {
+        final String key = getSheetKey(pageFormat, units);
+        final Integer page = (null == key) ? null : sheets.get(key);
+        if (null != page) {
+            book.append(new DuplicatePage(book.getPrintable(page), page), pageFormat);
+        } else {
+            if (null != key) {
+                sheets.put(key, book.getNumberOfPages());
+            }
+            book.append(sheet.get(), pageFormat);
+        }
+    }
 
-        return true;
+    /**
+     * Identifies the content of a record sheet page: the page format and, for each unit, its type
+     * and {@link UnitFingerprint#ofRecordSheet(Entity) record sheet fingerprint}, which covers the
+     * encoded unit file along with the crew, quirks, manual battle value, and fluff image.
+     *
+     * @return The key, or <code>null</code> if a unit cannot be fingerprinted
+     */
+    private static @Nullable String getSheetKey(PageFormat pageFormat, Entity... units) {
+        StringBuilder key = new StringBuilder();
+        key.append(pageFormat.getOrientation()).append(',').append(pageFormat.getWidth())
+                .append(',').append(pageFormat.getHeight()).append(',').append(pageFormat.getImageableX())
+                .append(',').append(pageFormat.getImageableY()).append(',').append(pageFormat.getImageableWidth())
+                .append(',').append(pageFormat.getImageableHeight());
+        for (Entity unit : units) {
+            key.append('|');
+            if (null != unit) {
+                final String fingerprint = UnitFingerprint.ofRecordSheet(unit);
+                if (null == fingerprint) {
+                    return null;
+                }
+                key.append(unit.getClass().getName()).append(':').append(fingerprint);
+            }
+        }
+        return key.toString();
     }
 
     public static JMenu printMenu(final JFrame parent, JMenuItem item) {
@@ -346,16 +463,10 @@ public class UnitPrintManager {
     }
 
     public static void printSelectedUnit(JFrame parent) {
-        UnitLoadingDialog unitLoadingDialog = new UnitLoadingDialog(parent);
-        unitLoadingDialog.setVisible(true);
-        UnitSelectorDialog viewer = new UnitSelectorDialog(parent, unitLoadingDialog, true);
-
-        viewer.setVisible(false);
-        Entity entity = viewer.getChosenEntity();
+        Entity entity = UnitSearchDialog.chooseEntity(parent);
 
         if (entity != null) {
             boolean printed = UnitPrintManager.printEntity(entity);
-            viewer.dispose();
 
             if (!printed) {
                 JOptionPane.showMessageDialog(parent, "Unable to print that unit type!");
@@ -386,17 +497,28 @@ public class UnitPrintManager {
             return;
         }
 
-        try {
-
-            Vector<Entity> unitList = new Vector<Entity>();
-
-            for (File entityFile : f.getSelectedFiles()) {
-                Entity tempEntity = new MechFileParser(entityFile).getEntity();
-                unitList.add(tempEntity);
+        // The units are collected from the task when it is done so that they print in the order
+        // the files were selected, not the order they finished loading.
+        final UnitImportTask task = new UnitImportTask(Arrays.asList(f.getSelectedFiles()),
+                loaded -> {});
+        task.addPropertyChangeListener(evt -> {
+            if ("state".equals(evt.getPropertyName()) //$NON-NLS-1$
+                    && (SwingWorker.StateValue.DONE == evt.getNewValue())) {
+                try {
+                    for (String error : task.get()) {
+                        MegaMekLab.getLogger().log(UnitPrintManager.class, "printUnitFile(JFrame,boolean)", //$NON-NLS-1$
+                                LogLevel.ERROR, error);
+                    }
+                } catch (Exception ex) {
+                    MegaMekLab.getLogger().log(UnitPrintManager.class, "printUnitFile(JFrame,boolean)", ex); //$NON-NLS-1$
+                    return;
+                }
+                final Vector<Entity> unitList = new Vector<Entity>(task.getUnits());
+                if (!unitList.isEmpty()) {
+                    printAllUnits(unitList, singleUnit);
+                }
             }
-            printAllUnits(unitList, singleUnit);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        });
+        task.execute();
     }
 }
\ No newline at end of file
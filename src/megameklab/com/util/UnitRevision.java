@@ -0,0 +1,96 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import megamek.common.Entity;
+import megamek.common.annotations.Nullable;
+
+/**
+ * Tracks a revision number for each unit, so that anything computed from a unit can be reused
+ * until the unit changes. The number is advanced by the UnitUtil methods that add, remove, or
+ * move equipment and by the main UI whenever an editor reports a change through one of the
+ * {@link RefreshListener} methods. Code that modifies a unit without either of those should
+ * call {@link #markChanged(Entity)} itself.
+ *
+ * The {@link UnitFingerprint} of the unit is kept along with the revision number and only
+ * recomputed after the revision changes.
+ *
+ * Units are held weakly, and the methods may be called from any thread.
+ */
+public final class UnitRevision {
+
+    private static final Map<Entity, State> states = new WeakHashMap<>();
+
+    private UnitRevision() {
+    }
+
+    /**
+     * @return The unit's current revision number. A unit that has never been marked as
+     *         changed is at revision 0.
+     */
+    public static long get(Entity entity) {
+        synchronized (states) {
+            final State state = states.get(entity);
+            return (null == state) ? 0 : state.revision;
+        }
+    }
+
+    /**
+     * Advances the unit's revision number.
+     */
+    public static void markChanged(Entity entity) {
+        if (null == entity) {
+            return;
+        }
+        synchronized (states) {
+            State state = states.computeIfAbsent(entity, k -> new State());
+            state.revision++;
+            state.fingerprintValid = false;
+        }
+    }
+
+    /**
+     * @return The fingerprint of the unit, computed once for each revision, or
+     *         <code>null</code> if the unit cannot be encoded
+     */
+    public static @Nullable String getFingerprint(Entity entity) {
+        long revision;
+        synchronized (states) {
+            State state = states.computeIfAbsent(entity, k -> new State());
+            if (state.fingerprintValid) {
+                return state.fingerprint;
+            }
+            revision = state.revision;
+        }
+        // Computed outside the lock so that other units are not held up
+        final String fingerprint = UnitFingerprint.of(entity);
+        synchronized (states) {
+            State state = states.get(entity);
+            if ((null != fingerprint) && (null != state) && (state.revision == revision)) {
+                state.fingerprint = fingerprint;
+                state.fingerprintValid = true;
+            }
+        }
+        return fingerprint;
+    }
+
+    private static class State {
+        private long revision = 0;
+        private String fingerprint;
+        private boolean fingerprintValid = false;
+    }
+}
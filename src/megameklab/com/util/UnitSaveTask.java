@@ -0,0 +1,81 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.awt.Component;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import megamek.common.Entity;
+import megamek.common.logging.LogLevel;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Writes a unit file as a background task, then reports the result on the event dispatch
+ * thread. On success the file is added to the recent file list. The unit is encoded when the
+ * task is created, which must be on the event dispatch thread, so edits made while the file is
+ * being written cannot leak into it.
+ */
+public class UnitSaveTask extends SwingWorker<Void, Void> {
+
+    private final Component parent;
+    private final Entity entity;
+    private final File target;
+    private String contents = null;
+    private IOException encodeError = null;
+
+    public UnitSaveTask(Component parent, Entity entity, File target) {
+        this.parent = parent;
+        this.entity = entity;
+        this.target = target;
+        try {
+            contents = UnitFileWriter.encodeToString(entity);
+        } catch (IOException ex) {
+            // Reported through done() like any other save failure
+            encodeError = ex;
+        }
+    }
+
+    @Override
+    protected Void doInBackground() throws Exception {
+        if (null != encodeError) {
+            throw encodeError;
+        }
+        UnitFileWriter.write(contents, target);
+        return null;
+    }
+
+    @Override
+    protected void done() {
+        final String METHOD_NAME = "done()"; //$NON-NLS-1$
+        try {
+            get();
+            EntityFileCache.invalidate(target);
+            CConfig.updateSaveFiles(target.getPath());
+            JOptionPane.showMessageDialog(parent, entity.getChassis() + " " + entity.getModel()
+                    + " saved to " + target.getPath());
+        } catch (InterruptedException | ExecutionException ex) {
+            Throwable cause = (null != ex.getCause()) ? ex.getCause() : ex;
+            MegaMekLab.getLogger().log(UnitSaveTask.class, METHOD_NAME, LogLevel.ERROR,
+                    "Could not save " + target.getPath());
+            MegaMekLab.getLogger().log(UnitSaveTask.class, METHOD_NAME, cause);
+            JOptionPane.showMessageDialog(parent, "Could not save " + target.getPath()
+                    + "\n" + cause.getMessage(), "Save Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
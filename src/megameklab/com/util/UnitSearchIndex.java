@@ -0,0 +1,288 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+import javax.swing.SwingWorker;
+
+import megamek.common.MechSummary;
+import megamek.common.MechSummaryCache;
+import megameklab.com.MegaMekLab;
+
+/**
+ * Search index over the units in the {@link MechSummaryCache}. Chassis and model names are
+ * split into tokens for an inverted index that supports prefix matching, and tonnage, BV and
+ * introduction year each have a sorted index that is binary searched for range queries. Each
+ * criterion produces a bit set of matching units and the results are intersected, so a
+ * query never has to scan the full unit list.
+ *
+ * The index is built once in the background after the summary cache finishes loading. Use
+ * {@link #whenReady(Consumer)} to obtain it.
+ */
+public class UnitSearchIndex {
+
+    private static UnitSearchIndex instance = null;
+    private static boolean loading = false;
+    private static final List<Consumer<UnitSearchIndex>> waiting = new ArrayList<>();
+
+    private final MechSummary[] units;
+    private final NavigableMap<String, BitSet> tokens = new TreeMap<>();
+    private final Map<String, BitSet> techLevels = new HashMap<>();
+    private final RangeIndex tonnage;
+    private final RangeIndex bv;
+    private final RangeIndex year;
+
+    /**
+     * Passes the index to the callback on the event dispatch thread, building it first if
+     * necessary. If the index is ready the callback is invoked immediately.
+     */
+    public static synchronized void whenReady(Consumer<UnitSearchIndex> callback) {
+        if (null != instance) {
+            callback.accept(instance);
+            return;
+        }
+        waiting.add(callback);
+        if (!loading) {
+            loading = true;
+            final MechSummaryCache cache = MechSummaryCache.getInstance();
+            MechSummaryCache.Listener listener = new MechSummaryCache.Listener() {
+                private boolean started = false;
+
+                @Override
+                public synchronized void doneLoading() {
+                    if (!started) {
+                        started = true;
+                        build(cache);
+                    }
+                }
+            };
+            cache.addListener(listener);
+            if (cache.isInitialized()) {
+                listener.doneLoading();
+            }
+        }
+    }
+
+    /**
+     * Starts building the index if it is not already built or loading.
+     */
+    public static void preload() {
+        whenReady(index -> {});
+    }
+
+    /**
+     * @return The index if it has been built, otherwise <code>null</code>
+     */
+    public static synchronized UnitSearchIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Discards the index so that it is rebuilt from the summary cache on next use.
+     */
+    public static synchronized void invalidate() {
+        if (!loading) {
+            instance = null;
+        }
+    }
+
+    private static void build(final MechSummaryCache cache) {
+        new SwingWorker<UnitSearchIndex, Void>() {
+            @Override
+            protected UnitSearchIndex doInBackground() throws Exception {
+                return new UnitSearchIndex(cache.getAllMechs());
+            }
+
+            @Override
+            protected void done() {
+                List<Consumer<UnitSearchIndex>> callbacks;
+                synchronized (UnitSearchIndex.class) {
+                    try {
+                        instance = get();
+                    } catch (Exception ex) {
+                        MegaMekLab.getLogger().log(UnitSearchIndex.class, "build(MechSummaryCache)", ex); //$NON-NLS-1$
+                        instance = new UnitSearchIndex(new MechSummary[0]);
+                    }
+                    loading = false;
+                    callbacks = new ArrayList<>(waiting);
+                    waiting.clear();
+                }
+                for (Consumer<UnitSearchIndex> c : callbacks) {
+                    c.accept(instance);
+                }
+            }
+        }.execute();
+    }
+
+    UnitSearchIndex(MechSummary[] units) {
+        this.units = (null == units) ? new MechSummary[0] : units;
+        for (int i = 0; i < this.units.length; i++) {
+            MechSummary ms = this.units[i];
+            for (String token : tokenize(ms.getChassis() + " " + ms.getModel())) {
+                tokens.computeIfAbsent(token, k -> new BitSet()).set(i);
+            }
+            String level = String.valueOf(ms.getType());
+            techLevels.computeIfAbsent(level, k -> new BitSet()).set(i);
+        }
+        tonnage = new RangeIndex(this.units, ms -> ms.getTons());
+        bv = new RangeIndex(this.units, ms -> ms.getBV());
+        year = new RangeIndex(this.units, ms -> ms.getYear());
+    }
+
+    /**
+     * @return The number of units in the index
+     */
+    public int size() {
+        return units.length;
+    }
+
+    /**
+     * @return The distinct tech level names found in the index, sorted
+     */
+    public Set<String> getTechLevels() {
+        return new TreeSet<>(techLevels.keySet());
+    }
+
+    /**
+     * Finds the units matching all the given criteria.
+     *
+     * @param text      Words that must each be the start of a word in the chassis or model name.
+     *                  Empty to match all units.
+     * @param minTons   Minimum tonnage, inclusive
+     * @param maxTons   Maximum tonnage, inclusive
+     * @param minBV     Minimum BV, inclusive
+     * @param maxBV     Maximum BV, inclusive
+     * @param minYear   Earliest introduction year, inclusive
+     * @param maxYear   Latest introduction year, inclusive
+     * @param techLevel The tech level name, or <code>null</code> for any level
+     * @return          The matching units, sorted by chassis and model
+     */
+    public List<MechSummary> search(String text, double minTons, double maxTons, int minBV, int maxBV,
+            int minYear, int maxYear, String techLevel) {
+        BitSet result = new BitSet(units.length);
+        result.set(0, units.length);
+        for (String word : tokenize(text)) {
+            BitSet matches = new BitSet(units.length);
+            for (BitSet bits : tokens.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                matches.or(bits);
+            }
+            result.and(matches);
+            if (result.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        if (null != techLevel) {
+            BitSet bits = techLevels.get(techLevel);
+            if (null == bits) {
+                return Collections.emptyList();
+            }
+            result.and(bits);
+        }
+        tonnage.restrict(result, minTons, maxTons);
+        bv.restrict(result, minBV, maxBV);
+        year.restrict(result, minYear, maxYear);
+
+        List<MechSummary> list = new ArrayList<>(result.cardinality());
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            list.add(units[i]);
+        }
+        list.sort((ms1, ms2) -> {
+            int c = ms1.getChassis().compareToIgnoreCase(ms2.getChassis());
+            return (c != 0) ? c : ms1.getModel().compareToIgnoreCase(ms2.getModel());
+        });
+        return list;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> list = new ArrayList<>();
+        if (null != text) {
+            for (String t : text.toLowerCase().split("[^\\p{Alnum}]+")) { //$NON-NLS-1$
+                if (t.length() > 0) {
+                    list.add(t);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Unit indices sorted by a numeric value, for range lookups by binary search.
+     */
+    private static class RangeIndex {
+        private final int size;
+        private final int[] order;
+        private final double[] values;
+
+        RangeIndex(MechSummary[] units, ToDoubleFunction<MechSummary> getter) {
+            size = units.length;
+            Integer[] boxed = new Integer[size];
+            final double[] raw = new double[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = i;
+                raw[i] = getter.applyAsDouble(units[i]);
+            }
+            Arrays.sort(boxed, (a, b) -> Double.compare(raw[a], raw[b]));
+            order = new int[size];
+            values = new double[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = boxed[i];
+                values[i] = raw[boxed[i]];
+            }
+        }
+
+        /**
+         * Clears the bits of any units whose value is outside the range.
+         */
+        void restrict(BitSet result, double min, double max) {
+            if ((size == 0) || ((min <= values[0]) && (max >= values[size - 1]))) {
+                return;
+            }
+            BitSet bits = new BitSet(size);
+            for (int i = lowerBound(min); (i < size) && (values[i] <= max); i++) {
+                bits.set(order[i]);
+            }
+            result.and(bits);
+        }
+
+        /**
+         * @return The first position with a value not less than the target
+         */
+        private int lowerBound(double target) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < target) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -262,6 +262,7 @@ public class UnitUtil {
     }
 
     public static void removeMounted(Entity unit, Mounted mount) {
+        UnitRevision.markChanged(unit);
         UnitUtil.removeCriticals(unit, mount);
 
         // Some special checks for BA
@@ -367,6 +368,7 @@ public class UnitUtil {
      * @param eq
      */
     public static void removeCriticals(Entity unit, Mounted eq) {
+        UnitRevision.markChanged(unit);
 
         if (eq.getLocation() == Entity.LOC_NONE) {
             return;
@@ -397,6 +399,7 @@ public class UnitUtil {
     
     public static void addMounted(Entity unit, Mounted mounted, int loc,
             boolean rearMounted) throws LocationFullException {
+        UnitRevision.markChanged(unit);
         unit.addEquipment(mounted, loc, rearMounted);
         mounted.setOmniPodMounted(canPodMount(unit, mounted));
     }
@@ -423,6 +426,7 @@ public class UnitUtil {
      * @param unit
      */
     public static void resetCriticalsAndMounts(Mech unit) {
+        UnitRevision.markChanged(unit);
         for (int location = Mech.LOC_HEAD; location <= Mech.LOC_LLEG; location++) {
             for (int slot = 0; slot < unit.getNumberOfCriticals(location); slot++) {
                 CriticalSlot cs = unit.getCritical(location, slot);
@@ -1165,6 +1169,7 @@ public class UnitUtil {
      */
     public static void changeMountStatus(Entity unit, Mounted eq, int location,
             int secondaryLocation, boolean rear) {
+        UnitRevision.markChanged(unit);
         eq.setLocation(location, rear);
         eq.setSecondLocation(secondaryLocation, rear);
         eq.setSplit(secondaryLocation > -1);
@@ -1537,6 +1542,7 @@ public class UnitUtil {
     }
 
     public static void compactCriticals(Entity unit, int loc) {
+        UnitRevision.markChanged(unit);
         int firstEmpty = -1;
         for (int slot = 0; slot < unit.getNumberOfCriticals(loc); slot++) {
             CriticalSlot cs = unit.getCritical(loc, slot);
@@ -2228,6 +2234,7 @@ public class UnitUtil {
     }
 
     public static void updateCritsArmoredStatus(Entity unit, Mounted mount) {
+        UnitRevision.markChanged(unit);
         for (int position = 0; position < unit.getNumberOfCriticals(mount
                 .getLocation()); position++) {
             CriticalSlot cs = unit.getCritical(mount.getLocation(), position);
@@ -2366,6 +2373,7 @@ public class UnitUtil {
     }
 
     public static void updateLoadedUnit(Entity unit) {
+        UnitRevision.markChanged(unit);
 
         // Check for illegal armor tech levels and set to the tech level of the unit.
         for (int loc = 0; loc < unit.locations(); loc++) {
@@ -3093,6 +3101,7 @@ public class UnitUtil {
      * @param loc  The location from which to remove the armor mounts.
      */
     public static void resetArmor(Entity unit, int loc) {
+        UnitRevision.markChanged(unit);
         String name = EquipmentType.getArmorTypeName(unit.getArmorType(loc),
                 TechConstants.isClan(unit.getArmorTechLevel(loc)));
         EquipmentType eq = EquipmentType.get(name);
@@ -3879,9 +3888,10 @@ public class UnitUtil {
     public static boolean checkEquipmentByTechLevel(Entity unit, ITechManager techManager) {
         Vector<Mounted> toRemove = new Vector<Mounted>();
         ITechnology acTA = Entity.getArmoredComponentTechAdvancement();
+        TechLegalityTable legality = TechLegalityTable.get(techManager);
         boolean dirty = false;
         for (Mounted m : unit.getEquipment()) {
-            if (m.isArmored() && !techManager.isLegal(acTA)) {
+            if (m.isArmored() && !legality.isLegal(acTA)) {
                 m.setArmored(false);
                 updateCritsArmoredStatus(unit, m);
                 dirty = true;
@@ -3897,7 +3907,7 @@ public class UnitUtil {
                     || etype.hasFlag(MiscType.F_SCM)) {
                 continue;
             }
-            if (!techManager.isLegal(etype)) {
+            if (!legality.isLegal(etype)) {
                 toRemove.add(m);
             }
         }
@@ -3908,14 +3918,14 @@ public class UnitUtil {
         if (unit instanceof Infantry) {
             Infantry pbi = (Infantry) unit;
             if ((null != pbi.getPrimaryWeapon())
-                    && techManager.isLegal(pbi.getPrimaryWeapon())) {
+                    && legality.isLegal(pbi.getPrimaryWeapon())) {
                 dirty = true;
                 UnitUtil.replaceMainWeapon((Infantry) unit,
                         (InfantryWeapon) EquipmentType
                                 .get("Infantry Auto Rifle"), false);
             }
             if ((null != pbi.getSecondaryWeapon())
-                    && !techManager.isLegal(pbi.getSecondaryWeapon())) {
+                    && !legality.isLegal(pbi.getSecondaryWeapon())) {
                 dirty = true;
                 UnitUtil.replaceMainWeapon((Infantry) unit, null, true);
             }
@@ -3925,6 +3935,7 @@ public class UnitUtil {
 
     public static void replaceMainWeapon(Infantry unit, InfantryWeapon weapon,
             boolean secondary) {
+        UnitRevision.markChanged(unit);
         Mounted existingInfantryMount = null;
         for (Mounted m : unit.getWeaponList()) {
             if ((m.getType() instanceof InfantryWeapon)
@@ -3971,6 +3982,7 @@ public class UnitUtil {
     }
     
     public static void replaceFieldGun(Infantry unit, WeaponType fieldGun, int num) {
+        UnitRevision.markChanged(unit);
         List<Mounted> toRemove = unit.getEquipment().stream()
                 .filter(m -> m.getLocation() == Infantry.LOC_FIELD_GUNS)
                 .collect(Collectors.toList());
@@ -4013,6 +4025,7 @@ public class UnitUtil {
     }
 
     public static void resetInfantryArmor(Infantry unit) {
+        UnitRevision.markChanged(unit);
         unit.setArmorEncumbering(false);
         unit.setSpaceSuit(false);
         unit.setDEST(false);
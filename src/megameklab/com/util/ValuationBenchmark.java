@@ -0,0 +1,112 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import megamek.common.Entity;
+import megamek.common.EquipmentType;
+import megamek.common.MechFileParser;
+import megamek.common.MechSummary;
+import megamek.common.MechSummaryCache;
+
+/**
+ * Measures the {@link ValuationCache} against calling the Entity's battle value and cost
+ * calculations directly, using canon units from the unit cache. Run from the MegaMekLab
+ * directory so the unit files can be found:
+ *
+ * <pre>java -cp MegaMekLab.jar:lib/* megameklab.com.util.ValuationBenchmark [units] [repeats]</pre>
+ *
+ * The default is 300 units with each value requested 5 times, which is about how often the
+ * status bar, record sheet, and BV dialog ask for them while a unit is being edited.
+ */
+public class ValuationBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        final int count = (args.length > 0) ? Integer.parseInt(args[0]) : 300;
+        final int repeats = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        EquipmentType.initializeTypes();
+        MechSummaryCache cache = MechSummaryCache.getInstance();
+        while (!cache.isInitialized()) {
+            Thread.sleep(50);
+        }
+        List<Entity> units = new ArrayList<>();
+        for (MechSummary ms : cache.getAllMechs()) {
+            if (units.size() >= count) {
+                break;
+            }
+            if (!ms.isCanon()) {
+                continue;
+            }
+            try {
+                units.add(new MechFileParser(ms.getSourceFile(), ms.getEntryName()).getEntity());
+            } catch (Exception ex) {
+                // Not the subject of the benchmark; just leave the unit out.
+            }
+        }
+        System.out.println("Units loaded: " + units.size() + ", requests per value: " + repeats);
+
+        // Once untimed to load classes and warm up the JIT
+        for (Entity en : units) {
+            en.calculateBattleValue();
+            en.getCost(false);
+            UnitFingerprint.of(en);
+        }
+
+        long start = System.nanoTime();
+        long directTotal = 0;
+        for (int i = 0; i < repeats; i++) {
+            for (Entity en : units) {
+                directTotal += en.calculateBattleValue();
+                directTotal += Math.round(en.getCost(false));
+            }
+        }
+        report("Direct", System.nanoTime() - start, units.size() * repeats);
+
+        start = System.nanoTime();
+        for (Entity en : units) {
+            UnitFingerprint.of(en);
+        }
+        report("Fingerprint only", System.nanoTime() - start, units.size());
+
+        ValuationCache.clear();
+        start = System.nanoTime();
+        long cachedTotal = 0;
+        for (Entity en : units) {
+            cachedTotal += ValuationCache.getBattleValue(en);
+            cachedTotal += Math.round(ValuationCache.getCost(en, false));
+        }
+        report("Cache, first request", System.nanoTime() - start, units.size());
+
+        start = System.nanoTime();
+        for (int i = 1; i < repeats; i++) {
+            for (Entity en : units) {
+                cachedTotal += ValuationCache.getBattleValue(en);
+                cachedTotal += Math.round(ValuationCache.getCost(en, false));
+            }
+        }
+        report("Cache, later requests", System.nanoTime() - start, units.size() * (repeats - 1));
+
+        if (directTotal != cachedTotal) {
+            System.out.println("Cached values do not match the direct calculation");
+        }
+    }
+
+    private static void report(String label, long nanos, int requests) {
+        System.out.println(String.format("%-24s%10.1f ms%12.1f us per unit", label, //$NON-NLS-1$
+                nanos / 1e6, (requests > 0) ? nanos / 1e3 / requests : 0.0));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import megamek.common.Entity;
+
+/**
+ * Remembers the battle value and cost of units by their {@link UnitFingerprint}, so that the
+ * status bar, the record sheets, and the BV dialog do not each repeat the calculation for a
+ * unit that has not changed. The fingerprint is a digest of the encoded unit file, so units
+ * are only taken to be the same if they would save the same. The values are computed by the
+ * Entity the first time they are requested for a given fingerprint, and the fingerprint itself
+ * is only recomputed when the unit's {@link UnitRevision} changes. A unit that cannot be
+ * encoded is not cached.
+ *
+ * The cache holds the {@link #MAX_ENTRIES} most recently used fingerprints and may be used
+ * from any thread. A value is only stored if the unit's revision is the same after the
+ * calculation as before it, so a unit that is modified during the calculation on another
+ * thread cannot leave a wrong value in the cache.
+ */
+public final class ValuationCache {
+
+    public static final int MAX_ENTRIES = 512;
+
+    private static final Map<String, Values> cache = new LinkedHashMap<String, Values>(64, 0.75f, true) {
+        private static final long serialVersionUID = -1417530512370924806L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Values> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private ValuationCache() {
+    }
+
+    /**
+     * @return The unit's battle value, as returned by {@link Entity#calculateBattleValue()}
+     */
+    public static int getBattleValue(Entity entity) {
+        final long revision = UnitRevision.get(entity);
+        final String fingerprint = UnitRevision.getFingerprint(entity);
+        if (null == fingerprint) {
+            return entity.calculateBattleValue();
+        }
+        Values values = get(fingerprint);
+        if (null != values.bv) {
+            return values.bv;
+        }
+        final int bv = entity.calculateBattleValue();
+        if (UnitRevision.get(entity) == revision) {
+            synchronized (cache) {
+                values.bv = bv;
+            }
+        }
+        return bv;
+    }
+
+    /**
+     * @param ignoreAmmo Whether to leave out the cost of ammunition
+     * @return           The unit's cost in C-bills, as returned by {@link Entity#getCost(boolean)}
+     */
+    public static double getCost(Entity entity, boolean ignoreAmmo) {
+        final long revision = UnitRevision.get(entity);
+        final String fingerprint = UnitRevision.getFingerprint(entity);
+        if (null == fingerprint) {
+            return entity.getCost(ignoreAmmo);
+        }
+        Values values = get(fingerprint);
+        final Double cached = ignoreAmmo ? values.costNoAmmo : values.cost;
+        if (null != cached) {
+            return cached;
+        }
+        final double cost = entity.getCost(ignoreAmmo);
+        if (UnitRevision.get(entity) == revision) {
+            synchronized (cache) {
+                if (ignoreAmmo) {
+                    values.costNoAmmo = cost;
+                } else {
+                    values.cost = cost;
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * @return The html breakdown of the battle value calculation, ignoring C3 and crew skills
+     */
+    public static String getBVText(Entity entity) {
+        final long revision = UnitRevision.get(entity);
+        final String fingerprint = UnitRevision.getFingerprint(entity);
+        if (null == fingerprint) {
+            entity.calculateBattleValue(true, true);
+            return entity.getBVText();
+        }
+        Values values = get(fingerprint);
+        if (null != values.bvText) {
+            return values.bvText;
+        }
+        entity.calculateBattleValue(true, true);
+        final String text = entity.getBVText();
+        if (UnitRevision.get(entity) == revision) {
+            synchronized (cache) {
+                values.bvText = text;
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Discards all cached values. This is needed if something outside the unit that affects the
+     * calculations, such as the game options, is changed.
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static Values get(String fingerprint) {
+        synchronized (cache) {
+            return cache.computeIfAbsent(fingerprint, k -> new Values());
+        }
+    }
+
+    /**
+     * The values computed so far for one fingerprint. Fields are only written while holding
+     * the cache's lock.
+     */
+    private static class Values {
+        private volatile Integer bv;
+        private volatile Double cost;
+        private volatile Double costNoAmmo;
+        private volatile String bvText;
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import megamek.common.AmmoType;
+import megamek.common.Engine;
+import megamek.common.Entity;
+import megamek.common.Mech;
+import megamek.common.Mounted;
+import megamek.common.WeaponType;
+
+/**
+ * Heat, damage, and ammunition figures for a unit's weapons, computed in one pass over the
+ * weapons and one over the ammo using the shared {@link WeaponProfile} of each weapon type.
+ * The result is immutable and records the {@link UnitRevision} it was computed for, so a view
+ * can keep showing it until the unit changes.
+ */
+public final class WeaponAnalytics {
+
+    private final long revision;
+    private final boolean aero;
+    private final double movementHeat;
+    private final double weaponHeat;
+    private final int dissipation;
+    private final double[] alphaDamage;
+    private final double[] heatNeutralDamage;
+    private final List<AmmoEndurance> endurance;
+
+    private WeaponAnalytics(long revision, boolean aero, double movementHeat, double weaponHeat,
+            int dissipation, double[] alphaDamage, double[] heatNeutralDamage,
+            List<AmmoEndurance> endurance) {
+        this.revision = revision;
+        this.aero = aero;
+        this.movementHeat = movementHeat;
+        this.weaponHeat = weaponHeat;
+        this.dissipation = dissipation;
+        this.alphaDamage = alphaDamage;
+        this.heatNeutralDamage = heatNeutralDamage;
+        this.endurance = endurance;
+    }
+
+    /**
+     * Analyzes the unit's undamaged weapons. Units that use weapon bays are analyzed by the
+     * weapons in the bays.
+     */
+    public static WeaponAnalytics compute(Entity entity) {
+        final long revision = UnitRevision.get(entity);
+        final boolean aero = entity.hasETypeFlag(Entity.ETYPE_AERO);
+        final int bands = aero ? WeaponProfile.AERO_BANDS : WeaponProfile.GROUND_BANDS;
+
+        List<Mounted> weapons = new ArrayList<>();
+        if (entity.usesWeaponBays()) {
+            for (Mounted bay : entity.getWeaponBayList()) {
+                for (Integer wNum : bay.getBayWeapons()) {
+                    weapons.add(entity.getEquipment(wNum));
+                }
+            }
+        } else {
+            weapons.addAll(entity.getWeaponList());
+        }
+
+        double weaponHeat = 0;
+        double[] alpha = new double[bands];
+        List<WeaponProfile> profiles = new ArrayList<>();
+        Map<String, AmmoEndurance> ammoGroups = new LinkedHashMap<>();
+        for (Mounted mounted : weapons) {
+            // only count non-damaged equipment
+            if (mounted.isMissing() || mounted.isHit() || mounted.isDestroyed()
+                    || mounted.isBreached()) {
+                continue;
+            }
+            final WeaponType wtype = (WeaponType) mounted.getType();
+            final WeaponProfile profile = WeaponProfile.of(wtype);
+            profiles.add(profile);
+            weaponHeat += profile.getHeat();
+            for (int band = 0; band < bands; band++) {
+                alpha[band] += aero ? profile.getAeroExpectedDamage(band)
+                        : profile.getGroundExpectedDamage(band);
+            }
+            if ((wtype.getAmmoType() != AmmoType.T_NA) && !wtype.hasFlag(WeaponType.F_ONESHOT)) {
+                ammoGroups.computeIfAbsent(ammoKey(wtype.getAmmoType(), wtype.getRackSize()),
+                        k -> new AmmoEndurance(wtype.getName())).weapons++;
+            }
+        }
+        for (Mounted mounted : entity.getAmmo()) {
+            final AmmoType atype = (AmmoType) mounted.getType();
+            final AmmoEndurance group = ammoGroups.get(ammoKey(atype.getAmmoType(), atype.getRackSize()));
+            if (null != group) {
+                group.shots += mounted.getUsableShotsLeft();
+            }
+        }
+
+        final double movementHeat = getMovementHeat(entity);
+        final int dissipation = entity.getHeatCapacity();
+        double[] heatNeutral = new double[bands];
+        for (int band = 0; band < bands; band++) {
+            heatNeutral[band] = heatNeutralDamage(profiles, band, aero, dissipation - movementHeat);
+        }
+        return new WeaponAnalytics(revision, aero, movementHeat, weaponHeat, dissipation, alpha,
+                heatNeutral, Collections.unmodifiableList(new ArrayList<>(ammoGroups.values())));
+    }
+
+    private static String ammoKey(int ammoType, int rackSize) {
+        return ammoType + ":" + rackSize; //$NON-NLS-1$
+    }
+
+    /**
+     * The most damage that can be done in the band without generating more heat than is
+     * dissipated, choosing the weapons with the best ratio of damage to heat first.
+     */
+    private static double heatNeutralDamage(List<WeaponProfile> profiles, int band, boolean aero,
+            double heatAvailable) {
+        List<WeaponProfile> sorted = new ArrayList<>(profiles);
+        sorted.sort((p1, p2) -> Double.compare(ratio(p2, band, aero), ratio(p1, band, aero)));
+        double damage = 0;
+        heatAvailable = Math.max(0, heatAvailable);
+        for (WeaponProfile p : sorted) {
+            if (p.getHeat() <= heatAvailable) {
+                heatAvailable -= p.getHeat();
+                damage += aero ? p.getAeroExpectedDamage(band) : p.getGroundExpectedDamage(band);
+            }
+        }
+        return damage;
+    }
+
+    private static double ratio(WeaponProfile p, int band, boolean aero) {
+        final double damage = aero ? p.getAeroExpectedDamage(band) : p.getGroundExpectedDamage(band);
+        return (p.getHeat() > 0) ? damage / p.getHeat() : Double.MAX_VALUE * Math.signum(damage);
+    }
+
+    /**
+     * @return The heat of moving for a Mek: jumping the full jump MP, or running if the unit
+     *         cannot jump, plus stealth systems. Zero for other units.
+     */
+    public static double getMovementHeat(Entity entity) {
+        if (!(entity instanceof Mech)) {
+            return 0;
+        }
+        final Mech mech = (Mech) entity;
+        double heat = 0;
+        if (mech.getOriginalJumpMP() > 0) {
+            if (mech.getJumpType() == Mech.JUMP_IMPROVED) {
+                heat += Math.max(3, Math.ceil(mech.getOriginalJumpMP() / 2.0f));
+            } else if (mech.getJumpType() != Mech.JUMP_BOOSTER) {
+                heat += Math.max(3, mech.getOriginalJumpMP());
+            }
+            if (mech.getEngine().getEngineType() == Engine.XXL_ENGINE) {
+                heat *= 2;
+            }
+        } else if (mech.getEngine().getEngineType() == Engine.XXL_ENGINE) {
+            heat += 6;
+        } else {
+            heat += 2;
+        }
+
+        if (mech.hasNullSig()) {
+            heat += 10;
+        }
+
+        if (mech.hasChameleonShield()) {
+            heat += 6;
+        }
+        return heat;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return Whether the damage bands are the aerospace range brackets rather than ground
+     *         range bands
+     */
+    public boolean isAero() {
+        return aero;
+    }
+
+    public int getBandCount() {
+        return alphaDamage.length;
+    }
+
+    /**
+     * @return A short description of the range covered by the band
+     */
+    public String getBandName(int band) {
+        if (aero) {
+            return new String[] { "Short", "Medium", "Long", "Extreme" }[band]; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+        return (band * WeaponProfile.GROUND_BAND_WIDTH + 1) + "-" //$NON-NLS-1$
+                + ((band + 1) * WeaponProfile.GROUND_BAND_WIDTH);
+    }
+
+    public double getMovementHeat() {
+        return movementHeat;
+    }
+
+    public double getWeaponHeat() {
+        return weaponHeat;
+    }
+
+    /**
+     * @return The heat of moving and firing all weapons, which is the value shown by the
+     *         status bar
+     */
+    public double getTotalHeat() {
+        return movementHeat + weaponHeat;
+    }
+
+    public int getDissipation() {
+        return dissipation;
+    }
+
+    /**
+     * @return The expected damage in the band from firing every weapon
+     */
+    public double getAlphaDamage(int band) {
+        return alphaDamage[band];
+    }
+
+    /**
+     * @return The expected damage in the band from the weapons that can be fired every turn
+     *         while moving without building up heat
+     */
+    public double getHeatNeutralDamage(int band) {
+        return heatNeutralDamage[band];
+    }
+
+    /**
+     * @return The ammunition supply for each kind of ammo-using weapon
+     */
+    public List<AmmoEndurance> getAmmoEndurance() {
+        return endurance;
+    }
+
+    /**
+     * The shots available to all the weapons that use the same ammo.
+     */
+    public static class AmmoEndurance {
+        private final String name;
+        private int weapons = 0;
+        private int shots = 0;
+
+        private AmmoEndurance(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return The name of the first weapon of the group
+         */
+        public String getName() {
+            return name;
+        }
+
+        public int getWeapons() {
+            return weapons;
+        }
+
+        public int getShots() {
+            return shots;
+        }
+
+        /**
+         * @return The number of turns all the weapons in the group can fire
+         */
+        public double getTurns() {
+            return (weapons > 0) ? (double) shots / weapons : 0;
+        }
+    }
+}
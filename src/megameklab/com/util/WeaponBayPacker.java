@@ -0,0 +1,316 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import megamek.common.AmmoType;
+import megamek.common.Entity;
+import megamek.common.EquipmentType;
+import megamek.common.LocationFullException;
+import megamek.common.MiscType;
+import megamek.common.Mounted;
+import megamek.common.WeaponType;
+import megamek.common.annotations.Nullable;
+import megamek.common.weapons.bayweapons.PPCBayWeapon;
+
+/**
+ * Places a group of equipment into a firing arc of a unit that uses weapon bays, grouping the
+ * weapons into as few bays as possible without exceeding the bay attack value limits. Weapons
+ * of each bay type are packed largest first, into the fullest existing bay in the arc that
+ * still has room, and a new bay is added when none do. Weapon enhancements are then linked to
+ * suitable weapons in the arc's bays, and ammo is added to the first bay with a weapon that can
+ * use it, merging with any ammo of the same type already there.
+ *
+ * All the changes are made to the unit together, so the caller only needs to refresh the
+ * views once afterward.
+ */
+public class WeaponBayPacker {
+
+    /** The maximum total attack value of a bay of standard scale weapons */
+    public static final double MAX_STANDARD_BAY_AV = 700;
+    /** The maximum total attack value of a bay of capital scale weapons */
+    public static final double MAX_CAPITAL_BAY_AV = 70;
+
+    private final Entity entity;
+    private final int location;
+    private final boolean rear;
+    private final boolean bothFacings;
+    private final Map<Mounted, Integer> eqNums = new IdentityHashMap<>();
+    private final List<Mounted> bays = new ArrayList<>();
+    private final Map<Mounted, Double> bayAV = new IdentityHashMap<>();
+    private final List<Mounted> toRemove = new ArrayList<>();
+
+    /**
+     * @param entity      The unit
+     * @param location    The location of the arc
+     * @param rear        Whether the arc is rear-facing. Equipment not placed in an existing
+     *                    bay and any new bays will be mounted with this facing.
+     * @param bothFacings Whether the arc includes both forward and rear mounted bays, as do
+     *                    the wing arcs of aerodyne small craft and dropships
+     */
+    public WeaponBayPacker(Entity entity, int location, boolean rear, boolean bothFacings) {
+        this.entity = entity;
+        this.location = location;
+        this.rear = rear;
+        this.bothFacings = bothFacings;
+    }
+
+    /**
+     * Adds the equipment to the arc.
+     *
+     * @param equipment The equipment to add, normally unallocated
+     * @return          The equipment that could not be placed: ammo with no weapon in the arc
+     *                  that uses it, and enhancements with no weapon to link to
+     */
+    public List<Mounted> pack(List<Mounted> equipment) {
+        List<Mounted> unplaced = new ArrayList<>();
+        if (!entity.usesWeaponBays()) {
+            for (Mounted eq : equipment) {
+                moveToArc(eq, rear);
+            }
+            return unplaced;
+        }
+        for (int i = 0; i < entity.getEquipment().size(); i++) {
+            eqNums.put(entity.getEquipment(i), i);
+        }
+        for (Mounted bay : entity.getWeaponBayList()) {
+            if ((bay.getLocation() == location)
+                    && (bothFacings || (bay.isRearMounted() == rear))) {
+                bays.add(bay);
+                bayAV.put(bay, getBayAV(entity, bay));
+            }
+        }
+
+        // Weapons first, since the bays they go into determine where the ammo and enhancements can go.
+        Map<EquipmentType, List<Mounted>> weaponsByBayType = new LinkedHashMap<>();
+        List<Mounted> enhancements = new ArrayList<>();
+        List<Mounted> ammo = new ArrayList<>();
+        for (Mounted eq : equipment) {
+            if (eq.getType() instanceof WeaponType) {
+                weaponsByBayType.computeIfAbsent(((WeaponType) eq.getType()).getBayType(),
+                        k -> new ArrayList<>()).add(eq);
+            } else if (eq.getType() instanceof AmmoType) {
+                ammo.add(eq);
+            } else if (UnitUtil.isWeaponEnhancement(eq.getType())) {
+                enhancements.add(eq);
+            } else {
+                moveToArc(eq, rear);
+            }
+        }
+        weaponsByBayType.forEach((bayType, weapons) -> {
+            weapons.sort((w1, w2) -> Double.compare(getWeaponAV(w2), getWeaponAV(w1)));
+            for (Mounted weapon : weapons) {
+                addWeapon(bayType, weapon);
+            }
+        });
+        for (Mounted eq : enhancements) {
+            if (!linkEnhancement(eq)) {
+                unplaced.add(eq);
+            }
+        }
+        for (Mounted eq : ammo) {
+            if (!addAmmo(eq)) {
+                unplaced.add(eq);
+            }
+        }
+        // Removing equipment renumbers everything after it, so merged ammo is removed last.
+        for (Mounted eq : toRemove) {
+            UnitUtil.removeMounted(entity, eq);
+        }
+        return unplaced;
+    }
+
+    private void addWeapon(EquipmentType bayType, Mounted weapon) {
+        final double av = getWeaponAV(weapon);
+        final double max = ((WeaponType) weapon.getType()).isCapital() ? MAX_CAPITAL_BAY_AV : MAX_STANDARD_BAY_AV;
+        Mounted best = null;
+        for (Mounted bay : bays) {
+            if ((bay.getType() == bayType) && (bayAV.get(bay) + av <= max)
+                    && ((null == best) || (bayAV.get(bay) > bayAV.get(best)))) {
+                best = bay;
+            }
+        }
+        if (null == best) {
+            try {
+                best = entity.addEquipment(bayType, location, rear);
+            } catch (LocationFullException ex) {
+                // Does not happen for units that use weapon bays
+                moveToArc(weapon, rear);
+                return;
+            }
+            eqNums.put(best, entity.getEquipmentNum(best));
+            bays.add(best);
+            bayAV.put(best, 0.0);
+        }
+        moveToArc(weapon, best.isRearMounted());
+        if (null != weapon.getLinkedBy()) {
+            moveToArc(weapon.getLinkedBy(), best.isRearMounted());
+        }
+        best.addWeaponToBay(eqNums.get(weapon));
+        bayAV.put(best, bayAV.get(best) + av);
+    }
+
+    private boolean linkEnhancement(Mounted eq) {
+        for (Mounted bay : bays) {
+            Mounted weapon = findLinkTarget(entity, bay, eq);
+            if (null != weapon) {
+                moveToArc(eq, bay.isRearMounted());
+                eq.setLinked(weapon);
+                if (eq.getType().hasFlag(MiscType.F_PPC_CAPACITOR)) {
+                    bayAV.put(bay, getBayAV(entity, bay));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean addAmmo(Mounted eq) {
+        for (Mounted bay : bays) {
+            if (canTakeEquipment(entity, bay, eq)) {
+                for (Integer aNum : bay.getBayAmmo()) {
+                    Mounted existing = entity.getEquipment(aNum);
+                    if (existing.getType() == eq.getType()) {
+                        existing.setShotsLeft(existing.getBaseShotsLeft() + eq.getBaseShotsLeft());
+                        toRemove.add(eq);
+                        return true;
+                    }
+                }
+                moveToArc(eq, bay.isRearMounted());
+                bay.addAmmoToBay(eqNums.get(eq));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void moveToArc(Mounted eq, boolean rearMounted) {
+        UnitUtil.removeCriticals(entity, eq);
+        UnitUtil.changeMountStatus(entity, eq, location, Entity.LOC_NONE, rearMounted);
+    }
+
+    /**
+     * Computes the attack value a weapon contributes to its bay's limit. Plasma weapons add
+     * the average heat to the damage, which is 1d6 for the rifle and 2d6 for the cannon, and
+     * PPC capacitors in bays are always considered charged.
+     *
+     * @param weapon A weapon mount
+     * @return       The short range attack value used for the bay limit
+     */
+    public static double getWeaponAV(Mounted weapon) {
+        final WeaponType wtype = (WeaponType) weapon.getType();
+        double av;
+        if (wtype.hasFlag(WeaponType.F_PLASMA)) {
+            if (wtype.getDamage() == WeaponType.DAMAGE_VARIABLE) {
+                av = 7;
+            } else {
+                av = 13.5;
+            }
+        } else {
+            av = wtype.getShortAV();
+        }
+        if ((weapon.getLinkedBy() != null)
+                && (weapon.getLinkedBy().getType().hasFlag(MiscType.F_PPC_CAPACITOR))) {
+            av += 5;
+        }
+        return av;
+    }
+
+    /**
+     * @return The total attack value of the weapons in the bay, for comparison with the bay limit
+     */
+    public static double getBayAV(Entity entity, Mounted bay) {
+        double av = 0;
+        for (Integer wNum : bay.getBayWeapons()) {
+            av += getWeaponAV(entity.getEquipment(wNum));
+        }
+        return av;
+    }
+
+    /**
+     * Determines whether the equipment can be added to the bay. For a weapon this is determined
+     * by bay type and AV limit. For ammo this is determined by the presence of a weapon in that location
+     * that can use the ammo. For weapon enhancements this is determined by the presence of a weapon
+     * that can use the enhancement that doesn't already have one.
+     *
+     * @param entity The unit
+     * @param bay    The bay
+     * @param eq     The equipment to add
+     * @return       Whether the bay can take the equipment
+     */
+    public static boolean canTakeEquipment(Entity entity, Mounted bay, Mounted eq) {
+        if (eq.getType() instanceof WeaponType) {
+            if (((WeaponType)eq.getType()).getBayType() != bay.getType()) {
+                return false;
+            }
+            final double max = ((WeaponType) eq.getType()).isCapital() ? MAX_CAPITAL_BAY_AV : MAX_STANDARD_BAY_AV;
+            return getBayAV(entity, bay) + ((WeaponType)eq.getType()).getShortAV() <= max;
+        } else if (eq.getType() instanceof AmmoType) {
+            for (int eqNum : bay.getBayWeapons()) {
+                final WeaponType weapon = (WeaponType)entity.getEquipment(eqNum).getType();
+                if ((weapon.getAmmoType() == ((AmmoType)eq.getType()).getAmmoType())
+                        && (weapon.getRackSize() == ((AmmoType)eq.getType()).getRackSize())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return null != findLinkTarget(entity, bay, eq);
+    }
+
+    /**
+     * Finds a weapon in the bay that a weapon enhancement can be linked to.
+     *
+     * @param entity The unit
+     * @param bay    The bay
+     * @param eq     An Artemis, Apollo, or PPC capacitor mount
+     * @return       The first weapon in the bay that can use the enhancement and does not
+     *               already have one, or <code>null</code> if there is none
+     */
+    public static @Nullable Mounted findLinkTarget(Entity entity, Mounted bay, Mounted eq) {
+        if (!(eq.getType() instanceof MiscType)) {
+            return null;
+        }
+        final boolean artemis = eq.getType().hasFlag(MiscType.F_ARTEMIS)
+                || eq.getType().hasFlag(MiscType.F_ARTEMIS_V)
+                || eq.getType().hasFlag(MiscType.F_ARTEMIS_PROTO);
+        final boolean apollo = eq.getType().hasFlag(MiscType.F_APOLLO);
+        final boolean capacitor = eq.getType().hasFlag(MiscType.F_PPC_CAPACITOR)
+                && (bay.getType() instanceof PPCBayWeapon);
+        if (!artemis && !apollo && !capacitor) {
+            return null;
+        }
+        for (int eqNum : bay.getBayWeapons()) {
+            final Mounted weapon = entity.getEquipment(eqNum);
+            if (weapon.getLinkedBy() != null) {
+                continue;
+            }
+            final int ammoType = ((WeaponType) weapon.getType()).getAmmoType();
+            if ((artemis && ((ammoType == AmmoType.T_LRM)
+                            || (ammoType == AmmoType.T_SRM)
+                            || (ammoType == AmmoType.T_MML)
+                            || (ammoType == AmmoType.T_NLRM)))
+                    || (apollo && (ammoType == AmmoType.T_MRM))
+                    || capacitor) {
+                return weapon;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * MegaMekLab - Copyright (C) 2018 - The MegaMek Team
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ */
+package megameklab.com.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import megamek.common.AmmoType;
+import megamek.common.Compute;
+import megamek.common.WeaponType;
+
+/**
+ * The heat and expected damage of a weapon type, worked out once and shared by every unit
+ * that mounts the weapon. Expected damage is the damage of a hit, averaged over the cluster
+ * table for missiles, multiplied by the chance of hitting with gunnery 4 and no modifiers
+ * other than range.
+ *
+ * Ground units are measured in bands of {@link #GROUND_BAND_WIDTH} hexes, at the far end of
+ * each band. Aerospace units use the four aerospace range brackets and the weapon's attack
+ * values.
+ */
+public final class WeaponProfile {
+
+    public static final int GROUND_BAND_WIDTH = 3;
+    public static final int GROUND_BANDS = 8;
+    public static final int AERO_BANDS = 4;
+
+    private static final int BASE_TO_HIT = 4;
+    private static final int MAX_CLUSTER_SIZE = 40;
+
+    /** The chance of rolling at least the index on 2d6 */
+    private static final double[] HIT_CHANCE = new double[13];
+    /** The average fraction of a rack that hits, by rack size */
+    private static final double[] CLUSTER_MEAN = new double[MAX_CLUSTER_SIZE + 1];
+
+    static {
+        final int[] ways = { 0, 0, 1, 2, 3, 4, 5, 6, 5, 4, 3, 2, 1 };
+        double cumulative = 0;
+        for (int roll = 12; roll >= 0; roll--) {
+            cumulative += ways[roll];
+            HIT_CHANCE[roll] = cumulative / 36.0;
+        }
+        for (int size = 1; size <= MAX_CLUSTER_SIZE; size++) {
+            double hits = 0;
+            for (int roll = 2; roll <= 12; roll++) {
+                hits += ways[roll] * Compute.calculateClusterHitTableAmount(roll, size);
+            }
+            CLUSTER_MEAN[size] = hits / 36.0 / size;
+        }
+    }
+
+    private static final Map<WeaponType, WeaponProfile> profiles = new ConcurrentHashMap<>();
+
+    private final double heat;
+    private final double damage;
+    private final double[] groundExpected = new double[GROUND_BANDS];
+    private final double[] aeroExpected = new double[AERO_BANDS];
+
+    /**
+     * @return The profile of the weapon type
+     */
+    public static WeaponProfile of(WeaponType wtype) {
+        return profiles.computeIfAbsent(wtype, WeaponProfile::new);
+    }
+
+    private WeaponProfile(WeaponType wtype) {
+        heat = computeHeat(wtype);
+        damage = computeDamage(wtype);
+
+        final int minRange = wtype.getMinimumRange();
+        for (int band = 0; band < GROUND_BANDS; band++) {
+            final int range = (band + 1) * GROUND_BAND_WIDTH;
+            int toHit = BASE_TO_HIT;
+            if (range > wtype.getLongRange()) {
+                continue;
+            } else if (range > wtype.getMediumRange()) {
+                toHit += 4;
+            } else if (range > wtype.getShortRange()) {
+                toHit += 2;
+            }
+            if (range <= minRange) {
+                toHit += minRange - range + 1;
+            }
+            groundExpected[band] = damage * hitChance(toHit);
+        }
+
+        final double[] av = { wtype.getShortAV(), wtype.getMedAV(), wtype.getLongAV(), wtype.getExtAV() };
+        for (int band = 0; band < AERO_BANDS; band++) {
+            aeroExpected[band] = av[band] * hitChance(BASE_TO_HIT + band * 2);
+        }
+    }
+
+    private static double hitChance(int toHit) {
+        if (toHit <= 2) {
+            return 1.0;
+        }
+        return (toHit > 12) ? 0 : HIT_CHANCE[toHit];
+    }
+
+    /**
+     * The heat used for comparing with heat dissipation. One shot weapons count 1/4, ultras
+     * double, rotaries six times, and streaks half.
+     */
+    private static double computeHeat(WeaponType wtype) {
+        double weaponHeat = wtype.getHeat();
+
+        // one shot weapons count 1/4
+        if ((wtype.getAmmoType() == AmmoType.T_ROCKET_LAUNCHER)
+                || wtype.hasFlag(WeaponType.F_ONESHOT)) {
+            weaponHeat *= 0.25;
+        }
+
+        // double heat for ultras
+        if ((wtype.getAmmoType() == AmmoType.T_AC_ULTRA)
+                || (wtype.getAmmoType() == AmmoType.T_AC_ULTRA_THB)) {
+            weaponHeat *= 2;
+        }
+
+        // Six times heat for RAC
+        if (wtype.getAmmoType() == AmmoType.T_AC_ROTARY) {
+            weaponHeat *= 6;
+        }
+
+        // half heat for streaks
+        if ((wtype.getAmmoType() == AmmoType.T_SRM_STREAK)
+                || (wtype.getAmmoType() == AmmoType.T_MRM_STREAK)
+                || (wtype.getAmmoType() == AmmoType.T_LRM_STREAK)) {
+            weaponHeat *= 0.5;
+        }
+        return weaponHeat;
+    }
+
+    private static double computeDamage(WeaponType wtype) {
+        if (wtype.getDamage() >= 0) {
+            return wtype.getDamage();
+        }
+        if (wtype.getDamage() != WeaponType.DAMAGE_BY_CLUSTERTABLE) {
+            // Variable and special damage; the short range attack value is the nearest estimate.
+            return wtype.getShortAV();
+        }
+        final int rackSize = wtype.getRackSize();
+        final int ammoType = wtype.getAmmoType();
+        double perMissile = 1;
+        if ((ammoType == AmmoType.T_SRM) || (ammoType == AmmoType.T_SRM_STREAK)
+                || (ammoType == AmmoType.T_SRM_TORPEDO) || (ammoType == AmmoType.T_ATM)) {
+            perMissile = 2;
+        }
+        if ((ammoType == AmmoType.T_SRM_STREAK) || (ammoType == AmmoType.T_LRM_STREAK)
+                || (ammoType == AmmoType.T_MRM_STREAK) || (rackSize > MAX_CLUSTER_SIZE)) {
+            return rackSize * perMissile;
+        }
+        return rackSize * perMissile * CLUSTER_MEAN[Math.max(1, rackSize)];
+    }
+
+    /**
+     * @return The heat of firing the weapon for one turn
+     */
+    public double getHeat() {
+        return heat;
+    }
+
+    /**
+     * @return The damage of a hit, before the chance to hit is applied
+     */
+    public double getDamage() {
+        return damage;
+    }
+
+    /**
+     * @param band The ground range band
+     * @return     The expected damage at the far end of the band
+     */
+    public double getGroundExpectedDamage(int band) {
+        return groundExpected[band];
+    }
+
+    /**
+     * @param band The aerospace range bracket, from short to extreme
+     * @return     The expected damage in that bracket
+     */
+    public double getAeroExpectedDamage(int band) {
+        return aeroExpected[band];
+    }
+}